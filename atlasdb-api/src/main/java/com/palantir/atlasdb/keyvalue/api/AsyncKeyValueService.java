@@ -21,6 +21,7 @@ import java.util.Map;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.palantir.atlasdb.metrics.Timed;
 import com.palantir.common.annotation.Idempotent;
+import com.palantir.util.paging.TokenBackedBasicResultsPage;
 
 public interface AsyncKeyValueService extends AutoCloseable {
     /**
@@ -37,6 +38,67 @@ public interface AsyncKeyValueService extends AutoCloseable {
     @Timed
     ListenableFuture<Map<Cell, Value>> getAsync(TableReference tableRef, Map<Cell, Long> timestampByCell);
 
+    /**
+     * Asynchronously gets values for the selected columns of the given rows, with the same semantics as
+     * {@link KeyValueService#getRows(TableReference, Iterable, ColumnSelection, long)}. When the store does not allow
+     * it, the result is wrapped in an immediate future.
+     *
+     * @param tableRef        the name of the table to retrieve values from.
+     * @param rows            set containing the rows to retrieve values for.
+     * @param columnSelection specifies the set of columns to fetch.
+     * @param timestamp       specifies the maximum timestamp (exclusive) at which to retrieve each row's value.
+     * @return listenable future containing map of retrieved values. Values which do not exist (either because they were
+     * deleted or never created in the first place) are simply not returned.
+     */
+    @Idempotent
+    @Timed
+    ListenableFuture<Map<Cell, Value>> getRowsAsync(
+            TableReference tableRef,
+            Iterable<byte[]> rows,
+            ColumnSelection columnSelection,
+            long timestamp);
+
+    /**
+     * Asynchronously gets values for all columns of the given rows that fall within the column range. Unlike
+     * {@link KeyValueService#getRowsColumnRange(TableReference, Iterable, BatchColumnRangeSelection, long)} the result
+     * is not paged: the future completes once every range has been read in full, so this should only be used where
+     * ranges are known to be of modest size. When the store does not allow it, the result is wrapped in an immediate
+     * future.
+     *
+     * @param tableRef                  the name of the table to retrieve values from.
+     * @param rows                      set containing the rows to retrieve values for.
+     * @param batchColumnRangeSelection specifies the column range, and a hint of how many cells to load at once.
+     * @param timestamp                 specifies the maximum timestamp (exclusive) at which to retrieve each cell's
+     *                                  value.
+     * @return listenable future containing map of retrieved values. Values which do not exist (either because they were
+     * deleted or never created in the first place) are simply not returned.
+     */
+    @Idempotent
+    @Timed
+    ListenableFuture<Map<Cell, Value>> getRowsColumnRangeAsync(
+            TableReference tableRef,
+            Iterable<byte[]> rows,
+            BatchColumnRangeSelection batchColumnRangeSelection,
+            long timestamp);
+
+    /**
+     * Asynchronously gets the first page of results for a range, with the same semantics as
+     * {@link KeyValueService#getFirstBatchForRanges(TableReference, Iterable, long)}. Subsequent pages are read by
+     * issuing a new request starting at {@link TokenBackedBasicResultsPage#getTokenForNextPage()}. When the store does
+     * not allow it, the result is wrapped in an immediate future.
+     *
+     * @param tableRef     the name of the table to retrieve values from.
+     * @param rangeRequest the range to load, whose batch hint is used as the page size.
+     * @param timestamp    specifies the maximum timestamp (exclusive) at which to retrieve each cell's value.
+     * @return listenable future containing the first page of the range.
+     */
+    @Idempotent
+    @Timed
+    ListenableFuture<TokenBackedBasicResultsPage<RowResult<Value>, byte[]>> getFirstBatchForRangeAsync(
+            TableReference tableRef,
+            RangeRequest rangeRequest,
+            long timestamp);
+
     @Override
     void close();
 }
@@ -15,9 +15,15 @@
  */
 package com.palantir.atlasdb.keyvalue.api;
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
+import com.google.common.collect.Lists;
 import com.google.common.primitives.UnsignedBytes;
 import com.palantir.atlasdb.encoding.PtBytes;
 import com.palantir.logsafe.Preconditions;
@@ -220,6 +226,34 @@ public final class RangeRequests {
         return UnsignedBytes.lexicographicalComparator().compare(startInclusive, endExclusive) == 0;
     }
 
+    /**
+     * Splits a range at the given row names into contiguous sub-ranges which, in order, cover exactly the rows of the
+     * original range. Each sub-range retains the columns and batch hint of the original. Split points that do not lie
+     * strictly within the range are ignored, so the result always contains at least one range.
+     */
+    public static List<RangeRequest> splitRange(RangeRequest rangeRequest, Iterable<byte[]> splitPoints) {
+        Preconditions.checkArgument(!rangeRequest.isReverse(), "Cannot split reverse ranges");
+        byte[] start = rangeRequest.getStartInclusive();
+        SortedSet<byte[]> sortedSplitPoints = new TreeSet<>(UnsignedBytes.lexicographicalComparator());
+        for (byte[] splitPoint : splitPoints) {
+            if (splitPoint.length > 0 && !Arrays.equals(splitPoint, start) && rangeRequest.inRange(splitPoint)) {
+                sortedSplitPoints.add(splitPoint);
+            }
+        }
+
+        List<RangeRequest> subRanges = Lists.newArrayListWithCapacity(sortedSplitPoints.size() + 1);
+        byte[] subRangeStart = start;
+        for (byte[] splitPoint : sortedSplitPoints) {
+            subRanges.add(rangeRequest.getBuilder()
+                    .startRowInclusive(subRangeStart)
+                    .endRowExclusive(splitPoint)
+                    .build());
+            subRangeStart = splitPoint;
+        }
+        subRanges.add(rangeRequest.getBuilder().startRowInclusive(subRangeStart).build());
+        return subRanges;
+    }
+
     public static RangeRequest ofSingleRow(@Nonnull byte[] row) {
         return RangeRequest.builder()
                 .startRowInclusive(row)
@@ -19,6 +19,7 @@ package com.palantir.atlasdb.keyvalue.api.watch;
 import java.util.Optional;
 import java.util.Set;
 
+import com.palantir.atlasdb.transaction.api.TransactionLockWatchingCacheView;
 import com.palantir.common.annotation.Idempotent;
 import com.palantir.lock.watch.CommitUpdate;
 import com.palantir.lock.watch.IdentifiedVersion;
@@ -32,6 +33,12 @@ public abstract class LockWatchManager {
     @Idempotent
     public abstract void registerWatches(Set<LockWatchReferences.LockWatchReference> lockWatchReferences);
 
+    /**
+     * Returns a view of the cache of values guarded by lock watches, for the transaction with the given start
+     * timestamp. Values are only cached for cells covered by registered lock watches.
+     */
+    public abstract TransactionLockWatchingCacheView getCacheView(long startTs);
+
     // These methods are hidden on purpose as they should not be generally available, only for brave souls!
 
     /**
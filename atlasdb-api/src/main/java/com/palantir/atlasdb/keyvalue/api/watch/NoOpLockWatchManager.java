@@ -19,6 +19,8 @@ package com.palantir.atlasdb.keyvalue.api.watch;
 import java.util.Optional;
 import java.util.Set;
 
+import com.palantir.atlasdb.transaction.api.NoOpTransactionLockWatchingCacheView;
+import com.palantir.atlasdb.transaction.api.TransactionLockWatchingCacheView;
 import com.palantir.lock.watch.CommitUpdate;
 import com.palantir.lock.watch.IdentifiedVersion;
 import com.palantir.lock.watch.LockWatchReferences;
@@ -33,6 +35,11 @@ public final class NoOpLockWatchManager extends LockWatchManager {
         // Ignored
     }
 
+    @Override
+    public TransactionLockWatchingCacheView getCacheView(long startTs) {
+        return NoOpTransactionLockWatchingCacheView.INSTANCE;
+    }
+
     @Override
     CommitUpdate getCommitUpdate(long startTs) {
         return NoOpLockWatchEventCache.INSTANCE.getCommitUpdate(startTs);
@@ -21,7 +21,6 @@ import java.util.Set;
 
 import com.palantir.atlasdb.keyvalue.api.Cell;
 import com.palantir.atlasdb.keyvalue.api.TableReference;
-import com.palantir.lock.watch.LockWatchStateUpdate;
 
 public interface LockWatchingCache {
     /**
@@ -36,29 +35,13 @@ public interface LockWatchingCache {
     Map<Cell, GuardedValue> getCached(TableReference tableRef, Set<Cell> reads);
 
     /**
-     * After a transaction has committed, this notifies the cache that the writes can be cached, if desired.
-     *
-     * @param tableRef the table to which the transaction wrote
-     * @param writes actual writes
-     */
-    void maybeCacheCommittedWrites(TableReference tableRef, Map<Cell, byte[]> writes);
-
-    /**
-     * A transaction can attempt to cache entries read during the transaction using this method. The implementation of
-     * the {@link LockWatchStateUpdate} must correctly arbitrate which of the passed entries are safe to cache.
-     *
-     * @param tableRef table to cache entries for
-     * @param writes entries read by the transaction
-     * @param lockWatchState lock watch state at the start of the transaction that read the entries
-     */
-    void maybeCacheEntriesRead(TableReference tableRef, Map<Cell, byte[]> writes, LockWatchStateUpdate lockWatchState);
-
-    /**
-     * Creates a view of the cache for a transaction, based on the start timestamp and the lock watch state.
+     * Creates a view of the cache for a transaction. The lock watch state of the transaction is the one identified
+     * with its start timestamp by the {@link com.palantir.lock.watch.LockWatchEventCache}, i.e., the version returned
+     * in the {@link com.palantir.lock.v2.StartTransactionWithWatchesResponse}. If that state is not known, the
+     * returned view must not serve or cache any values.
      *
      * @param startTimestamp of the transaction
-     * @param lockWatchState returned from the {@link com.palantir.lock.v2.StartTransactionWithWatchesResponse}
      * @return view of the cache
      */
-    TransactionLockWatchingCacheView getView(long startTimestamp, LockWatchStateUpdate lockWatchState);
+    TransactionLockWatchingCacheView getView(long startTimestamp);
 }
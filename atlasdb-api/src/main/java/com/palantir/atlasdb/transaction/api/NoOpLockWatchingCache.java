@@ -22,7 +22,6 @@ import java.util.Set;
 import com.google.common.collect.ImmutableMap;
 import com.palantir.atlasdb.keyvalue.api.Cell;
 import com.palantir.atlasdb.keyvalue.api.TableReference;
-import com.palantir.lock.watch.LockWatchStateUpdate;
 
 public final class NoOpLockWatchingCache implements LockWatchingCache {
     public static final NoOpLockWatchingCache INSTANCE = new NoOpLockWatchingCache();
@@ -37,17 +36,7 @@ public final class NoOpLockWatchingCache implements LockWatchingCache {
     }
 
     @Override
-    public void maybeCacheCommittedWrites(TableReference tableRef, Map<Cell, byte[]> writes) {
-        // noop
-    }
-
-    @Override
-    public void maybeCacheEntriesRead(TableReference tableRef, Map<Cell, byte[]> writes, LockWatchStateUpdate lwState) {
-        // noop
-    }
-
-    @Override
-    public TransactionLockWatchingCacheView getView(long startTimestamp, LockWatchStateUpdate lockWatchState) {
+    public TransactionLockWatchingCacheView getView(long startTimestamp) {
         return NoOpTransactionLockWatchingCacheView.INSTANCE;
     }
 }
@@ -22,7 +22,7 @@ import java.util.Set;
 import com.google.common.collect.ImmutableMap;
 import com.palantir.atlasdb.keyvalue.api.Cell;
 import com.palantir.atlasdb.keyvalue.api.TableReference;
-import com.palantir.lock.watch.LockWatchStateUpdate;
+import com.palantir.lock.v2.LockToken;
 
 public final class NoOpTransactionLockWatchingCacheView implements TransactionLockWatchingCacheView {
     public static final NoOpTransactionLockWatchingCacheView INSTANCE = new NoOpTransactionLockWatchingCacheView();
@@ -37,12 +37,13 @@ public final class NoOpTransactionLockWatchingCacheView implements TransactionLo
     }
 
     @Override
-    public void tryCacheNewValuesRead(TableReference tableRef, Map<Cell, byte[]> writes, LockWatchStateUpdate lwState) {
+    public void tryCacheNewValuesRead(TableReference tableRef, Map<Cell, byte[]> reads) {
         // noop
     }
 
     @Override
-    public void tryCacheWrittenValues(TableReference tableRef, Map<Cell, byte[]> writes, long lockTs) {
+    public void tryCacheWrittenValues(TableReference tableRef, Map<Cell, byte[]> writes, LockToken commitLocksToken,
+            long commitTimestamp) {
         // noop
     }
 }
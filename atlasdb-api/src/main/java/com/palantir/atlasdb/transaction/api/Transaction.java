@@ -16,10 +16,12 @@
 package com.palantir.atlasdb.transaction.api;
 
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.NavigableMap;
 import java.util.Set;
 import java.util.function.BiFunction;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import com.google.common.util.concurrent.ListenableFuture;
@@ -28,12 +30,14 @@ import com.palantir.atlasdb.keyvalue.api.Cell;
 import com.palantir.atlasdb.keyvalue.api.ColumnRangeSelection;
 import com.palantir.atlasdb.keyvalue.api.ColumnSelection;
 import com.palantir.atlasdb.keyvalue.api.RangeRequest;
+import com.palantir.atlasdb.keyvalue.api.RangeRequests;
 import com.palantir.atlasdb.keyvalue.api.RowResult;
 import com.palantir.atlasdb.keyvalue.api.TableReference;
 import com.palantir.atlasdb.spi.KeyValueServiceConfig;
 import com.palantir.atlasdb.transaction.service.TransactionService;
 import com.palantir.common.annotation.Idempotent;
 import com.palantir.common.base.BatchingVisitable;
+import com.palantir.common.base.BatchingVisitables;
 
 /**
  * Provides the methods for a transaction with the key-value store.
@@ -161,6 +165,45 @@ public interface Transaction {
     @Idempotent
     ListenableFuture<Map<Cell, byte[]>> getAsync(TableReference tableRef, Set<Cell> cells);
 
+    /**
+     * Asynchronously returns a mapping of rows to {@link RowResult}s, with the same semantics as
+     * {@link #getRows(TableReference, Iterable, ColumnSelection)}. It is not guaranteed that the actual implementations
+     * are in fact asynchronous.
+     *
+     * @param tableRef table to load rows from
+     * @param rows rows to be loaded
+     * @param columnSelection columns to load from the given rows
+     * @return a future mapping of rows to the columns matching the provided column selection
+     */
+    @Idempotent
+    ListenableFuture<NavigableMap<byte[], RowResult<byte[]>>> getRowsAsync(
+            TableReference tableRef,
+            Iterable<byte[]> rows,
+            ColumnSelection columnSelection);
+
+    /**
+     * Asynchronously returns a mapping of requested {@code rows} to all of their cells whose columns fall within the
+     * provided {@link BatchColumnRangeSelection}. Unlike
+     * {@link #getRowsColumnRange(TableReference, Iterable, BatchColumnRangeSelection)} the ranges are read in full
+     * before the future completes, so this should only be used where ranges are known to be of modest size. It is not
+     * guaranteed that the actual implementations are in fact asynchronous.
+     *
+     * The cells of each row are sorted by column on byte ordering. It is guaranteed that the {@link Map#keySet()} of
+     * the returned map has a corresponding element for each of the input {@code rows}, even if there are rows where
+     * no columns fall within the range.
+     *
+     * @param tableRef table to load values from
+     * @param rows unique rows to apply the column range selection to
+     * @param columnRangeSelection range of columns to load for each of the rows provided, and a hint of how many
+     * cells to load from the underlying database at once
+     * @return a future mapping of rows to the cells in the column range, following the ordering outlined above
+     */
+    @Idempotent
+    ListenableFuture<Map<byte[], List<Map.Entry<Cell, byte[]>>>> getRowsColumnRangeAsync(
+            TableReference tableRef,
+            Iterable<byte[]> rows,
+            BatchColumnRangeSelection columnRangeSelection);
+
     /**
      * Creates a visitable that scans the provided range.
      *
@@ -228,6 +271,47 @@ public interface Transaction {
     Stream<BatchingVisitable<RowResult<byte[]>>> getRangesLazy(
             final TableReference tableRef, Iterable<RangeRequest> rangeRequests);
 
+    /**
+     * Scans the provided range by splitting it at the given row names (for example, those returned by
+     * {@code NameMetadataDescription#getRowSplitPoints}) and loading the resulting sub-ranges concurrently, with at
+     * most concurrencyLevel sub-ranges in flight. Rows are visited in the same order as
+     * {@link #getRange(TableReference, RangeRequest)} would visit them.
+     * <p>
+     * Sub-ranges loaded ahead of the one being visited are buffered in memory, so split points should be chosen such
+     * that each sub-range comfortably fits in memory. Implementations that cannot scan concurrently visit the
+     * sub-ranges one after another.
+     */
+    @Idempotent
+    default BatchingVisitable<RowResult<byte[]>> getRangeInParallel(
+            TableReference tableRef,
+            RangeRequest rangeRequest,
+            Iterable<byte[]> splitPoints,
+            int concurrencyLevel) {
+        List<RangeRequest> subRanges = RangeRequests.splitRange(rangeRequest, splitPoints);
+        return BatchingVisitables.concat(getRangesLazy(tableRef, subRanges).collect(Collectors.toList()));
+    }
+
+    /**
+     * Splits the provided range at the given row names, and applies the provided visitableProcessor to the
+     * resulting sub-ranges with concurrency specified by the concurrencyLevel parameter. As for
+     * {@link #getRanges(TableReference, Iterable, int, BiFunction)}, no guarantees are made on the order in which
+     * sub-ranges are processed; this is the cheaper alternative to
+     * {@link #getRangeInParallel(TableReference, RangeRequest, Iterable, int)} if results need not be ordered.
+     */
+    @Idempotent
+    default <T> Stream<T> getRangeInParallelUnordered(
+            TableReference tableRef,
+            RangeRequest rangeRequest,
+            Iterable<byte[]> splitPoints,
+            int concurrencyLevel,
+            BiFunction<RangeRequest, BatchingVisitable<RowResult<byte[]>>, T> visitableProcessor) {
+        return getRanges(
+                tableRef,
+                RangeRequests.splitRange(rangeRequest, splitPoints),
+                concurrencyLevel,
+                visitableProcessor);
+    }
+
     /**
      * Puts values into the key-value store. If you put a null or the empty byte array, then
      * this is treated like a delete to the store.
@@ -21,7 +21,7 @@ import java.util.Set;
 
 import com.palantir.atlasdb.keyvalue.api.Cell;
 import com.palantir.atlasdb.keyvalue.api.TableReference;
-import com.palantir.lock.watch.LockWatchStateUpdate;
+import com.palantir.lock.v2.LockToken;
 
 public interface TransactionLockWatchingCacheView {
     /**
@@ -37,24 +37,26 @@ public interface TransactionLockWatchingCacheView {
 
     /**
      * Try to cache values read from the kvs in this transaction. It is the responsibility of the underlying
-     * {@link LockWatchingCache} to arbitrate which, if any, values should be cached.
+     * {@link LockWatchingCache} to arbitrate which, if any, values should be cached. Cells that were read but have no
+     * visible value should be passed with an empty value, so that their absence can be cached too.
      *
      * @param tableRef table we read from
-     * @param writes entries read from the KVS
-     * @param lwState lock watch state when the view was created
+     * @param reads entries read from the KVS, after post-filtering
      */
-    void tryCacheNewValuesRead(TableReference tableRef, Map<Cell, byte[]> writes, LockWatchStateUpdate lwState);
+    void tryCacheNewValuesRead(TableReference tableRef, Map<Cell, byte[]> reads);
 
     /**
      * Try to cache values written to the kvs in this transaction. This method must be called only after the writing
-     * transaction has successfully committed.
+     * transaction has successfully committed, and before it has released its commit locks.
      *
      * It is the responsibility of the underlying {@link LockWatchingCache} to arbitrate which, if any, values should be
      * cached.
      *
      * @param tableRef table we wrote to
      * @param writes entries written to the KVS
-     * @param lockTs lock timestamp of the {@link com.palantir.lock.watch.TimestampedLockResponse} from acquiring locks
+     * @param commitLocksToken token of the locks acquired by the transaction for committing
+     * @param commitTimestamp commit timestamp of the transaction
      */
-    void tryCacheWrittenValues(TableReference tableRef, Map<Cell, byte[]> writes, long lockTs);
+    void tryCacheWrittenValues(TableReference tableRef, Map<Cell, byte[]> writes, LockToken commitLocksToken,
+            long commitTimestamp);
 }
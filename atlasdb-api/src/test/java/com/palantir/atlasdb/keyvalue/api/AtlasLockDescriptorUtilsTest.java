@@ -59,6 +59,15 @@ public class AtlasLockDescriptorUtilsTest {
                 .containsExactly(CellReference.of(TABLE, Cell.create(NO_ZERO_ROW, NO_ZERO_COL)));
     }
 
+    @Test
+    public void singleByteRowAndColumnAreDecodedCorrectlyForCells() {
+        byte[] row = new byte[] {1};
+        byte[] col = new byte[] {2};
+        LockDescriptor descriptor = AtlasCellLockDescriptor.of(TABLE.getQualifiedName(), row, col);
+        assertThat(AtlasLockDescriptorUtils.candidateCells(descriptor))
+                .containsExactly(CellReference.of(TABLE, Cell.create(row, col)));
+    }
+
     @Test
     public void rowWithNullsParsesAllCombinationsForCells() {
         LockDescriptor descriptor = AtlasCellLockDescriptor.of(TABLE.getQualifiedName(), ROW_WITH_ZEROS, NO_ZERO_COL);
@@ -0,0 +1,65 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.autobatch;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import com.palantir.logsafe.Preconditions;
+import com.palantir.logsafe.SafeArg;
+
+/**
+ * Limits the size of batches so that processing a batch takes no longer than a target latency.
+ *
+ * The limit is adjusted after every batch: it is halved whenever a batch takes longer than the target, and grows by an
+ * eighth whenever a batch that filled the limit completes within the target. Batches that are smaller than the limit
+ * carry no information about whether a larger batch would meet the target, and so leave the limit unchanged. This
+ * keeps the limit just below the largest batch size that meets the target, so that only occasional batches (those
+ * probing a larger limit, or slowed down by the batch function's own tail latency) exceed it.
+ */
+@NotThreadSafe // Each consumer has its own limit.
+final class AdaptiveBatchSizeLimit {
+    private final long targetNanos;
+    private final int maximum;
+
+    private int limit;
+
+    private AdaptiveBatchSizeLimit(long targetNanos, int maximum) {
+        this.targetNanos = targetNanos;
+        this.maximum = maximum;
+        this.limit = maximum;
+    }
+
+    static AdaptiveBatchSizeLimit create(Optional<Duration> targetLatency, int maximum) {
+        Preconditions.checkArgument(maximum > 0, "Maximum batch size must be positive",
+                SafeArg.of("maximum", maximum));
+        return new AdaptiveBatchSizeLimit(targetLatency.map(Duration::toNanos).orElse(Long.MAX_VALUE), maximum);
+    }
+
+    int current() {
+        return limit;
+    }
+
+    void recordBatch(int batchSize, long durationNanos) {
+        if (durationNanos > targetNanos) {
+            limit = Math.max(1, Math.min(limit, batchSize) / 2);
+        } else if (batchSize >= limit) {
+            limit = Math.min(maximum, limit + Math.max(1, limit / 8));
+        }
+    }
+}
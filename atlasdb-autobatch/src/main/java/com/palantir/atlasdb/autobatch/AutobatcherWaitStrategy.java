@@ -0,0 +1,57 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.autobatch;
+
+import java.util.function.Supplier;
+
+import com.lmax.disruptor.BlockingWaitStrategy;
+import com.lmax.disruptor.BusySpinWaitStrategy;
+import com.lmax.disruptor.SleepingWaitStrategy;
+import com.lmax.disruptor.WaitStrategy;
+import com.lmax.disruptor.YieldingWaitStrategy;
+
+/**
+ * How the consumer threads of an autobatcher wait for requests to arrive. Strategies other than {@link #BLOCKING}
+ * trade CPU for latency, and are only worthwhile for autobatchers on the hot path of latency sensitive services.
+ */
+public enum AutobatcherWaitStrategy {
+    /**
+     * Consumers park until woken by a producer. Uses no CPU while idle, but waking a consumer costs microseconds.
+     */
+    BLOCKING(BlockingWaitStrategy::new),
+    /**
+     * Consumers spin, then yield, then park for short periods. Producers never need to wake a consumer.
+     */
+    SLEEPING(SleepingWaitStrategy::new),
+    /**
+     * Consumers spin, then yield. Occupies a core per consumer while idle.
+     */
+    YIELDING(YieldingWaitStrategy::new),
+    /**
+     * Consumers spin. Lowest latency, but occupies a core per consumer at all times.
+     */
+    BUSY_SPIN(BusySpinWaitStrategy::new);
+
+    private final Supplier<WaitStrategy> factory;
+
+    AutobatcherWaitStrategy(Supplier<WaitStrategy> factory) {
+        this.factory = factory;
+    }
+
+    WaitStrategy createWaitStrategy() {
+        return factory.get();
+    }
+}
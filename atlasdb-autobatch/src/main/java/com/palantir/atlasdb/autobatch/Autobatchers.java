@@ -16,11 +16,15 @@
 
 package com.palantir.atlasdb.autobatch;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import javax.annotation.Nullable;
 
@@ -28,6 +32,7 @@ import com.google.common.collect.ImmutableMap;
 import com.google.errorprone.annotations.CompileTimeConstant;
 import com.lmax.disruptor.EventHandler;
 import com.palantir.logsafe.Preconditions;
+import com.palantir.logsafe.SafeArg;
 import com.palantir.tracing.Observability;
 
 public final class Autobatchers {
@@ -62,7 +67,8 @@ public final class Autobatchers {
      * @see CoalescingRequestConsumer
      */
     public static <I, O> AutobatcherBuilder<I, O> coalescing(CoalescingRequestFunction<I, O> function) {
-        return new AutobatcherBuilder<>(bufferSize -> new CoalescingBatchingEventHandler<>(function, bufferSize));
+        return new AutobatcherBuilder<>(
+                bufferSize -> new CoalescingBatchingEventHandler<>(function, bufferSize), false);
     }
 
     public static <O> AutobatcherBuilder<SupplierKey, O> coalescing(Supplier<O> supplier) {
@@ -81,19 +87,27 @@ public final class Autobatchers {
      * @return builder where the autobatch can be further customised
      */
     public static <I, O> AutobatcherBuilder<I, O> independent(Consumer<List<BatchElement<I, O>>> batchFunction) {
-        return new AutobatcherBuilder<>(bufferSize -> new IndependentBatchingEventHandler<>(batchFunction, bufferSize));
+        return new AutobatcherBuilder<>(
+                bufferSize -> new IndependentBatchingEventHandler<>(batchFunction, bufferSize), true);
     }
 
     public static final class AutobatcherBuilder<I, O> {
 
         private final Function<Integer, EventHandler<BatchElement<I, O>>> handlerFactory;
+        private final boolean supportsParallelConsumers;
         private final ImmutableMap.Builder<String, String> safeTags = ImmutableMap.builder();
 
         private Observability observability = Observability.UNDECIDED;
         @Nullable private String purpose;
+        private int consumers = 1;
+        private AutobatcherWaitStrategy waitStrategy = AutobatcherWaitStrategy.BLOCKING;
+        private Optional<Duration> targetBatchLatency = Optional.empty();
 
-        private AutobatcherBuilder(Function<Integer, EventHandler<BatchElement<I, O>>> handlerFactory) {
+        private AutobatcherBuilder(
+                Function<Integer, EventHandler<BatchElement<I, O>>> handlerFactory,
+                boolean supportsParallelConsumers) {
             this.handlerFactory = handlerFactory;
+            this.supportsParallelConsumers = supportsParallelConsumers;
         }
 
         public AutobatcherBuilder<I, O> safeLoggablePurpose(@CompileTimeConstant String purposeParam) {
@@ -111,17 +125,69 @@ public final class Autobatchers {
             return this;
         }
 
+        /**
+         * Processes batches on the given number of threads rather than one. Each request is processed by exactly one
+         * of the consumers, so this is only supported by {@link #independent} autobatchers, as coalescing is then
+         * limited to requests that happen to be processed by the same consumer.
+         */
+        public AutobatcherBuilder<I, O> consumers(int consumersParam) {
+            Preconditions.checkArgument(consumersParam > 0, "Number of consumers must be positive",
+                    SafeArg.of("consumers", consumersParam));
+            Preconditions.checkArgument(consumersParam == 1 || supportsParallelConsumers,
+                    "Only independent autobatchers support multiple consumers");
+            this.consumers = consumersParam;
+            return this;
+        }
+
+        public AutobatcherBuilder<I, O> waitStrategy(AutobatcherWaitStrategy waitStrategyParam) {
+            this.waitStrategy = waitStrategyParam;
+            return this;
+        }
+
+        /**
+         * Bounds batch sizes so that processing a batch usually takes at most the given time, rather than processing
+         * everything queued in one batch. The bound adapts to the observed processing times; see
+         * {@link AdaptiveBatchSizeLimit}.
+         */
+        public AutobatcherBuilder<I, O> targetBatchLatency(Duration targetBatchLatencyParam) {
+            Preconditions.checkArgument(!targetBatchLatencyParam.isNegative() && !targetBatchLatencyParam.isZero(),
+                    "Target batch latency must be positive",
+                    SafeArg.of("targetBatchLatency", targetBatchLatencyParam));
+            this.targetBatchLatency = Optional.of(targetBatchLatencyParam);
+            return this;
+        }
+
         public DisruptorAutobatcher<I, O> build() {
             Preconditions.checkArgument(purpose != null, "purpose must be provided");
+            Map<String, String> tags = safeTags.build();
+            List<EventHandler<BatchElement<I, O>>> handlers = IntStream.range(0, consumers)
+                    .mapToObj(ordinal -> createHandler(ordinal, purpose, tags))
+                    .collect(Collectors.toList());
+
+            return DisruptorAutobatcher.create(handlers, DEFAULT_BUFFER_SIZE, purpose, waitStrategy, tags);
+        }
+
+        private EventHandler<BatchElement<I, O>> createHandler(
+                int ordinal,
+                String safePurpose,
+                Map<String, String> tags) {
             EventHandler<BatchElement<I, O>> handler = this.handlerFactory.apply(DEFAULT_BUFFER_SIZE);
 
             EventHandler<BatchElement<I, O>> tracingHandler =
                     new TracingEventHandler<>(handler, DEFAULT_BUFFER_SIZE);
 
             EventHandler<BatchElement<I, O>> profiledHandler =
-                    new ProfilingEventHandler<>(tracingHandler, purpose, safeTags.build());
-
-            return DisruptorAutobatcher.create(profiledHandler, DEFAULT_BUFFER_SIZE, purpose);
+                    new ProfilingEventHandler<>(tracingHandler, safePurpose, tags);
+
+            if (consumers == 1 && !targetBatchLatency.isPresent()) {
+                return profiledHandler;
+            }
+            return new PartitioningEventHandler<>(
+                    profiledHandler,
+                    ordinal,
+                    consumers,
+                    AdaptiveBatchSizeLimit.create(targetBatchLatency, DEFAULT_BUFFER_SIZE),
+                    DEFAULT_BUFFER_SIZE);
         }
 
     }
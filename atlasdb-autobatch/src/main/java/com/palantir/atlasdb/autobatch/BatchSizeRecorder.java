@@ -17,34 +17,52 @@
 package com.palantir.atlasdb.autobatch;
 
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import javax.annotation.concurrent.NotThreadSafe;
 
 import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Timer;
 import com.palantir.tritium.metrics.registry.MetricName;
 import com.palantir.tritium.metrics.registry.SharedTaggedMetricRegistries;
 
-@NotThreadSafe // Disruptor runs the batching function on just one thread.
+@NotThreadSafe // Disruptor runs each consumer's batching function on just one thread, and each has its own recorder.
 public final class BatchSizeRecorder {
     static final String AUTOBATCHER_METER = "atlasdb.autobatcherMeter";
+    static final String AUTOBATCHER_WAIT_TIME = "atlasdb.autobatcherWaitTime";
 
     private final Histogram histogram;
+    private final Timer waitTimer;
 
-    private BatchSizeRecorder(Histogram histogram) {
+    private BatchSizeRecorder(Histogram histogram, Timer waitTimer) {
         this.histogram = histogram;
+        this.waitTimer = waitTimer;
     }
 
     public static BatchSizeRecorder create(String safeLoggerIdentifier, Map<String, String> tags) {
-        Histogram histogram = SharedTaggedMetricRegistries.getSingleton().histogram(MetricName.builder()
-                        .safeName(AUTOBATCHER_METER)
-                        .putSafeTags("identifier", safeLoggerIdentifier)
-                        .putAllSafeTags(tags)
-                        .build());
-        return new BatchSizeRecorder(histogram);
+        Histogram histogram = SharedTaggedMetricRegistries.getSingleton()
+                .histogram(metricName(AUTOBATCHER_METER, safeLoggerIdentifier, tags));
+        Timer waitTimer = SharedTaggedMetricRegistries.getSingleton()
+                .timer(metricName(AUTOBATCHER_WAIT_TIME, safeLoggerIdentifier, tags));
+        return new BatchSizeRecorder(histogram, waitTimer);
     }
 
     public void markBatchProcessed(long batchSize) {
         histogram.update(batchSize);
     }
 
+    /**
+     * Records the time a request spent in the autobatcher's queue before the batch containing it began processing.
+     */
+    public void markWaitTime(long waitNanos) {
+        waitTimer.update(waitNanos, TimeUnit.NANOSECONDS);
+    }
+
+    static MetricName metricName(String safeName, String safeLoggerIdentifier, Map<String, String> tags) {
+        return MetricName.builder()
+                .safeName(safeName)
+                .putSafeTags("identifier", safeLoggerIdentifier)
+                .putAllSafeTags(tags)
+                .build();
+    }
 }
@@ -17,6 +17,8 @@
 package com.palantir.atlasdb.autobatch;
 
 import java.io.Closeable;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
@@ -36,6 +38,7 @@ import com.lmax.disruptor.EventHandler;
 import com.lmax.disruptor.RingBuffer;
 import com.lmax.disruptor.TimeoutException;
 import com.lmax.disruptor.dsl.Disruptor;
+import com.lmax.disruptor.dsl.ProducerType;
 import com.palantir.common.concurrent.NamedThreadFactory;
 import com.palantir.logsafe.Preconditions;
 import com.palantir.tracing.DetachedSpan;
@@ -66,15 +69,18 @@ public final class DisruptorAutobatcher<T, R>
     private final Disruptor<DefaultBatchElement<T, R>> disruptor;
     private final RingBuffer<DefaultBatchElement<T, R>> buffer;
     private final String safeLoggablePurpose;
+    private final Runnable queueDepthUnregistration;
     private volatile boolean closed = false;
 
     DisruptorAutobatcher(
             Disruptor<DefaultBatchElement<T, R>> disruptor,
             RingBuffer<DefaultBatchElement<T, R>> buffer,
-            String safeLoggablePurpose) {
+            String safeLoggablePurpose,
+            Runnable queueDepthUnregistration) {
         this.disruptor = disruptor;
         this.buffer = buffer;
         this.safeLoggablePurpose = safeLoggablePurpose;
+        this.queueDepthUnregistration = queueDepthUnregistration;
     }
 
     @Override
@@ -91,6 +97,7 @@ public final class DisruptorAutobatcher<T, R>
     @Override
     public void close() {
         closed = true;
+        queueDepthUnregistration.run();
         try {
             disruptor.shutdown(10, TimeUnit.SECONDS);
         } catch (TimeoutException e) {
@@ -118,6 +125,7 @@ public final class DisruptorAutobatcher<T, R>
 
         private final DetachedSpan parent;
         private final DetachedSpan waitingSpan;
+        private final long creationNanos = System.nanoTime();
 
         @Nullable
         private DetachedSpan runningSpan = null;
@@ -134,6 +142,10 @@ public final class DisruptorAutobatcher<T, R>
             }, MoreExecutors.directExecutor());
         }
 
+        long nanosSinceCreation() {
+            return System.nanoTime() - creationNanos;
+        }
+
         void running() {
             waitingSpan.complete();
             runningSpan = parent.childDetachedSpan("running task");
@@ -155,14 +167,28 @@ public final class DisruptorAutobatcher<T, R>
         }
     }
 
+    /**
+     * Creates an autobatcher with a consumer thread for each of the given handlers. Every handler sees every event, so
+     * when there is more than one, each must only process its own share of them.
+     */
     static <T, R> DisruptorAutobatcher<T, R> create(
-            EventHandler<BatchElement<T, R>> eventHandler,
+            List<EventHandler<BatchElement<T, R>>> eventHandlers,
             int bufferSize,
-            String safeLoggablePurpose) {
-        Disruptor<DefaultBatchElement<T, R>> disruptor =
-                new Disruptor<>(DefaultBatchElement::new, bufferSize, threadFactory(safeLoggablePurpose));
-        disruptor.handleEventsWith(eventHandler);
+            String safeLoggablePurpose,
+            AutobatcherWaitStrategy waitStrategy,
+            Map<String, String> safeTags) {
+        Disruptor<DefaultBatchElement<T, R>> disruptor = new Disruptor<>(
+                DefaultBatchElement::new,
+                bufferSize,
+                threadFactory(safeLoggablePurpose),
+                ProducerType.MULTI,
+                waitStrategy.createWaitStrategy());
+        @SuppressWarnings("unchecked") // the disruptor's event type is a subtype of what the handlers accept
+        EventHandler<DefaultBatchElement<T, R>>[] handlers = eventHandlers.toArray(new EventHandler[0]);
+        disruptor.handleEventsWith(handlers);
         disruptor.start();
-        return new DisruptorAutobatcher<>(disruptor, disruptor.getRingBuffer(), safeLoggablePurpose);
+        RingBuffer<DefaultBatchElement<T, R>> buffer = disruptor.getRingBuffer();
+        Runnable queueDepthUnregistration = QueueDepthGauge.register(safeLoggablePurpose, safeTags, buffer);
+        return new DisruptorAutobatcher<>(disruptor, buffer, safeLoggablePurpose, queueDepthUnregistration);
     }
 }
@@ -0,0 +1,77 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.autobatch;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.lmax.disruptor.EventHandler;
+
+/**
+ * Passes a share of the events in the ring buffer to its delegate, in batches of bounded size.
+ *
+ * When an autobatcher has several consumers, every consumer sees every event; each consumer takes the events whose
+ * sequence is congruent to its ordinal modulo the number of consumers, so that each request is processed exactly once.
+ * Batches end where the ring buffer's batches end, and also whenever the batch reaches the current limit of the
+ * {@link AdaptiveBatchSizeLimit}.
+ */
+final class PartitioningEventHandler<T, R> implements EventHandler<BatchElement<T, R>> {
+
+    private final EventHandler<BatchElement<T, R>> delegate;
+    private final int ordinal;
+    private final int consumers;
+    private final AdaptiveBatchSizeLimit batchSizeLimit;
+    private final List<BatchElement<T, R>> pending;
+    private final long[] pendingSequences;
+
+    PartitioningEventHandler(
+            EventHandler<BatchElement<T, R>> delegate,
+            int ordinal,
+            int consumers,
+            AdaptiveBatchSizeLimit batchSizeLimit,
+            int bufferSize) {
+        this.delegate = delegate;
+        this.ordinal = ordinal;
+        this.consumers = consumers;
+        this.batchSizeLimit = batchSizeLimit;
+        this.pending = new ArrayList<>(bufferSize);
+        this.pendingSequences = new long[bufferSize];
+    }
+
+    @Override
+    public void onEvent(BatchElement<T, R> event, long sequence, boolean endOfBatch) throws Exception {
+        if (sequence % consumers == ordinal) {
+            pendingSequences[pending.size()] = sequence;
+            pending.add(event);
+        }
+        if (!pending.isEmpty() && (endOfBatch || pending.size() >= batchSizeLimit.current())) {
+            flush();
+        }
+    }
+
+    private void flush() throws Exception {
+        int batchSize = pending.size();
+        long start = System.nanoTime();
+        try {
+            for (int i = 0; i < batchSize; i++) {
+                delegate.onEvent(pending.get(i), pendingSequences[i], i == batchSize - 1);
+            }
+        } finally {
+            batchSizeLimit.recordBatch(batchSize, System.nanoTime() - start);
+            pending.clear();
+        }
+    }
+}
@@ -38,6 +38,7 @@ final class ProfilingEventHandler<T, R> implements EventHandler<BatchElement<T,
     @Override
     public void onEvent(BatchElement<T, R> event, long sequence, boolean endOfBatch) throws Exception {
         elementsSeenSoFar++;
+        batchSizeRecorder.markWaitTime(event.result().nanosSinceCreation());
         delegateHandler.onEvent(event, sequence, endOfBatch);
 
         if (endOfBatch) {
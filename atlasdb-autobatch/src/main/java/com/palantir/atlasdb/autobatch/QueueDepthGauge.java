@@ -0,0 +1,65 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.autobatch;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.codahale.metrics.Gauge;
+import com.lmax.disruptor.RingBuffer;
+import com.palantir.tritium.metrics.registry.MetricName;
+import com.palantir.tritium.metrics.registry.SharedTaggedMetricRegistries;
+
+/**
+ * Reports the number of requests queued in the ring buffers of all open autobatchers with a given purpose and tags.
+ *
+ * Gauges cannot be re-registered under the same name, and there may be several autobatchers for the same purpose, so
+ * a single gauge per metric name sums over the ring buffers that are currently registered with it.
+ */
+final class QueueDepthGauge implements Gauge<Long> {
+    static final String AUTOBATCHER_QUEUE_DEPTH = "atlasdb.autobatcherQueueDepth";
+
+    private static final ConcurrentMap<MetricName, QueueDepthGauge> GAUGES = new ConcurrentHashMap<>();
+
+    private final Set<RingBuffer<?>> buffers = ConcurrentHashMap.newKeySet();
+
+    private QueueDepthGauge() {}
+
+    /**
+     * Starts reporting the depth of the given ring buffer; the returned {@link Runnable} stops doing so.
+     */
+    static Runnable register(String safeLoggerIdentifier, Map<String, String> tags, RingBuffer<?> buffer) {
+        MetricName metricName = BatchSizeRecorder.metricName(AUTOBATCHER_QUEUE_DEPTH, safeLoggerIdentifier, tags);
+        QueueDepthGauge gauge = GAUGES.computeIfAbsent(metricName, name -> {
+            QueueDepthGauge newGauge = new QueueDepthGauge();
+            SharedTaggedMetricRegistries.getSingleton().gauge(name, newGauge);
+            return newGauge;
+        });
+        gauge.buffers.add(buffer);
+        return () -> gauge.buffers.remove(buffer);
+    }
+
+    @Override
+    public Long getValue() {
+        long depth = 0;
+        for (RingBuffer<?> buffer : buffers) {
+            depth += buffer.getBufferSize() - buffer.remainingCapacity();
+        }
+        return depth;
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.autobatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import org.junit.Test;
+
+public class AdaptiveBatchSizeLimitTest {
+    private static final long TARGET_NANOS = Duration.ofMillis(10).toNanos();
+
+    private final AdaptiveBatchSizeLimit limit =
+            AdaptiveBatchSizeLimit.create(Optional.of(Duration.ofNanos(TARGET_NANOS)), 1024);
+
+    @Test
+    public void startsAtMaximum() {
+        assertThat(limit.current()).isEqualTo(1024);
+    }
+
+    @Test
+    public void halvesWhenTargetIsMissed() {
+        limit.recordBatch(1024, TARGET_NANOS + 1);
+        assertThat(limit.current()).isEqualTo(512);
+
+        limit.recordBatch(512, TARGET_NANOS + 1);
+        assertThat(limit.current()).isEqualTo(256);
+    }
+
+    @Test
+    public void halvesSizeOfSlowBatchesSmallerThanLimit() {
+        limit.recordBatch(100, TARGET_NANOS + 1);
+        assertThat(limit.current()).isEqualTo(50);
+    }
+
+    @Test
+    public void neverDropsBelowOne() {
+        for (int i = 0; i < 20; i++) {
+            limit.recordBatch(1, TARGET_NANOS + 1);
+        }
+        assertThat(limit.current()).isEqualTo(1);
+    }
+
+    @Test
+    public void growsOnlyAfterFullBatchesMeetTarget() {
+        limit.recordBatch(1024, TARGET_NANOS + 1);
+        limit.recordBatch(10, TARGET_NANOS);
+        assertThat(limit.current()).isEqualTo(512);
+
+        limit.recordBatch(512, TARGET_NANOS);
+        assertThat(limit.current()).isEqualTo(576);
+    }
+
+    @Test
+    public void convergesBelowLargestBatchMeetingTarget() {
+        // processing takes 100us per element, so batches of up to 100 meet the target
+        for (int i = 0; i < 1000; i++) {
+            int batchSize = limit.current();
+            limit.recordBatch(batchSize, batchSize * Duration.ofMillis(10).toNanos() / 100);
+        }
+        assertThat(limit.current()).isBetween(50, 100);
+    }
+
+    @Test
+    public void staysAtMaximumWithoutTarget() {
+        AdaptiveBatchSizeLimit unlimited = AdaptiveBatchSizeLimit.create(Optional.empty(), 1024);
+        unlimited.recordBatch(1024, Long.MAX_VALUE - 1);
+        assertThat(unlimited.current()).isEqualTo(1024);
+    }
+}
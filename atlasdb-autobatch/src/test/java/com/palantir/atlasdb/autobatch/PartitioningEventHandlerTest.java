@@ -0,0 +1,145 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.autobatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.lmax.disruptor.EventHandler;
+import com.palantir.atlasdb.autobatch.DisruptorAutobatcher.DisruptorFuture;
+
+public class PartitioningEventHandlerTest {
+    private final RecordingEventHandler delegate = new RecordingEventHandler();
+
+    @Test
+    public void onlyProcessesOwnShareOfEvents() throws Exception {
+        PartitioningEventHandler<Integer, Integer> handler = new PartitioningEventHandler<>(
+                delegate, 1, 3, AdaptiveBatchSizeLimit.create(Optional.empty(), 16), 16);
+
+        publish(handler, 0, 10);
+
+        assertThat(delegate.batches).containsExactly(ImmutableList.of(1L, 4L, 7L));
+    }
+
+    @Test
+    public void splitsBatchesAtLimit() throws Exception {
+        AdaptiveBatchSizeLimit limit = AdaptiveBatchSizeLimit.create(Optional.of(Duration.ofDays(1)), 16);
+        limit.recordBatch(16, Long.MAX_VALUE);
+        limit.recordBatch(8, Long.MAX_VALUE);
+        assertThat(limit.current()).isEqualTo(4);
+        PartitioningEventHandler<Integer, Integer> handler = new PartitioningEventHandler<>(delegate, 0, 1, limit, 16);
+
+        publish(handler, 0, 10);
+
+        assertThat(delegate.batches).containsExactly(
+                ImmutableList.of(0L, 1L, 2L, 3L),
+                ImmutableList.of(4L, 5L, 6L, 7L),
+                ImmutableList.of(8L, 9L));
+    }
+
+    @Test
+    public void doesNotFlushEmptyBatches() throws Exception {
+        PartitioningEventHandler<Integer, Integer> handler = new PartitioningEventHandler<>(
+                delegate, 2, 4, AdaptiveBatchSizeLimit.create(Optional.empty(), 16), 16);
+
+        publish(handler, 0, 2);
+
+        assertThat(delegate.batches).isEmpty();
+    }
+
+    @Test
+    public void parallelConsumersProcessEachRequestExactlyOnce() throws Exception {
+        Set<Integer> processed = ConcurrentHashMap.newKeySet();
+        try (DisruptorAutobatcher<Integer, Integer> autobatcher = Autobatchers.<Integer, Integer>independent(
+                batch -> batch.forEach(element -> {
+                    assertThat(processed.add(element.argument())).isTrue();
+                    element.result().set(element.argument() * 2);
+                }))
+                .consumers(4)
+                .waitStrategy(AutobatcherWaitStrategy.SLEEPING)
+                .targetBatchLatency(Duration.ofMillis(1))
+                .safeLoggablePurpose("parallel-consumers-test")
+                .build()) {
+            List<ListenableFuture<Integer>> futures = IntStream.range(0, 10_000)
+                    .mapToObj(autobatcher::apply)
+                    .collect(Collectors.toList());
+
+            assertThat(Futures.allAsList(futures).get())
+                    .isEqualTo(IntStream.range(0, 10_000).mapToObj(i -> i * 2).collect(Collectors.toList()));
+        }
+        assertThat(processed).hasSize(10_000);
+    }
+
+    @Test
+    public void coalescingAutobatchersHaveOneConsumer() {
+        assertThatThrownBy(() -> Autobatchers.coalescing(() -> 1).consumers(2))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static void publish(EventHandler<BatchElement<Integer, Integer>> handler, int from, int to)
+            throws Exception {
+        for (int sequence = from; sequence < to; sequence++) {
+            handler.onEvent(new TestBatchElement(sequence), sequence, sequence == to - 1);
+        }
+    }
+
+    private static final class RecordingEventHandler implements EventHandler<BatchElement<Integer, Integer>> {
+        private final List<List<Long>> batches = new ArrayList<>();
+        private List<Long> current = new ArrayList<>();
+
+        @Override
+        public void onEvent(BatchElement<Integer, Integer> event, long sequence, boolean endOfBatch) {
+            current.add(sequence);
+            if (endOfBatch) {
+                batches.add(current);
+                current = new ArrayList<>();
+            }
+        }
+    }
+
+    private static final class TestBatchElement implements BatchElement<Integer, Integer> {
+        private final int argument;
+        private final DisruptorFuture<Integer> future = new DisruptorFuture<>("test");
+
+        private TestBatchElement(int argument) {
+            this.argument = argument;
+        }
+
+        @Override
+        public Integer argument() {
+            return argument;
+        }
+
+        @Override
+        public DisruptorFuture<Integer> result() {
+            return future;
+        }
+    }
+}
@@ -147,6 +147,16 @@ public interface CassandraKeyValueServiceConfig extends KeyValueServiceConfig {
         return 1.0;
     }
 
+    /**
+     * If true, hosts owning the data for a query are weighted by their recent response times and number of open
+     * requests rather than by open requests alone. Additionally, if {@link #localHostWeighting()} selects a local host
+     * but none of the owners are in the same rack as this process, owners in the same datacenter are preferred.
+     */
+    @Value.Default
+    default boolean latencyAwareHostSelection() {
+        return false;
+    }
+
     /**
      * Overrides the behaviour of the host location supplier.
      */
@@ -15,6 +15,8 @@
  */
 package com.palantir.atlasdb.cassandra;
 
+import java.util.Optional;
+
 import org.immutables.value.Value;
 
 import com.fasterxml.jackson.annotation.JsonSubTypes;
@@ -24,6 +26,8 @@ import com.google.auto.service.AutoService;
 import com.palantir.atlasdb.AtlasDbConstants;
 import com.palantir.atlasdb.keyvalue.cassandra.CassandraConstants;
 import com.palantir.atlasdb.spi.KeyValueServiceRuntimeConfig;
+import com.palantir.logsafe.Preconditions;
+import com.palantir.logsafe.SafeArg;
 
 @AutoService(KeyValueServiceRuntimeConfig.class)
 @JsonDeserialize(as = ImmutableCassandraKeyValueServiceRuntimeConfig.class)
@@ -92,6 +96,24 @@ public abstract class CassandraKeyValueServiceRuntimeConfig implements KeyValueS
         return AtlasDbConstants.DEFAULT_SWEEP_CASSANDRA_READ_THREADS;
     }
 
+    /**
+     * The number of token ranges that sweep scans concurrently when looking for candidate cells to sweep. If greater
+     * than one, the table is split at the boundaries of the token ring and each range is read from the replicas owning
+     * it, with a few batches buffered per range; candidates are still returned in row order.
+     */
+    @Value.Default
+    public int sweepCandidateScanParallelism() {
+        return 1;
+    }
+
+    /**
+     * If present, a read of cells or of a page of a range that has been outstanding for longer than this quantile
+     * (for example 0.99) of the recent response times of such reads from the host it was sent to is also sent to
+     * another host owning the data, and the first successful response is used. This reduces tail latency when a single host is slow, at
+     * the cost of some additional load.
+     */
+    public abstract Optional<Double> speculativeReadRetryQuantile();
+
     /**
      * The number of times a call to Cassandra retries a single host.
      */
@@ -121,6 +143,17 @@ public abstract class CassandraKeyValueServiceRuntimeConfig implements KeyValueS
         return true;
     }
 
+    @Value.Check
+    protected final void check() {
+        Preconditions.checkArgument(sweepCandidateScanParallelism() > 0,
+                "'sweepCandidateScanParallelism' must be positive",
+                SafeArg.of("sweepCandidateScanParallelism", sweepCandidateScanParallelism()));
+        speculativeReadRetryQuantile().ifPresent(quantile -> Preconditions.checkArgument(
+                quantile > 0.0 && quantile < 1.0,
+                "'speculativeReadRetryQuantile' must be strictly between 0 and 1",
+                SafeArg.of("speculativeReadRetryQuantile", quantile)));
+    }
+
     public static CassandraKeyValueServiceRuntimeConfig getDefault() {
         return ImmutableCassandraKeyValueServiceRuntimeConfig.builder().build();
     }
@@ -16,8 +16,10 @@
 package com.palantir.atlasdb.keyvalue.cassandra;
 
 import java.net.InetSocketAddress;
+import java.util.List;
 import java.util.Map;
 
+import com.google.common.collect.RangeMap;
 import com.palantir.common.base.FunctionCheckedException;
 import com.palantir.processors.AutoDelegate;
 
@@ -31,7 +33,19 @@ public interface CassandraClientPool {
             InetSocketAddress specifiedHost,
             FunctionCheckedException<CassandraClient, V, K> fn) throws K;
     <V, K extends Exception> V runWithRetry(FunctionCheckedException<CassandraClient, V, K> fn) throws K;
+
+    /**
+     * As {@link #runWithRetryOnHost(InetSocketAddress, FunctionCheckedException)}, but if speculative read retries are
+     * enabled and the host is slow to respond, the function is additionally run against another host owning the given
+     * key. The function must therefore be an idempotent read.
+     */
+    <V, K extends Exception> V runWithSpeculativeRetryOnHost(
+            InetSocketAddress specifiedHost,
+            byte[] key,
+            FunctionCheckedException<CassandraClient, V, K> fn) throws K;
+
     InetSocketAddress getRandomHostForKey(byte[] key);
+    RangeMap<LightweightOppToken, List<InetSocketAddress>> getTokenMap();
     Map<InetSocketAddress, CassandraClientPoolingContainer> getCurrentPools();
     void shutdown();
 }
@@ -20,6 +20,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
@@ -59,6 +60,7 @@ import com.palantir.logsafe.exceptions.SafeIllegalStateException;
  *   - Pooling
  *   - Token Aware Mapping / Query Routing / Data partitioning
  *   - Retriable Queries
+ *   - Speculative retries of slow reads
  *   - Pool member error tracking / blacklisting*
  *   - Pool refreshing
  *   - Pool node autodiscovery
@@ -110,6 +112,9 @@ public class CassandraClientPoolImpl implements CassandraClientPool {
     private final StartupChecks startupChecks;
     private final ScheduledExecutorService refreshDaemon;
     private final CassandraClientPoolMetrics metrics;
+    private final Supplier<CassandraKeyValueServiceRuntimeConfig> runtimeConfig;
+    private final ExecutorService speculativeReadExecutor;
+    private final SpeculativeRetrier speculativeRetrier;
     private final InitializingWrapper wrapper = new InitializingWrapper();
 
     private ScheduledFuture<?> refreshPoolFuture;
@@ -124,6 +129,7 @@ public class CassandraClientPoolImpl implements CassandraClientPool {
         CassandraClientPoolImpl cassandraClientPool = new CassandraClientPoolImpl(
                 metricsManager,
                 config,
+                CassandraKeyValueServiceRuntimeConfig::getDefault,
                 startupChecks,
                 exceptionHandler,
                 blacklist,
@@ -143,6 +149,7 @@ public class CassandraClientPoolImpl implements CassandraClientPool {
         CassandraRequestExceptionHandler exceptionHandler = testExceptionHandler(blacklist);
         CassandraClientPoolImpl cassandraClientPool = new CassandraClientPoolImpl(
                 config,
+                CassandraKeyValueServiceRuntimeConfig::getDefault,
                 startupChecks,
                 refreshDaemon,
                 exceptionHandler,
@@ -166,6 +173,7 @@ public class CassandraClientPoolImpl implements CassandraClientPool {
         CassandraClientPoolImpl cassandraClientPool = new CassandraClientPoolImpl(
                 metricsManager,
                 config,
+                runtimeConfig,
                 StartupChecks.RUN,
                 exceptionHandler,
                 blacklist,
@@ -177,11 +185,13 @@ public class CassandraClientPoolImpl implements CassandraClientPool {
     private CassandraClientPoolImpl(
             MetricsManager metricsManager,
             CassandraKeyValueServiceConfig config,
+            Supplier<CassandraKeyValueServiceRuntimeConfig> runtimeConfig,
             StartupChecks startupChecks,
             CassandraRequestExceptionHandler exceptionHandler,
             Blacklist blacklist,
             CassandraClientPoolMetrics metrics) {
         this(config,
+                runtimeConfig,
                 startupChecks,
                 PTExecutors.newScheduledThreadPool(
                         1,
@@ -194,6 +204,7 @@ public class CassandraClientPoolImpl implements CassandraClientPool {
 
     private CassandraClientPoolImpl(
             CassandraKeyValueServiceConfig config,
+            Supplier<CassandraKeyValueServiceRuntimeConfig> runtimeConfig,
             StartupChecks startupChecks,
             ScheduledExecutorService refreshDaemon,
             CassandraRequestExceptionHandler exceptionHandler,
@@ -201,6 +212,9 @@ public class CassandraClientPoolImpl implements CassandraClientPool {
             CassandraService cassandra,
             CassandraClientPoolMetrics metrics) {
         this.config = config;
+        this.runtimeConfig = runtimeConfig;
+        this.speculativeReadExecutor = PTExecutors.newCachedThreadPool("CassandraSpeculativeReads");
+        this.speculativeRetrier = new SpeculativeRetrier(speculativeReadExecutor, metrics::recordSpeculativeRetry);
         this.startupChecks = startupChecks;
         this.refreshDaemon = refreshDaemon;
         this.blacklist = blacklist;
@@ -248,6 +262,7 @@ public class CassandraClientPoolImpl implements CassandraClientPool {
     public void shutdown() {
         cassandra.close();
         refreshDaemon.shutdown();
+        speculativeReadExecutor.shutdown();
         cassandra.getPools().forEach((address, cassandraClientPoolingContainer) ->
                 cassandraClientPoolingContainer.shutdownPooling());
     }
@@ -271,8 +286,8 @@ public class CassandraClientPoolImpl implements CassandraClientPool {
         return cassandra.getPools();
     }
 
-    @VisibleForTesting
-    RangeMap<LightweightOppToken, List<InetSocketAddress>> getTokenMap() {
+    @Override
+    public RangeMap<LightweightOppToken, List<InetSocketAddress>> getTokenMap() {
         return cassandra.getTokenMap();
     }
 
@@ -412,6 +427,59 @@ public class CassandraClientPoolImpl implements CassandraClientPool {
         }
     }
 
+    @Override
+    public <V, K extends Exception> V runWithSpeculativeRetryOnHost(
+            InetSocketAddress specifiedHost,
+            byte[] key,
+            FunctionCheckedException<CassandraClient, V, K> fn) throws K {
+        Optional<Double> quantile = runtimeConfig.get().speculativeReadRetryQuantile();
+        if (!quantile.isPresent()) {
+            return runWithRetryOnHost(specifiedHost, fn);
+        }
+        long delayNanos = getSpeculativeRetryDelayNanos(specifiedHost, quantile.get());
+        if (delayNanos <= 0) {
+            return runTimedReadOnHost(specifiedHost, fn);
+        }
+        Optional<InetSocketAddress> speculativeHost = cassandra.getRandomHostForKeyExcluding(key, specifiedHost);
+        if (!speculativeHost.isPresent()) {
+            return runTimedReadOnHost(specifiedHost, fn);
+        }
+
+        return speculativeRetrier.run(
+                () -> runTimedReadOnHost(specifiedHost, fn),
+                () -> runTimedReadOnHost(speculativeHost.get(), fn),
+                delayNanos);
+    }
+
+    /**
+     * Returns a non-positive delay if reads to the given host should not be retried speculatively, because we have no
+     * recent read response times from the host to base the delay on.
+     */
+    private long getSpeculativeRetryDelayNanos(InetSocketAddress host, double quantile) {
+        CassandraClientPoolingContainer hostPool = cassandra.getPools().get(host);
+        if (hostPool == null) {
+            return 0;
+        }
+        return hostPool.getReadLatencyQuantileNanos(quantile);
+    }
+
+    /**
+     * Runs the given read, recording how long it took to succeed against the host's read latencies, from which the
+     * speculative retry delay is derived. Failed reads are not recorded, as failing fast says nothing about how long
+     * a successful read should take.
+     */
+    private <V, K extends Exception> V runTimedReadOnHost(
+            InetSocketAddress host,
+            FunctionCheckedException<CassandraClient, V, K> fn) throws K {
+        long startNanos = System.nanoTime();
+        V result = runWithRetryOnHost(host, fn);
+        CassandraClientPoolingContainer hostPool = cassandra.getPools().get(host);
+        if (hostPool != null) {
+            hostPool.recordReadLatency(System.nanoTime() - startNanos);
+        }
+        return result;
+    }
+
     private <V, K extends Exception> CassandraClientPoolingContainer getPreferredHostOrFallBack(
             RetryableCassandraRequest<V, K> req) {
         CassandraClientPoolingContainer hostPool = cassandra.getPools().get(req.getPreferredHost());
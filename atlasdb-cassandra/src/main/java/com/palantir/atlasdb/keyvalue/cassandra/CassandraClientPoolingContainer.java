@@ -23,6 +23,7 @@ import java.net.InetSocketAddress;
 import java.time.Instant;
 import java.time.format.DateTimeFormatter;
 import java.util.NoSuchElementException;
+import java.util.OptionalDouble;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -44,6 +45,7 @@ import com.palantir.atlasdb.cassandra.CassandraKeyValueServiceConfig;
 import com.palantir.atlasdb.encoding.PtBytes;
 import com.palantir.atlasdb.keyvalue.cassandra.pool.CassandraClientPoolHostLevelMetric;
 import com.palantir.atlasdb.keyvalue.cassandra.pool.CassandraClientPoolMetrics;
+import com.palantir.atlasdb.keyvalue.cassandra.pool.HostLatencyTracker;
 import com.palantir.atlasdb.util.MetricsManager;
 import com.palantir.common.base.FunctionCheckedException;
 import com.palantir.common.pooling.PoolingContainer;
@@ -58,6 +60,7 @@ public class CassandraClientPoolingContainer implements PoolingContainer<Cassand
     private final MetricsManager metricsManager;
     private final AtomicLong count = new AtomicLong();
     private final AtomicInteger openRequests = new AtomicInteger();
+    private final HostLatencyTracker latencyTracker = new HostLatencyTracker();
     private final GenericObjectPool<CassandraClient> clientPool;
     private final int poolNumber;
     private final CassandraClientPoolMetrics poolMetrics;
@@ -90,6 +93,29 @@ public class CassandraClientPoolingContainer implements PoolingContainer<Cassand
         return openRequests.get();
     }
 
+    /**
+     * Moving average of the time taken by requests to {@link #runWithPooledResource(FunctionCheckedException)}, or
+     * empty if none have completed.
+     */
+    public OptionalDouble getMovingAverageLatencyNanos() {
+        return latencyTracker.getMovingAverageLatencyNanos();
+    }
+
+    /**
+     * Records the time taken by a read from this host, which unlike {@link #runWithPooledResource} is only timed by
+     * callers that know the request is a read.
+     */
+    public void recordReadLatency(long latencyNanos) {
+        latencyTracker.recordReadLatency(latencyNanos);
+    }
+
+    /**
+     * The given quantile of the time taken by reads completed in the last minute, or zero if there were none.
+     */
+    public long getReadLatencyQuantileNanos(double quantile) {
+        return latencyTracker.getReadLatencyQuantileNanos(quantile);
+    }
+
     // returns negative if not available; only expected use is debugging
     public int getActiveCheckouts() {
         return clientPool.getNumActive();
@@ -108,6 +134,7 @@ public class CassandraClientPoolingContainer implements PoolingContainer<Cassand
                 + " calling cassandra host " + host
                 + " started at " + DateTimeFormatter.ISO_INSTANT.format(Instant.now())
                 + " - " + count.getAndIncrement());
+        long startNanos = System.nanoTime();
         try {
             openRequests.getAndIncrement();
             return runWithGoodResource(fn);
@@ -128,6 +155,7 @@ public class CassandraClientPoolingContainer implements PoolingContainer<Cassand
             throw t;
         } finally {
             openRequests.getAndDecrement();
+            latencyTracker.recordLatency(System.nanoTime() - startNanos);
             Thread.currentThread().setName(origName);
         }
     }
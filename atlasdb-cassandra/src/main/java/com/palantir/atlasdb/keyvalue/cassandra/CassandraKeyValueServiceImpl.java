@@ -104,6 +104,8 @@ import com.palantir.atlasdb.keyvalue.cassandra.cas.CheckAndSetRunner;
 import com.palantir.atlasdb.keyvalue.cassandra.paging.RowGetter;
 import com.palantir.atlasdb.keyvalue.cassandra.sweep.CandidateRowForSweeping;
 import com.palantir.atlasdb.keyvalue.cassandra.sweep.CandidateRowsForSweepingIterator;
+import com.palantir.atlasdb.keyvalue.cassandra.sweep.ParallelCandidateRowsForSweepingIterator;
+import com.palantir.atlasdb.keyvalue.cassandra.sweep.ValuesLoader;
 import com.palantir.atlasdb.keyvalue.cassandra.thrift.MutationMap;
 import com.palantir.atlasdb.keyvalue.cassandra.thrift.SlicePredicates;
 import com.palantir.atlasdb.keyvalue.cassandra.thrift.SlicePredicates.Limit;
@@ -1330,7 +1332,8 @@ public class CassandraKeyValueServiceImpl extends AbstractKeyValueService implem
                 .shouldCheckIfLatestValueIsEmpty(false)
                 .shouldDeleteGarbageCollectionSentinels(true)
                 .build();
-        return getCandidateRowsForSweeping("getRangeOfTimestamps", tableRef, request)
+        // scanning ranges in parallel would read ahead past the end of the requested range
+        return getCandidateRowsForSweeping("getRangeOfTimestamps", tableRef, request, 1)
                 .flatMap(rows -> rows)
                 .map(CandidateRowForSweeping::toRowResult)
                 .stopWhen(rowResult -> !rangeRequest.inRange(rowResult.getRowName()));
@@ -1340,7 +1343,8 @@ public class CassandraKeyValueServiceImpl extends AbstractKeyValueService implem
     public ClosableIterator<List<CandidateCellForSweeping>> getCandidateCellsForSweeping(
             TableReference tableRef,
             CandidateCellForSweepingRequest request) {
-        return getCandidateRowsForSweeping("getCandidateCellsForSweeping", tableRef, request)
+        return getCandidateRowsForSweeping("getCandidateCellsForSweeping", tableRef, request,
+                runtimeConfigSupplier.get().sweepCandidateScanParallelism())
                 .map(rows -> rows.stream()
                         .map(CandidateRowForSweeping::cells)
                         .flatMap(List::stream)
@@ -1350,16 +1354,40 @@ public class CassandraKeyValueServiceImpl extends AbstractKeyValueService implem
     private ClosableIterator<List<CandidateRowForSweeping>> getCandidateRowsForSweeping(
             String kvsMethodName,
             TableReference tableRef,
-            CandidateCellForSweepingRequest request) {
+            CandidateCellForSweepingRequest request,
+            int parallelism) {
         RowGetter rowGetter = new RowGetter(clientPool, queryRunner, ConsistencyLevel.ALL, tableRef);
-        return new CandidateRowsForSweepingIterator(
-                (iteratorTableRef, cells, maxTimestampExclusive) ->
-                        get(kvsMethodName, iteratorTableRef, cells, maxTimestampExclusive),
+        ValuesLoader valuesLoader = (iteratorTableRef, cells, maxTimestampExclusive) ->
+                get(kvsMethodName, iteratorTableRef, cells, maxTimestampExclusive);
+        if (parallelism <= 1) {
+            return new CandidateRowsForSweepingIterator(
+                    valuesLoader,
+                    newInstrumentedCqlExecutor(),
+                    rowGetter,
+                    tableRef,
+                    request,
+                    config);
+        }
+        return ParallelCandidateRowsForSweepingIterator.create(
+                valuesLoader,
                 newInstrumentedCqlExecutor(),
                 rowGetter,
                 tableRef,
                 request,
-                config);
+                getTokenRangeSplitPoints(),
+                config,
+                parallelism);
+    }
+
+    /**
+     * Returns the row names immediately following the (inclusive) upper bound of each token range of the ring, so
+     * that each range between consecutive split points is owned by a single set of replicas.
+     */
+    private List<byte[]> getTokenRangeSplitPoints() {
+        return clientPool.getTokenMap().asMapOfRanges().keySet().stream()
+                .filter(tokenRange -> tokenRange.hasUpperBound())
+                .map(tokenRange -> RangeRequests.nextLexicographicName(tokenRange.upperEndpoint().bytes))
+                .collect(Collectors.toList());
     }
 
     /**
@@ -2039,6 +2067,43 @@ public class CassandraKeyValueServiceImpl extends AbstractKeyValueService implem
                 .orElseGet(() -> Futures.immediateFuture(this.get(tableRef, timestampByCell)));
     }
 
+    @Override
+    public ListenableFuture<Map<Cell, Value>> getRowsAsync(
+            TableReference tableRef,
+            Iterable<byte[]> rows,
+            ColumnSelection columnSelection,
+            long timestamp) {
+        return asyncKeyValueService
+                .map(asyncKvs -> asyncKvs.getRowsAsync(tableRef, rows, columnSelection, timestamp))
+                .orElseGet(() -> super.getRowsAsync(tableRef, rows, columnSelection, timestamp));
+    }
+
+    @Override
+    public ListenableFuture<Map<Cell, Value>> getRowsColumnRangeAsync(
+            TableReference tableRef,
+            Iterable<byte[]> rows,
+            BatchColumnRangeSelection batchColumnRangeSelection,
+            long timestamp) {
+        return asyncKeyValueService
+                .map(asyncKvs -> asyncKvs.getRowsColumnRangeAsync(tableRef, rows, batchColumnRangeSelection, timestamp))
+                .orElseGet(() -> super.getRowsColumnRangeAsync(tableRef, rows, batchColumnRangeSelection, timestamp));
+    }
+
+    /**
+     * Asynchronously gets the first page of a range. Reverse ranges cannot be served by CQL token restrictions, and so
+     * are always read synchronously.
+     */
+    @Override
+    public ListenableFuture<TokenBackedBasicResultsPage<RowResult<Value>, byte[]>> getFirstBatchForRangeAsync(
+            TableReference tableRef,
+            RangeRequest rangeRequest,
+            long timestamp) {
+        return asyncKeyValueService
+                .filter(unused -> !rangeRequest.isReverse())
+                .map(asyncKvs -> asyncKvs.getFirstBatchForRangeAsync(tableRef, rangeRequest, timestamp))
+                .orElseGet(() -> super.getFirstBatchForRangeAsync(tableRef, rangeRequest, timestamp));
+    }
+
     private static class TableCellAndValue {
         private static final Function<TableCellAndValue, byte[]> EXTRACT_ROW_NAME_FUNCTION =
                 input -> input.cell.getRowName();
@@ -144,11 +144,12 @@ final class CellLoader {
         final ColumnParent colFam = new ColumnParent(CassandraKeyValueServiceImpl.internalTableName(tableRef));
         List<Callable<Void>> tasks = Lists.newArrayList();
         for (final List<Cell> partition : batcher.partitionIntoBatches(cells, host, tableRef)) {
-            Callable<Void> multiGetCallable = () -> clientPool.runWithRetryOnHost(
-                    host,
-                    new FunctionCheckedException<CassandraClient, Void, Exception>() {
+            FunctionCheckedException<CassandraClient, Map<ByteBuffer, List<ColumnOrSuperColumn>>, Exception> multiGet
+                    = new FunctionCheckedException<CassandraClient,
+                            Map<ByteBuffer, List<ColumnOrSuperColumn>>, Exception>() {
                         @Override
-                        public Void apply(CassandraClient client) throws Exception {
+                        public Map<ByteBuffer, List<ColumnOrSuperColumn>> apply(CassandraClient client)
+                                throws Exception {
                             List<KeyPredicate> query
                                     = translatePartitionToKeyPredicates(partition, startTs, loadAllTs);
 
@@ -163,10 +164,8 @@ final class CellLoader {
 
                             Map<ByteBuffer, List<List<ColumnOrSuperColumn>>> results = queryRunner.multiget_multislice(
                                     kvsMethodName, client, tableRef, query, consistency);
-                            Map<ByteBuffer, List<ColumnOrSuperColumn>> aggregatedResults = Maps.transformValues(results,
+                            return Maps.transformValues(results,
                                     lists -> Lists.newArrayList(Iterables.concat(lists)));
-                            visitor.visit(aggregatedResults);
-                            return null;
                         }
 
                         @Override
@@ -175,7 +174,13 @@ final class CellLoader {
                                     + partition.size() + " cells" + ")";
                         }
 
-                    });
+                    };
+            // The results are visited here rather than in the function, as it may run against more than one host
+            Callable<Void> multiGetCallable = () -> {
+                visitor.visit(clientPool.runWithSpeculativeRetryOnHost(
+                        host, partition.get(0).getRowName(), multiGet));
+                return null;
+            };
             tasks.add(AnnotatedCallable.wrapWithThreadName(AnnotationType.PREPEND,
                     "Atlas loadWithTs " + partition.size() + " cells from " + tableRef + " on " + host,
                     multiGetCallable));
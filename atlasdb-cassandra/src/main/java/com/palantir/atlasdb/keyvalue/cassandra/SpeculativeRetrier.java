@@ -0,0 +1,127 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.keyvalue.cassandra;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import com.palantir.common.base.Throwables;
+
+/**
+ * Runs a request, and if it has not completed within a given delay, also runs an alternative request (typically the
+ * same read against a different replica), returning the result of whichever succeeds first. The slower request is
+ * left to complete in the background and its result is discarded, so requests must be idempotent.
+ */
+final class SpeculativeRetrier {
+    private final Executor executor;
+    private final Runnable onSpeculativeRetry;
+
+    SpeculativeRetrier(Executor executor, Runnable onSpeculativeRetry) {
+        this.executor = executor;
+        this.onSpeculativeRetry = onSpeculativeRetry;
+    }
+
+    interface Request<V, K extends Exception> {
+        V run() throws K;
+    }
+
+    /**
+     * If both requests fail, the failure of the original request is thrown.
+     */
+    <V, K extends Exception> V run(
+            Request<V, K> request,
+            Request<V, K> speculativeRequest,
+            long delayNanos) throws K {
+        CompletableFuture<V> original = submit(request);
+        if (awaitCompletion(original, delayNanos)) {
+            return getResult(original);
+        }
+
+        onSpeculativeRetry.run();
+        CompletableFuture<V> speculative = submit(speculativeRequest);
+        return getResult(firstSuccessful(original, speculative));
+    }
+
+    private <V, K extends Exception> CompletableFuture<V> submit(Request<V, K> request) {
+        CompletableFuture<V> result = new CompletableFuture<>();
+        executor.execute(() -> {
+            try {
+                result.complete(request.run());
+            } catch (Throwable t) {
+                result.completeExceptionally(t);
+            }
+        });
+        return result;
+    }
+
+    private static <V> CompletableFuture<V> firstSuccessful(
+            CompletableFuture<V> original,
+            CompletableFuture<V> speculative) {
+        CompletableFuture<V> result = new CompletableFuture<>();
+        speculative.thenAccept(result::complete);
+        original.whenComplete((value, failure) -> {
+            if (failure == null) {
+                result.complete(value);
+                return;
+            }
+            speculative.whenComplete((speculativeValue, speculativeFailure) -> {
+                if (speculativeFailure == null) {
+                    result.complete(speculativeValue);
+                } else {
+                    result.completeExceptionally(failure);
+                }
+            });
+        });
+        return result;
+    }
+
+    private static boolean awaitCompletion(CompletableFuture<?> future, long timeoutNanos) {
+        try {
+            future.get(timeoutNanos, TimeUnit.NANOSECONDS);
+            return true;
+        } catch (TimeoutException e) {
+            return false;
+        } catch (ExecutionException e) {
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw Throwables.rewrapAndThrowUncheckedException(e);
+        }
+    }
+
+    @SuppressWarnings("unchecked") // requests can only throw K or unchecked exceptions
+    private static <V, K extends Exception> V getResult(CompletableFuture<V> future) throws K {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw (K) cause;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw Throwables.rewrapAndThrowUncheckedException(e);
+        }
+    }
+}
@@ -16,29 +16,48 @@
 
 package com.palantir.atlasdb.keyvalue.cassandra.async;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.collect.Iterables;
+import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.palantir.atlasdb.encoding.PtBytes;
 import com.palantir.atlasdb.futures.FuturesCombiner;
 import com.palantir.atlasdb.keyvalue.api.AsyncKeyValueService;
+import com.palantir.atlasdb.keyvalue.api.BatchColumnRangeSelection;
 import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.atlasdb.keyvalue.api.ColumnSelection;
+import com.palantir.atlasdb.keyvalue.api.RangeRequest;
+import com.palantir.atlasdb.keyvalue.api.RowResult;
 import com.palantir.atlasdb.keyvalue.api.TableReference;
 import com.palantir.atlasdb.keyvalue.api.Value;
 import com.palantir.atlasdb.keyvalue.cassandra.async.queries.CqlQueryContext;
 import com.palantir.atlasdb.keyvalue.cassandra.async.queries.GetQuerySpec;
 import com.palantir.atlasdb.keyvalue.cassandra.async.queries.GetQuerySpec.GetQueryParameters;
+import com.palantir.atlasdb.keyvalue.cassandra.async.queries.GetRangeQuerySpec;
+import com.palantir.atlasdb.keyvalue.cassandra.async.queries.GetRangeQuerySpec.GetRangeQueryParameters;
+import com.palantir.atlasdb.keyvalue.cassandra.async.queries.GetRowQuerySpec;
+import com.palantir.atlasdb.keyvalue.cassandra.async.queries.GetRowQuerySpec.GetRowQueryParameters;
 import com.palantir.atlasdb.keyvalue.cassandra.async.queries.ImmutableCqlQueryContext;
 import com.palantir.atlasdb.keyvalue.cassandra.async.queries.ImmutableGetQueryParameters;
+import com.palantir.atlasdb.keyvalue.cassandra.async.queries.ImmutableGetRangeQueryParameters;
+import com.palantir.atlasdb.keyvalue.cassandra.async.queries.ImmutableGetRowQueryParameters;
 import com.palantir.atlasdb.logging.LoggingArgs;
 import com.palantir.common.streams.KeyedStream;
 import com.palantir.logsafe.SafeArg;
+import com.palantir.util.paging.TokenBackedBasicResultsPage;
 
 public final class CassandraAsyncKeyValueService implements AsyncKeyValueService {
     private static final Logger log = LoggerFactory.getLogger(CassandraAsyncKeyValueService.class);
+    private static final int DEFAULT_RANGE_BATCH_SIZE = 100;
 
     private final String keyspace;
     private final CqlClient cqlClient;
@@ -69,11 +88,112 @@ public final class CassandraAsyncKeyValueService implements AsyncKeyValueService
         return futuresCombiner.allAsMap(cellListenableFutureMap);
     }
 
-    private ListenableFuture<Optional<Value>> getCellAsync(TableReference tableReference, Cell cell, long timestamp) {
-        CqlQueryContext queryContext = ImmutableCqlQueryContext.builder()
+    @Override
+    public ListenableFuture<Map<Cell, Value>> getRowsAsync(
+            TableReference tableReference,
+            Iterable<byte[]> rows,
+            ColumnSelection columnSelection,
+            long timestamp) {
+        if (!columnSelection.allColumnsSelected()) {
+            // point reads of the named cells avoid streaming every version of every other column in the rows
+            Map<Cell, Long> timestampByCell = new HashMap<>();
+            for (byte[] row : rows) {
+                for (byte[] column : columnSelection.getSelectedColumns()) {
+                    timestampByCell.put(Cell.create(row, column), timestamp);
+                }
+            }
+            return getAsync(tableReference, timestampByCell);
+        }
+
+        return getRowsColumnRangeAsync(
+                tableReference,
+                rows,
+                PtBytes.EMPTY_BYTE_ARRAY,
+                PtBytes.EMPTY_BYTE_ARRAY,
+                timestamp);
+    }
+
+    @Override
+    public ListenableFuture<Map<Cell, Value>> getRowsColumnRangeAsync(
+            TableReference tableReference,
+            Iterable<byte[]> rows,
+            BatchColumnRangeSelection batchColumnRangeSelection,
+            long timestamp) {
+        return getRowsColumnRangeAsync(
+                tableReference,
+                rows,
+                batchColumnRangeSelection.getStartCol(),
+                batchColumnRangeSelection.getEndCol(),
+                timestamp);
+    }
+
+    @Override
+    public ListenableFuture<TokenBackedBasicResultsPage<RowResult<Value>, byte[]>> getFirstBatchForRangeAsync(
+            TableReference tableReference,
+            RangeRequest rangeRequest,
+            long timestamp) {
+        if (log.isTraceEnabled()) {
+            log.trace(
+                    "Getting range using CQL.",
+                    LoggingArgs.tableRef(tableReference),
+                    LoggingArgs.range(tableReference, rangeRequest));
+        }
+
+        GetRangeQueryParameters getRangeQueryParameters = ImmutableGetRangeQueryParameters.builder()
+                .rangeRequest(rangeRequest)
+                .humanReadableTimestamp(timestamp)
+                .batchSize(Optional.ofNullable(rangeRequest.getBatchHint()).orElse(DEFAULT_RANGE_BATCH_SIZE))
+                .build();
+
+        return cqlClient.executeQuery(new GetRangeQuerySpec(queryContext(tableReference), getRangeQueryParameters));
+    }
+
+    private ListenableFuture<Map<Cell, Value>> getRowsColumnRangeAsync(
+            TableReference tableReference,
+            Iterable<byte[]> rows,
+            byte[] startColumnInclusive,
+            byte[] endColumnExclusive,
+            long timestamp) {
+        if (log.isTraceEnabled()) {
+            log.trace(
+                    "Getting rows using CQL.",
+                    SafeArg.of("rows", Iterables.size(rows)),
+                    LoggingArgs.tableRef(tableReference));
+        }
+
+        CqlQueryContext queryContext = queryContext(tableReference);
+        List<ListenableFuture<Map<Cell, Value>>> rowFutures = new ArrayList<>();
+        for (byte[] row : rows) {
+            GetRowQueryParameters getRowQueryParameters = ImmutableGetRowQueryParameters.builder()
+                    .row(row)
+                    .startColumnInclusive(startColumnInclusive)
+                    .endColumnExclusive(endColumnExclusive)
+                    .humanReadableTimestamp(timestamp)
+                    .build();
+            rowFutures.add(cqlClient.executeQuery(new GetRowQuerySpec(queryContext, getRowQueryParameters)));
+        }
+
+        return Futures.transform(
+                Futures.allAsList(rowFutures),
+                CassandraAsyncKeyValueService::mergeRows,
+                MoreExecutors.directExecutor());
+    }
+
+    private static Map<Cell, Value> mergeRows(List<Map<Cell, Value>> rowResults) {
+        Map<Cell, Value> result = new HashMap<>();
+        rowResults.forEach(result::putAll);
+        return result;
+    }
+
+    private CqlQueryContext queryContext(TableReference tableReference) {
+        return ImmutableCqlQueryContext.builder()
                 .tableReference(tableReference)
                 .keyspace(keyspace)
                 .build();
+    }
+
+    private ListenableFuture<Optional<Value>> getCellAsync(TableReference tableReference, Cell cell, long timestamp) {
+        CqlQueryContext queryContext = queryContext(tableReference);
         GetQueryParameters getQueryParameters = ImmutableGetQueryParameters.builder()
                 .cell(cell)
                 .humanReadableTimestamp(timestamp)
@@ -0,0 +1,132 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.keyvalue.cassandra.async.queries;
+
+import java.util.Objects;
+
+import com.datastax.driver.core.BoundStatement;
+import com.datastax.driver.core.ConsistencyLevel;
+import com.datastax.driver.core.PreparedStatement;
+import com.datastax.driver.core.Statement;
+import com.palantir.atlasdb.keyvalue.api.RangeRequest;
+import com.palantir.atlasdb.keyvalue.api.RowResult;
+import com.palantir.atlasdb.keyvalue.api.Value;
+import com.palantir.atlasdb.keyvalue.impl.AbstractKeyValueService;
+import com.palantir.logsafe.Preconditions;
+import com.palantir.util.paging.TokenBackedBasicResultsPage;
+
+/**
+ * Reads the first page of a forward range scan. Partitions are selected by token, which under the ordered
+ * partitioners AtlasDB requires follows the lexicographic order of row names. Further pages are only fetched from
+ * Cassandra until the first row beyond the page has been seen.
+ */
+public final class GetRangeQuerySpec implements CqlQuerySpec<TokenBackedBasicResultsPage<RowResult<Value>, byte[]>> {
+    private static final String QUERY_FORMAT = "SELECT " + VersionedCellRows.SELECTED_COLUMNS + " FROM \"%s\".\"%s\" "
+            + "WHERE token(key) >= token(:startRow)";
+    private static final String END_ROW_RESTRICTION = " AND token(key) < token(:endRow)";
+
+    private final CqlQueryContext cqlQueryContext;
+    private final GetRangeQueryParameters getRangeQueryParameters;
+    private final RangePageAccumulator accumulator;
+
+    public GetRangeQuerySpec(CqlQueryContext cqlQueryContext, GetRangeQueryParameters getRangeQueryParameters) {
+        this.cqlQueryContext = cqlQueryContext;
+        this.getRangeQueryParameters = getRangeQueryParameters;
+        this.accumulator = new RangePageAccumulator(
+                getRangeQueryParameters.rangeRequest(),
+                getRangeQueryParameters.humanReadableTimestamp(),
+                getRangeQueryParameters.batchSize());
+    }
+
+    @Override
+    public CqlQueryContext cqlQueryContext() {
+        return cqlQueryContext;
+    }
+
+    @Override
+    public QueryType queryType() {
+        return getRangeQueryParameters.rangeRequest().getEndExclusive().length == 0
+                ? QueryType.GET_RANGE_FROM
+                : QueryType.GET_RANGE;
+    }
+
+    @Override
+    public String formatQueryString() {
+        String query = String.format(
+                QUERY_FORMAT,
+                cqlQueryContext().keyspace(),
+                AbstractKeyValueService.internalTableName(cqlQueryContext().tableReference()));
+        if (queryType() == QueryType.GET_RANGE) {
+            query += END_ROW_RESTRICTION;
+        }
+        return query + ";";
+    }
+
+    @Override
+    public Statement makeExecutableStatement(PreparedStatement preparedStatement) {
+        RangeRequest rangeRequest = getRangeQueryParameters.rangeRequest();
+        BoundStatement statement = preparedStatement.bind()
+                .setBytes("startRow", VersionedCellRows.toReadOnlyByteBuffer(rangeRequest.getStartInclusive()));
+        if (queryType() == QueryType.GET_RANGE) {
+            statement.setBytes("endRow", VersionedCellRows.toReadOnlyByteBuffer(rangeRequest.getEndExclusive()));
+        }
+        return statement;
+    }
+
+    @Override
+    public ConsistencyLevel queryConsistency() {
+        return ConsistencyLevel.LOCAL_QUORUM;
+    }
+
+    @Override
+    public RowStreamAccumulator<TokenBackedBasicResultsPage<RowResult<Value>, byte[]>> rowStreamAccumulator() {
+        return accumulator;
+    }
+
+    @org.immutables.value.Value.Immutable
+    public interface GetRangeQueryParameters {
+        RangeRequest rangeRequest();
+
+        long humanReadableTimestamp();
+
+        int batchSize();
+
+        @org.immutables.value.Value.Check
+        default void check() {
+            Preconditions.checkArgument(!rangeRequest().isReverse(), "Reverse range scans are not supported");
+            Preconditions.checkArgument(batchSize() > 0, "Batch size must be positive");
+        }
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (other == null || getClass() != other.getClass()) {
+            return false;
+        }
+        GetRangeQuerySpec that = (GetRangeQuerySpec) other;
+        return cqlQueryContext.equals(that.cqlQueryContext)
+                && getRangeQueryParameters.equals(that.getRangeQueryParameters);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(cqlQueryContext, getRangeQueryParameters);
+    }
+}
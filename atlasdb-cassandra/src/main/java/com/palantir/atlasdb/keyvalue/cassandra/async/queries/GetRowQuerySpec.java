@@ -0,0 +1,144 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.keyvalue.cassandra.async.queries;
+
+import java.util.Map;
+import java.util.Objects;
+
+import com.datastax.driver.core.BoundStatement;
+import com.datastax.driver.core.ConsistencyLevel;
+import com.datastax.driver.core.PreparedStatement;
+import com.datastax.driver.core.Statement;
+import com.palantir.atlasdb.encoding.PtBytes;
+import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.atlasdb.keyvalue.api.Value;
+import com.palantir.atlasdb.keyvalue.impl.AbstractKeyValueService;
+
+/**
+ * Reads the visible values of all cells in a row, or of the cells whose columns fall in a range. Unlike
+ * {@link GetQuerySpec} the timestamp cannot be pushed down to Cassandra, as restricting {@code column2} requires an
+ * equality restriction on {@code column1}; instead all versions are read and filtered as they stream in.
+ */
+public final class GetRowQuerySpec implements CqlQuerySpec<Map<Cell, Value>> {
+    private static final String QUERY_FORMAT = "SELECT " + VersionedCellRows.SELECTED_COLUMNS + " FROM \"%s\".\"%s\" "
+            + "WHERE key = :row";
+    private static final String START_COLUMN_RESTRICTION = " AND column1 >= :startColumn";
+    private static final String END_COLUMN_RESTRICTION = " AND column1 < :endColumn";
+
+    private final CqlQueryContext cqlQueryContext;
+    private final GetRowQueryParameters getRowQueryParameters;
+    private final VisibleValuesAccumulator accumulator;
+
+    public GetRowQuerySpec(CqlQueryContext cqlQueryContext, GetRowQueryParameters getRowQueryParameters) {
+        this.cqlQueryContext = cqlQueryContext;
+        this.getRowQueryParameters = getRowQueryParameters;
+        this.accumulator = new VisibleValuesAccumulator(getRowQueryParameters.humanReadableTimestamp());
+    }
+
+    @Override
+    public CqlQueryContext cqlQueryContext() {
+        return cqlQueryContext;
+    }
+
+    @Override
+    public QueryType queryType() {
+        if (getRowQueryParameters.endColumnExclusive().length != 0) {
+            return QueryType.GET_ROW_COLUMN_RANGE;
+        }
+        if (getRowQueryParameters.startColumnInclusive().length != 0) {
+            return QueryType.GET_ROW_COLUMNS_FROM;
+        }
+        return QueryType.GET_ROW;
+    }
+
+    @Override
+    public String formatQueryString() {
+        StringBuilder query = new StringBuilder(String.format(
+                QUERY_FORMAT,
+                cqlQueryContext().keyspace(),
+                AbstractKeyValueService.internalTableName(cqlQueryContext().tableReference())));
+        QueryType queryType = queryType();
+        if (queryType != QueryType.GET_ROW) {
+            query.append(START_COLUMN_RESTRICTION);
+        }
+        if (queryType == QueryType.GET_ROW_COLUMN_RANGE) {
+            query.append(END_COLUMN_RESTRICTION);
+        }
+        return query.append(';').toString();
+    }
+
+    @Override
+    public Statement makeExecutableStatement(PreparedStatement preparedStatement) {
+        BoundStatement statement = preparedStatement.bind()
+                .setBytes("row", VersionedCellRows.toReadOnlyByteBuffer(getRowQueryParameters.row()));
+        QueryType queryType = queryType();
+        if (queryType != QueryType.GET_ROW) {
+            statement.setBytes("startColumn",
+                    VersionedCellRows.toReadOnlyByteBuffer(getRowQueryParameters.startColumnInclusive()));
+        }
+        if (queryType == QueryType.GET_ROW_COLUMN_RANGE) {
+            statement.setBytes("endColumn",
+                    VersionedCellRows.toReadOnlyByteBuffer(getRowQueryParameters.endColumnExclusive()));
+        }
+        return statement;
+    }
+
+    @Override
+    public ConsistencyLevel queryConsistency() {
+        return ConsistencyLevel.LOCAL_QUORUM;
+    }
+
+    @Override
+    public RowStreamAccumulator<Map<Cell, Value>> rowStreamAccumulator() {
+        return accumulator;
+    }
+
+    @org.immutables.value.Value.Immutable
+    public interface GetRowQueryParameters {
+        byte[] row();
+
+        @org.immutables.value.Value.Default
+        default byte[] startColumnInclusive() {
+            return PtBytes.EMPTY_BYTE_ARRAY;
+        }
+
+        @org.immutables.value.Value.Default
+        default byte[] endColumnExclusive() {
+            return PtBytes.EMPTY_BYTE_ARRAY;
+        }
+
+        long humanReadableTimestamp();
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (other == null || getClass() != other.getClass()) {
+            return false;
+        }
+        GetRowQuerySpec that = (GetRowQuerySpec) other;
+        return cqlQueryContext.equals(that.cqlQueryContext)
+                && getRowQueryParameters.equals(that.getRowQueryParameters);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(cqlQueryContext, getRowQueryParameters);
+    }
+}
@@ -17,5 +17,10 @@
 package com.palantir.atlasdb.keyvalue.cassandra.async.queries;
 
 public enum QueryType {
-    GET
+    GET,
+    GET_ROW,
+    GET_ROW_COLUMNS_FROM,
+    GET_ROW_COLUMN_RANGE,
+    GET_RANGE_FROM,
+    GET_RANGE
 }
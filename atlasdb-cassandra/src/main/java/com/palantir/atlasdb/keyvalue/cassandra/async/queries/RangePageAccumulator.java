@@ -0,0 +1,120 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.keyvalue.cassandra.async.queries;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+import com.datastax.driver.core.Row;
+import com.google.common.collect.ImmutableList;
+import com.google.common.primitives.UnsignedBytes;
+import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.atlasdb.keyvalue.api.RangeRequest;
+import com.palantir.atlasdb.keyvalue.api.RowResult;
+import com.palantir.atlasdb.keyvalue.api.Value;
+import com.palantir.util.paging.SimpleTokenBackedResultsPage;
+import com.palantir.util.paging.TokenBackedBasicResultsPage;
+
+/**
+ * Accumulates the first {@code batchSize} rows of a range scan, keeping the latest value of each cell written strictly
+ * before a timestamp. Expects rows in partitioner order, which for the ordered partitioners AtlasDB requires is the
+ * lexicographic order of row names.
+ *
+ * Rows that turn out to have no visible cells still count towards the batch, so a page may contain fewer than
+ * {@code batchSize} rows even though more results are available, as allowed by
+ * {@link com.palantir.atlasdb.keyvalue.api.KeyValueService#getFirstBatchForRanges}.
+ */
+final class RangePageAccumulator
+        implements RowStreamAccumulator<TokenBackedBasicResultsPage<RowResult<Value>, byte[]>> {
+    private final RangeRequest rangeRequest;
+    private final long humanReadableTimestamp;
+    private final int batchSize;
+
+    private final ImmutableList.Builder<RowResult<Value>> rowResults = ImmutableList.builder();
+    private byte[] currentRow = null;
+    private SortedMap<byte[], Value> currentColumns = newColumnMap();
+    private int rowsSeen = 0;
+    private byte[] nextRow = null;
+
+    RangePageAccumulator(RangeRequest rangeRequest, long humanReadableTimestamp, int batchSize) {
+        this.rangeRequest = rangeRequest;
+        this.humanReadableTimestamp = humanReadableTimestamp;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void accumulateRowStream(Stream<Row> rowStream) {
+        rowStream.forEach(this::accumulate);
+    }
+
+    private void accumulate(Row row) {
+        if (isDone()) {
+            return;
+        }
+        byte[] rowName = VersionedCellRows.row(row);
+        if (!Arrays.equals(rowName, currentRow)) {
+            finishCurrentRow();
+            if (rowsSeen == batchSize) {
+                nextRow = rowName;
+                return;
+            }
+            currentRow = rowName;
+            rowsSeen++;
+        }
+
+        if (VersionedCellRows.timestamp(row) >= humanReadableTimestamp) {
+            return;
+        }
+        Cell cell = VersionedCellRows.cell(row);
+        if (rangeRequest.containsColumn(cell.getColumnName())) {
+            currentColumns.putIfAbsent(cell.getColumnName(), VersionedCellRows.value(row));
+        }
+    }
+
+    private void finishCurrentRow() {
+        if (!currentColumns.isEmpty()) {
+            rowResults.add(RowResult.create(currentRow, currentColumns));
+            currentColumns = newColumnMap();
+        }
+    }
+
+    @Override
+    public boolean isDone() {
+        return nextRow != null;
+    }
+
+    @Override
+    public TokenBackedBasicResultsPage<RowResult<Value>, byte[]> result() {
+        if (isDone()) {
+            return SimpleTokenBackedResultsPage.create(nextRow, rowResults.build(), true);
+        }
+        List<RowResult<Value>> results = ImmutableList.<RowResult<Value>>builder()
+                .addAll(rowResults.build())
+                .addAll(currentColumns.isEmpty()
+                        ? ImmutableList.of()
+                        : ImmutableList.of(RowResult.create(currentRow, currentColumns)))
+                .build();
+        return SimpleTokenBackedResultsPage.create(rangeRequest.getEndExclusive(), results, false);
+    }
+
+    private static SortedMap<byte[], Value> newColumnMap() {
+        return new TreeMap<>(UnsignedBytes.lexicographicalComparator());
+    }
+}
@@ -45,4 +45,14 @@ public interface RowStreamAccumulator<R> {
      * @return accumulated result
      */
     R result();
+
+    /**
+     * Whether the accumulator has seen all rows it needs, in which case no further pages of the result should be
+     * fetched. Rows passed in after this returns true are ignored.
+     *
+     * @return true if no more rows need to be accumulated
+     */
+    default boolean isDone() {
+        return false;
+    }
 }
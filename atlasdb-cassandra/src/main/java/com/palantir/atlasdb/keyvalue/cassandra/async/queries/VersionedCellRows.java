@@ -0,0 +1,62 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.keyvalue.cassandra.async.queries;
+
+import java.nio.ByteBuffer;
+
+import com.datastax.driver.core.Row;
+import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.atlasdb.keyvalue.api.Value;
+
+/**
+ * Parses rows selected as {@code key, column1, column2, value}, which is how the multi-version tables are laid out.
+ * Within a partition, rows are clustered by column and then by the bitwise complement of the timestamp, so the
+ * versions of each cell are returned newest first.
+ */
+final class VersionedCellRows {
+    static final String SELECTED_COLUMNS = "key, column1, column2, value";
+
+    private VersionedCellRows() {
+        // utility
+    }
+
+    static byte[] row(Row row) {
+        return toBytes(row.getBytes(0));
+    }
+
+    static Cell cell(Row row) {
+        return Cell.create(row(row), toBytes(row.getBytes(1)));
+    }
+
+    static long timestamp(Row row) {
+        return ~row.getLong(2);
+    }
+
+    static Value value(Row row) {
+        return Value.create(toBytes(row.getBytes(3)), timestamp(row));
+    }
+
+    static ByteBuffer toReadOnlyByteBuffer(byte[] bytes) {
+        return ByteBuffer.wrap(bytes).asReadOnlyBuffer();
+    }
+
+    private static byte[] toBytes(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.duplicate().get(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.keyvalue.cassandra.async.queries;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import com.datastax.driver.core.Row;
+import com.google.common.collect.ImmutableMap;
+import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.atlasdb.keyvalue.api.Value;
+
+/**
+ * Accumulates the latest value of each cell written strictly before a timestamp, as {@code get} would return it.
+ * Expects rows in clustering order, i.e. each cell's versions newest first.
+ */
+final class VisibleValuesAccumulator implements RowStreamAccumulator<Map<Cell, Value>> {
+    private final long humanReadableTimestamp;
+    private final Map<Cell, Value> visibleValues = new LinkedHashMap<>();
+
+    VisibleValuesAccumulator(long humanReadableTimestamp) {
+        this.humanReadableTimestamp = humanReadableTimestamp;
+    }
+
+    @Override
+    public void accumulateRowStream(Stream<Row> rowStream) {
+        rowStream.forEach(this::accumulate);
+    }
+
+    private void accumulate(Row row) {
+        if (VersionedCellRows.timestamp(row) >= humanReadableTimestamp) {
+            return;
+        }
+        visibleValues.putIfAbsent(VersionedCellRows.cell(row), VersionedCellRows.value(row));
+    }
+
+    @Override
+    public Map<Cell, Value> result() {
+        return ImmutableMap.copyOf(visibleValues);
+    }
+}
@@ -53,8 +53,9 @@ public class RowGetter {
 
     public List<KeySlice> getRows(String kvsMethodName, KeyRange keyRange, SlicePredicate slicePredicate) {
         InetSocketAddress host = clientPool.getRandomHostForKey(keyRange.getStart_key());
-        return clientPool.runWithRetryOnHost(
+        return clientPool.runWithSpeculativeRetryOnHost(
                 host,
+                keyRange.getStart_key(),
                 new FunctionCheckedException<CassandraClient, List<KeySlice>, RuntimeException>() {
                     @Override
                     public List<KeySlice> apply(CassandraClient client) {
@@ -40,12 +40,15 @@ public class CassandraClientPoolMetrics {
     // Tracks occurrences of client pool exhaustions.
     // Not bundled in with request metrics, as we seek to not produce host-level metrics for economic reasons.
     private final Counter poolExhaustionCounter;
+    private final Counter speculativeRetryCounter;
 
     public CassandraClientPoolMetrics(MetricsManager metricsManager) {
         this.metricsManager = metricsManager;
         this.aggregateRequestMetrics = new RequestMetrics(metricsManager, null);
         this.poolExhaustionCounter
                 = metricsManager.registerOrGetCounter(CassandraClientPoolMetrics.class, "pool-exhaustion");
+        this.speculativeRetryCounter
+                = metricsManager.registerOrGetCounter(CassandraClientPoolMetrics.class, "speculative-retry");
         this.outlierControllers = createOutlierControllers(metricsManager);
     }
 
@@ -102,6 +105,10 @@ public class CassandraClientPoolMetrics {
         poolExhaustionCounter.inc();
     }
 
+    public void recordSpeculativeRetry() {
+        speculativeRetryCounter.inc();
+    }
+
     @SuppressWarnings("unchecked") // Guaranteed to have the correct type
     public void registerPoolMetric(
             CassandraClientPoolHostLevelMetric metric,
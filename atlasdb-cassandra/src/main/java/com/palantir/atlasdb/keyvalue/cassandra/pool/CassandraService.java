@@ -27,6 +27,7 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.Random;
 import java.util.Set;
+import java.util.function.BiPredicate;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
@@ -80,10 +81,12 @@ public class CassandraService implements AutoCloseable {
     private List<InetSocketAddress> cassandraHosts;
 
     private volatile Set<InetSocketAddress> localHosts = ImmutableSet.of();
+    private volatile Set<InetSocketAddress> localDatacenterHosts = ImmutableSet.of();
     private final Supplier<Optional<HostLocation>> myLocationSupplier;
 
     private final Counter randomHostsSelected;
     private final Counter localHostsSelected;
+    private final Counter localDatacenterHostsSelected;
 
     private final Random random = new Random();
 
@@ -97,6 +100,8 @@ public class CassandraService implements AutoCloseable {
                 .safeName(MetricRegistry.name(CassandraService.class, "randomHostsSelected")).build());
         this.localHostsSelected = metricsManager.getTaggedRegistry().counter(MetricName.builder()
                 .safeName(MetricRegistry.name(CassandraService.class, "localHostsSelected")).build());
+        this.localDatacenterHostsSelected = metricsManager.getTaggedRegistry().counter(MetricName.builder()
+                .safeName(MetricRegistry.name(CassandraService.class, "localDatacenterHostsSelected")).build());
         this.config = config;
         this.myLocationSupplier = new HostLocationSupplier(this::getSnitch, config.overrideHostLocation());
         this.blacklist = blacklist;
@@ -118,6 +123,7 @@ public class CassandraService implements AutoCloseable {
             // grab latest token ring view from a random node in the cluster and update local hosts
             List<TokenRange> tokenRanges = getTokenRanges();
             localHosts = refreshLocalHosts(tokenRanges);
+            localDatacenterHosts = refreshLocalDatacenterHosts(tokenRanges);
 
             // RangeMap needs a little help with weird 1-node, 1-vnode, this-entire-feature-is-useless case
             if (tokenRanges.size() == 1) {
@@ -178,25 +184,38 @@ public class CassandraService implements AutoCloseable {
     }
 
     private Set<InetSocketAddress> refreshLocalHosts(List<TokenRange> tokenRanges) {
+        Set<InetSocketAddress> newLocalHosts = getHostsAtLocation(tokenRanges, CassandraService::isHostLocal);
+
+        if (newLocalHosts.isEmpty()) {
+            log.warn("No local hosts found");
+        }
+
+        return newLocalHosts;
+    }
+
+    private Set<InetSocketAddress> refreshLocalDatacenterHosts(List<TokenRange> tokenRanges) {
+        if (!config.latencyAwareHostSelection()) {
+            return ImmutableSet.of();
+        }
+        return getHostsAtLocation(tokenRanges, CassandraService::isHostInLocalDatacenter);
+    }
+
+    private Set<InetSocketAddress> getHostsAtLocation(
+            List<TokenRange> tokenRanges,
+            BiPredicate<EndpointDetails, HostLocation> isAtLocation) {
         Optional<HostLocation> myLocation = myLocationSupplier.get();
 
         if (!myLocation.isPresent()) {
             return ImmutableSet.of();
         }
 
-        Set<InetSocketAddress> newLocalHosts = tokenRanges.stream()
+        return tokenRanges.stream()
                 .map(TokenRange::getEndpoint_details)
                 .flatMap(Collection::stream)
-                .filter(details -> isHostLocal(details, myLocation.get()))
+                .filter(details -> isAtLocation.test(details, myLocation.get()))
                 .map(EndpointDetails::getHost)
                 .map(this::getAddressForHostThrowUnchecked)
                 .collect(Collectors.toSet());
-
-        if (newLocalHosts.isEmpty()) {
-            log.warn("No local hosts found");
-        }
-
-        return newLocalHosts;
     }
 
     private static boolean isHostLocal(EndpointDetails details, HostLocation myLocation) {
@@ -204,11 +223,21 @@ public class CassandraService implements AutoCloseable {
                 && myLocation.isProbablySameRackAs(details.getDatacenter(), details.getRack());
     }
 
+    private static boolean isHostInLocalDatacenter(EndpointDetails details, HostLocation myLocation) {
+        return details.isSetDatacenter() && details.isSetHost()
+                && myLocation.isProbablySameDatacenterAs(details.getDatacenter());
+    }
+
     @VisibleForTesting
     void setLocalHosts(Set<InetSocketAddress> localHosts) {
         this.localHosts = localHosts;
     }
 
+    @VisibleForTesting
+    void setLocalDatacenterHosts(Set<InetSocketAddress> localDatacenterHosts) {
+        this.localDatacenterHosts = localDatacenterHosts;
+    }
+
     public Set<InetSocketAddress> getLocalHosts() {
         return localHosts;
     }
@@ -300,6 +329,12 @@ public class CassandraService implements AutoCloseable {
                 localHostsSelected.inc();
                 return localFilteredHosts;
             }
+            // only populated if latency aware host selection is enabled
+            Set<InetSocketAddress> localDatacenterFilteredHosts = Sets.intersection(localDatacenterHosts, hosts);
+            if (!localDatacenterFilteredHosts.isEmpty()) {
+                localDatacenterHostsSelected.inc();
+                return localDatacenterFilteredHosts;
+            }
         }
 
         randomHostsSelected.inc();
@@ -316,7 +351,10 @@ public class CassandraService implements AutoCloseable {
             return Optional.empty();
         }
 
-        return Optional.of(WeightedHosts.create(matchingPools).getRandomHost());
+        WeightedHosts weightedHosts = config.latencyAwareHostSelection()
+                ? WeightedHosts.createLatencyAware(matchingPools)
+                : WeightedHosts.create(matchingPools);
+        return Optional.of(weightedHosts.getRandomHost());
     }
 
     public void debugLogStateOfPool() {
@@ -370,6 +408,25 @@ public class CassandraService implements AutoCloseable {
         return getRandomGoodHost().getHost();
     }
 
+    /**
+     * Returns a live host, other than the given host, which owns the given key, if there is one. This is suitable for
+     * retrying a request which the given host has been slow to respond to.
+     */
+    public Optional<InetSocketAddress> getRandomHostForKeyExcluding(byte[] key, InetSocketAddress excludedHost) {
+        List<InetSocketAddress> hostsForKey = getHostsFor(key);
+        if (hostsForKey == null) {
+            return Optional.empty();
+        }
+
+        Set<InetSocketAddress> otherLiveOwnerHosts = Sets.difference(
+                blacklist.filterBlacklistedHostsFrom(hostsForKey),
+                ImmutableSet.of(excludedHost));
+        if (otherLiveOwnerHosts.isEmpty()) {
+            return Optional.empty();
+        }
+        return getRandomHostByActiveConnections(otherLiveOwnerHosts);
+    }
+
     public void addPool(InetSocketAddress server) {
         int currentPoolNumber = cassandraHosts.indexOf(server) + 1;
         currentPools.put(server,
@@ -0,0 +1,77 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.keyvalue.cassandra.pool;
+
+import java.util.OptionalDouble;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.SlidingTimeWindowArrayReservoir;
+import com.codahale.metrics.Snapshot;
+import com.google.common.base.Suppliers;
+
+/**
+ * Tracks the response times of requests to a single Cassandra host. The exponentially weighted moving average of all
+ * requests reacts within a few requests to a host slowing down, and is used to balance load between hosts. Percentiles
+ * of reads alone are taken over a sliding window, and are used to decide when a read has been outstanding for long
+ * enough to retry it elsewhere; writes, CAS and other requests are excluded, as their latencies say little about how
+ * long a read should take.
+ */
+public final class HostLatencyTracker {
+    private static final double SMOOTHING_FACTOR = 0.1;
+    private static final long WINDOW_SECONDS = 60;
+    private static final long SNAPSHOT_REFRESH_MILLIS = 1_000;
+
+    private final AtomicLong movingAverageNanosBits = new AtomicLong(Double.doubleToRawLongBits(Double.NaN));
+    private final Histogram readLatencies = new Histogram(
+            new SlidingTimeWindowArrayReservoir(WINDOW_SECONDS, TimeUnit.SECONDS));
+    // taking a snapshot copies the window, so is too expensive to do for every request
+    private final Supplier<Snapshot> snapshot = Suppliers.memoizeWithExpiration(
+            readLatencies::getSnapshot, SNAPSHOT_REFRESH_MILLIS, TimeUnit.MILLISECONDS);
+
+    public void recordLatency(long latencyNanos) {
+        movingAverageNanosBits.getAndUpdate(bits -> {
+            double average = Double.longBitsToDouble(bits);
+            double updated = Double.isNaN(average)
+                    ? latencyNanos
+                    : average + SMOOTHING_FACTOR * (latencyNanos - average);
+            return Double.doubleToRawLongBits(updated);
+        });
+    }
+
+    /**
+     * Returns the moving average of response times, or empty if no request to this host has completed.
+     */
+    public OptionalDouble getMovingAverageLatencyNanos() {
+        double average = Double.longBitsToDouble(movingAverageNanosBits.get());
+        return Double.isNaN(average) ? OptionalDouble.empty() : OptionalDouble.of(average);
+    }
+
+    public void recordReadLatency(long latencyNanos) {
+        readLatencies.update(latencyNanos);
+    }
+
+    /**
+     * Returns the given quantile of the response times of reads in the last minute, which may be up to a second stale,
+     * or zero if there were no reads in that time.
+     */
+    public long getReadLatencyQuantileNanos(double quantile) {
+        return (long) snapshot.get().getValue(quantile);
+    }
+}
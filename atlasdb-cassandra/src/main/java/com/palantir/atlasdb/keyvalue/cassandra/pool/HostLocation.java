@@ -39,6 +39,10 @@ public interface HostLocation {
     }
 
     default boolean isProbablySameRackAs(String datacenter, String rack) {
-        return rack().equals(rack) && datacenter.startsWith(datacenter());
+        return rack().equals(rack) && isProbablySameDatacenterAs(datacenter);
+    }
+
+    default boolean isProbablySameDatacenterAs(String datacenter) {
+        return datacenter.startsWith(datacenter());
     }
 }
@@ -19,6 +19,7 @@ import java.net.InetSocketAddress;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.NavigableMap;
+import java.util.OptionalDouble;
 import java.util.TreeMap;
 import java.util.concurrent.ThreadLocalRandom;
 
@@ -26,10 +27,12 @@ import com.palantir.atlasdb.keyvalue.cassandra.CassandraClientPoolingContainer;
 import com.palantir.logsafe.Preconditions;
 
 /**
- * Weights hosts inversely by the number of active connections. {@link #getRandomHost()} should then be used to
- * pick a random host
+ * Weights hosts inversely by the number of active connections, or by their expected response time. {@link
+ * #getRandomHost()} should then be used to pick a random host
  */
 public final class WeightedHosts {
+    private static final int LATENCY_WEIGHT_SCALE = 1_000;
+
     final NavigableMap<Integer, InetSocketAddress> hosts;
 
     private WeightedHosts(NavigableMap<Integer, InetSocketAddress> hosts) {
@@ -41,6 +44,16 @@ public final class WeightedHosts {
         return new WeightedHosts(buildHostsWeightedByActiveConnections(pools));
     }
 
+    /**
+     * Weights hosts inversely by their expected response time: the moving average of their recent response times,
+     * multiplied by one more than their number of open requests. Hosts which have not yet served a request are
+     * assumed to be as fast as the fastest host, so that they are tried.
+     */
+    public static WeightedHosts createLatencyAware(Map<InetSocketAddress, CassandraClientPoolingContainer> pools) {
+        Preconditions.checkArgument(!pools.isEmpty(), "pools should be non-empty");
+        return new WeightedHosts(buildHostsWeightedByExpectedLatency(pools));
+    }
+
     /**
      * The key for a host is the open upper bound of the weight. Since the domain is intended to be contiguous, the
      * closed lower bound of that weight is the key of the previous entry.
@@ -73,6 +86,37 @@ public final class WeightedHosts {
         return weightedHosts;
     }
 
+    private static NavigableMap<Integer, InetSocketAddress> buildHostsWeightedByExpectedLatency(
+            Map<InetSocketAddress, CassandraClientPoolingContainer> pools) {
+        double fastestLatency = pools.values().stream()
+                .map(CassandraClientPoolingContainer::getMovingAverageLatencyNanos)
+                .filter(OptionalDouble::isPresent)
+                .mapToDouble(OptionalDouble::getAsDouble)
+                .min()
+                .orElse(1.0);
+
+        Map<InetSocketAddress, Double> expectedLatencyByHost = new HashMap<>(pools.size());
+        double lowestExpectedLatency = Double.MAX_VALUE;
+        for (Map.Entry<InetSocketAddress, CassandraClientPoolingContainer> poolEntry : pools.entrySet()) {
+            CassandraClientPoolingContainer pool = poolEntry.getValue();
+            double latency = Math.max(pool.getMovingAverageLatencyNanos().orElse(fastestLatency), 1.0);
+            double expectedLatency = latency * (Math.max(pool.getOpenRequests(), 0) + 1);
+            expectedLatencyByHost.put(poolEntry.getKey(), expectedLatency);
+            lowestExpectedLatency = Math.min(lowestExpectedLatency, expectedLatency);
+        }
+
+        int lowerBoundInclusive = 0;
+        NavigableMap<Integer, InetSocketAddress> weightedHosts = new TreeMap<>();
+        for (Map.Entry<InetSocketAddress, Double> entry : expectedLatencyByHost.entrySet()) {
+            // The fastest host gets the full scale. Every weight is at least 1 so that slow hosts are still tried,
+            // and we notice when they recover.
+            int weight = (int) Math.max(1, Math.round(LATENCY_WEIGHT_SCALE * lowestExpectedLatency / entry.getValue()));
+            weightedHosts.put(lowerBoundInclusive + weight, entry.getKey());
+            lowerBoundInclusive += weight;
+        }
+        return weightedHosts;
+    }
+
     public InetSocketAddress getRandomHost() {
         int index = ThreadLocalRandom.current().nextInt(hosts.lastKey());
         return getRandomHostInternal(index);
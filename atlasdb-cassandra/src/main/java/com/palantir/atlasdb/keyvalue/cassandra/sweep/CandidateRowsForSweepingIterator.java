@@ -20,6 +20,7 @@ import java.util.List;
 import com.google.common.collect.AbstractIterator;
 import com.google.common.collect.Iterables;
 import com.palantir.atlasdb.cassandra.CassandraKeyValueServiceConfig;
+import com.palantir.atlasdb.encoding.PtBytes;
 import com.palantir.atlasdb.keyvalue.api.CandidateCellForSweepingRequest;
 import com.palantir.atlasdb.keyvalue.api.RangeRequests;
 import com.palantir.atlasdb.keyvalue.api.TableReference;
@@ -35,6 +36,7 @@ public class CandidateRowsForSweepingIterator extends AbstractIterator<List<Cand
     private final RowGetter rowGetter;
     private final TableReference table;
     private final CandidateCellForSweepingRequest request;
+    private final byte[] endRowExclusive;
 
     byte[] nextStartRow;
     private CassandraKeyValueServiceConfig config;
@@ -46,11 +48,27 @@ public class CandidateRowsForSweepingIterator extends AbstractIterator<List<Cand
             TableReference table,
             CandidateCellForSweepingRequest request,
             CassandraKeyValueServiceConfig config) {
+        this(valuesLoader, cqlExecutor, rowGetter, table, request, PtBytes.EMPTY_BYTE_ARRAY, config);
+    }
+
+    /**
+     * Iterates over the candidate rows from the request's start row up to, but excluding, {@code endRowExclusive}.
+     * An empty end row means the iteration continues to the end of the table.
+     */
+    public CandidateRowsForSweepingIterator(
+            ValuesLoader valuesLoader,
+            CqlExecutor cqlExecutor,
+            RowGetter rowGetter,
+            TableReference table,
+            CandidateCellForSweepingRequest request,
+            byte[] endRowExclusive,
+            CassandraKeyValueServiceConfig config) {
         this.valuesLoader = valuesLoader;
         this.cqlExecutor = cqlExecutor;
         this.rowGetter = rowGetter;
         this.table = table;
         this.request = request;
+        this.endRowExclusive = endRowExclusive;
         this.config = config;
 
         nextStartRow = request.startRowInclusive();
@@ -75,6 +93,7 @@ public class CandidateRowsForSweepingIterator extends AbstractIterator<List<Cand
                 rowGetter,
                 table,
                 request.withStartRow(nextStartRow),
+                endRowExclusive,
                 config)
                 .execute();
     }
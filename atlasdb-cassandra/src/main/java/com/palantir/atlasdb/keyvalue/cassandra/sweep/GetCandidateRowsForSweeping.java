@@ -26,6 +26,7 @@ import java.util.stream.Collectors;
 
 import com.google.common.collect.Lists;
 import com.palantir.atlasdb.cassandra.CassandraKeyValueServiceConfig;
+import com.palantir.atlasdb.encoding.PtBytes;
 import com.palantir.atlasdb.keyvalue.api.CandidateCellForSweeping;
 import com.palantir.atlasdb.keyvalue.api.CandidateCellForSweepingRequest;
 import com.palantir.atlasdb.keyvalue.api.Cell;
@@ -43,6 +44,7 @@ public class GetCandidateRowsForSweeping {
     private final RowGetter rowGetter;
     private final TableReference table;
     private final CandidateCellForSweepingRequest request;
+    private final byte[] endRowExclusive;
     private final int timestampsBatchSize;
     private CassandraKeyValueServiceConfig config;
     private final int valuesBatchSize;
@@ -57,10 +59,22 @@ public class GetCandidateRowsForSweeping {
             TableReference table,
             CandidateCellForSweepingRequest request,
             CassandraKeyValueServiceConfig config) {
+        this(valuesLoader, cqlExecutor, rowGetter, table, request, PtBytes.EMPTY_BYTE_ARRAY, config);
+    }
+
+    public GetCandidateRowsForSweeping(
+            ValuesLoader valuesLoader,
+            CqlExecutor cqlExecutor,
+            RowGetter rowGetter,
+            TableReference table,
+            CandidateCellForSweepingRequest request,
+            byte[] endRowExclusive,
+            CassandraKeyValueServiceConfig config) {
         this.table = table;
         this.cqlExecutor = cqlExecutor;
         this.rowGetter = rowGetter;
         this.request = request;
+        this.endRowExclusive = endRowExclusive;
         this.valuesLoader = valuesLoader;
         this.config = config;
 
@@ -82,7 +96,7 @@ public class GetCandidateRowsForSweeping {
 
     private void fetchCellTimestamps() {
         cellTimestamps = new GetCellTimestamps(cqlExecutor, rowGetter, table, request.startRowInclusive(),
-                timestampsBatchSize, config).execute();
+                endRowExclusive, timestampsBatchSize, config).execute();
     }
 
     public void findCellsWithEmptyValuesIfNeeded() {
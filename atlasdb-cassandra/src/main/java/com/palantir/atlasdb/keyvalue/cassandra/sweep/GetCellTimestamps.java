@@ -24,6 +24,7 @@ import java.util.stream.Collectors;
 
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
+import com.google.common.primitives.UnsignedBytes;
 import com.palantir.atlasdb.cassandra.CassandraKeyValueServiceConfig;
 import com.palantir.atlasdb.encoding.PtBytes;
 import com.palantir.atlasdb.keyvalue.api.Cell;
@@ -39,6 +40,7 @@ public class GetCellTimestamps {
     private final CqlExecutor cqlExecutor;
     private final TableReference tableRef;
     private final byte[] startRowInclusive;
+    private final byte[] endRowExclusive;
     private final int batchHint;
     private CassandraKeyValueServiceConfig config;
 
@@ -51,10 +53,26 @@ public class GetCellTimestamps {
             byte[] startRowInclusive,
             int batchHint,
             CassandraKeyValueServiceConfig config) {
+        this(cqlExecutor, rowGetter, tableRef, startRowInclusive, PtBytes.EMPTY_BYTE_ARRAY, batchHint, config);
+    }
+
+    /**
+     * Only timestamps for rows strictly before {@code endRowExclusive} are fetched; an empty array means the scan
+     * continues to the end of the table.
+     */
+    public GetCellTimestamps(
+            CqlExecutor cqlExecutor,
+            RowGetter rowGetter,
+            TableReference tableRef,
+            byte[] startRowInclusive,
+            byte[] endRowExclusive,
+            int batchHint,
+            CassandraKeyValueServiceConfig config) {
         this.cqlExecutor = cqlExecutor;
         this.rowGetter = rowGetter;
         this.tableRef = tableRef;
         this.startRowInclusive = startRowInclusive;
+        this.endRowExclusive = endRowExclusive;
         this.batchHint = batchHint;
         this.config = config;
     }
@@ -98,20 +116,36 @@ public class GetCellTimestamps {
         Integer executorThreads = config.sweepReadThreads();
         ExecutorService executor = PTExecutors.newFixedThreadPool(executorThreads);
 
-        while (timestamps.isEmpty()) {
-            List<byte[]> rows = rowGetter.getRowKeysInRange(rangeStart, PtBytes.EMPTY_BYTE_ARRAY, batchHint);
-            if (rows.isEmpty()) {
-                return;
+        try {
+            while (timestamps.isEmpty()) {
+                // The end key of a thrift range scan is inclusive, so the end row itself may be returned
+                List<byte[]> rows = rowGetter.getRowKeysInRange(rangeStart, endRowExclusive, batchHint);
+                List<byte[]> rowsInRange = removeRowsAtOrAfterEnd(rows);
+                if (rowsInRange.isEmpty()) {
+                    return;
+                }
+
+                // Note that both ends of this range are *inclusive*
+                List<CellWithTimestamp> batch = cqlExecutor.getTimestamps(tableRef, rowsInRange, batchHint, executor,
+                        executorThreads);
+                timestamps.addAll(batch);
+                if (rowsInRange.size() < rows.size()) {
+                    return;
+                }
+                rangeStart = RangeRequests.nextLexicographicName(Iterables.getLast(rows));
             }
-
-            // Note that both ends of this range are *inclusive*
-            List<CellWithTimestamp> batch = cqlExecutor.getTimestamps(tableRef, rows, batchHint, executor,
-                    executorThreads);
-            timestamps.addAll(batch);
-            rangeStart = RangeRequests.nextLexicographicName(Iterables.getLast(rows));
+        } finally {
+            executor.shutdown();
         }
+    }
 
-        executor.shutdown();
+    private List<byte[]> removeRowsAtOrAfterEnd(List<byte[]> rows) {
+        if (endRowExclusive.length == 0) {
+            return rows;
+        }
+        return rows.stream()
+                .filter(row -> UnsignedBytes.lexicographicalComparator().compare(row, endRowExclusive) < 0)
+                .collect(Collectors.toList());
     }
 
     private void fetchRemainingTimestampsForLastRow() {
@@ -0,0 +1,226 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.keyvalue.cassandra.sweep;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.AbstractIterator;
+import com.palantir.atlasdb.cassandra.CassandraKeyValueServiceConfig;
+import com.palantir.atlasdb.keyvalue.api.CandidateCellForSweepingRequest;
+import com.palantir.atlasdb.keyvalue.api.RangeRequest;
+import com.palantir.atlasdb.keyvalue.api.RangeRequests;
+import com.palantir.atlasdb.keyvalue.api.TableReference;
+import com.palantir.atlasdb.keyvalue.cassandra.CqlExecutor;
+import com.palantir.atlasdb.keyvalue.cassandra.paging.RowGetter;
+import com.palantir.common.base.ClosableIterator;
+import com.palantir.common.base.Throwables;
+import com.palantir.common.concurrent.PTExecutors;
+import com.palantir.logsafe.Preconditions;
+import com.palantir.logsafe.SafeArg;
+
+/**
+ * Iterates over the candidate rows of a table by splitting it into contiguous sub-ranges, typically at the token range
+ * boundaries of the Cassandra ring, and scanning up to {@code parallelism} of them concurrently. Each sub-range is read
+ * by a {@link CandidateRowsForSweepingIterator}, so its reads go to the replicas owning that range, and buffers a
+ * bounded number of batches ahead of the consumer.
+ *
+ * Batches are returned in the order of the sub-ranges, so rows are returned in the same order as by a serial scan.
+ */
+public final class ParallelCandidateRowsForSweepingIterator extends AbstractIterator<List<CandidateRowForSweeping>>
+        implements ClosableIterator<List<CandidateRowForSweeping>> {
+    private static final int BATCHES_BUFFERED_PER_RANGE = 4;
+    private static final long OFFER_TIMEOUT_MILLIS = 100;
+
+    private final Iterator<Supplier<ClosableIterator<List<CandidateRowForSweeping>>>> pendingRanges;
+    private final Deque<RangeScan> runningScans = new ArrayDeque<>();
+    private final int parallelism;
+    private final ExecutorService executor;
+
+    private volatile boolean closed = false;
+
+    @VisibleForTesting
+    ParallelCandidateRowsForSweepingIterator(
+            List<Supplier<ClosableIterator<List<CandidateRowForSweeping>>>> rangeScans,
+            int parallelism,
+            ExecutorService executor) {
+        Preconditions.checkArgument(parallelism > 0, "Parallelism must be positive",
+                SafeArg.of("parallelism", parallelism));
+        this.pendingRanges = rangeScans.iterator();
+        this.parallelism = parallelism;
+        this.executor = executor;
+    }
+
+    /**
+     * Creates an iterator scanning the range of the request split at the given row names, which need not be sorted;
+     * split points outside the range are ignored.
+     */
+    public static ParallelCandidateRowsForSweepingIterator create(
+            ValuesLoader valuesLoader,
+            CqlExecutor cqlExecutor,
+            RowGetter rowGetter,
+            TableReference table,
+            CandidateCellForSweepingRequest request,
+            Iterable<byte[]> splitPoints,
+            CassandraKeyValueServiceConfig config,
+            int parallelism) {
+        RangeRequest range = RangeRequest.builder().startRowInclusive(request.startRowInclusive()).build();
+        List<Supplier<ClosableIterator<List<CandidateRowForSweeping>>>> rangeScans =
+                RangeRequests.splitRange(range, splitPoints).stream()
+                        .<Supplier<ClosableIterator<List<CandidateRowForSweeping>>>>map(subRange ->
+                                () -> new CandidateRowsForSweepingIterator(
+                                        valuesLoader,
+                                        cqlExecutor,
+                                        rowGetter,
+                                        table,
+                                        request.withStartRow(subRange.getStartInclusive()),
+                                        subRange.getEndExclusive(),
+                                        config))
+                        .collect(Collectors.toList());
+        int threads = Math.min(parallelism, rangeScans.size());
+        return new ParallelCandidateRowsForSweepingIterator(
+                rangeScans,
+                threads,
+                PTExecutors.newFixedThreadPool(threads, "Sweep Candidate Range Scanner"));
+    }
+
+    @Override
+    protected List<CandidateRowForSweeping> computeNext() {
+        while (true) {
+            startRangeScansUpToParallelism();
+            RangeScan scan = runningScans.peekFirst();
+            if (scan == null) {
+                executor.shutdown();
+                return endOfData();
+            }
+
+            Optional<List<CandidateRowForSweeping>> batch = scan.nextBatch();
+            if (batch.isPresent()) {
+                return batch.get();
+            }
+            runningScans.removeFirst();
+        }
+    }
+
+    private void startRangeScansUpToParallelism() {
+        while (runningScans.size() < parallelism && pendingRanges.hasNext()) {
+            RangeScan scan = new RangeScan(pendingRanges.next());
+            executor.execute(scan);
+            runningScans.addLast(scan);
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        executor.shutdownNow();
+    }
+
+    private final class RangeScan implements Runnable {
+        private final Supplier<ClosableIterator<List<CandidateRowForSweeping>>> batchesSupplier;
+        private final BlockingQueue<RangeScanResult> results = new ArrayBlockingQueue<>(BATCHES_BUFFERED_PER_RANGE);
+
+        private RangeScan(Supplier<ClosableIterator<List<CandidateRowForSweeping>>> batchesSupplier) {
+            this.batchesSupplier = batchesSupplier;
+        }
+
+        @Override
+        public void run() {
+            try {
+                scan();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void scan() throws InterruptedException {
+            RangeScanResult lastResult;
+            try (ClosableIterator<List<CandidateRowForSweeping>> batches = batchesSupplier.get()) {
+                while (batches.hasNext()) {
+                    if (!offer(RangeScanResult.batch(batches.next()))) {
+                        return;
+                    }
+                }
+                lastResult = RangeScanResult.END;
+            } catch (RuntimeException | Error e) {
+                lastResult = RangeScanResult.failure(e);
+            }
+            offer(lastResult);
+        }
+
+        /**
+         * Blocks until the consumer has room for the result, returning false if the iterator is closed first.
+         */
+        private boolean offer(RangeScanResult result) throws InterruptedException {
+            while (!closed) {
+                if (results.offer(result, OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Returns the next batch of this range, or empty if the range has been fully scanned.
+         */
+        private Optional<List<CandidateRowForSweeping>> nextBatch() {
+            RangeScanResult result;
+            try {
+                result = results.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw Throwables.rewrapAndThrowUncheckedException(e);
+            }
+
+            if (result.failure != null) {
+                close();
+                throw Throwables.rewrapAndThrowUncheckedException(result.failure);
+            }
+            return Optional.ofNullable(result.batch);
+        }
+    }
+
+    private static final class RangeScanResult {
+        private static final RangeScanResult END = new RangeScanResult(null, null);
+
+        private final List<CandidateRowForSweeping> batch;
+        private final Throwable failure;
+
+        private RangeScanResult(List<CandidateRowForSweeping> batch, Throwable failure) {
+            this.batch = batch;
+            this.failure = failure;
+        }
+
+        private static RangeScanResult batch(List<CandidateRowForSweeping> batch) {
+            return new RangeScanResult(batch, null);
+        }
+
+        private static RangeScanResult failure(Throwable failure) {
+            return new RangeScanResult(null, failure);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.keyvalue.cassandra;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class SpeculativeRetrierTest {
+    private static final long LONG_DELAY_NANOS = TimeUnit.SECONDS.toNanos(10);
+    private static final long SHORT_DELAY_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final AtomicInteger speculativeRetries = new AtomicInteger();
+    private final SpeculativeRetrier retrier = new SpeculativeRetrier(executor, speculativeRetries::incrementAndGet);
+    private final CountDownLatch neverReleased = new CountDownLatch(1);
+
+    @After
+    public void after() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void returnsResultOfFastRequestWithoutRetrying() {
+        String result = retrier.run(() -> "original", () -> "speculative", LONG_DELAY_NANOS);
+
+        assertThat(result).isEqualTo("original");
+        assertThat(speculativeRetries).hasValue(0);
+    }
+
+    @Test
+    public void throwsFailureOfFastRequestWithoutRetrying() {
+        assertThatThrownBy(() -> retrier.<String, IOException>run(
+                () -> {
+                    throw new IOException("original");
+                },
+                () -> "speculative",
+                LONG_DELAY_NANOS))
+                .isInstanceOf(IOException.class)
+                .hasMessage("original");
+        assertThat(speculativeRetries).hasValue(0);
+    }
+
+    @Test
+    public void returnsResultOfSpeculativeRequestIfOriginalIsSlow() throws InterruptedException {
+        String result = retrier.run(this::blockForever, () -> "speculative", SHORT_DELAY_NANOS);
+
+        assertThat(result).isEqualTo("speculative");
+        assertThat(speculativeRetries).hasValue(1);
+    }
+
+    @Test
+    public void returnsResultOfSlowOriginalIfSpeculativeRequestFails() throws InterruptedException {
+        CountDownLatch speculativeFailed = new CountDownLatch(1);
+        String result = retrier.run(
+                () -> {
+                    speculativeFailed.await();
+                    return "original";
+                },
+                () -> {
+                    speculativeFailed.countDown();
+                    throw new IllegalStateException("speculative");
+                },
+                SHORT_DELAY_NANOS);
+
+        assertThat(result).isEqualTo("original");
+    }
+
+    @Test
+    public void throwsFailureOfOriginalIfBothRequestsFail() {
+        CountDownLatch speculativeFailed = new CountDownLatch(1);
+        assertThatThrownBy(() -> retrier.run(
+                () -> {
+                    speculativeFailed.await();
+                    throw new IllegalStateException("original");
+                },
+                () -> {
+                    speculativeFailed.countDown();
+                    throw new IllegalStateException("speculative");
+                },
+                SHORT_DELAY_NANOS))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("original");
+    }
+
+    private String blockForever() throws InterruptedException {
+        neverReleased.await();
+        return "original";
+    }
+}
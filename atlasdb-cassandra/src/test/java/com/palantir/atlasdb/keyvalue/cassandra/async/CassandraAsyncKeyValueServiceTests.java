@@ -30,6 +30,7 @@ import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.MoreExecutors;
@@ -37,14 +38,23 @@ import com.palantir.atlasdb.encoding.PtBytes;
 import com.palantir.atlasdb.futures.AtlasFutures;
 import com.palantir.atlasdb.keyvalue.api.AsyncKeyValueService;
 import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.atlasdb.keyvalue.api.ColumnSelection;
 import com.palantir.atlasdb.keyvalue.api.Namespace;
+import com.palantir.atlasdb.keyvalue.api.RangeRequest;
+import com.palantir.atlasdb.keyvalue.api.RowResult;
 import com.palantir.atlasdb.keyvalue.api.TableReference;
 import com.palantir.atlasdb.keyvalue.api.Value;
 import com.palantir.atlasdb.keyvalue.cassandra.async.queries.CqlQueryContext;
 import com.palantir.atlasdb.keyvalue.cassandra.async.queries.GetQuerySpec;
+import com.palantir.atlasdb.keyvalue.cassandra.async.queries.GetRangeQuerySpec;
+import com.palantir.atlasdb.keyvalue.cassandra.async.queries.GetRowQuerySpec;
 import com.palantir.atlasdb.keyvalue.cassandra.async.queries.ImmutableCqlQueryContext;
 import com.palantir.atlasdb.keyvalue.cassandra.async.queries.ImmutableGetQueryParameters;
+import com.palantir.atlasdb.keyvalue.cassandra.async.queries.ImmutableGetRangeQueryParameters;
+import com.palantir.atlasdb.keyvalue.cassandra.async.queries.ImmutableGetRowQueryParameters;
 import com.palantir.common.random.RandomBytes;
+import com.palantir.util.paging.SimpleTokenBackedResultsPage;
+import com.palantir.util.paging.TokenBackedBasicResultsPage;
 
 @RunWith(MockitoJUnitRunner.class)
 public class CassandraAsyncKeyValueServiceTests {
@@ -112,6 +122,59 @@ public class CassandraAsyncKeyValueServiceTests {
         assertThat(result).containsOnlyKeys(VISIBLE_CELL_1, VISIBLE_CELL_2);
     }
 
+    @Test
+    public void getRowsAsyncMergesResultsOfEachRow() throws Exception {
+        byte[] otherRow = PtBytes.toBytes(101);
+        Cell otherRowCell = Cell.create(otherRow, PtBytes.toBytes(200));
+        Value value = Value.create(RandomBytes.ofLength(10), 10L);
+        when(cqlClient.executeQuery(buildGetRowQuerySpec(VISIBLE_CELL_1.getRowName())))
+                .thenReturn(Futures.immediateFuture(ImmutableMap.of(VISIBLE_CELL_1, value, VISIBLE_CELL_2, value)));
+        when(cqlClient.executeQuery(buildGetRowQuerySpec(otherRow)))
+                .thenReturn(Futures.immediateFuture(ImmutableMap.of(otherRowCell, value)));
+
+        Map<Cell, Value> result = asyncKeyValueService.getRowsAsync(
+                TABLE,
+                ImmutableList.of(VISIBLE_CELL_1.getRowName(), otherRow),
+                ColumnSelection.all(),
+                TIMESTAMP).get();
+
+        assertThat(result).containsOnlyKeys(VISIBLE_CELL_1, VISIBLE_CELL_2, otherRowCell);
+    }
+
+    @Test
+    public void getRowsAsyncReadsSelectedColumnsAsCells() throws Exception {
+        setUpVisibleCells(VISIBLE_CELL_1);
+        setUpNonVisibleCells(NON_VISIBLE_CELL);
+
+        Map<Cell, Value> result = asyncKeyValueService.getRowsAsync(
+                TABLE,
+                ImmutableList.of(VISIBLE_CELL_1.getRowName()),
+                ColumnSelection.create(ImmutableList.of(
+                        VISIBLE_CELL_1.getColumnName(),
+                        NON_VISIBLE_CELL.getColumnName())),
+                TIMESTAMP).get();
+
+        assertThat(result).containsOnlyKeys(VISIBLE_CELL_1);
+    }
+
+    @Test
+    public void getFirstBatchForRangeAsyncUsesBatchHintAsPageSize() throws Exception {
+        RangeRequest rangeRequest = RangeRequest.builder().batchHint(7).build();
+        TokenBackedBasicResultsPage<RowResult<Value>, byte[]> page =
+                SimpleTokenBackedResultsPage.create(PtBytes.EMPTY_BYTE_ARRAY, ImmutableList.of(), false);
+        GetRangeQuerySpec expectedSpec = new GetRangeQuerySpec(
+                CQL_QUERY_CONTEXT,
+                ImmutableGetRangeQueryParameters.builder()
+                        .rangeRequest(rangeRequest)
+                        .humanReadableTimestamp(TIMESTAMP)
+                        .batchSize(7)
+                        .build());
+        when(cqlClient.executeQuery(expectedSpec)).thenReturn(Futures.immediateFuture(page));
+
+        assertThat(asyncKeyValueService.getFirstBatchForRangeAsync(TABLE, rangeRequest, TIMESTAMP).get())
+                .isEqualTo(page);
+    }
+
     private void setUpVisibleCells(Cell... cells) {
         for (Cell cell : cells) {
             when(cqlClient.executeQuery(buildGetQuerySpec(buildGetQueryParameter(cell))))
@@ -127,6 +190,13 @@ public class CassandraAsyncKeyValueServiceTests {
         }
     }
 
+    private static GetRowQuerySpec buildGetRowQuerySpec(byte[] row) {
+        return new GetRowQuerySpec(CQL_QUERY_CONTEXT, ImmutableGetRowQueryParameters.builder()
+                .row(row)
+                .humanReadableTimestamp(TIMESTAMP)
+                .build());
+    }
+
     private static GetQuerySpec buildGetQuerySpec(GetQuerySpec.GetQueryParameters getQueryParameters) {
         return new GetQuerySpec(CQL_QUERY_CONTEXT, getQueryParameters);
     }
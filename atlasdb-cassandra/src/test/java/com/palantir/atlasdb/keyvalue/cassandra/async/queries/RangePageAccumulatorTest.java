@@ -0,0 +1,128 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.keyvalue.cassandra.async.queries;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.nio.ByteBuffer;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+
+import com.datastax.driver.core.Row;
+import com.google.common.collect.ImmutableList;
+import com.palantir.atlasdb.encoding.PtBytes;
+import com.palantir.atlasdb.keyvalue.api.ColumnSelection;
+import com.palantir.atlasdb.keyvalue.api.RangeRequest;
+import com.palantir.atlasdb.keyvalue.api.RowResult;
+import com.palantir.atlasdb.keyvalue.api.Value;
+import com.palantir.util.paging.TokenBackedBasicResultsPage;
+
+public class RangePageAccumulatorTest {
+    private static final long READ_TIMESTAMP = 20L;
+    private static final byte[] ROW_1 = PtBytes.toBytes("row1");
+    private static final byte[] ROW_2 = PtBytes.toBytes("row2");
+    private static final byte[] ROW_3 = PtBytes.toBytes("row3");
+    private static final byte[] COLUMN_1 = PtBytes.toBytes("col1");
+    private static final byte[] COLUMN_2 = PtBytes.toBytes("col2");
+    private static final byte[] VALUE_1 = PtBytes.toBytes("value1");
+    private static final byte[] VALUE_2 = PtBytes.toBytes("value2");
+
+    @Test
+    public void keepsLatestVisibleVersionOfEachCell() {
+        RangePageAccumulator accumulator = new RangePageAccumulator(RangeRequest.all(), READ_TIMESTAMP, 10);
+        accumulator.accumulateRowStream(Stream.of(
+                row(ROW_1, COLUMN_1, 30L, VALUE_1),
+                row(ROW_1, COLUMN_1, 15L, VALUE_2),
+                row(ROW_1, COLUMN_1, 10L, VALUE_1)));
+
+        TokenBackedBasicResultsPage<RowResult<Value>, byte[]> page = accumulator.result();
+
+        assertThat(page.moreResultsAvailable()).isFalse();
+        assertThat(page.getResults()).hasSize(1);
+        Value value = page.getResults().iterator().next().getColumns().get(COLUMN_1);
+        assertThat(value.getContents()).isEqualTo(VALUE_2);
+        assertThat(value.getTimestamp()).isEqualTo(15L);
+    }
+
+    @Test
+    public void omitsRowsWithNoVisibleCells() {
+        RangePageAccumulator accumulator = new RangePageAccumulator(RangeRequest.all(), READ_TIMESTAMP, 10);
+        accumulator.accumulateRowStream(Stream.of(
+                row(ROW_1, COLUMN_1, 30L, VALUE_1),
+                row(ROW_2, COLUMN_1, 10L, VALUE_1)));
+
+        assertThat(accumulator.result().getResults())
+                .extracting(RowResult::getRowName)
+                .containsExactly(ROW_2);
+    }
+
+    @Test
+    public void filtersColumnsNotInRequest() {
+        RangeRequest rangeRequest = RangeRequest.builder()
+                .retainColumns(ColumnSelection.create(ImmutableList.of(COLUMN_2)))
+                .build();
+        RangePageAccumulator accumulator = new RangePageAccumulator(rangeRequest, READ_TIMESTAMP, 10);
+        accumulator.accumulateRowStream(Stream.of(
+                row(ROW_1, COLUMN_1, 10L, VALUE_1),
+                row(ROW_1, COLUMN_2, 10L, VALUE_2)));
+
+        assertThat(accumulator.result().getResults().iterator().next().getColumns()).containsOnlyKeys(COLUMN_2);
+    }
+
+    @Test
+    public void stopsAfterBatchSizeRowsAndReturnsTokenForNextRow() {
+        RangePageAccumulator accumulator = new RangePageAccumulator(RangeRequest.all(), READ_TIMESTAMP, 2);
+        accumulator.accumulateRowStream(Stream.of(
+                row(ROW_1, COLUMN_1, 10L, VALUE_1),
+                row(ROW_2, COLUMN_1, 10L, VALUE_1),
+                row(ROW_2, COLUMN_2, 10L, VALUE_2)));
+        assertThat(accumulator.isDone()).isFalse();
+
+        accumulator.accumulateRowStream(Stream.of(row(ROW_3, COLUMN_1, 10L, VALUE_1)));
+        assertThat(accumulator.isDone()).isTrue();
+
+        TokenBackedBasicResultsPage<RowResult<Value>, byte[]> page = accumulator.result();
+        assertThat(page.moreResultsAvailable()).isTrue();
+        assertThat(page.getTokenForNextPage()).isEqualTo(ROW_3);
+        assertThat(page.getResults())
+                .extracting(RowResult::getRowName)
+                .containsExactly(ROW_1, ROW_2);
+    }
+
+    @Test
+    public void returnsEndOfRangeAsTokenWhenExhausted() {
+        RangeRequest rangeRequest = RangeRequest.builder().endRowExclusive(ROW_3).build();
+        RangePageAccumulator accumulator = new RangePageAccumulator(rangeRequest, READ_TIMESTAMP, 2);
+        accumulator.accumulateRowStream(Stream.of(row(ROW_1, COLUMN_1, 10L, VALUE_1)));
+
+        TokenBackedBasicResultsPage<RowResult<Value>, byte[]> page = accumulator.result();
+        assertThat(page.moreResultsAvailable()).isFalse();
+        assertThat(page.getTokenForNextPage()).isEqualTo(ROW_3);
+    }
+
+    private static Row row(byte[] rowName, byte[] columnName, long timestamp, byte[] value) {
+        Row row = mock(Row.class);
+        when(row.getBytes(0)).thenReturn(ByteBuffer.wrap(rowName));
+        when(row.getBytes(1)).thenReturn(ByteBuffer.wrap(columnName));
+        when(row.getLong(2)).thenReturn(~timestamp);
+        when(row.getBytes(3)).thenReturn(ByteBuffer.wrap(value));
+        return row;
+    }
+}
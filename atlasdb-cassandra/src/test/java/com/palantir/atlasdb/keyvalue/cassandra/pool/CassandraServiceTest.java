@@ -57,6 +57,19 @@ public class CassandraServiceTest {
         assertThat(cassandra.maybeFilterLocalHosts(hosts)).isEqualTo(localHosts);
     }
 
+    @Test
+    public void shouldFallBackToLocalDatacenterHostsIfNoLocalHostsMatch() {
+        ImmutableSet<InetSocketAddress> hosts = ImmutableSet.of(HOST_1, HOST_2);
+        ImmutableSet<InetSocketAddress> localDatacenterHosts = ImmutableSet.of(HOST_2);
+
+        CassandraService cassandra = clientPoolWithServersAndParams(hosts, 1.0);
+
+        cassandra.setLocalHosts(ImmutableSet.of());
+        cassandra.setLocalDatacenterHosts(localDatacenterHosts);
+
+        assertThat(cassandra.maybeFilterLocalHosts(hosts)).isEqualTo(localDatacenterHosts);
+    }
+
     @Test
     public void shouldReturnAllHostsBySkippingFilter() {
         ImmutableSet<InetSocketAddress> hosts = ImmutableSet.of(HOST_1, HOST_2);
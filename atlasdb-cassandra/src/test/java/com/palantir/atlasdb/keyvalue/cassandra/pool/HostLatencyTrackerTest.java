@@ -0,0 +1,59 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.keyvalue.cassandra.pool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.stream.LongStream;
+
+import org.junit.Test;
+
+public class HostLatencyTrackerTest {
+    private final HostLatencyTracker tracker = new HostLatencyTracker();
+
+    @Test
+    public void hasNoLatenciesBeforeAnyRequestCompletes() {
+        assertThat(tracker.getMovingAverageLatencyNanos()).isEmpty();
+        assertThat(tracker.getReadLatencyQuantileNanos(0.99)).isZero();
+    }
+
+    @Test
+    public void movingAverageStartsAtFirstLatencyAndMovesTowardsLaterLatencies() {
+        tracker.recordLatency(100);
+        assertThat(tracker.getMovingAverageLatencyNanos()).hasValue(100.0);
+
+        tracker.recordLatency(200);
+        assertThat(tracker.getMovingAverageLatencyNanos().getAsDouble()).isStrictlyBetween(100.0, 200.0);
+    }
+
+    @Test
+    public void reportsQuantilesOfRecentReadLatencies() {
+        LongStream.rangeClosed(1, 100).forEach(tracker::recordReadLatency);
+
+        assertThat(tracker.getReadLatencyQuantileNanos(0.99)).isBetween(98L, 100L);
+        assertThat(tracker.getReadLatencyQuantileNanos(0.5)).isBetween(49L, 51L);
+    }
+
+    @Test
+    public void readQuantilesExcludeOtherRequests() {
+        tracker.recordReadLatency(100);
+        tracker.recordLatency(1_000_000);
+
+        assertThat(tracker.getReadLatencyQuantileNanos(0.99)).isEqualTo(100L);
+        assertThat(tracker.getMovingAverageLatencyNanos()).hasValue(1_000_000.0);
+    }
+}
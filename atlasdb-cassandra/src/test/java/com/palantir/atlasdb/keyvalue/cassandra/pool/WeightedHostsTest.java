@@ -22,6 +22,7 @@ import java.net.InetSocketAddress;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.NavigableMap;
+import java.util.OptionalDouble;
 
 import org.hamcrest.Matchers;
 import org.junit.Test;
@@ -143,6 +144,63 @@ public class WeightedHostsTest {
         assertEquals(hostsToWeight, numTimesSelected);
     }
 
+    @Test
+    public void testLatencyAwareWeightsAreInverselyProportionalToExpectedLatency() {
+        InetSocketAddress fastHost = new InetSocketAddress(0);
+        InetSocketAddress slowHost = new InetSocketAddress(1);
+        InetSocketAddress busyHost = new InetSocketAddress(2);
+        Map<InetSocketAddress, CassandraClientPoolingContainer> pools = ImmutableMap.of(
+                fastHost, createMockClientPoolingContainerWithLatency(0, OptionalDouble.of(1_000_000)),
+                slowHost, createMockClientPoolingContainerWithLatency(0, OptionalDouble.of(4_000_000)),
+                busyHost, createMockClientPoolingContainerWithLatency(1, OptionalDouble.of(1_000_000)));
+
+        Map<InetSocketAddress, Integer> weights = getWeights(WeightedHosts.createLatencyAware(pools));
+
+        assertEquals(ImmutableMap.of(fastHost, 1000, slowHost, 250, busyHost, 500), weights);
+    }
+
+    @Test
+    public void testLatencyAwareWeightsTreatHostsWithoutLatenciesAsFastest() {
+        InetSocketAddress newHost = new InetSocketAddress(0);
+        Map<InetSocketAddress, CassandraClientPoolingContainer> pools = ImmutableMap.of(
+                newHost, createMockClientPoolingContainerWithLatency(0, OptionalDouble.empty()),
+                new InetSocketAddress(1), createMockClientPoolingContainerWithLatency(0, OptionalDouble.of(2_000_000)),
+                new InetSocketAddress(2), createMockClientPoolingContainerWithLatency(0, OptionalDouble.of(8_000_000)));
+
+        Map<InetSocketAddress, Integer> weights = getWeights(WeightedHosts.createLatencyAware(pools));
+
+        assertEquals(Integer.valueOf(1000), weights.get(newHost));
+    }
+
+    @Test
+    public void testLatencyAwareWeightsAreNonZeroForVerySlowHosts() {
+        Map<InetSocketAddress, CassandraClientPoolingContainer> pools = ImmutableMap.of(
+                new InetSocketAddress(0), createMockClientPoolingContainerWithLatency(0, OptionalDouble.of(1)),
+                new InetSocketAddress(1), createMockClientPoolingContainerWithLatency(100, OptionalDouble.of(1e12)));
+
+        Map<InetSocketAddress, Integer> weights = getWeights(WeightedHosts.createLatencyAware(pools));
+
+        weights.values().forEach(weight -> assertThat(weight, Matchers.greaterThan(0)));
+    }
+
+    private static Map<InetSocketAddress, Integer> getWeights(WeightedHosts weightedHosts) {
+        Map<InetSocketAddress, Integer> hostsToWeight = new HashMap<>();
+        int prevKey = 0;
+        for (Map.Entry<Integer, InetSocketAddress> entry : weightedHosts.hosts.entrySet()) {
+            hostsToWeight.put(entry.getValue(), entry.getKey() - prevKey);
+            prevKey = entry.getKey();
+        }
+        return hostsToWeight;
+    }
+
+    private static CassandraClientPoolingContainer createMockClientPoolingContainerWithLatency(
+            int utilization,
+            OptionalDouble latencyNanos) {
+        CassandraClientPoolingContainer mock = createMockClientPoolingContainerWithUtilization(utilization);
+        Mockito.when(mock.getMovingAverageLatencyNanos()).thenReturn(latencyNanos);
+        return mock;
+    }
+
     private static CassandraClientPoolingContainer createMockClientPoolingContainerWithUtilization(int utilization) {
         CassandraClientPoolingContainer mock = Mockito.mock(CassandraClientPoolingContainer.class);
         Mockito.when(mock.getOpenRequests()).thenReturn(utilization);
@@ -0,0 +1,150 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.keyvalue.cassandra.sweep;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterators;
+import com.google.common.collect.Streams;
+import com.palantir.atlasdb.encoding.PtBytes;
+import com.palantir.common.base.ClosableIterator;
+import com.palantir.common.base.ClosableIterators;
+
+public class ParallelCandidateRowsForSweepingIteratorTest {
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @After
+    public void after() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void returnsBatchesOfAllRangesInOrder() {
+        List<Supplier<ClosableIterator<List<CandidateRowForSweeping>>>> ranges = ImmutableList.of(
+                rangeOf(batch(1, 2), batch(3)),
+                rangeOf(),
+                rangeOf(batch(4)),
+                rangeOf(batch(5, 6), batch(7), batch(8, 9)));
+
+        try (ParallelCandidateRowsForSweepingIterator iterator =
+                new ParallelCandidateRowsForSweepingIterator(ranges, 2, executor)) {
+            assertThat(rowsOf(iterator)).containsExactly(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L);
+        }
+    }
+
+    @Test
+    public void returnsNothingIfAllRangesAreEmpty() {
+        try (ParallelCandidateRowsForSweepingIterator iterator =
+                new ParallelCandidateRowsForSweepingIterator(ImmutableList.of(rangeOf(), rangeOf()), 4, executor)) {
+            assertThat(iterator.hasNext()).isFalse();
+        }
+    }
+
+    @Test
+    public void scansRangesConcurrently() {
+        CyclicBarrier barrier = new CyclicBarrier(2);
+        List<Supplier<ClosableIterator<List<CandidateRowForSweeping>>>> ranges = ImmutableList.of(
+                awaitingBarrier(barrier, rangeOf(batch(1))),
+                awaitingBarrier(barrier, rangeOf(batch(2))));
+
+        try (ParallelCandidateRowsForSweepingIterator iterator =
+                new ParallelCandidateRowsForSweepingIterator(ranges, 2, executor)) {
+            assertThat(rowsOf(iterator)).containsExactly(1L, 2L);
+        }
+    }
+
+    @Test
+    public void propagatesFailuresFromRangeScans() {
+        List<Supplier<ClosableIterator<List<CandidateRowForSweeping>>>> ranges = ImmutableList.of(
+                rangeOf(batch(1)),
+                () -> {
+                    throw new IllegalStateException("boom");
+                });
+
+        try (ParallelCandidateRowsForSweepingIterator iterator =
+                new ParallelCandidateRowsForSweepingIterator(ranges, 2, executor)) {
+            assertThat(rowsOf(iterator.next())).containsExactly(1L);
+            assertThatThrownBy(iterator::next).isInstanceOf(IllegalStateException.class);
+        }
+    }
+
+    @Test
+    public void closingStopsScansBlockedOnTheConsumer() throws InterruptedException {
+        List<Supplier<ClosableIterator<List<CandidateRowForSweeping>>>> ranges = ImmutableList.of(
+                () -> ClosableIterators.wrap(Stream.generate(() -> batch(1)).iterator()));
+
+        ParallelCandidateRowsForSweepingIterator iterator =
+                new ParallelCandidateRowsForSweepingIterator(ranges, 1, executor);
+        assertThat(rowsOf(iterator.next())).containsExactly(1L);
+        iterator.close();
+
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @SafeVarargs
+    private static Supplier<ClosableIterator<List<CandidateRowForSweeping>>> rangeOf(
+            List<CandidateRowForSweeping>... batches) {
+        return () -> ClosableIterators.wrap(Iterators.forArray(batches));
+    }
+
+    private static Supplier<ClosableIterator<List<CandidateRowForSweeping>>> awaitingBarrier(
+            CyclicBarrier barrier,
+            Supplier<ClosableIterator<List<CandidateRowForSweeping>>> range) {
+        return () -> {
+            try {
+                barrier.await(10, TimeUnit.SECONDS);
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+            return range.get();
+        };
+    }
+
+    private static List<CandidateRowForSweeping> batch(long... rows) {
+        return Arrays.stream(rows)
+                .mapToObj(row -> CandidateRowForSweeping.of(PtBytes.toBytes(row), ImmutableList.of()))
+                .collect(Collectors.toList());
+    }
+
+    private static List<Long> rowsOf(ClosableIterator<List<CandidateRowForSweeping>> iterator) {
+        return Streams.stream(iterator)
+                .flatMap(List::stream)
+                .map(row -> PtBytes.toLong(row.rowName()))
+                .collect(Collectors.toList());
+    }
+
+    private static List<Long> rowsOf(List<CandidateRowForSweeping> batch) {
+        return batch.stream()
+                .map(row -> PtBytes.toLong(row.rowName()))
+                .collect(Collectors.toList());
+    }
+}
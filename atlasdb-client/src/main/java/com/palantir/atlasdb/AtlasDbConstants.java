@@ -41,6 +41,8 @@ public final class AtlasDbConstants {
     public static final TableReference PERSISTED_LOCKS_TABLE = TableReference.createWithEmptyNamespace(
             "_persisted_locks");
     public static final TableReference COORDINATION_TABLE = TableReference.createWithEmptyNamespace("_coordination");
+    public static final TableReference COMPRESSION_DICTIONARIES_TABLE = TableReference.createWithEmptyNamespace(
+            "_compression_dictionaries");
 
     public static final TableReference DEFAULT_METADATA_TABLE = TableReference.createWithEmptyNamespace("_metadata");
     public static final TableReference DEFAULT_ORACLE_METADATA_TABLE = TableReference.createWithEmptyNamespace(
@@ -104,6 +106,7 @@ public final class AtlasDbConstants {
             PERSISTED_LOCKS_TABLE,
             SWEEP_PROGRESS_TABLE,
             COORDINATION_TABLE,
+            COMPRESSION_DICTIONARIES_TABLE,
             DEFAULT_SCHEMA_METADATA_TABLE,
             SWEEP_PROGRESS_V2,
             SWEEP_PROGRESS_V1_5);
@@ -116,7 +119,8 @@ public final class AtlasDbConstants {
             TransactionConstants.TRANSACTIONS2_TABLE,
             NAMESPACE_TABLE,
             PERSISTED_LOCKS_TABLE,
-            COORDINATION_TABLE);
+            COORDINATION_TABLE,
+            COMPRESSION_DICTIONARIES_TABLE);
 
     public static final Set<TableReference> TABLES_KNOWN_TO_BE_POORLY_DESIGNED = ImmutableSet.of(
             TableReference.createWithEmptyNamespace("resync_object"));
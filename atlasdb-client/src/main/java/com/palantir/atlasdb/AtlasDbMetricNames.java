@@ -57,6 +57,7 @@ public final class AtlasDbMetricNames {
     public static final String TAG_STRATEGY = "strategy";
     public static final String TAG_CONSERVATIVE = "conservative";
     public static final String TAG_THOROUGH = "thorough";
+    public static final String TAG_SHARD = "shard";
     public static final String ENQUEUED_WRITES = "enqueuedWrites";
     public static final String ENTRIES_READ = "entriesRead";
     public static final String TOMBSTONES_PUT = "tombstonesPut";
@@ -64,6 +65,7 @@ public final class AtlasDbMetricNames {
     public static final String SWEEP_TS = "sweepTimestamp";
     public static final String LAST_SWEPT_TS = "lastSweptTimestamp";
     public static final String LAG_MILLIS = "millisSinceLastSweptTs";
+    public static final String LAG_MILLIS_FOR_SHARD = "millisSinceLastSweptTsForShard";
     public static final String BATCH_SIZE_MEAN = "batchSizeMean";
     public static final Set<String> TARGETED_SWEEP_PROGRESS_METRIC_NAMES = ImmutableSet.of(
             ENQUEUED_WRITES,
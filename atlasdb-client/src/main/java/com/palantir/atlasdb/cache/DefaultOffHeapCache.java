@@ -105,6 +105,8 @@ public final class DefaultOffHeapCache<K, V> implements OffHeapCache<K, V> {
         this.cacheHit = taggedMetricRegistry.meter(CACHE_HIT);
         this.cacheMiss = taggedMetricRegistry.meter(CACHE_MISS);
         this.cacheNuke = taggedMetricRegistry.counter(CACHE_NUKE);
+        // Coalescing, so limited to one consumer. Each batch is a single local store write, which is cheaper than the
+        // extra writes that bounding batch sizes would cause.
         this.valuePutter = Autobatchers.coalescing(new WriteBatcher<>(this))
                 .safeLoggablePurpose(BATCHER_PURPOSE)
                 .build();
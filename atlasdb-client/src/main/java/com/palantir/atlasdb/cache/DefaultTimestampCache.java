@@ -20,30 +20,19 @@ import java.util.function.LongSupplier;
 import javax.annotation.Nullable;
 
 import com.codahale.metrics.MetricRegistry;
-import com.github.benmanes.caffeine.cache.Cache;
-import com.github.benmanes.caffeine.cache.Caffeine;
-import com.github.benmanes.caffeine.cache.Policy;
-import com.google.common.annotations.VisibleForTesting;
 import com.palantir.atlasdb.util.AtlasDbMetrics;
 
 public final class DefaultTimestampCache implements TimestampCache {
-    private final LongSupplier size;
+    // commit timestamps are either positive or TransactionConstants.FAILED_COMMIT_TS
+    private static final long NO_COMMIT_TIMESTAMP = Long.MIN_VALUE;
 
-    private final Cache<Long, Long> startToCommitTimestampCache;
-    private final Policy.Eviction<Long, Long> evictionPolicy;
+    private final LongSupplier size;
 
-    @VisibleForTesting
-    static Cache<Long, Long> createCache(long size) {
-        return Caffeine.newBuilder()
-                .maximumSize(size)
-                .recordStats()
-                .build();
-    }
+    private final LongLongClockCache startToCommitTimestampCache;
 
     public DefaultTimestampCache(MetricRegistry metricRegistry, LongSupplier size) {
         this.size = size;
-        startToCommitTimestampCache = createCache(size.getAsLong());
-        evictionPolicy = startToCommitTimestampCache.policy().eviction().get();
+        startToCommitTimestampCache = LongLongClockCache.create(size.getAsLong());
         AtlasDbMetrics.registerCache(metricRegistry, startToCommitTimestampCache,
                 MetricRegistry.name(TimestampCache.class, "startToCommitTimestamp"));
     }
@@ -52,12 +41,13 @@ public final class DefaultTimestampCache implements TimestampCache {
     @Nullable
     public Long getCommitTimestampIfPresent(Long startTimestamp) {
         resizeIfNecessary();
-        return startToCommitTimestampCache.getIfPresent(startTimestamp);
+        long commitTimestamp = startToCommitTimestampCache.getOrDefault(startTimestamp, NO_COMMIT_TIMESTAMP);
+        return commitTimestamp == NO_COMMIT_TIMESTAMP ? null : commitTimestamp;
     }
 
     private void resizeIfNecessary() {
-        if (evictionPolicy.getMaximum() != size.getAsLong()) {
-            evictionPolicy.setMaximum(size.getAsLong());
+        if (startToCommitTimestampCache.maximumSize() != size.getAsLong()) {
+            startToCommitTimestampCache.setMaximumSize(size.getAsLong());
         }
     }
 
@@ -68,7 +58,7 @@ public final class DefaultTimestampCache implements TimestampCache {
 
     @Override
     public void clear() {
-        startToCommitTimestampCache.invalidateAll();
+        startToCommitTimestampCache.clear();
     }
 
     public static TimestampCache createForTests() {
@@ -0,0 +1,403 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.cache;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.palantir.logsafe.Preconditions;
+import com.palantir.logsafe.SafeArg;
+
+/**
+ * A concurrent, bounded cache from primitive longs to primitive longs.
+ *
+ * Entries are stored in open-addressing (linear probing) tables of primitive arrays, split into independently locked
+ * segments, so that each slot costs 17 bytes rather than the two boxed longs and node that a general purpose cache
+ * would allocate per entry. Reads are lock-free in the absence of concurrent writes to the same segment. Once the cache
+ * holds {@link #maximumSize()} entries, each insertion evicts an entry chosen by the CLOCK (second chance)
+ * approximation of LRU. The bound is approximate under concurrent insertion into different segments.
+ *
+ * {@link Long#MIN_VALUE} is reserved to mark empty slots and may not be used as a key.
+ */
+public final class LongLongClockCache {
+    private static final long EMPTY_KEY = Long.MIN_VALUE;
+    private static final int INITIAL_SLOTS_PER_SEGMENT = 16;
+    private static final int MAX_SLOTS_PER_SEGMENT = 1 << 30;
+    private static final int MAX_SEGMENTS = 1 << 16;
+
+    private final Segment[] segments;
+    private final int segmentMask;
+    private final AtomicLong size = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    private volatile long maximumSize;
+
+    @VisibleForTesting
+    LongLongClockCache(long maximumSize, int concurrencyLevel) {
+        Preconditions.checkArgument(maximumSize >= 0, "Maximum size must be non-negative",
+                SafeArg.of("maximumSize", maximumSize));
+        Preconditions.checkArgument(concurrencyLevel > 0, "Concurrency level must be positive",
+                SafeArg.of("concurrencyLevel", concurrencyLevel));
+        int numSegments = Math.min(MAX_SEGMENTS, nextPowerOfTwo(concurrencyLevel));
+        this.segments = new Segment[numSegments];
+        for (int i = 0; i < numSegments; i++) {
+            segments[i] = new Segment();
+        }
+        this.segmentMask = numSegments - 1;
+        this.maximumSize = maximumSize;
+    }
+
+    public static LongLongClockCache create(long maximumSize) {
+        return new LongLongClockCache(maximumSize, 4 * Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Returns the value cached for the given key, or {@code defaultValue} if there is none. Callers should pick a
+     * default that can never be cached, as the two cases are otherwise indistinguishable.
+     */
+    public long getOrDefault(long key, long defaultValue) {
+        if (key == EMPTY_KEY) {
+            misses.increment();
+            return defaultValue;
+        }
+        long hash = hash(key);
+        return segmentFor(hash).get(key, hash, defaultValue);
+    }
+
+    public void put(long key, long value) {
+        Preconditions.checkArgument(key != EMPTY_KEY, "Long.MIN_VALUE cannot be used as a key");
+        long hash = hash(key);
+        int segmentIndex = segmentIndexFor(hash);
+        if (segments[segmentIndex].put(key, value, hash)) {
+            evictFromOtherSegments(segmentIndex);
+        }
+    }
+
+    public void clear() {
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+    }
+
+    public long maximumSize() {
+        return maximumSize;
+    }
+
+    /**
+     * Changes the maximum size of the cache, evicting entries if the cache currently holds more than the new maximum.
+     */
+    public void setMaximumSize(long newMaximumSize) {
+        Preconditions.checkArgument(newMaximumSize >= 0, "Maximum size must be non-negative",
+                SafeArg.of("maximumSize", newMaximumSize));
+        maximumSize = newMaximumSize;
+        for (Segment segment : segments) {
+            segment.evictWhileOverCapacity();
+        }
+    }
+
+    public long estimatedSize() {
+        return size.get();
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * Brings the cache back within its maximum size after the given segment admitted an entry it had nothing of its
+     * own to evict for. Segment locks are taken one at a time, so this cannot deadlock with other writers.
+     */
+    private void evictFromOtherSegments(int fullSegmentIndex) {
+        for (int i = 1; i <= segments.length; i++) {
+            // the full segment is visited last, so that its new entry is evicted only if there is nothing else
+            if (!segments[(fullSegmentIndex + i) & segmentMask].evictIfOverCapacity()) {
+                return;
+            }
+        }
+    }
+
+    private Segment segmentFor(long hash) {
+        return segments[segmentIndexFor(hash)];
+    }
+
+    private int segmentIndexFor(long hash) {
+        // slots within a segment are chosen using the low bits of the hash
+        return (int) (hash >>> 32) & segmentMask;
+    }
+
+    private static long hash(long key) {
+        // the finalisation step of MurmurHash3; start timestamps are dense, so must be spread across the table
+        long hash = key;
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private static int nextPowerOfTwo(int value) {
+        return value <= 1 ? 1 : Integer.highestOneBit(value - 1) << 1;
+    }
+
+    private static final class Table {
+        private final long[] keys;
+        private final long[] values;
+        private final byte[] referenced;
+        private final int mask;
+
+        private Table(int slots) {
+            this.keys = new long[slots];
+            this.values = new long[slots];
+            this.referenced = new byte[slots];
+            this.mask = slots - 1;
+            Arrays.fill(keys, EMPTY_KEY);
+        }
+
+        private int slots() {
+            return mask + 1;
+        }
+
+        /**
+         * Returns the slot holding the given key, or -1 if it is not present. This may be called while the table is
+         * being concurrently modified, in which case the result is garbage (but the call terminates).
+         */
+        private int find(long key, long hash) {
+            int slot = (int) hash & mask;
+            for (int probes = 0; probes <= mask; probes++) {
+                long candidate = keys[slot];
+                if (candidate == key) {
+                    return slot;
+                }
+                if (candidate == EMPTY_KEY) {
+                    return -1;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return -1;
+        }
+
+        private void insert(long key, long value, byte referencedBit, long hash) {
+            int slot = (int) hash & mask;
+            while (keys[slot] != EMPTY_KEY) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            values[slot] = value;
+            referenced[slot] = referencedBit;
+        }
+
+        /**
+         * Removes the entry in the given slot, shifting back later entries in its probe sequence so that lookups
+         * never need to skip over deleted slots.
+         */
+        private void removeAt(int slot) {
+            int gap = slot;
+            int next = (gap + 1) & mask;
+            while (keys[next] != EMPTY_KEY) {
+                int ideal = (int) hash(keys[next]) & mask;
+                if (((next - ideal) & mask) >= ((next - gap) & mask)) {
+                    keys[gap] = keys[next];
+                    values[gap] = values[next];
+                    referenced[gap] = referenced[next];
+                    gap = next;
+                }
+                next = (next + 1) & mask;
+            }
+            keys[gap] = EMPTY_KEY;
+            referenced[gap] = 0;
+        }
+    }
+
+    private final class Segment {
+        private final StampedLock lock = new StampedLock();
+
+        // Written under the write lock. Readers may see a stale table, but will then fail validation.
+        private Table table = new Table(INITIAL_SLOTS_PER_SEGMENT);
+        private int count = 0;
+        private int clockHand = 0;
+
+        private long get(long key, long hash, long defaultValue) {
+            long stamp = lock.tryOptimisticRead();
+            if (stamp != 0) {
+                Table current = table;
+                int slot = current.find(key, hash);
+                long value = slot >= 0 ? current.values[slot] : defaultValue;
+                if (lock.validate(stamp)) {
+                    return recordRead(current, slot, value);
+                }
+            }
+
+            stamp = lock.readLock();
+            try {
+                Table current = table;
+                int slot = current.find(key, hash);
+                long value = slot >= 0 ? current.values[slot] : defaultValue;
+                return recordRead(current, slot, value);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        private long recordRead(Table current, int slot, long value) {
+            if (slot < 0) {
+                misses.increment();
+                return value;
+            }
+            hits.increment();
+            // Racy with writers: at worst this grants a second chance to the wrong entry.
+            if (current.referenced[slot] == 0) {
+                current.referenced[slot] = 1;
+            }
+            return value;
+        }
+
+        /**
+         * Returns true if the entry was admitted while the cache was full and this segment had nothing to evict, in
+         * which case the caller must evict from another segment.
+         */
+        private boolean put(long key, long value, long hash) {
+            long stamp = lock.writeLock();
+            try {
+                int slot = table.find(key, hash);
+                if (slot >= 0) {
+                    table.values[slot] = value;
+                    return false;
+                }
+
+                boolean overCapacity = false;
+                if (size.get() >= maximumSize) {
+                    if (count == 0) {
+                        overCapacity = true;
+                    } else {
+                        evictOne();
+                    }
+                }
+                if (isOverLoaded(count + 1)) {
+                    if (table.slots() < MAX_SLOTS_PER_SEGMENT) {
+                        resize(table.slots() * 2);
+                    } else {
+                        evictOne();
+                    }
+                }
+
+                table.insert(key, value, (byte) 0, hash);
+                count++;
+                size.incrementAndGet();
+                return overCapacity;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        private void clear() {
+            long stamp = lock.writeLock();
+            try {
+                table = new Table(INITIAL_SLOTS_PER_SEGMENT);
+                size.addAndGet(-count);
+                count = 0;
+                clockHand = 0;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        private void evictWhileOverCapacity() {
+            long stamp = lock.writeLock();
+            try {
+                while (count > 0 && size.get() > maximumSize) {
+                    evictOne();
+                }
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        /**
+         * Evicts one entry from this segment if the cache is over capacity, returning whether the cache may still be
+         * over capacity afterwards.
+         */
+        private boolean evictIfOverCapacity() {
+            long stamp = lock.writeLock();
+            try {
+                if (size.get() <= maximumSize) {
+                    return false;
+                }
+                if (count == 0) {
+                    return true;
+                }
+                evictOne();
+                return size.get() > maximumSize;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        private boolean isOverLoaded(int entries) {
+            // load factor of 0.75
+            return 4L * entries > 3L * table.slots();
+        }
+
+        private void resize(int newSlots) {
+            Table oldTable = table;
+            Table newTable = new Table(newSlots);
+            for (int slot = 0; slot < oldTable.slots(); slot++) {
+                long key = oldTable.keys[slot];
+                if (key != EMPTY_KEY) {
+                    newTable.insert(key, oldTable.values[slot], oldTable.referenced[slot], hash(key));
+                }
+            }
+            table = newTable;
+            clockHand = 0;
+        }
+
+        private void evictOne() {
+            Table current = table;
+            // Readers may concurrently set referenced bits, so give up on second chances after two full sweeps.
+            int maxSecondChances = 2 * current.slots();
+            for (int scanned = 0; ; scanned++) {
+                int slot = clockHand & current.mask;
+                clockHand = slot + 1;
+                if (current.keys[slot] == EMPTY_KEY) {
+                    continue;
+                }
+                if (current.referenced[slot] != 0 && scanned < maxSecondChances) {
+                    current.referenced[slot] = 0;
+                    continue;
+                }
+                current.removeAt(slot);
+                count--;
+                size.decrementAndGet();
+                evictions.increment();
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.compress;
+
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.palantir.logsafe.SafeArg;
+import com.palantir.logsafe.exceptions.SafeIllegalArgumentException;
+
+/**
+ * The Zstd dictionaries known to this process. Generated table code compresses and decompresses values through static
+ * methods on {@link CompressionUtils}, so dictionaries are looked up here rather than passed in.
+ *
+ * Values are compressed with the latest registered version of their column's dictionary, and decompressed with
+ * whichever version they were compressed with; every version that may have been used must therefore stay registered.
+ * See {@link CompressionDictionaryStore} for loading the persisted dictionaries.
+ */
+public final class CompressionDictionaries {
+    private static final ConcurrentMap<String, CompressionDictionary> LATEST_BY_NAME = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<Long, CompressionDictionary> BY_ID = new ConcurrentHashMap<>();
+
+    private CompressionDictionaries() {
+        // utility
+    }
+
+    public static void register(CompressionDictionary dictionary) {
+        CompressionDictionary existing = BY_ID.putIfAbsent(dictionary.id(), dictionary);
+        if (existing != null && !Arrays.equals(existing.bytes(), dictionary.bytes())) {
+            throw new SafeIllegalArgumentException("A different dictionary with the same id is already registered",
+                    SafeArg.of("id", dictionary.id()),
+                    SafeArg.of("name", dictionary.name()),
+                    SafeArg.of("existingName", existing.name()));
+        }
+        LATEST_BY_NAME.merge(dictionary.name(), dictionary,
+                (current, candidate) -> candidate.version() > current.version() ? candidate : current);
+    }
+
+    public static Optional<CompressionDictionary> getLatest(String name) {
+        return Optional.ofNullable(LATEST_BY_NAME.get(name));
+    }
+
+    public static Optional<CompressionDictionary> getById(long id) {
+        return Optional.ofNullable(BY_ID.get(id));
+    }
+
+    @VisibleForTesting
+    static void clear() {
+        LATEST_BY_NAME.clear();
+        BY_ID.clear();
+    }
+}
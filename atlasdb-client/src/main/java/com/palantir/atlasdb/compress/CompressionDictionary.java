@@ -0,0 +1,133 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.compress;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Pattern;
+
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdDictCompress;
+import com.github.luben.zstd.ZstdDictDecompress;
+import com.github.luben.zstd.ZstdDictTrainer;
+import com.palantir.logsafe.Preconditions;
+import com.palantir.logsafe.SafeArg;
+
+/**
+ * A version of a named Zstd compression dictionary. Zstd records the dictionary's id in the header of every frame
+ * compressed with it, which is how {@link CompressionUtils#decompressWithZstd(byte[])} finds it again.
+ */
+public final class CompressionDictionary {
+    private static final Pattern VALID_NAME = Pattern.compile("[A-Za-z0-9_.\\-]+");
+    private static final int COMPRESSION_LEVEL = 3;
+
+    private final String name;
+    private final long version;
+    private final long id;
+    private final byte[] bytes;
+    private final ZstdDictCompress compressor;
+    private final ZstdDictDecompress decompressor;
+
+    private CompressionDictionary(String name, long version, long id, byte[] bytes) {
+        this.name = name;
+        this.version = version;
+        this.id = id;
+        this.bytes = bytes;
+        this.compressor = new ZstdDictCompress(bytes, COMPRESSION_LEVEL);
+        this.decompressor = new ZstdDictDecompress(bytes);
+    }
+
+    public static CompressionDictionary of(String name, long version, byte[] bytes) {
+        checkValidName(name);
+        long id = Zstd.getDictIdFromDict(bytes);
+        Preconditions.checkArgument(id != 0, "Not a Zstd dictionary", SafeArg.of("name", name),
+                SafeArg.of("version", version));
+        return new CompressionDictionary(name, version, id, bytes.clone());
+    }
+
+    /**
+     * Trains a dictionary of at most {@code dictionarySizeBytes} on a uniform sample of at most {@code maxSamples} of
+     * the given values. Zstd needs a reasonable number of samples (at least in the hundreds) to train a useful
+     * dictionary, and fails if given too few.
+     */
+    public static CompressionDictionary train(
+            String name,
+            long version,
+            Iterator<byte[]> values,
+            int maxSamples,
+            int dictionarySizeBytes) {
+        List<byte[]> samples = reservoirSample(values, maxSamples);
+        long totalSampleBytes = samples.stream().mapToLong(sample -> sample.length).sum();
+        Preconditions.checkArgument(totalSampleBytes <= Integer.MAX_VALUE, "Too many bytes of samples",
+                SafeArg.of("totalSampleBytes", totalSampleBytes));
+
+        ZstdDictTrainer trainer = new ZstdDictTrainer((int) totalSampleBytes, dictionarySizeBytes);
+        samples.forEach(trainer::addSample);
+        return of(name, version, trainer.trainSamples());
+    }
+
+    public static void checkValidName(String name) {
+        Preconditions.checkArgument(VALID_NAME.matcher(name).matches(),
+                "Dictionary names may only contain letters, digits, '.', '-' and '_'",
+                SafeArg.of("name", name));
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public long version() {
+        return version;
+    }
+
+    public long id() {
+        return id;
+    }
+
+    public byte[] bytes() {
+        return bytes.clone();
+    }
+
+    byte[] compress(byte[] uncompressed) {
+        return Zstd.compress(uncompressed, compressor);
+    }
+
+    byte[] decompress(byte[] compressed, int decompressedLength) {
+        return Zstd.decompress(compressed, decompressor, decompressedLength);
+    }
+
+    private static List<byte[]> reservoirSample(Iterator<byte[]> values, int maxSamples) {
+        Preconditions.checkArgument(maxSamples > 0, "Must take at least one sample",
+                SafeArg.of("maxSamples", maxSamples));
+        List<byte[]> samples = new ArrayList<>();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (long seen = 0; values.hasNext(); seen++) {
+            byte[] value = values.next();
+            if (samples.size() < maxSamples) {
+                samples.add(value);
+            } else {
+                long slot = random.nextLong(seen + 1);
+                if (slot < maxSamples) {
+                    samples.set((int) slot, value);
+                }
+            }
+        }
+        return samples;
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.compress;
+
+import java.util.Iterator;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.collect.ImmutableMap;
+import com.palantir.atlasdb.AtlasDbConstants;
+import com.palantir.atlasdb.encoding.PtBytes;
+import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.atlasdb.keyvalue.api.KeyValueService;
+import com.palantir.atlasdb.keyvalue.api.RangeRequest;
+import com.palantir.atlasdb.keyvalue.api.RowResult;
+import com.palantir.atlasdb.keyvalue.api.Value;
+import com.palantir.atlasdb.protos.generated.TableMetadataPersistence.SweepStrategy;
+import com.palantir.atlasdb.table.description.TableMetadata;
+import com.palantir.atlasdb.table.description.ValueType;
+import com.palantir.common.base.ClosableIterator;
+import com.palantir.logsafe.SafeArg;
+
+/**
+ * Persists versions of Zstd compression dictionaries in {@link AtlasDbConstants#COMPRESSION_DICTIONARIES_TABLE}, with
+ * a row per dictionary name and a dynamic column per version. Versions are written once and never modified, so that
+ * values compressed with any version can always be decompressed.
+ *
+ * Every process reading or writing tables compressed with dictionaries should call {@link #loadAll()} on startup, and
+ * again after another process may have trained a new version.
+ */
+public final class CompressionDictionaryStore {
+    private static final Logger log = LoggerFactory.getLogger(CompressionDictionaryStore.class);
+
+    private static final TableMetadata COMPRESSION_DICTIONARIES_TABLE_METADATA = TableMetadata.internal()
+            .singleSafeRowComponent("name", ValueType.STRING)
+            .singleDynamicSafeColumn("version", ValueType.VAR_LONG, ValueType.BLOB)
+            .sweepStrategy(SweepStrategy.NOTHING)
+            .build();
+
+    private final KeyValueService kvs;
+
+    private CompressionDictionaryStore(KeyValueService kvs) {
+        this.kvs = kvs;
+    }
+
+    public static CompressionDictionaryStore create(KeyValueService kvs) {
+        kvs.createTable(
+                AtlasDbConstants.COMPRESSION_DICTIONARIES_TABLE,
+                COMPRESSION_DICTIONARIES_TABLE_METADATA.persistToBytes());
+        return new CompressionDictionaryStore(kvs);
+    }
+
+    /**
+     * Registers every persisted version of every dictionary with {@link CompressionDictionaries}.
+     */
+    public void loadAll() {
+        try (ClosableIterator<RowResult<Value>> rows = kvs.getRange(
+                AtlasDbConstants.COMPRESSION_DICTIONARIES_TABLE,
+                RangeRequest.all(),
+                AtlasDbConstants.TRANSACTION_TS + 1)) {
+            while (rows.hasNext()) {
+                RowResult<Value> row = rows.next();
+                String name = PtBytes.toString(row.getRowName());
+                for (Map.Entry<byte[], Value> column : row.getColumns().entrySet()) {
+                    long version = (long) ValueType.VAR_LONG.convertToJava(column.getKey(), 0);
+                    CompressionDictionaries.register(
+                            CompressionDictionary.of(name, version, column.getValue().getContents()));
+                }
+            }
+        }
+    }
+
+    /**
+     * Trains the next version of the named dictionary on a sample of the given values, persists it, and registers it
+     * so that this process compresses with it from now on. Other processes continue to compress with the previous
+     * version until they next {@link #loadAll()}.
+     *
+     * @throws com.palantir.atlasdb.keyvalue.api.KeyAlreadyExistsException if another process concurrently stored a
+     * new version of the same dictionary
+     */
+    public CompressionDictionary trainAndStore(
+            String name,
+            Iterator<byte[]> values,
+            int maxSamples,
+            int dictionarySizeBytes) {
+        CompressionDictionary.checkValidName(name);
+        loadAll();
+        long version = CompressionDictionaries.getLatest(name).map(CompressionDictionary::version).orElse(0L) + 1;
+        CompressionDictionary dictionary = CompressionDictionary.train(
+                name, version, values, maxSamples, dictionarySizeBytes);
+
+        kvs.putUnlessExists(AtlasDbConstants.COMPRESSION_DICTIONARIES_TABLE, ImmutableMap.of(
+                Cell.create(PtBytes.toBytes(name), ValueType.VAR_LONG.convertFromJava(version)),
+                dictionary.bytes()));
+        CompressionDictionaries.register(dictionary);
+        log.info("Stored version {} of compression dictionary {}, with id {}.",
+                SafeArg.of("version", version),
+                SafeArg.of("name", name),
+                SafeArg.of("id", dictionary.id()));
+        return dictionary;
+    }
+}
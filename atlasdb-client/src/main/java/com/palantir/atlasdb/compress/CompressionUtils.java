@@ -16,14 +16,26 @@
 package com.palantir.atlasdb.compress;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 import org.xerial.snappy.Snappy;
 
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdException;
 import com.palantir.atlasdb.table.description.ColumnValueDescription.Compression;
 import com.palantir.common.base.Throwables;
+import com.palantir.logsafe.SafeArg;
 import com.palantir.logsafe.exceptions.SafeIllegalArgumentException;
+import com.palantir.logsafe.exceptions.SafeIllegalStateException;
+
+import net.jpountz.lz4.LZ4Exception;
+import net.jpountz.lz4.LZ4Factory;
 
 public final class CompressionUtils {
+    private static final LZ4Factory LZ4 = LZ4Factory.fastestInstance();
+    private static final int LZ4_LENGTH_PREFIX_BYTES = Integer.BYTES;
+    private static final long ZSTD_NO_DICTIONARY = 0L;
+
     private CompressionUtils() {
         // empty
     }
@@ -31,6 +43,10 @@ public final class CompressionUtils {
     public static byte[] compress(byte[] bytes, Compression compressionType) {
         if (compressionType == Compression.SNAPPY) {
             return compressWithSnappy(bytes);
+        } else if (compressionType == Compression.LZ4) {
+            return compressWithLz4(bytes);
+        } else if (compressionType == Compression.ZSTD) {
+            return compressWithZstd(bytes);
         } else if (compressionType == Compression.NONE) {
             return bytes;
         } else {
@@ -38,9 +54,27 @@ public final class CompressionUtils {
         }
     }
 
+    /**
+     * Compresses with the latest version of the named dictionary registered with {@link CompressionDictionaries}, or
+     * without a dictionary if none has been registered. Only {@link Compression#ZSTD} supports dictionaries.
+     */
+    public static byte[] compress(byte[] bytes, Compression compressionType, String dictionaryName) {
+        if (compressionType != Compression.ZSTD) {
+            throw new SafeIllegalArgumentException("Only Zstd compression supports dictionaries",
+                    SafeArg.of("compression", compressionType));
+        }
+        return CompressionDictionaries.getLatest(dictionaryName)
+                .map(dictionary -> dictionary.compress(bytes))
+                .orElseGet(() -> compressWithZstd(bytes));
+    }
+
     public static byte[] decompress(byte[] bytes, Compression compressionType) {
         if (compressionType == Compression.SNAPPY) {
             return decompressWithSnappy(bytes);
+        } else if (compressionType == Compression.LZ4) {
+            return decompressWithLz4(bytes);
+        } else if (compressionType == Compression.ZSTD) {
+            return decompressWithZstd(bytes);
         } else if (compressionType == Compression.NONE) {
             return bytes;
         } else {
@@ -66,4 +100,64 @@ public final class CompressionUtils {
             throw Throwables.throwUncheckedException(e);
         }
     }
+
+    /**
+     * Compresses to an LZ4 block, prefixed with the length of the uncompressed bytes as LZ4 blocks do not record it.
+     */
+    public static byte[] compressWithLz4(byte[] bytes) {
+        byte[] compressed = LZ4.fastCompressor().compress(bytes);
+        return ByteBuffer.allocate(LZ4_LENGTH_PREFIX_BYTES + compressed.length)
+                .putInt(bytes.length)
+                .put(compressed)
+                .array();
+    }
+
+    public static byte[] decompressWithLz4(byte[] bytes) {
+        if (bytes.length < LZ4_LENGTH_PREFIX_BYTES) {
+            throw new SafeIllegalArgumentException("Cannot decompress these bytes using LZ4");
+        }
+        int length = ByteBuffer.wrap(bytes).getInt();
+        if (length < 0) {
+            throw new SafeIllegalArgumentException("Cannot decompress these bytes using LZ4");
+        }
+        try {
+            byte[] decompressed = new byte[length];
+            int compressedLength = LZ4.fastDecompressor().decompress(
+                    bytes, LZ4_LENGTH_PREFIX_BYTES, decompressed, 0, length);
+            if (compressedLength != bytes.length - LZ4_LENGTH_PREFIX_BYTES) {
+                throw new SafeIllegalArgumentException("Cannot decompress these bytes using LZ4");
+            }
+            return decompressed;
+        } catch (LZ4Exception e) {
+            throw new SafeIllegalArgumentException("Cannot decompress these bytes using LZ4", e);
+        }
+    }
+
+    public static byte[] compressWithZstd(byte[] bytes) {
+        return Zstd.compress(bytes);
+    }
+
+    /**
+     * Decompresses a Zstd frame. If the frame was compressed with a dictionary, that dictionary must have been
+     * registered with {@link CompressionDictionaries}.
+     */
+    public static byte[] decompressWithZstd(byte[] bytes) {
+        long length = Zstd.decompressedSize(bytes);
+        if (length < 0 || length > Integer.MAX_VALUE) {
+            throw new SafeIllegalArgumentException("Cannot decompress these bytes using Zstd");
+        }
+        try {
+            long dictionaryId = Zstd.getDictIdFromFrame(bytes);
+            if (dictionaryId == ZSTD_NO_DICTIONARY) {
+                return Zstd.decompress(bytes, (int) length);
+            }
+            return CompressionDictionaries.getById(dictionaryId)
+                    .orElseThrow(() -> new SafeIllegalStateException(
+                            "Value was compressed with a Zstd dictionary that has not been loaded",
+                            SafeArg.of("dictionaryId", dictionaryId)))
+                    .decompress(bytes, (int) length);
+        } catch (ZstdException e) {
+            throw new SafeIllegalArgumentException("Cannot decompress these bytes using Zstd", e);
+        }
+    }
 }
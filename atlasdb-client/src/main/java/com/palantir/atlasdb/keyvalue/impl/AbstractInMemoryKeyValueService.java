@@ -0,0 +1,558 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.keyvalue.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Supplier;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+import org.apache.commons.lang3.ArrayUtils;
+
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.collect.Iterators;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Multimap;
+import com.google.common.collect.PeekingIterator;
+import com.google.common.collect.Sets;
+import com.google.common.primitives.UnsignedBytes;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.palantir.atlasdb.AtlasDbConstants;
+import com.palantir.atlasdb.keyvalue.api.BatchColumnRangeSelection;
+import com.palantir.atlasdb.keyvalue.api.CandidateCellForSweeping;
+import com.palantir.atlasdb.keyvalue.api.CandidateCellForSweepingRequest;
+import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.atlasdb.keyvalue.api.CheckAndSetCompatibility;
+import com.palantir.atlasdb.keyvalue.api.CheckAndSetException;
+import com.palantir.atlasdb.keyvalue.api.CheckAndSetRequest;
+import com.palantir.atlasdb.keyvalue.api.ClusterAvailabilityStatus;
+import com.palantir.atlasdb.keyvalue.api.ColumnRangeSelection;
+import com.palantir.atlasdb.keyvalue.api.ColumnSelection;
+import com.palantir.atlasdb.keyvalue.api.KeyAlreadyExistsException;
+import com.palantir.atlasdb.keyvalue.api.RangeRequest;
+import com.palantir.atlasdb.keyvalue.api.RangeRequests;
+import com.palantir.atlasdb.keyvalue.api.RowColumnRangeIterator;
+import com.palantir.atlasdb.keyvalue.api.RowResult;
+import com.palantir.atlasdb.keyvalue.api.TableReference;
+import com.palantir.atlasdb.keyvalue.api.TimestampRangeDelete;
+import com.palantir.atlasdb.keyvalue.api.Value;
+import com.palantir.atlasdb.keyvalue.impl.InMemoryTable.Key;
+import com.palantir.atlasdb.keyvalue.impl.InMemoryTable.Version;
+import com.palantir.common.annotation.Output;
+import com.palantir.common.base.ClosableIterator;
+import com.palantir.common.base.ClosableIterators;
+import com.palantir.common.exception.TableMappingNotFoundException;
+import com.palantir.util.paging.TokenBackedBasicResultsPage;
+
+/**
+ * The logic shared by the key value services that keep each table in an {@link InMemoryTable}, which differ only in
+ * where the contents of their tables are stored.
+ */
+@ThreadSafe
+abstract class AbstractInMemoryKeyValueService extends AbstractKeyValueService {
+    private final ConcurrentMap<TableReference, InMemoryTable> tables = Maps.newConcurrentMap();
+    private final ConcurrentMap<TableReference, byte[]> tableMetadata = Maps.newConcurrentMap();
+    private final boolean createTablesAutomatically;
+    private final Supplier<InMemoryTable> tableFactory;
+
+    AbstractInMemoryKeyValueService(
+            boolean createTablesAutomatically,
+            ExecutorService executor,
+            Supplier<InMemoryTable> tableFactory) {
+        super(executor);
+        this.createTablesAutomatically = createTablesAutomatically;
+        this.tableFactory = tableFactory;
+    }
+
+    @Override
+    @SuppressWarnings({"CheckReturnValue"}) // Consume all remaining values of iterator.
+    public Map<Cell, Value> getRows(TableReference tableRef, Iterable<byte[]> rows,
+                                    ColumnSelection columnSelection, long timestamp) {
+        Map<Cell, Value> result = Maps.newHashMap();
+        InMemoryTable table = getTable(tableRef);
+
+        for (byte[] row : rows) {
+            Cell rowBegin = Cells.createSmallestCellForRow(row);
+            Cell rowEnd = Cells.createLargestCellForRow(row);
+            PeekingIterator<Version> versions = Iterators.peekingIterator(table.iterator(
+                    new Key(rowBegin, Long.MIN_VALUE), true, new Key(rowEnd, timestamp), false, false));
+            while (versions.hasNext()) {
+                Key key = versions.peek().key();
+                Iterator<Version> cellIter = takeCell(versions, key);
+                if (columnSelection.contains(key.col())) {
+                    getLatestVersionOfCell(row, key, cellIter, timestamp, result);
+                }
+                Iterators.size(cellIter);
+            }
+        }
+
+        return result;
+    }
+
+    private void getLatestVersionOfCell(byte[] row, Key key, Iterator<Version> cellIter, long timestamp,
+                                        @Output Map<Cell, Value> result) {
+        Version lastVersion = null;
+        while (cellIter.hasNext()) {
+            Version curVersion = cellIter.next();
+            if (curVersion.key().ts() >= timestamp) {
+                break;
+            }
+            lastVersion = curVersion;
+        }
+        if (lastVersion != null) {
+            result.put(Cell.create(row, key.col()), toValue(lastVersion));
+        }
+    }
+
+    @Override
+    public Map<Cell, Value> get(TableReference tableRef, Map<Cell, Long> timestampByCell) {
+        InMemoryTable table = getTable(tableRef);
+        Map<Cell, Value> result = Maps.newHashMap();
+        for (Map.Entry<Cell, Long> e : timestampByCell.entrySet()) {
+            Cell cell = e.getKey();
+            Iterator<Version> latestFirst = table.iterator(
+                    new Key(cell, Long.MIN_VALUE), true, new Key(cell, e.getValue()), false, true);
+            if (latestFirst.hasNext()) {
+                result.put(cell, toValue(latestFirst.next()));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public Map<RangeRequest, TokenBackedBasicResultsPage<RowResult<Value>, byte[]>> getFirstBatchForRanges(
+            TableReference tableRef,
+            Iterable<RangeRequest> rangeRequests,
+            long timestamp) {
+        return KeyValueServices.getFirstBatchForRangesUsingGetRange(this, tableRef, rangeRequests, timestamp);
+    }
+
+    @Override
+    public ClosableIterator<RowResult<Value>> getRange(
+            TableReference tableRef,
+            final RangeRequest range,
+            final long timestamp) {
+        boolean reversed = range.isReverse();
+        return getRangeInternal(tableRef, range, versions -> {
+            Version lastVersion = null;
+            while (versions.hasNext()) {
+                Version version = versions.next();
+                if (reversed && version.key().ts() < timestamp) {
+                    lastVersion = version;
+                    break;
+                } else if (!reversed && version.key().ts() >= timestamp) {
+                    break;
+                }
+                lastVersion = version;
+            }
+            return lastVersion != null ? toValue(lastVersion) : null;
+        });
+    }
+
+    @Override
+    public ClosableIterator<RowResult<Set<Long>>> getRangeOfTimestamps(
+            TableReference tableRef,
+            final RangeRequest range,
+            final long timestamp) {
+        return getRangeInternal(tableRef, range, versions -> {
+            Set<Long> timestamps = Sets.newTreeSet();
+            while (versions.hasNext()) {
+                Key key = versions.next().key();
+                if (key.ts() >= timestamp) {
+                    break;
+                }
+                timestamps.add(key.ts());
+            }
+            return !timestamps.isEmpty() ? timestamps : null;
+        });
+    }
+
+    @Override
+    public ClosableIterator<List<CandidateCellForSweeping>> getCandidateCellsForSweeping(TableReference tableRef,
+            CandidateCellForSweepingRequest request) {
+        return new GetCandidateCellsForSweepingShim(this).getCandidateCellsForSweeping(tableRef, request);
+    }
+
+    private <T> ClosableIterator<RowResult<T>> getRangeInternal(TableReference tableRef,
+                                                                final RangeRequest range,
+                                                                final ResultProducer<T> resultProducer) {
+        InMemoryTable table = getTable(tableRef);
+        Key lowerBound = null;
+        boolean lowerInclusive = false;
+        Key upperBound = null;
+        boolean upperInclusive = false;
+        if (range.isReverse()) {
+            if (range.getStartInclusive().length != 0) {
+                upperBound = new Key(Cells.createLargestCellForRow(range.getStartInclusive()), Long.MIN_VALUE);
+                upperInclusive = true;
+            }
+            if (range.getEndExclusive().length != 0) {
+                lowerBound = new Key(Cells.createLargestCellForRow(range.getEndExclusive()), Long.MAX_VALUE);
+            }
+        } else {
+            if (range.getStartInclusive().length != 0) {
+                lowerBound = new Key(Cells.createSmallestCellForRow(range.getStartInclusive()), Long.MIN_VALUE);
+                lowerInclusive = true;
+            }
+            if (range.getEndExclusive().length != 0) {
+                upperBound = new Key(Cells.createSmallestCellForRow(range.getEndExclusive()), Long.MAX_VALUE);
+            }
+        }
+        final PeekingIterator<Version> it = Iterators.peekingIterator(
+                table.iterator(lowerBound, lowerInclusive, upperBound, upperInclusive, range.isReverse()));
+        return ClosableIterators.wrap(new AbstractIterator<RowResult<T>>() {
+            @Override
+            protected RowResult<T> computeNext() {
+                while (true) {
+                    if (!it.hasNext()) {
+                        return endOfData();
+                    }
+                    ImmutableSortedMap.Builder<byte[], T> result = ImmutableSortedMap.orderedBy(
+                            UnsignedBytes.lexicographicalComparator());
+                    Key key = it.peek().key();
+                    byte[] row = key.row();
+                    Iterator<Version> cellIter = takeCell(it, key);
+                    collectValueForTimestamp(key.col(), cellIter, result, range, resultProducer);
+
+                    while (it.hasNext()) {
+                        if (!it.peek().key().matchesRow(row)) {
+                            break;
+                        }
+                        key = it.peek().key();
+                        cellIter = takeCell(it, key);
+                        collectValueForTimestamp(key.col(), cellIter, result, range, resultProducer);
+                    }
+                    SortedMap<byte[], T> columns = result.build();
+                    if (!columns.isEmpty()) {
+                        return RowResult.create(row, columns);
+                    }
+                }
+            }
+        });
+    }
+
+    private static Iterator<Version> takeCell(final PeekingIterator<Version> it, final Key key) {
+        return new AbstractIterator<Version>() {
+            @Override
+            protected Version computeNext() {
+                if (!it.hasNext()) {
+                    return endOfData();
+                }
+                if (it.peek().key().matchesCell(key)) {
+                    return it.next();
+                }
+                return endOfData();
+            }
+        };
+    }
+
+    @Override
+    public Map<byte[], RowColumnRangeIterator> getRowsColumnRange(TableReference tableRef,
+                                                                  Iterable<byte[]> rows,
+                                                                  BatchColumnRangeSelection batchColumnRangeSelection,
+                                                                  long timestamp) {
+        Map<byte[], RowColumnRangeIterator> result = Maps.newHashMap();
+        InMemoryTable table = getTable(tableRef);
+
+        ColumnRangeSelection columnRangeSelection = new ColumnRangeSelection(
+                batchColumnRangeSelection.getStartCol(),
+                batchColumnRangeSelection.getEndCol());
+        for (byte[] row : rows) {
+            result.put(row, getColumnRangeForSingleRow(table, row, columnRangeSelection, timestamp));
+        }
+
+        return result;
+    }
+
+    @Override
+    public RowColumnRangeIterator getRowsColumnRange(TableReference tableRef,
+                                                     Iterable<byte[]> rows,
+                                                     ColumnRangeSelection columnRangeSelection,
+                                                     int cellBatchHint,
+                                                     long timestamp) {
+        InMemoryTable table = getTable(tableRef);
+        Iterator<RowColumnRangeIterator> rowColumnRanges =
+                Iterators.transform(rows.iterator(),
+                        row -> getColumnRangeForSingleRow(table, row, columnRangeSelection, timestamp));
+        return new LocalRowColumnRangeIterator(Iterators.concat(rowColumnRanges));
+    }
+
+    private RowColumnRangeIterator getColumnRangeForSingleRow(InMemoryTable table,
+                                                              byte[] row,
+                                                              ColumnRangeSelection columnRangeSelection,
+                                                              long timestamp) {
+        Cell rowBegin;
+        if (columnRangeSelection.getStartCol().length > 0) {
+            rowBegin = Cell.create(row, columnRangeSelection.getStartCol());
+        } else {
+            rowBegin = Cells.createSmallestCellForRow(row);
+        }
+        // Inclusive last cell.
+        Cell rowEnd;
+        if (columnRangeSelection.getEndCol().length > 0) {
+            rowEnd = Cell.create(row, RangeRequests.previousLexicographicName(columnRangeSelection.getEndCol()));
+        } else {
+            rowEnd = Cells.createLargestCellForRow(row);
+        }
+        PeekingIterator<Version> versions = Iterators.peekingIterator(table.iterator(
+                new Key(rowBegin, Long.MIN_VALUE), true, new Key(rowEnd, timestamp), false, false));
+        Map<Cell, Value> rowResults = new LinkedHashMap<>();
+        while (versions.hasNext()) {
+            Key key = versions.peek().key();
+            Iterator<Version> cellIter = takeCell(versions, key);
+            getLatestVersionOfCell(row, key, cellIter, timestamp, rowResults);
+        }
+        return new LocalRowColumnRangeIterator(rowResults.entrySet().iterator());
+    }
+
+    private interface ResultProducer<T> {
+        @Nullable T apply(Iterator<Version> timestampValues);
+    }
+
+    @SuppressWarnings({"CheckReturnValue"}) // Consume all remaining values of iterator.
+    private static <T> void collectValueForTimestamp(byte[] col,
+                                                     Iterator<Version> timestampValues,
+                                                     @Output ImmutableSortedMap.Builder<byte[], T> results,
+                                                     RangeRequest range,
+                                                     ResultProducer<T> resultProducer) {
+        T result = null;
+        if (range.containsColumn(col)) {
+            result = resultProducer.apply(timestampValues);
+        }
+
+        // exhaust remaining entries
+        Iterators.size(timestampValues);
+        if (result != null) {
+            results.put(col, result);
+        }
+    }
+
+    private static Value toValue(Version version) {
+        // the only copy made on reads, so that callers never share the storage of the table
+        return Value.create(version.copyOfValue(), version.key().ts());
+    }
+
+    @Override
+    public void multiPut(Map<TableReference, ? extends Map<Cell, byte[]>> valuesByTable, final long timestamp) {
+        valuesByTable.forEach((tableRef, values) -> put(tableRef, values, timestamp));
+    }
+
+    @Override
+    public void put(TableReference tableRef, Map<Cell, byte[]> values, long timestamp) {
+        putInternal(tableRef, KeyValueServices.toConstantTimestampValues(values.entrySet(), timestamp), false);
+    }
+
+    @Override
+    public void putWithTimestamps(TableReference tableRef, Multimap<Cell, Value> values) {
+        putInternal(tableRef, values.entries(), false);
+    }
+
+    @Override
+    public void putUnlessExists(TableReference tableRef, Map<Cell, byte[]> values)
+            throws KeyAlreadyExistsException {
+        putInternal(tableRef,
+                KeyValueServices.toConstantTimestampValues(values.entrySet(), AtlasDbConstants.TRANSACTION_TS),
+                true);
+    }
+
+    private void putInternal(
+            TableReference tableRef,
+            Collection<Map.Entry<Cell, Value>> values,
+            boolean doNotOverwriteWithSameValue) {
+        InMemoryTable table = getTable(tableRef);
+        List<Cell> knownSuccessfullyCommittedKeys = new ArrayList<>();
+        for (Map.Entry<Cell, Value> entry : values) {
+            byte[] contents = entry.getValue().getContents();
+            long timestamp = entry.getValue().getTimestamp();
+
+            byte[] oldContents = table.putIfAbsent(new Key(entry.getKey(), timestamp), contents);
+            if (oldContents != null && (doNotOverwriteWithSameValue || !Arrays.equals(oldContents, contents))) {
+                throw new KeyAlreadyExistsException("We already have a value for this timestamp",
+                        ImmutableList.of(entry.getKey()), knownSuccessfullyCommittedKeys);
+            }
+            knownSuccessfullyCommittedKeys.add(entry.getKey());
+        }
+    }
+
+    @Override
+    public CheckAndSetCompatibility getCheckAndSetCompatibility() {
+        return CheckAndSetCompatibility.SUPPORTED_DETAIL_ON_FAILURE;
+    }
+
+    @Override
+    public void checkAndSet(CheckAndSetRequest request) throws CheckAndSetException {
+        TableReference tableRef = request.table();
+        InMemoryTable table = getTable(tableRef);
+        Cell cell = request.cell();
+        Optional<byte[]> oldValue = request.oldValue();
+        byte[] contents = request.newValue();
+
+        Key key = new Key(cell, AtlasDbConstants.TRANSACTION_TS);
+        if (oldValue.isPresent()) {
+            if (!table.replace(key, oldValue.get(), contents)) {
+                ImmutableList<byte[]> actuals = Optional.ofNullable(table.get(key))
+                        .map(actual -> {
+                            byte[] bytes = new byte[actual.remaining()];
+                            actual.get(bytes);
+                            return ImmutableList.of(bytes);
+                        })
+                        .orElseGet(ImmutableList::of);
+                throw new CheckAndSetException(cell, tableRef, oldValue.get(), actuals);
+            }
+        } else {
+            byte[] oldContents = table.putIfAbsent(key, contents);
+            if (oldContents != null) {
+                throw new CheckAndSetException(cell, tableRef, null, ImmutableList.of(oldContents));
+            }
+        }
+    }
+
+    @Override
+    public void delete(TableReference tableRef, Multimap<Cell, Long> keys) {
+        InMemoryTable table = getTable(tableRef);
+        for (Map.Entry<Cell, Long> e : keys.entries()) {
+            table.delete(new Key(e.getKey(), e.getValue()));
+        }
+    }
+
+    @Override
+    public void deleteAllTimestamps(TableReference tableRef, Map<Cell, TimestampRangeDelete> deletes) {
+        InMemoryTable table = getTable(tableRef);
+        deletes.forEach((cell, delete) -> table.deleteRange(
+                new Key(cell, delete.minTimestampToDelete()),
+                new Key(cell, delete.maxTimestampToDelete())));
+    }
+
+    @Override
+    public Multimap<Cell, Long> getAllTimestamps(TableReference tableRef, Set<Cell> cells, long ts) {
+        Multimap<Cell, Long> multimap = HashMultimap.create();
+        InMemoryTable table = getTable(tableRef);
+        for (Cell cell : cells) {
+            Iterator<Version> versions = table.iterator(
+                    new Key(cell, Long.MIN_VALUE), true, new Key(cell, ts), false, false);
+            while (versions.hasNext()) {
+                multimap.put(cell, versions.next().key().ts());
+            }
+        }
+        return multimap;
+    }
+
+    @Override
+    public void dropTable(TableReference tableRef) {
+        tables.remove(tableRef);
+        tableMetadata.remove(tableRef);
+    }
+
+    @Override
+    public void truncateTables(final Set<TableReference> tableRefs) {
+        tableRefs.forEach(this::truncateTable);
+    }
+
+    @Override
+    public void truncateTable(TableReference tableRef) {
+        InMemoryTable table = tables.get(tableRef);
+        if (table != null) {
+            table.clear();
+        } else {
+            throw tableMappingException(tableRef);
+        }
+    }
+
+    @Override
+    public void createTable(TableReference tableRef, byte[] metadata) {
+        tables.computeIfAbsent(tableRef, unused -> tableFactory.get());
+        putMetadataForTable(tableRef, metadata);
+    }
+
+    @Override
+    public void putMetadataForTable(TableReference tableRef, byte[] metadata) {
+        if (!tables.containsKey(tableRef)) {
+            throw tableMappingException(tableRef);
+        }
+        tableMetadata.put(tableRef, metadata);
+    }
+
+    @Override
+    public byte[] getMetadataForTable(TableReference tableRef) {
+        if (!tables.containsKey(tableRef)) {
+            return AtlasDbConstants.EMPTY_TABLE_METADATA;
+        }
+        byte[] ret = tableMetadata.get(tableRef);
+        return ret == null ? ArrayUtils.EMPTY_BYTE_ARRAY : ret;
+    }
+
+    @Override
+    public Set<TableReference> getAllTableNames() {
+        return ImmutableSet.copyOf(tables.keySet());
+    }
+
+    private InMemoryTable getTable(TableReference tableRef) {
+        if (createTablesAutomatically && !tables.containsKey(tableRef)) {
+            createTable(tableRef, AtlasDbConstants.EMPTY_TABLE_METADATA);
+        }
+        InMemoryTable table = tables.get(tableRef);
+        if (table == null) {
+            throw tableMappingException(tableRef);
+        }
+        return table;
+    }
+
+    @Override
+    public void addGarbageCollectionSentinelValues(TableReference tableRef, Iterable<Cell> cells) {
+        InMemoryTable table = getTable(tableRef);
+        for (Cell cell : cells) {
+            table.put(new Key(cell, Value.INVALID_VALUE_TIMESTAMP), ArrayUtils.EMPTY_BYTE_ARRAY);
+        }
+    }
+
+    @Override
+    public void compactInternally(TableReference tableRef) {
+        // nothing to do
+    }
+
+    @Override
+    public ClusterAvailabilityStatus getClusterAvailabilityStatus() {
+        return ClusterAvailabilityStatus.ALL_AVAILABLE;
+    }
+
+    private static IllegalArgumentException tableMappingException(TableReference tableReference) {
+        return new IllegalArgumentException(
+                new TableMappingNotFoundException(
+                        "Table " + tableReference.getQualifiedName() + " does not exist"));
+    }
+
+    @Override
+    public ListenableFuture<Map<Cell, Value>> getAsync(TableReference tableRef, Map<Cell, Long> timestampByCell) {
+        return Futures.immediateFuture(get(tableRef, timestampByCell));
+    }
+}
@@ -31,12 +31,14 @@ import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Multimap;
 import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
 import com.palantir.atlasdb.AtlasDbConstants;
 import com.palantir.atlasdb.AtlasDbPerformanceConstants;
 import com.palantir.atlasdb.keyvalue.api.BatchColumnRangeSelection;
 import com.palantir.atlasdb.keyvalue.api.Cell;
 import com.palantir.atlasdb.keyvalue.api.CheckAndSetCompatibility;
 import com.palantir.atlasdb.keyvalue.api.ColumnRangeSelection;
+import com.palantir.atlasdb.keyvalue.api.ColumnSelection;
 import com.palantir.atlasdb.keyvalue.api.KeyValueService;
 import com.palantir.atlasdb.keyvalue.api.RangeRequest;
 import com.palantir.atlasdb.keyvalue.api.RangeRequests;
@@ -47,6 +49,7 @@ import com.palantir.atlasdb.keyvalue.api.Value;
 import com.palantir.common.base.ClosableIterator;
 import com.palantir.common.concurrent.NamedThreadFactory;
 import com.palantir.common.concurrent.PTExecutors;
+import com.palantir.util.paging.TokenBackedBasicResultsPage;
 
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 
@@ -218,4 +221,32 @@ public abstract class AbstractKeyValueService implements KeyValueService {
                                                                           cellBatchHint,
                                                                           timestamp);
     }
+
+    @Override
+    public ListenableFuture<Map<Cell, Value>> getRowsAsync(
+            TableReference tableRef,
+            Iterable<byte[]> rows,
+            ColumnSelection columnSelection,
+            long timestamp) {
+        return Futures.immediateFuture(getRows(tableRef, rows, columnSelection, timestamp));
+    }
+
+    @Override
+    public ListenableFuture<Map<Cell, Value>> getRowsColumnRangeAsync(
+            TableReference tableRef,
+            Iterable<byte[]> rows,
+            BatchColumnRangeSelection batchColumnRangeSelection,
+            long timestamp) {
+        return Futures.immediateFuture(
+                KeyValueServices.getRowsColumnRangeFully(this, tableRef, rows, batchColumnRangeSelection, timestamp));
+    }
+
+    @Override
+    public ListenableFuture<TokenBackedBasicResultsPage<RowResult<Value>, byte[]>> getFirstBatchForRangeAsync(
+            TableReference tableRef,
+            RangeRequest rangeRequest,
+            long timestamp) {
+        return Futures.immediateFuture(
+                KeyValueServices.getFirstBatchForRange(this, tableRef, rangeRequest, timestamp));
+    }
 }
@@ -303,4 +303,30 @@ public class DualWriteKeyValueService implements KeyValueService {
     public ListenableFuture<Map<Cell, Value>> getAsync(TableReference tableRef, Map<Cell, Long> timestampByCell) {
         return delegate1.getAsync(tableRef, timestampByCell);
     }
+
+    @Override
+    public ListenableFuture<Map<Cell, Value>> getRowsAsync(
+            TableReference tableRef,
+            Iterable<byte[]> rows,
+            ColumnSelection columnSelection,
+            long timestamp) {
+        return delegate1.getRowsAsync(tableRef, rows, columnSelection, timestamp);
+    }
+
+    @Override
+    public ListenableFuture<Map<Cell, Value>> getRowsColumnRangeAsync(
+            TableReference tableRef,
+            Iterable<byte[]> rows,
+            BatchColumnRangeSelection batchColumnRangeSelection,
+            long timestamp) {
+        return delegate1.getRowsColumnRangeAsync(tableRef, rows, batchColumnRangeSelection, timestamp);
+    }
+
+    @Override
+    public ListenableFuture<TokenBackedBasicResultsPage<RowResult<Value>, byte[]>> getFirstBatchForRangeAsync(
+            TableReference tableRef,
+            RangeRequest rangeRequest,
+            long timestamp) {
+        return delegate1.getFirstBatchForRangeAsync(tableRef, rangeRequest, timestamp);
+    }
 }
@@ -0,0 +1,177 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.keyvalue.impl;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Iterator;
+
+import javax.annotation.Nullable;
+
+import com.google.common.io.BaseEncoding;
+import com.google.common.primitives.Longs;
+import com.google.common.primitives.UnsignedBytes;
+import com.palantir.atlasdb.keyvalue.api.Cell;
+
+/**
+ * The contents of one table of an {@link AbstractInMemoryKeyValueService}: versions of cells, ordered by row, column
+ * and then timestamp. Implementations decide where the contents are kept, and must be safe for concurrent use.
+ */
+interface InMemoryTable {
+    /**
+     * Returns the live versions with keys in the given range, in ascending order of key unless {@code reverse} is set.
+     * A null bound leaves that end of the range unbounded.
+     */
+    Iterator<Version> iterator(
+            @Nullable Key lowerBound,
+            boolean lowerInclusive,
+            @Nullable Key upperBound,
+            boolean upperInclusive,
+            boolean reverse);
+
+    /**
+     * Returns the value stored for exactly the given key, or null if there is none.
+     */
+    @Nullable
+    ByteBuffer get(Key key);
+
+    /**
+     * Stores the given value if there is none for the key, and otherwise returns a copy of the existing value.
+     */
+    @Nullable
+    byte[] putIfAbsent(Key key, byte[] contents);
+
+    void put(Key key, byte[] contents);
+
+    /**
+     * Replaces the value stored for the given key, if it is the expected value.
+     */
+    boolean replace(Key key, byte[] expected, byte[] contents);
+
+    void delete(Key key);
+
+    /**
+     * Deletes all versions with keys between the given bounds, inclusive.
+     */
+    void deleteRange(Key lowerBound, Key upperBound);
+
+    void clear();
+
+    final class Version {
+        private final Key key;
+        @Nullable
+        private final ByteBuffer value;
+
+        Version(Key key, @Nullable ByteBuffer value) {
+            this.key = key;
+            this.value = value;
+        }
+
+        Key key() {
+            return key;
+        }
+
+        boolean isTombstone() {
+            return value == null;
+        }
+
+        /**
+         * Returns the value of this version as a read-only buffer, which may be a view of off-heap memory.
+         */
+        ByteBuffer value() {
+            return value.duplicate();
+        }
+
+        byte[] copyOfValue() {
+            byte[] bytes = new byte[value.remaining()];
+            value.duplicate().get(bytes);
+            return bytes;
+        }
+    }
+
+    final class Key implements Comparable<Key> {
+        private final byte[] row;
+        private final byte[] col;
+        private final long ts;
+
+        Key(Cell cell, long ts) {
+            this(cell.getRowName(), cell.getColumnName(), ts);
+        }
+
+        Key(byte[] row, byte[] col, long ts) {
+            this.row = row;
+            this.col = col;
+            this.ts = ts;
+        }
+
+        byte[] row() {
+            return row;
+        }
+
+        byte[] col() {
+            return col;
+        }
+
+        long ts() {
+            return ts;
+        }
+
+        boolean matchesRow(byte[] otherRow) {
+            return Arrays.equals(row, otherRow);
+        }
+
+        boolean matchesCell(Key key) {
+            return Arrays.equals(row, key.row) && Arrays.equals(col, key.col);
+        }
+
+        @Override
+        public int compareTo(Key other) {
+            int comparison = UnsignedBytes.lexicographicalComparator().compare(row, other.row);
+            if (comparison != 0) {
+                return comparison;
+            }
+            comparison = UnsignedBytes.lexicographicalComparator().compare(col, other.col);
+            if (comparison != 0) {
+                return comparison;
+            }
+            return Longs.compare(ts, other.ts);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj == null || getClass() != obj.getClass()) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return ts == other.ts && Arrays.equals(row, other.row) && Arrays.equals(col, other.col);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * Arrays.hashCode(row) + Arrays.hashCode(col)) + Long.hashCode(ts);
+        }
+
+        @Override
+        public String toString() {
+            return "Key [row=" + BaseEncoding.base16().lowerCase().encode(row)
+                    + ", col=" + BaseEncoding.base16().lowerCase().encode(col)
+                    + ", ts=" + ts + "]";
+        }
+    }
+}
@@ -219,6 +219,38 @@ public class KeyValueServices {
         return new LocalRowColumnRangeIterator(Iterators.concat(orderedRanges.iterator()));
     }
 
+    /**
+     * Reads every cell in the column range for each of the given rows, using the batch hint as the number of cells to
+     * load at once.
+     */
+    public static Map<Cell, Value> getRowsColumnRangeFully(
+            KeyValueService kvs,
+            TableReference tableRef,
+            Iterable<byte[]> rows,
+            BatchColumnRangeSelection batchColumnRangeSelection,
+            long timestamp) {
+        ColumnRangeSelection columnRangeSelection = new ColumnRangeSelection(
+                batchColumnRangeSelection.getStartCol(),
+                batchColumnRangeSelection.getEndCol());
+        RowColumnRangeIterator iterator = kvs.getRowsColumnRange(
+                tableRef,
+                rows,
+                columnRangeSelection,
+                batchColumnRangeSelection.getBatchHint(),
+                timestamp);
+        Map<Cell, Value> result = Maps.newLinkedHashMap();
+        iterator.forEachRemaining(entry -> result.put(entry.getKey(), entry.getValue()));
+        return result;
+    }
+
+    public static TokenBackedBasicResultsPage<RowResult<Value>, byte[]> getFirstBatchForRange(
+            KeyValueService kvs,
+            TableReference tableRef,
+            RangeRequest rangeRequest,
+            long timestamp) {
+        return kvs.getFirstBatchForRanges(tableRef, ImmutableList.of(rangeRequest), timestamp).get(rangeRequest);
+    }
+
     /**
      * Constructs an {@link AsyncKeyValueService} such that methods are blocking and return immediate futures.
      *
@@ -234,6 +266,34 @@ public class KeyValueServices {
                 return Futures.immediateFuture(keyValueService.get(tableRef, timestampByCell));
             }
 
+            @Override
+            public ListenableFuture<Map<Cell, Value>> getRowsAsync(
+                    TableReference tableRef,
+                    Iterable<byte[]> rows,
+                    ColumnSelection columnSelection,
+                    long timestamp) {
+                return Futures.immediateFuture(keyValueService.getRows(tableRef, rows, columnSelection, timestamp));
+            }
+
+            @Override
+            public ListenableFuture<Map<Cell, Value>> getRowsColumnRangeAsync(
+                    TableReference tableRef,
+                    Iterable<byte[]> rows,
+                    BatchColumnRangeSelection batchColumnRangeSelection,
+                    long timestamp) {
+                return Futures.immediateFuture(getRowsColumnRangeFully(
+                        keyValueService, tableRef, rows, batchColumnRangeSelection, timestamp));
+            }
+
+            @Override
+            public ListenableFuture<TokenBackedBasicResultsPage<RowResult<Value>, byte[]>> getFirstBatchForRangeAsync(
+                    TableReference tableRef,
+                    RangeRequest rangeRequest,
+                    long timestamp) {
+                return Futures.immediateFuture(
+                        getFirstBatchForRange(keyValueService, tableRef, rangeRequest, timestamp));
+            }
+
             @Override
             public void close() {
                 // NoOp
@@ -0,0 +1,59 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.keyvalue.impl;
+
+import java.util.concurrent.ExecutorService;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+import com.google.common.util.concurrent.MoreExecutors;
+import com.palantir.logsafe.Preconditions;
+import com.palantir.logsafe.SafeArg;
+
+/**
+ * In-memory (non-durable) key-value store implementation that keeps its data off the Java heap, for embedded use and
+ * for tests whose data would not fit comfortably on the heap of an {@link InMemoryKeyValueService}.
+ * <p>
+ * Each table is an {@link OffHeapTable}: recent writes are held in a small on-heap memtable, and everything else in
+ * immutable sorted runs in direct memory. Values are only copied onto the heap when they are returned. Direct memory
+ * is freed by the garbage collector once runs are no longer referenced, so {@code -XX:MaxDirectMemorySize} should
+ * allow for the size of the data, plus the runs being merged at any time.
+ */
+@ThreadSafe
+public class OffHeapKeyValueService extends AbstractInMemoryKeyValueService {
+    public static final long DEFAULT_MEMTABLE_FLUSH_THRESHOLD_BYTES = 8 * 1024 * 1024;
+
+    public OffHeapKeyValueService(boolean createTablesAutomatically) {
+        this(createTablesAutomatically, MoreExecutors.newDirectExecutorService());
+    }
+
+    public OffHeapKeyValueService(boolean createTablesAutomatically, ExecutorService executor) {
+        this(createTablesAutomatically, executor, DEFAULT_MEMTABLE_FLUSH_THRESHOLD_BYTES);
+    }
+
+    /**
+     * @param memtableFlushThresholdBytes the approximate size each table's writes may reach on the heap before being
+     * moved into direct memory
+     */
+    public OffHeapKeyValueService(
+            boolean createTablesAutomatically,
+            ExecutorService executor,
+            long memtableFlushThresholdBytes) {
+        super(createTablesAutomatically, executor, () -> new OffHeapTable(memtableFlushThresholdBytes));
+        Preconditions.checkArgument(memtableFlushThresholdBytes > 0, "Flush threshold must be positive",
+                SafeArg.of("memtableFlushThresholdBytes", memtableFlushThresholdBytes));
+    }
+}
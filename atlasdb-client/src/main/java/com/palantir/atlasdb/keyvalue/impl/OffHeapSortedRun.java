@@ -0,0 +1,277 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.keyvalue.impl;
+
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+import com.google.common.primitives.UnsignedBytes;
+import com.palantir.atlasdb.keyvalue.impl.InMemoryTable.Key;
+import com.palantir.atlasdb.keyvalue.impl.InMemoryTable.Version;
+
+/**
+ * An immutable run of cell versions, sorted by key and stored in direct memory.
+ *
+ * Records are laid out back to back in chunks of direct memory as
+ * {@code [row length:4][column length:4][timestamp:8][value length:4][row][column][value]}, where a value length of
+ * -1 marks a deleted version. The offsets of the records, also held in direct memory, allow binary search by key
+ * without reading keys onto the heap. Values are returned as read-only slices of the chunk holding them.
+ *
+ * The memory of a run is freed once it is no longer referenced, so readers may keep using a run that has since been
+ * merged into another.
+ */
+final class OffHeapSortedRun {
+    private static final int HEADER_BYTES = 20;
+    private static final int TOMBSTONE_LENGTH = -1;
+    private static final int MIN_CHUNK_BYTES = 1 << 16;
+    private static final int MAX_CHUNK_BYTES = 1 << 28;
+    private static final int OFFSETS_PER_CHUNK_SHIFT = 20;
+    private static final int OFFSETS_PER_CHUNK = 1 << OFFSETS_PER_CHUNK_SHIFT;
+    private static final int MIN_OFFSETS_PER_CHUNK = 1 << 10;
+
+    private final ByteBuffer[] chunks;
+    private final LongBuffer[] offsets;
+    private final long size;
+    private final long sizeInBytes;
+
+    private OffHeapSortedRun(ByteBuffer[] chunks, LongBuffer[] offsets, long size, long sizeInBytes) {
+        this.chunks = chunks;
+        this.offsets = offsets;
+        this.size = size;
+        this.sizeInBytes = sizeInBytes;
+    }
+
+    /**
+     * Writes the given versions, which must be in ascending order of key, to a new run. The expected number and total
+     * size of the versions are only used to size the memory allocated.
+     */
+    static OffHeapSortedRun write(Iterator<Version> versions, long expectedSize, long expectedBytes) {
+        Writer writer = new Writer(expectedSize, expectedBytes);
+        while (versions.hasNext()) {
+            writer.append(versions.next());
+        }
+        return writer.build();
+    }
+
+    static long recordSize(byte[] row, byte[] col, @Nullable byte[] value) {
+        return HEADER_BYTES + row.length + col.length + (value == null ? 0 : value.length);
+    }
+
+    long size() {
+        return size;
+    }
+
+    long sizeInBytes() {
+        return sizeInBytes;
+    }
+
+    /**
+     * Returns the index of the first record with a key at least the given key, or {@link #size()} if there is none.
+     */
+    long ceiling(Key key) {
+        long low = 0;
+        long high = size;
+        while (low < high) {
+            long mid = (low + high) >>> 1;
+            if (compareAt(mid, key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Returns the index of the first record with a key greater than the given key, or {@link #size()} if there is none.
+     */
+    long higher(Key key) {
+        long low = 0;
+        long high = size;
+        while (low < high) {
+            long mid = (low + high) >>> 1;
+            if (compareAt(mid, key) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    int compareAt(long index, Key key) {
+        long offset = offsetOf(index);
+        ByteBuffer chunk = chunks[chunkOf(offset)];
+        int position = positionOf(offset);
+        int rowLength = chunk.getInt(position);
+        int colLength = chunk.getInt(position + 4);
+        int comparison = compareUnsigned(chunk, position + HEADER_BYTES, rowLength, key.row());
+        if (comparison != 0) {
+            return comparison;
+        }
+        comparison = compareUnsigned(chunk, position + HEADER_BYTES + rowLength, colLength, key.col());
+        if (comparison != 0) {
+            return comparison;
+        }
+        return Long.compare(chunk.getLong(position + 8), key.ts());
+    }
+
+    /**
+     * Reads the record at the given index. If the record's row equals {@code previousRow}, that array is reused rather
+     * than a new one allocated, as consecutive records usually share their row.
+     */
+    Version versionAt(long index, @Nullable byte[] previousRow) {
+        long offset = offsetOf(index);
+        ByteBuffer chunk = chunks[chunkOf(offset)];
+        int position = positionOf(offset);
+        int rowLength = chunk.getInt(position);
+        int colLength = chunk.getInt(position + 4);
+        long ts = chunk.getLong(position + 8);
+        int valueLength = chunk.getInt(position + 16);
+
+        int rowPosition = position + HEADER_BYTES;
+        byte[] row = previousRow != null && compareUnsigned(chunk, rowPosition, rowLength, previousRow) == 0
+                ? previousRow
+                : read(chunk, rowPosition, rowLength);
+        byte[] col = read(chunk, rowPosition + rowLength, colLength);
+        if (valueLength == TOMBSTONE_LENGTH) {
+            return new Version(new Key(row, col, ts), null);
+        }
+        return new Version(new Key(row, col, ts), slice(chunk, rowPosition + rowLength + colLength, valueLength));
+    }
+
+    private long offsetOf(long index) {
+        return offsets[(int) (index >>> OFFSETS_PER_CHUNK_SHIFT)].get((int) (index & (OFFSETS_PER_CHUNK - 1)));
+    }
+
+    private static int chunkOf(long offset) {
+        return (int) (offset >>> 32);
+    }
+
+    private static int positionOf(long offset) {
+        return (int) offset;
+    }
+
+    private static byte[] read(ByteBuffer chunk, int position, int length) {
+        byte[] bytes = new byte[length];
+        ByteBuffer source = chunk.duplicate();
+        source.position(position);
+        source.get(bytes);
+        return bytes;
+    }
+
+    private static ByteBuffer slice(ByteBuffer chunk, int position, int length) {
+        ByteBuffer slice = chunk.asReadOnlyBuffer();
+        slice.limit(position + length);
+        slice.position(position);
+        return slice.slice();
+    }
+
+    private static int compareUnsigned(ByteBuffer chunk, int position, int length, byte[] other) {
+        int common = Math.min(length, other.length);
+        for (int i = 0; i < common; i++) {
+            int comparison = UnsignedBytes.compare(chunk.get(position + i), other[i]);
+            if (comparison != 0) {
+                return comparison;
+            }
+        }
+        return Integer.compare(length, other.length);
+    }
+
+    private static final class Writer {
+        private final List<ByteBuffer> chunks = new ArrayList<>();
+        private final List<LongBuffer> offsets = new ArrayList<>();
+        private final long expectedSize;
+        private final long expectedBytes;
+
+        private ByteBuffer currentChunk;
+        private LongBuffer currentOffsets;
+        private long size = 0;
+        private long sizeInBytes = 0;
+
+        private Writer(long expectedSize, long expectedBytes) {
+            this.expectedSize = expectedSize;
+            this.expectedBytes = expectedBytes;
+        }
+
+        private void append(Version version) {
+            Key key = version.key();
+            ByteBuffer value = version.isTombstone() ? null : version.value();
+            int recordSize = HEADER_BYTES + key.row().length + key.col().length
+                    + (value == null ? 0 : value.remaining());
+            if (currentChunk == null || currentChunk.remaining() < recordSize) {
+                allocateChunk(recordSize);
+            }
+            if (currentOffsets == null || !currentOffsets.hasRemaining()) {
+                allocateOffsets();
+            }
+
+            currentOffsets.put(((long) (chunks.size() - 1) << 32) | currentChunk.position());
+            currentChunk.putInt(key.row().length)
+                    .putInt(key.col().length)
+                    .putLong(key.ts())
+                    .putInt(value == null ? TOMBSTONE_LENGTH : value.remaining())
+                    .put(key.row())
+                    .put(key.col());
+            if (value != null) {
+                currentChunk.put(value.duplicate());
+            }
+            size++;
+            sizeInBytes += recordSize;
+        }
+
+        private void allocateChunk(int recordSize) {
+            long wanted = Math.max(MIN_CHUNK_BYTES, expectedBytes - sizeInBytes);
+            int capacity = (int) Math.max(recordSize, Math.min(MAX_CHUNK_BYTES, wanted));
+            currentChunk = ByteBuffer.allocateDirect(capacity);
+            chunks.add(currentChunk);
+        }
+
+        private void allocateOffsets() {
+            if (currentOffsets != null && currentOffsets.capacity() < OFFSETS_PER_CHUNK) {
+                // Only the first chunk of offsets may be smaller than the others, so that offsets can be found by
+                // index; grow it rather than adding another.
+                LongBuffer grown = allocateLongs(Math.min(OFFSETS_PER_CHUNK, 2 * currentOffsets.capacity()));
+                currentOffsets.flip();
+                grown.put(currentOffsets);
+                currentOffsets = grown;
+                offsets.set(0, grown);
+                return;
+            }
+            long wanted = Math.max(MIN_OFFSETS_PER_CHUNK, expectedSize - size);
+            currentOffsets = allocateLongs(offsets.isEmpty() ? (int) Math.min(OFFSETS_PER_CHUNK, wanted)
+                    : OFFSETS_PER_CHUNK);
+            offsets.add(currentOffsets);
+        }
+
+        private static LongBuffer allocateLongs(int capacity) {
+            return ByteBuffer.allocateDirect(capacity * Long.BYTES).asLongBuffer();
+        }
+
+        private OffHeapSortedRun build() {
+            return new OffHeapSortedRun(
+                    chunks.toArray(new ByteBuffer[0]),
+                    offsets.toArray(new LongBuffer[0]),
+                    size,
+                    sizeInBytes);
+        }
+    }
+}
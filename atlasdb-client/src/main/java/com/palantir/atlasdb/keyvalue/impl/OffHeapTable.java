@@ -0,0 +1,468 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.keyvalue.impl;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * The contents of one table of an {@link OffHeapKeyValueService}, kept as a log-structured merge tree.
+ *
+ * Writes go to a small on-heap memtable. Once the memtable holds more than the flush threshold, it is written out to
+ * an {@link OffHeapSortedRun} and replaced with an empty memtable. Runs of similar sizes are then merged, so that the
+ * number of runs grows logarithmically with the size of the table. Deletes are recorded as tombstones, which are
+ * dropped once merged into the oldest run.
+ *
+ * Reads work on a snapshot of the memtable and runs, merging them with newer layers taking precedence for equal keys.
+ * Runs are immutable, so reads take no locks. Writes and flushes are serialized by the write lock, and merges are
+ * performed outside it, by one thread at a time.
+ */
+@ThreadSafe
+final class OffHeapTable implements InMemoryTable {
+    private static final byte[] TOMBSTONE = new byte[0];
+    private static final Comparator<Key> ASCENDING = Comparator.naturalOrder();
+    private static final Comparator<Key> DESCENDING = ASCENDING.reversed();
+
+    private final long flushThresholdBytes;
+    private final Lock writeLock = new ReentrantLock();
+    private final Lock mergeLock = new ReentrantLock();
+
+    private volatile State state = State.empty();
+    @GuardedBy("writeLock")
+    private long memtableBytes = 0;
+
+    OffHeapTable(long flushThresholdBytes) {
+        this.flushThresholdBytes = flushThresholdBytes;
+    }
+
+    @Override
+    public Iterator<Version> iterator(
+            @Nullable Key lowerBound,
+            boolean lowerInclusive,
+            @Nullable Key upperBound,
+            boolean upperInclusive,
+            boolean reverse) {
+        if (lowerBound != null && upperBound != null && lowerBound.compareTo(upperBound) > 0) {
+            return Collections.emptyIterator();
+        }
+        State snapshot = state;
+        List<Source> sources = new ArrayList<>(snapshot.runs.size() + 1);
+        sources.add(new MemtableSource(0, snapshot.memtable, lowerBound, lowerInclusive, upperBound, upperInclusive,
+                reverse));
+        for (int i = 0; i < snapshot.runs.size(); i++) {
+            sources.add(new RunSource(i + 1, snapshot.runs.get(i), lowerBound, lowerInclusive, upperBound,
+                    upperInclusive, reverse));
+        }
+        return new MergingIterator(sources, reverse ? DESCENDING : ASCENDING, false);
+    }
+
+    @Nullable
+    @Override
+    public ByteBuffer get(Key key) {
+        return get(state, key);
+    }
+
+    @Nullable
+    @Override
+    public byte[] putIfAbsent(Key key, byte[] contents) {
+        writeLock.lock();
+        try {
+            ByteBuffer existing = get(state, key);
+            if (existing != null) {
+                return copyOf(existing);
+            }
+            putInMemtable(key, copyOf(contents));
+        } finally {
+            writeLock.unlock();
+        }
+        mergeIfNeeded();
+        return null;
+    }
+
+    @Override
+    public void put(Key key, byte[] contents) {
+        writeLock.lock();
+        try {
+            putInMemtable(key, copyOf(contents));
+        } finally {
+            writeLock.unlock();
+        }
+        mergeIfNeeded();
+    }
+
+    @Override
+    public boolean replace(Key key, byte[] expected, byte[] contents) {
+        writeLock.lock();
+        try {
+            ByteBuffer existing = get(state, key);
+            if (existing == null || !existing.equals(ByteBuffer.wrap(expected))) {
+                return false;
+            }
+            putInMemtable(key, copyOf(contents));
+        } finally {
+            writeLock.unlock();
+        }
+        mergeIfNeeded();
+        return true;
+    }
+
+    @Override
+    public void delete(Key key) {
+        writeLock.lock();
+        try {
+            deleteInMemtable(key);
+        } finally {
+            writeLock.unlock();
+        }
+        mergeIfNeeded();
+    }
+
+    @Override
+    public void deleteRange(Key lowerBound, Key upperBound) {
+        writeLock.lock();
+        try {
+            Iterator<Version> versions = iterator(lowerBound, true, upperBound, true, false);
+            while (versions.hasNext()) {
+                deleteInMemtable(versions.next().key());
+            }
+        } finally {
+            writeLock.unlock();
+        }
+        mergeIfNeeded();
+    }
+
+    @Override
+    public void clear() {
+        writeLock.lock();
+        try {
+            state = State.empty();
+            memtableBytes = 0;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Nullable
+    private static ByteBuffer get(State snapshot, Key key) {
+        byte[] inMemtable = snapshot.memtable.get(key);
+        if (inMemtable != null) {
+            return inMemtable == TOMBSTONE ? null : ByteBuffer.wrap(inMemtable).asReadOnlyBuffer();
+        }
+        for (OffHeapSortedRun run : snapshot.runs) {
+            long index = run.ceiling(key);
+            if (index < run.size() && run.compareAt(index, key) == 0) {
+                Version version = run.versionAt(index, null);
+                return version.isTombstone() ? null : version.value();
+            }
+        }
+        return null;
+    }
+
+    @GuardedBy("writeLock")
+    private void deleteInMemtable(Key key) {
+        State current = state;
+        if (current.runs.isEmpty()) {
+            byte[] removed = current.memtable.remove(key);
+            if (removed != null) {
+                memtableBytes -= recordSize(key, removed);
+            }
+        } else {
+            putInMemtable(key, TOMBSTONE);
+        }
+    }
+
+    @GuardedBy("writeLock")
+    private void putInMemtable(Key key, byte[] contents) {
+        State current = state;
+        byte[] previous = current.memtable.put(key, contents);
+        memtableBytes += recordSize(key, contents) - (previous == null ? 0 : recordSize(key, previous));
+        if (memtableBytes >= flushThresholdBytes) {
+            flush(current);
+        }
+    }
+
+    @GuardedBy("writeLock")
+    private void flush(State current) {
+        // tombstones only need keeping if there are older versions they hide
+        boolean includeTombstones = !current.runs.isEmpty();
+        Iterator<Version> versions = new MergingIterator(
+                ImmutableList.of(new MemtableSource(0, current.memtable, null, false, null, false, false)),
+                ASCENDING,
+                includeTombstones);
+        OffHeapSortedRun run = OffHeapSortedRun.write(versions, current.memtable.size(), memtableBytes);
+        state = new State(
+                new ConcurrentSkipListMap<>(),
+                ImmutableList.<OffHeapSortedRun>builder().add(run).addAll(current.runs).build());
+        memtableBytes = 0;
+    }
+
+    /**
+     * Merges the newest runs while the next oldest run is no more than twice their combined size.
+     */
+    private void mergeIfNeeded() {
+        if (!mergeLock.tryLock()) {
+            return;
+        }
+        try {
+            while (true) {
+                List<OffHeapSortedRun> runs = state.runs;
+                int count = 1;
+                long combinedBytes = runs.isEmpty() ? 0 : runs.get(0).sizeInBytes();
+                long combinedSize = runs.isEmpty() ? 0 : runs.get(0).size();
+                while (count < runs.size() && runs.get(count).sizeInBytes() <= 2 * combinedBytes) {
+                    combinedBytes += runs.get(count).sizeInBytes();
+                    combinedSize += runs.get(count).size();
+                    count++;
+                }
+                if (count < 2) {
+                    return;
+                }
+
+                List<OffHeapSortedRun> toMerge = runs.subList(0, count);
+                List<Source> sources = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    sources.add(new RunSource(i, toMerge.get(i), null, false, null, false, false));
+                }
+                boolean includeTombstones = count < runs.size();
+                OffHeapSortedRun merged = OffHeapSortedRun.write(
+                        new MergingIterator(sources, ASCENDING, includeTombstones), combinedSize, combinedBytes);
+                if (!replaceRuns(toMerge, merged)) {
+                    return;
+                }
+            }
+        } finally {
+            mergeLock.unlock();
+        }
+    }
+
+    private boolean replaceRuns(List<OffHeapSortedRun> merged, OffHeapSortedRun replacement) {
+        writeLock.lock();
+        try {
+            State current = state;
+            // Flushes may have added newer runs since the merge began, but cannot have changed the merged runs.
+            int start = -1;
+            for (int i = 0; i < current.runs.size(); i++) {
+                if (current.runs.get(i) == merged.get(0)) {
+                    start = i;
+                    break;
+                }
+            }
+            if (start < 0) {
+                // the table was cleared
+                return false;
+            }
+            state = new State(current.memtable, ImmutableList.<OffHeapSortedRun>builder()
+                    .addAll(current.runs.subList(0, start))
+                    .add(replacement)
+                    .addAll(current.runs.subList(start + merged.size(), current.runs.size()))
+                    .build());
+            return true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private static long recordSize(Key key, byte[] contents) {
+        return OffHeapSortedRun.recordSize(key.row(), key.col(), contents == TOMBSTONE ? null : contents);
+    }
+
+    private static byte[] copyOf(byte[] contents) {
+        return Arrays.copyOf(contents, contents.length);
+    }
+
+    private static byte[] copyOf(ByteBuffer contents) {
+        byte[] bytes = new byte[contents.remaining()];
+        contents.duplicate().get(bytes);
+        return bytes;
+    }
+
+    private static final class State {
+        private final ConcurrentSkipListMap<Key, byte[]> memtable;
+        // newest first
+        private final ImmutableList<OffHeapSortedRun> runs;
+
+        private State(ConcurrentSkipListMap<Key, byte[]> memtable, ImmutableList<OffHeapSortedRun> runs) {
+            this.memtable = memtable;
+            this.runs = runs;
+        }
+
+        private static State empty() {
+            return new State(new ConcurrentSkipListMap<>(), ImmutableList.of());
+        }
+    }
+
+    /**
+     * A sorted source of versions; sources with lower ages are newer, and take precedence for equal keys.
+     */
+    private abstract static class Source {
+        private final int age;
+        Version current;
+
+        Source(int age) {
+            this.age = age;
+        }
+
+        /**
+         * Moves to the next version, returning false if there is none.
+         */
+        abstract boolean advance();
+    }
+
+    private static final class MemtableSource extends Source {
+        private final Iterator<Map.Entry<Key, byte[]>> entries;
+
+        MemtableSource(
+                int age,
+                ConcurrentSkipListMap<Key, byte[]> memtable,
+                @Nullable Key lowerBound,
+                boolean lowerInclusive,
+                @Nullable Key upperBound,
+                boolean upperInclusive,
+                boolean reverse) {
+            super(age);
+            NavigableMap<Key, byte[]> view = memtable;
+            if (lowerBound != null && upperBound != null) {
+                view = memtable.subMap(lowerBound, lowerInclusive, upperBound, upperInclusive);
+            } else if (lowerBound != null) {
+                view = memtable.tailMap(lowerBound, lowerInclusive);
+            } else if (upperBound != null) {
+                view = memtable.headMap(upperBound, upperInclusive);
+            }
+            this.entries = (reverse ? view.descendingMap() : view).entrySet().iterator();
+        }
+
+        @Override
+        boolean advance() {
+            if (!entries.hasNext()) {
+                return false;
+            }
+            Map.Entry<Key, byte[]> entry = entries.next();
+            byte[] contents = entry.getValue();
+            current = new Version(
+                    entry.getKey(),
+                    contents == TOMBSTONE ? null : ByteBuffer.wrap(contents).asReadOnlyBuffer());
+            return true;
+        }
+    }
+
+    private static final class RunSource extends Source {
+        private final OffHeapSortedRun run;
+        private final boolean reverse;
+        // the next index to read, and the index to stop before, in the direction of iteration
+        private long next;
+        private final long end;
+
+        RunSource(
+                int age,
+                OffHeapSortedRun run,
+                @Nullable Key lowerBound,
+                boolean lowerInclusive,
+                @Nullable Key upperBound,
+                boolean upperInclusive,
+                boolean reverse) {
+            super(age);
+            this.run = run;
+            this.reverse = reverse;
+            long start;
+            if (lowerBound == null) {
+                start = 0;
+            } else {
+                start = lowerInclusive ? run.ceiling(lowerBound) : run.higher(lowerBound);
+            }
+            long stop;
+            if (upperBound == null) {
+                stop = run.size();
+            } else {
+                stop = upperInclusive ? run.higher(upperBound) : run.ceiling(upperBound);
+            }
+            this.next = reverse ? stop - 1 : start;
+            this.end = reverse ? start - 1 : Math.max(start, stop);
+        }
+
+        @Override
+        boolean advance() {
+            if (next == end || (reverse && next < end)) {
+                return false;
+            }
+            current = run.versionAt(next, current == null ? null : current.key().row());
+            next += reverse ? -1 : 1;
+            return true;
+        }
+    }
+
+    /**
+     * Merges sorted sources into the versions visible to readers: where several sources hold a key, only the newest
+     * source's version is returned, and tombstones are only returned if requested.
+     */
+    private static final class MergingIterator extends AbstractIterator<Version> {
+        private final PriorityQueue<Source> heads;
+        private final Comparator<Key> order;
+        private final boolean includeTombstones;
+
+        MergingIterator(List<Source> sources, Comparator<Key> order, boolean includeTombstones) {
+            this.heads = new PriorityQueue<>(Math.max(1, sources.size()), (first, second) -> {
+                int comparison = order.compare(first.current.key(), second.current.key());
+                return comparison != 0 ? comparison : Integer.compare(first.age, second.age);
+            });
+            this.order = order;
+            this.includeTombstones = includeTombstones;
+            for (Source source : sources) {
+                if (source.advance()) {
+                    heads.add(source);
+                }
+            }
+        }
+
+        @Override
+        protected Version computeNext() {
+            while (!heads.isEmpty()) {
+                Source newest = heads.poll();
+                Version version = newest.current;
+                if (newest.advance()) {
+                    heads.add(newest);
+                }
+                while (!heads.isEmpty() && order.compare(heads.peek().current.key(), version.key()) == 0) {
+                    Source shadowed = heads.poll();
+                    if (shadowed.advance()) {
+                        heads.add(shadowed);
+                    }
+                }
+                if (includeTombstones || !version.isTombstone()) {
+                    return version;
+                }
+            }
+            return endOfData();
+        }
+    }
+}
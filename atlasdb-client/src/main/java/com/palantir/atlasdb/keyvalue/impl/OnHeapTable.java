@@ -0,0 +1,116 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.keyvalue.impl;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+import org.apache.commons.lang3.ArrayUtils;
+
+import com.google.common.collect.Iterators;
+
+/**
+ * The contents of one table of an {@link InMemoryKeyValueService}, held in a skip list on the Java heap.
+ */
+@ThreadSafe
+final class OnHeapTable implements InMemoryTable {
+    private final ConcurrentSkipListMap<Key, byte[]> entries = new ConcurrentSkipListMap<>();
+
+    @Override
+    public Iterator<Version> iterator(
+            @Nullable Key lowerBound,
+            boolean lowerInclusive,
+            @Nullable Key upperBound,
+            boolean upperInclusive,
+            boolean reverse) {
+        NavigableMap<Key, byte[]> range = entries;
+        if (lowerBound != null && upperBound != null) {
+            if (lowerBound.compareTo(upperBound) > 0) {
+                return Collections.emptyIterator();
+            }
+            range = range.subMap(lowerBound, lowerInclusive, upperBound, upperInclusive);
+        } else if (lowerBound != null) {
+            range = range.tailMap(lowerBound, lowerInclusive);
+        } else if (upperBound != null) {
+            range = range.headMap(upperBound, upperInclusive);
+        }
+        if (reverse) {
+            range = range.descendingMap();
+        }
+        return Iterators.transform(range.entrySet().iterator(),
+                entry -> new Version(entry.getKey(), ByteBuffer.wrap(entry.getValue()).asReadOnlyBuffer()));
+    }
+
+    @Nullable
+    @Override
+    public ByteBuffer get(Key key) {
+        byte[] contents = entries.get(key);
+        return contents == null ? null : ByteBuffer.wrap(contents).asReadOnlyBuffer();
+    }
+
+    @Nullable
+    @Override
+    public byte[] putIfAbsent(Key key, byte[] contents) {
+        byte[] existing = entries.putIfAbsent(withSharedRow(key), copyOf(contents));
+        return existing == null ? null : copyOf(existing);
+    }
+
+    @Override
+    public void put(Key key, byte[] contents) {
+        entries.put(withSharedRow(key), copyOf(contents));
+    }
+
+    @Override
+    public boolean replace(Key key, byte[] expected, byte[] contents) {
+        byte[] stored = entries.get(key);
+        return Arrays.equals(stored, expected) && entries.replace(key, stored, copyOf(contents));
+    }
+
+    @Override
+    public void delete(Key key) {
+        entries.remove(key);
+    }
+
+    @Override
+    public void deleteRange(Key lowerBound, Key upperBound) {
+        entries.subMap(lowerBound, true, upperBound, true).clear();
+    }
+
+    @Override
+    public void clear() {
+        entries.clear();
+    }
+
+    private Key withSharedRow(Key key) {
+        Key nextKey = entries.ceilingKey(new Key(key.row(), ArrayUtils.EMPTY_BYTE_ARRAY, Long.MIN_VALUE));
+        if (nextKey != null && nextKey.matchesRow(key.row())) {
+            // Save memory by sharing rows.
+            return new Key(nextKey.row(), key.col(), key.ts());
+        }
+        return key;
+    }
+
+    private static byte[] copyOf(byte[] contents) {
+        return Arrays.copyOf(contents, contents.length);
+    }
+}
@@ -511,4 +511,51 @@ public final class ProfilingKeyValueService implements KeyValueService {
                                 LoggingArgs.durationMillis(stopwatch)),
                 logCellResultSize(4L));
     }
+
+    @Override
+    public ListenableFuture<Map<Cell, Value>> getRowsAsync(
+            TableReference tableRef,
+            Iterable<byte[]> rows,
+            ColumnSelection columnSelection,
+            long timestamp) {
+        long startTime = System.currentTimeMillis();
+        return KvsProfilingLogger.maybeLogAsync(() -> delegate.getRowsAsync(tableRef, rows, columnSelection, timestamp),
+                (logger, stopwatch) ->
+                        logger.log("Call to KVS.getRowsAsync",
+                                LoggingArgs.startTimeMillis(startTime),
+                                LoggingArgs.tableRef(tableRef),
+                                LoggingArgs.columnCount(columnSelection),
+                                LoggingArgs.rowCount(Iterables.size(rows)),
+                                LoggingArgs.durationMillis(stopwatch)),
+                logCellResultSize(0L));
+    }
+
+    @Override
+    public ListenableFuture<Map<Cell, Value>> getRowsColumnRangeAsync(
+            TableReference tableRef,
+            Iterable<byte[]> rows,
+            BatchColumnRangeSelection batchColumnRangeSelection,
+            long timestamp) {
+        long startTime = System.currentTimeMillis();
+        return KvsProfilingLogger.maybeLogAsync(
+                () -> delegate.getRowsColumnRangeAsync(tableRef, rows, batchColumnRangeSelection, timestamp),
+                (logger, stopwatch) ->
+                        logger.log("Call to KVS.getRowsColumnRangeAsync",
+                                LoggingArgs.startTimeMillis(startTime),
+                                LoggingArgs.tableRef(tableRef),
+                                LoggingArgs.rowCount(Iterables.size(rows)),
+                                LoggingArgs.durationMillis(stopwatch)),
+                logCellResultSize(0L));
+    }
+
+    @Override
+    public ListenableFuture<TokenBackedBasicResultsPage<RowResult<Value>, byte[]>> getFirstBatchForRangeAsync(
+            TableReference tableRef,
+            RangeRequest rangeRequest,
+            long timestamp) {
+        return KvsProfilingLogger.maybeLogAsync(
+                () -> delegate.getFirstBatchForRangeAsync(tableRef, rangeRequest, timestamp),
+                logTimeAndTableRange("getFirstBatchForRangeAsync", tableRef, rangeRequest),
+                (logger, page) -> { });
+    }
 }
@@ -0,0 +1,182 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.keyvalue.impl;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Multimap;
+import com.google.common.collect.MultimapBuilder;
+import com.palantir.atlasdb.autobatch.Autobatchers;
+import com.palantir.atlasdb.autobatch.BatchElement;
+import com.palantir.atlasdb.autobatch.DisruptorAutobatcher;
+import com.palantir.atlasdb.futures.AtlasFutures;
+import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.atlasdb.keyvalue.api.KeyValueService;
+import com.palantir.atlasdb.keyvalue.api.TableReference;
+import com.palantir.atlasdb.keyvalue.api.Value;
+
+/**
+ * Coalesces concurrent {@link KeyValueService#get(TableReference, Map)} calls against the same table into a single
+ * call to the delegate, and fans the results back out to the callers. Requests arriving while a batch is being read
+ * are queued and form the next batch, so there is no fixed batching window: under light load each request is read
+ * on its own, while under heavy load many small reads (for example from concurrent transactions each reading a few
+ * cells) share the per-request overhead of the underlying key value service.
+ *
+ * Requests for the same cell at different timestamps cannot share a call, and are read separately. All other
+ * methods are forwarded to the delegate unchanged.
+ */
+public final class ReadBatchingKeyValueService extends ForwardingKeyValueService {
+    private final KeyValueService delegate;
+    private final DisruptorAutobatcher<ReadRequest, Map<Cell, Value>> autobatcher;
+
+    private ReadBatchingKeyValueService(
+            KeyValueService delegate,
+            DisruptorAutobatcher<ReadRequest, Map<Cell, Value>> autobatcher) {
+        this.delegate = delegate;
+        this.autobatcher = autobatcher;
+    }
+
+    /**
+     * Creates a key value service coalescing reads to the given delegate, with at most {@code concurrency} batched
+     * reads in flight at once.
+     */
+    public static KeyValueService create(KeyValueService delegate, int concurrency) {
+        DisruptorAutobatcher<ReadRequest, Map<Cell, Value>> autobatcher = Autobatchers
+                .<ReadRequest, Map<Cell, Value>>independent(elements -> processBatch(delegate, elements))
+                .safeLoggablePurpose("read-batching-key-value-service")
+                .consumers(concurrency)
+                .build();
+        return new ReadBatchingKeyValueService(delegate, autobatcher);
+    }
+
+    @Override
+    public KeyValueService delegate() {
+        return delegate;
+    }
+
+    @Override
+    public Map<Cell, Value> get(TableReference tableRef, Map<Cell, Long> timestampByCell) {
+        if (timestampByCell.isEmpty()) {
+            return ImmutableMap.of();
+        }
+        return AtlasFutures.getUnchecked(autobatcher.apply(new ReadRequest(tableRef, timestampByCell)));
+    }
+
+    @Override
+    public void close() {
+        autobatcher.close();
+        delegate.close();
+    }
+
+    @VisibleForTesting
+    static void processBatch(KeyValueService delegate, List<BatchElement<ReadRequest, Map<Cell, Value>>> batch) {
+        Multimap<TableReference, BatchElement<ReadRequest, Map<Cell, Value>>> requestsByTable =
+                MultimapBuilder.hashKeys().arrayListValues().build();
+        batch.forEach(element -> requestsByTable.put(element.argument().tableRef(), element));
+
+        requestsByTable.asMap().forEach((tableRef, requests) -> {
+            for (CoalescedRead read : coalesce(requests)) {
+                read.execute(delegate, tableRef);
+            }
+        });
+    }
+
+    /**
+     * Greedily assigns each request to the first coalesced read that does not already request any of its cells at a
+     * different timestamp, so that every request is answered by exactly one call to the delegate.
+     */
+    private static List<CoalescedRead> coalesce(Iterable<BatchElement<ReadRequest, Map<Cell, Value>>> requests) {
+        List<CoalescedRead> reads = new ArrayList<>();
+        for (BatchElement<ReadRequest, Map<Cell, Value>> request : requests) {
+            CoalescedRead compatibleRead = reads.stream()
+                    .filter(read -> read.isCompatibleWith(request.argument()))
+                    .findFirst()
+                    .orElseGet(() -> {
+                        CoalescedRead read = new CoalescedRead();
+                        reads.add(read);
+                        return read;
+                    });
+            compatibleRead.add(request);
+        }
+        return reads;
+    }
+
+    private static final class CoalescedRead {
+        private final Map<Cell, Long> timestampByCell = new HashMap<>();
+        private final List<BatchElement<ReadRequest, Map<Cell, Value>>> requests = new ArrayList<>();
+
+        private boolean isCompatibleWith(ReadRequest request) {
+            return request.timestampByCell().entrySet().stream().allMatch(entry -> {
+                Long timestamp = timestampByCell.get(entry.getKey());
+                return timestamp == null || timestamp.equals(entry.getValue());
+            });
+        }
+
+        private void add(BatchElement<ReadRequest, Map<Cell, Value>> request) {
+            timestampByCell.putAll(request.argument().timestampByCell());
+            requests.add(request);
+        }
+
+        private void execute(KeyValueService delegate, TableReference tableRef) {
+            Map<Cell, Value> results;
+            try {
+                results = delegate.get(tableRef, timestampByCell);
+            } catch (Throwable t) {
+                requests.forEach(request -> request.result().setException(t));
+                return;
+            }
+            if (requests.size() == 1) {
+                requests.get(0).result().set(results);
+                return;
+            }
+            for (BatchElement<ReadRequest, Map<Cell, Value>> request : requests) {
+                Map<Cell, Value> resultsForRequest = new HashMap<>();
+                for (Cell cell : request.argument().timestampByCell().keySet()) {
+                    Value value = results.get(cell);
+                    if (value != null) {
+                        resultsForRequest.put(cell, value);
+                    }
+                }
+                request.result().set(resultsForRequest);
+            }
+        }
+    }
+
+    @VisibleForTesting
+    static final class ReadRequest {
+        private final TableReference tableRef;
+        private final Map<Cell, Long> timestampByCell;
+
+        ReadRequest(TableReference tableRef, Map<Cell, Long> timestampByCell) {
+            this.tableRef = tableRef;
+            this.timestampByCell = timestampByCell;
+        }
+
+        TableReference tableRef() {
+            return tableRef;
+        }
+
+        Map<Cell, Long> timestampByCell() {
+            return timestampByCell;
+        }
+    }
+}
@@ -430,6 +430,47 @@ public final class TracingKeyValueService extends ForwardingObject implements Ke
         return attachDetachedSpanCompletion(detachedSpan, future, tracingExecutorService);
     }
 
+    @Override
+    public ListenableFuture<Map<Cell, Value>> getRowsAsync(
+            TableReference tableRef,
+            Iterable<byte[]> rows,
+            ColumnSelection columnSelection,
+            long timestamp) {
+        DetachedSpan detachedSpan = DetachedSpan.start(String.format("getRowsAsync(%s, %s rows, ts %s)",
+                LoggingArgs.safeTableOrPlaceholder(tableRef), Iterables.size(rows), timestamp));
+
+        ListenableFuture<Map<Cell, Value>> future =
+                delegate().getRowsAsync(tableRef, rows, columnSelection, timestamp);
+        return attachDetachedSpanCompletion(detachedSpan, future, tracingExecutorService);
+    }
+
+    @Override
+    public ListenableFuture<Map<Cell, Value>> getRowsColumnRangeAsync(
+            TableReference tableRef,
+            Iterable<byte[]> rows,
+            BatchColumnRangeSelection batchColumnRangeSelection,
+            long timestamp) {
+        DetachedSpan detachedSpan = DetachedSpan.start(String.format("getRowsColumnRangeAsync(%s, %s rows, ts %s)",
+                LoggingArgs.safeTableOrPlaceholder(tableRef), Iterables.size(rows), timestamp));
+
+        ListenableFuture<Map<Cell, Value>> future =
+                delegate().getRowsColumnRangeAsync(tableRef, rows, batchColumnRangeSelection, timestamp);
+        return attachDetachedSpanCompletion(detachedSpan, future, tracingExecutorService);
+    }
+
+    @Override
+    public ListenableFuture<TokenBackedBasicResultsPage<RowResult<Value>, byte[]>> getFirstBatchForRangeAsync(
+            TableReference tableRef,
+            RangeRequest rangeRequest,
+            long timestamp) {
+        DetachedSpan detachedSpan = DetachedSpan.start(String.format("getFirstBatchForRangeAsync(%s, ts %s)",
+                LoggingArgs.safeTableOrPlaceholder(tableRef), timestamp));
+
+        ListenableFuture<TokenBackedBasicResultsPage<RowResult<Value>, byte[]>> future =
+                delegate().getFirstBatchForRangeAsync(tableRef, rangeRequest, timestamp);
+        return attachDetachedSpanCompletion(detachedSpan, future, tracingExecutorService);
+    }
+
     private static CloseableTrace startLocalTrace(CharSequence operationFormat, Object... formatArguments) {
         return CloseableTrace.startLocalTrace(SERVICE_NAME, operationFormat, formatArguments);
     }
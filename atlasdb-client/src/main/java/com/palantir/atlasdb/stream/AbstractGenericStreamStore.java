@@ -25,6 +25,7 @@ import java.io.OutputStream;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
 import java.util.stream.Collectors;
 
 import javax.annotation.CheckForNull;
@@ -44,11 +45,13 @@ import com.palantir.atlasdb.transaction.api.Transaction;
 import com.palantir.atlasdb.transaction.api.TransactionManager;
 import com.palantir.common.base.Throwables;
 import com.palantir.common.compression.StreamCompression;
+import com.palantir.common.concurrent.PTExecutors;
 import com.palantir.logsafe.exceptions.SafeIllegalArgumentException;
 import com.palantir.util.ByteArrayIOStream;
 
 public abstract class AbstractGenericStreamStore<T> implements GenericStreamStore<T> {
     protected static final Logger log = LoggerFactory.getLogger(AbstractGenericStreamStore.class);
+    private static final ExecutorService PREFETCH_EXECUTOR = PTExecutors.newCachedThreadPool("stream-store-prefetch");
 
     @CheckForNull protected final TransactionManager txnMgr;
     private final StreamCompression compression;
@@ -60,8 +63,13 @@ public abstract class AbstractGenericStreamStore<T> implements GenericStreamStor
         this.compression = compression;
     }
 
-    private long getNumberOfBlocksFromMetadata(StreamMetadata metadata) {
-        return (metadata.getLength() + BLOCK_SIZE_IN_BYTES - 1) / BLOCK_SIZE_IN_BYTES;
+    protected static long getNumberOfBlocks(StreamMetadata metadata) {
+        int blockPayloadSize = getBlockCompression(metadata).blockPayloadSize();
+        return (metadata.getLength() + blockPayloadSize - 1) / blockPayloadSize;
+    }
+
+    private static StreamBlockCompression getBlockCompression(StreamMetadata metadata) {
+        return StreamBlockCompression.fromPersistedValue(metadata.getBlockCompression());
     }
 
     protected final StreamMetadata getEmptyMetadata() {
@@ -74,6 +82,14 @@ public abstract class AbstractGenericStreamStore<T> implements GenericStreamStor
 
     protected abstract long getInMemoryThreshold();
 
+    /**
+     * The number of blocks to fetch in the background ahead of those being read from streams that do not fit in
+     * memory. By default, blocks are only fetched when they are read.
+     */
+    protected int getNumberOfBlocksToReadAhead() {
+        return 0;
+    }
+
     @Override
     public InputStream loadStream(Transaction transaction, final T id) {
         StreamMetadata metadata = getMetadata(transaction, id);
@@ -112,11 +128,12 @@ public abstract class AbstractGenericStreamStore<T> implements GenericStreamStor
     private InputStream tryGetStream(Transaction transaction, T id, StreamMetadata metadata)
             throws FileNotFoundException {
         checkStreamStored(id, metadata);
+        StreamBlockCompression blockCompression = getBlockCompression(metadata);
         if (metadata.getLength() == 0) {
             return new ByteArrayInputStream(new byte[0]);
-        } else if (metadata.getLength() <= Math.min(getInMemoryThreshold(), BLOCK_SIZE_IN_BYTES)) {
+        } else if (metadata.getLength() <= Math.min(getInMemoryThreshold(), blockCompression.blockPayloadSize())) {
             ByteArrayIOStream ios = new ByteArrayIOStream(Ints.saturatedCast(metadata.getLength()));
-            loadSingleBlockToOutputStream(transaction, id, 0, ios);
+            loadBlockToOutputStream(transaction, id, 0, blockCompression, ios);
             return ios.getInputStream();
         } else {
             return makeStream(transaction, id, metadata);
@@ -124,17 +141,18 @@ public abstract class AbstractGenericStreamStore<T> implements GenericStreamStor
     }
 
     private InputStream makeStream(Transaction parent, T id, StreamMetadata metadata) {
-        long totalBlocks = getNumberOfBlocksFromMetadata(metadata);
+        long totalBlocks = getNumberOfBlocks(metadata);
         int blocksInMemory = getNumberOfBlocksThatFitInMemory();
+        StreamBlockCompression blockCompression = getBlockCompression(metadata);
 
         BlockGetter pageRefresher = new BlockGetter() {
             @Override
             public void get(long firstBlock, long numBlocks, OutputStream destination) {
                 if (parent.isUncommitted()) {
-                    loadNBlocksToOutputStream(parent, id, firstBlock, numBlocks, destination);
+                    loadNBlocksToOutputStream(parent, id, firstBlock, numBlocks, blockCompression, destination);
                 } else {
                     txnMgr.runTaskReadOnly(txn -> {
-                        loadNBlocksToOutputStream(txn, id, firstBlock, numBlocks, destination);
+                        loadNBlocksToOutputStream(txn, id, firstBlock, numBlocks, blockCompression, destination);
                         return null;
                     });
                 }
@@ -142,11 +160,16 @@ public abstract class AbstractGenericStreamStore<T> implements GenericStreamStor
 
             @Override
             public int expectedBlockLength() {
-                return BLOCK_SIZE_IN_BYTES;
+                return blockCompression.blockPayloadSize();
             }
         };
 
         try {
+            int blocksToReadAhead = getNumberOfBlocksToReadAhead();
+            if (blocksToReadAhead > 0) {
+                return BlockConsumingInputStream.create(
+                        pageRefresher, totalBlocks, blocksInMemory, blocksToReadAhead, PREFETCH_EXECUTOR);
+            }
             return BlockConsumingInputStream.create(pageRefresher, totalBlocks, blocksInMemory);
         } catch (IOException e) {
             throw Throwables.throwUncheckedException(e);
@@ -209,9 +232,30 @@ public abstract class AbstractGenericStreamStore<T> implements GenericStreamStor
             T streamId,
             long firstBlock,
             long numBlocks,
+            StreamBlockCompression blockCompression,
             OutputStream os) {
         for (long i = 0; i < numBlocks; i++) {
-            loadSingleBlockToOutputStream(tx, streamId, firstBlock + i, os);
+            loadBlockToOutputStream(tx, streamId, firstBlock + i, blockCompression, os);
+        }
+    }
+
+    private void loadBlockToOutputStream(
+            Transaction tx,
+            T streamId,
+            long blockId,
+            StreamBlockCompression blockCompression,
+            OutputStream os) {
+        if (blockCompression == StreamBlockCompression.NONE) {
+            loadSingleBlockToOutputStream(tx, streamId, blockId, os);
+            return;
+        }
+        ByteArrayIOStream compressedBlock = new ByteArrayIOStream();
+        loadSingleBlockToOutputStream(tx, streamId, blockId, compressedBlock);
+        try {
+            os.write(blockCompression.decompress(compressedBlock.toByteArray()));
+        } catch (IOException e) {
+            log.error("Could not write decompressed block {} of stream {}", blockId, streamId, e);
+            throw Throwables.rewrapAndThrowUncheckedException("Error writing decompressed block of stream.", e);
         }
     }
 
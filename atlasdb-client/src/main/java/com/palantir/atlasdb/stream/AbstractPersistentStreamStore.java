@@ -19,7 +19,12 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.security.DigestInputStream;
 import java.security.MessageDigest;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.function.Supplier;
 
 import javax.annotation.Nullable;
@@ -42,14 +47,19 @@ import com.palantir.atlasdb.transaction.api.TransactionTask;
 import com.palantir.atlasdb.transaction.impl.TxTask;
 import com.palantir.common.base.Throwables;
 import com.palantir.common.compression.StreamCompression;
+import com.palantir.common.concurrent.PTExecutors;
 import com.palantir.common.streams.KeyedStream;
 import com.palantir.util.Pair;
 import com.palantir.util.crypto.Sha256Hash;
 
 public abstract class AbstractPersistentStreamStore extends AbstractGenericStreamStore<Long>
         implements PersistentStreamStore {
+    private static final ExecutorService WRITE_EXECUTOR = PTExecutors.newCachedThreadPool("stream-store-writer");
+    private static final long MAX_BLOCKS_PER_RESERVATION = 1024;
+
     private final StreamStoreBackoffStrategy backoffStrategy;
     private final StreamCompression compression;
+    private final Supplier<StreamStorePersistenceConfiguration> persistenceConfiguration;
 
     protected AbstractPersistentStreamStore(TransactionManager txManager,
             StreamCompression compression) {
@@ -61,9 +71,15 @@ public abstract class AbstractPersistentStreamStore extends AbstractGenericStrea
             Supplier<StreamStorePersistenceConfiguration> persistenceConfiguration) {
         super(txManager, compression);
         this.compression = compression;
+        this.persistenceConfiguration = persistenceConfiguration;
         this.backoffStrategy = StandardPeriodicBackoffStrategy.create(persistenceConfiguration);
     }
 
+    @Override
+    protected int getNumberOfBlocksToReadAhead() {
+        return persistenceConfiguration.get().numBlocksToReadAhead();
+    }
+
     protected final void storeMetadataAndIndex(final long streamId, final StreamMetadata metadata) {
         com.palantir.logsafe.Preconditions.checkNotNull(txnMgr, "Transaction manager must not be null");
         txnMgr.runTaskThrowOnConflict((TxTask) tx -> {
@@ -167,16 +183,18 @@ public abstract class AbstractPersistentStreamStore extends AbstractGenericStrea
     protected final StreamMetadata storeBlocksAndGetHashlessMetadata(@Nullable Transaction tx, long id,
             InputStream stream) {
         CountingInputStream countingStream = new CountingInputStream(stream);
+        StreamBlockCompression blockCompression = persistenceConfiguration.get().blockCompression();
 
         // Try to store the bytes in the stream and get length
         try {
-            storeBlocksFromStream(tx, id, countingStream);
+            storeBlocksFromStream(tx, id, countingStream, blockCompression);
         } catch (IOException e) {
             long length = countingStream.getCount();
             StreamMetadata metadata = StreamMetadata.newBuilder()
                     .setStatus(Status.FAILED)
                     .setLength(length)
                     .setHash(ByteString.EMPTY)
+                    .setBlockCompression(blockCompression.persistedValue())
                     .build();
             storeMetadataAndIndex(id, metadata);
             log.error("Could not store stream {}. Failed after {} bytes.", id, length, e);
@@ -188,26 +206,33 @@ public abstract class AbstractPersistentStreamStore extends AbstractGenericStrea
                 .setStatus(Status.STORED)
                 .setLength(length)
                 .setHash(ByteString.EMPTY)
+                .setBlockCompression(blockCompression.persistedValue())
                 .build();
     }
 
-    private void storeBlocksFromStream(@Nullable Transaction tx, long id, InputStream stream) throws IOException {
+    private void storeBlocksFromStream(@Nullable Transaction tx, long id, InputStream stream,
+            StreamBlockCompression blockCompression) throws IOException {
+        int numConcurrentBlockWrites = persistenceConfiguration.get().numConcurrentBlockWrites();
+        if (streamOperationIsTransactional(tx) || numConcurrentBlockWrites == 1 || !supportsConcurrentBlockWrites()) {
+            storeBlocksSequentially(tx, id, stream, blockCompression);
+        } else {
+            storeBlocksConcurrently(id, stream, blockCompression, numConcurrentBlockWrites);
+        }
+    }
+
+    private void storeBlocksSequentially(@Nullable Transaction tx, long id, InputStream stream,
+            StreamBlockCompression blockCompression) throws IOException {
         long blockNumber = 0;
 
         while (true) {
-            byte[] bytesToStore = new byte[BLOCK_SIZE_IN_BYTES];
-            int length = ByteStreams.read(stream, bytesToStore, 0, BLOCK_SIZE_IN_BYTES);
-            // Store only relevant data if it only filled a partial block
-            if (length == 0) {
+            byte[] block = readBlock(stream, blockCompression);
+            if (block.length == 0) {
                 break;
             }
-            if (length < BLOCK_SIZE_IN_BYTES) {
+            storeBlockWithNonNullTransaction(tx, id, blockNumber, blockCompression.compress(block));
+            if (block.length < blockCompression.blockPayloadSize()) {
                 // This is the last block.
-                storeBlockWithNonNullTransaction(tx, id, blockNumber, PtBytes.head(bytesToStore, length));
                 break;
-            } else {
-                // Store a full block.
-                storeBlockWithNonNullTransaction(tx, id, blockNumber, bytesToStore);
             }
             blockNumber++;
             if (!streamOperationIsTransactional(tx)) {
@@ -216,6 +241,82 @@ public abstract class AbstractPersistentStreamStore extends AbstractGenericStrea
         }
     }
 
+    /**
+     * Stores blocks in separate transactions, of which up to {@code numConcurrentBlockWrites} run at once. Before
+     * blocks are stored, the metadata is extended to cover them in advance (see {@link #reserveBlocksForStoring}) so
+     * that the transactions storing them do not conflict with each other. Successive reservations double in size, as
+     * each one must wait for the blocks already in flight to be stored.
+     */
+    private void storeBlocksConcurrently(long id, InputStream stream, StreamBlockCompression blockCompression,
+            int numConcurrentBlockWrites) throws IOException {
+        com.palantir.logsafe.Preconditions.checkNotNull(txnMgr, "Transaction manager must not be null");
+        Deque<Future<?>> blocksInFlight = new ArrayDeque<>(numConcurrentBlockWrites);
+        long reservationSize = numConcurrentBlockWrites;
+        long reservedBlocks = 0;
+        long blockNumber = 0;
+
+        try {
+            while (true) {
+                byte[] block = readBlock(stream, blockCompression);
+                if (block.length == 0) {
+                    break;
+                }
+                if (blockNumber >= reservedBlocks) {
+                    awaitAll(blocksInFlight);
+                    reservedBlocks = blockNumber + reservationSize;
+                    reservationSize = Math.max(numConcurrentBlockWrites,
+                            Math.min(2 * reservationSize, MAX_BLOCKS_PER_RESERVATION));
+                    long lastReservedBlock = reservedBlocks - 1;
+                    txnMgr.runTaskThrowOnConflict((TxTask) t -> {
+                        reserveBlocksForStoring(t, id, lastReservedBlock);
+                        return null;
+                    });
+                } else if (blocksInFlight.size() >= numConcurrentBlockWrites) {
+                    await(blocksInFlight.poll());
+                }
+
+                long currentBlockNumber = blockNumber;
+                blocksInFlight.add(WRITE_EXECUTOR.submit(() -> storeBlockWithNonNullTransaction(
+                        null, id, currentBlockNumber, blockCompression.compress(block))));
+                if (block.length < blockCompression.blockPayloadSize()) {
+                    // This is the last block.
+                    break;
+                }
+                blockNumber++;
+                backoffStrategy.accept(blockNumber);
+            }
+            awaitAll(blocksInFlight);
+        } finally {
+            // only non-empty if we failed; blocks already being stored will be removed when the stream is cleaned up
+            blocksInFlight.forEach(future -> future.cancel(false));
+        }
+    }
+
+    private static byte[] readBlock(InputStream stream, StreamBlockCompression blockCompression) throws IOException {
+        int blockPayloadSize = blockCompression.blockPayloadSize();
+        byte[] block = new byte[blockPayloadSize];
+        int length = ByteStreams.read(stream, block, 0, blockPayloadSize);
+        // Store only relevant data if it only filled a partial block
+        return length < blockPayloadSize ? PtBytes.head(block, length) : block;
+    }
+
+    private static void awaitAll(Deque<Future<?>> futures) {
+        while (!futures.isEmpty()) {
+            await(futures.poll());
+        }
+    }
+
+    private static void await(Future<?> future) {
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw Throwables.rewrapAndThrowUncheckedException(e);
+        } catch (ExecutionException e) {
+            throw Throwables.rewrapAndThrowUncheckedException(e.getCause());
+        }
+    }
+
     private boolean streamOperationIsTransactional(@Nullable Transaction tx) {
         // TODO (jkong): I'm using tx == null as a proxy for whether the entire operation should be done
         // transactionally or not (null implies nontransactional).
@@ -245,6 +346,24 @@ public abstract class AbstractPersistentStreamStore extends AbstractGenericStrea
 
     protected abstract void storeBlock(Transaction tx, long id, long blockNumber, byte[] block);
 
+    /**
+     * Whether this stream store implements {@link #reserveBlocksForStoring}, and so can store the blocks of a stream
+     * concurrently. Stream stores generated before concurrent block writes were supported store blocks sequentially.
+     */
+    protected boolean supportsConcurrentBlockWrites() {
+        return false;
+    }
+
+    /**
+     * Extends the length recorded in the metadata of a stream that is being stored to cover all blocks up to and
+     * including the given block. Transactions storing those blocks then leave the metadata unchanged, so do not
+     * conflict with each other if run concurrently (though they do still conflict with the stream being cleaned up).
+     * Only called if {@link #supportsConcurrentBlockWrites()}.
+     */
+    protected void reserveBlocksForStoring(Transaction tx, long id, long lastBlockNumber) {
+        // stream stores that do not support concurrent block writes never reserve blocks
+    }
+
     protected abstract void touchMetadataWhileMarkingUsedForConflicts(Transaction tx, Iterable<Long> ids)
             throws StreamCleanedException;
 
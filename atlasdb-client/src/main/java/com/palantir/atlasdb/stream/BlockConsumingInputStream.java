@@ -18,15 +18,29 @@ package com.palantir.atlasdb.stream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import com.palantir.atlasdb.schema.stream.StreamStoreDefinition;
 
 public final class BlockConsumingInputStream extends InputStream {
+    private static final Logger log = LoggerFactory.getLogger(BlockConsumingInputStream.class);
+
     private final BlockGetter blockGetter;
     private final long numBlocks;
     private final int blocksInMemory;
+    private final int batchesToReadAhead;
+    private final ExecutorService prefetchExecutor;
+    private final Deque<PrefetchedBatch> prefetchedBatches = new ArrayDeque<>();
 
     private long nextBlockToRead;
 
@@ -38,7 +52,26 @@ public final class BlockConsumingInputStream extends InputStream {
             long numBlocks,
             int blocksInMemory) throws IOException {
         ensureExpectedArraySizeDoesNotOverflow(blockGetter, blocksInMemory);
-        return new BlockConsumingInputStream(blockGetter, numBlocks, blocksInMemory);
+        return new BlockConsumingInputStream(blockGetter, numBlocks, blocksInMemory, 0, null);
+    }
+
+    /**
+     * Creates a stream that, while the caller consumes one batch of blocks, fetches at least the next {@code
+     * blocksToReadAhead} blocks in batches of {@code blocksInMemory} on the given executor. If fetching a batch in
+     * the background fails, the batch is fetched again synchronously when it is needed.
+     */
+    public static BlockConsumingInputStream create(
+            BlockGetter blockGetter,
+            long numBlocks,
+            int blocksInMemory,
+            int blocksToReadAhead,
+            ExecutorService prefetchExecutor) throws IOException {
+        ensureExpectedArraySizeDoesNotOverflow(blockGetter, blocksInMemory);
+        com.palantir.logsafe.Preconditions.checkArgument(blocksToReadAhead >= 0,
+                "Number of blocks to read ahead must be non-negative");
+        int batchesToReadAhead = (int) ((blocksToReadAhead + (long) blocksInMemory - 1) / blocksInMemory);
+        return new BlockConsumingInputStream(blockGetter, numBlocks, blocksInMemory, batchesToReadAhead,
+                prefetchExecutor);
     }
 
     // we don't want to actually create a very large array in tests, as the external test VM would run out of memory.
@@ -57,10 +90,17 @@ public final class BlockConsumingInputStream extends InputStream {
                 expectedBufferSize);
     }
 
-    private BlockConsumingInputStream(BlockGetter blockGetter, long numBlocks, int blocksInMemory) {
+    private BlockConsumingInputStream(
+            BlockGetter blockGetter,
+            long numBlocks,
+            int blocksInMemory,
+            int batchesToReadAhead,
+            ExecutorService prefetchExecutor) {
         this.blockGetter = blockGetter;
         this.numBlocks = numBlocks;
         this.blocksInMemory = blocksInMemory;
+        this.batchesToReadAhead = batchesToReadAhead;
+        this.prefetchExecutor = prefetchExecutor;
         this.nextBlockToRead = 0L;
         this.positionInBuffer = 0;
         this.buffer = new byte[0];
@@ -72,7 +112,7 @@ public final class BlockConsumingInputStream extends InputStream {
             return buffer[positionInBuffer++] & 0xff;
         }
 
-        if (nextBlockToRead < numBlocks) {
+        if (nextBlockToRead < numBlocks || !prefetchedBatches.isEmpty()) {
             boolean reloaded = refillBuffer();
             if (!reloaded) {
                 return -1;
@@ -117,24 +157,86 @@ public final class BlockConsumingInputStream extends InputStream {
         return bytesRead;
     }
 
+    @Override
+    public void close() {
+        // batches already being fetched are left to complete, as interrupting reads from the database is unsafe
+        prefetchedBatches.forEach(batch -> batch.future.cancel(false));
+        prefetchedBatches.clear();
+    }
+
     private boolean refillBuffer() throws IOException {
+        if (batchesToReadAhead > 0) {
+            return refillBufferFromPrefetchedBatches();
+        }
+
         // since blocksInMemory is an int, the min is guaranteed to fit in an int
         int numBlocksToGet = (int) Math.min(blocksLeft(), blocksInMemory);
         if (numBlocksToGet <= 0) {
             return false;
         }
 
+        buffer = fetch(nextBlockToRead, numBlocksToGet);
+        nextBlockToRead += numBlocksToGet;
+        positionInBuffer = 0;
+        return true;
+    }
+
+    private boolean refillBufferFromPrefetchedBatches() throws IOException {
+        schedulePrefetches(batchesToReadAhead + 1);
+        PrefetchedBatch batch = prefetchedBatches.poll();
+        if (batch == null) {
+            return false;
+        }
+        schedulePrefetches(batchesToReadAhead);
+
+        buffer = awaitOrFetch(batch);
+        positionInBuffer = 0;
+        return true;
+    }
+
+    private void schedulePrefetches(int maxBatchesInFlight) {
+        while (prefetchedBatches.size() < maxBatchesInFlight && blocksLeft() > 0) {
+            long firstBlock = nextBlockToRead;
+            int numBlocksToGet = (int) Math.min(blocksLeft(), blocksInMemory);
+            Future<byte[]> future = prefetchExecutor.submit(() -> fetch(firstBlock, numBlocksToGet));
+            prefetchedBatches.add(new PrefetchedBatch(firstBlock, numBlocksToGet, future));
+            nextBlockToRead += numBlocksToGet;
+        }
+    }
+
+    private byte[] awaitOrFetch(PrefetchedBatch batch) throws IOException {
+        try {
+            return batch.future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for blocks to be fetched");
+        } catch (ExecutionException e) {
+            log.info("Failed to fetch blocks in the background; fetching them again", e.getCause());
+            return fetch(batch.firstBlock, batch.numBlocks);
+        }
+    }
+
+    private byte[] fetch(long firstBlock, int numBlocksToGet) throws IOException {
         int expectedLength = blockGetter.expectedBlockLength() * numBlocksToGet;
         try (ByteArrayOutputStream outputStream = new ByteArrayOutputStream(expectedLength)) {
-            blockGetter.get(nextBlockToRead, numBlocksToGet, outputStream);
-            nextBlockToRead += numBlocksToGet;
-            buffer = outputStream.toByteArray();
-            positionInBuffer = 0;
-            return true;
+            blockGetter.get(firstBlock, numBlocksToGet, outputStream);
+            return outputStream.toByteArray();
         }
     }
 
     private long blocksLeft() {
         return Math.max(0L, numBlocks - nextBlockToRead);
     }
+
+    private static final class PrefetchedBatch {
+        private final long firstBlock;
+        private final int numBlocks;
+        private final Future<byte[]> future;
+
+        private PrefetchedBatch(long firstBlock, int numBlocks, Future<byte[]> future) {
+            this.firstBlock = firstBlock;
+            this.numBlocks = numBlocks;
+            this.future = future;
+        }
+    }
 }
@@ -0,0 +1,103 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.stream;
+
+import java.util.function.IntToLongFunction;
+import java.util.function.UnaryOperator;
+
+import com.github.luben.zstd.Zstd;
+import com.palantir.atlasdb.compress.CompressionUtils;
+import com.palantir.atlasdb.protos.generated.StreamPersistence.BlockCompression;
+
+import net.jpountz.lz4.LZ4Factory;
+
+/**
+ * Compression applied to each block of a stream independently, after any {@link
+ * com.palantir.common.compression.StreamCompression} of the stream as a whole. As blocks are compressed separately,
+ * they can be compressed and decompressed in parallel with the writes and reads of other blocks.
+ *
+ * A compressed block must still fit in {@link GenericStreamStore#BLOCK_SIZE_IN_BYTES}, so each block holds somewhat
+ * fewer uncompressed bytes ({@link #blockPayloadSize()}) than an uncompressed one.
+ */
+public enum StreamBlockCompression {
+    NONE(BlockCompression.UNCOMPRESSED_BLOCKS, UnaryOperator.identity(), UnaryOperator.identity(), length -> length),
+    LZ4(BlockCompression.LZ4_BLOCKS,
+            CompressionUtils::compressWithLz4,
+            CompressionUtils::decompressWithLz4,
+            length -> Integer.BYTES + LZ4Factory.fastestInstance().fastCompressor().maxCompressedLength(length)),
+    ZSTD(BlockCompression.ZSTD_BLOCKS,
+            CompressionUtils::compressWithZstd,
+            CompressionUtils::decompressWithZstd,
+            Zstd::compressBound);
+
+    private final BlockCompression persistedValue;
+    private final UnaryOperator<byte[]> compressor;
+    private final UnaryOperator<byte[]> decompressor;
+    private final int blockPayloadSize;
+
+    StreamBlockCompression(
+            BlockCompression persistedValue,
+            UnaryOperator<byte[]> compressor,
+            UnaryOperator<byte[]> decompressor,
+            IntToLongFunction maxCompressedLength) {
+        this.persistedValue = persistedValue;
+        this.compressor = compressor;
+        this.decompressor = decompressor;
+        this.blockPayloadSize = largestPayloadFittingInBlock(maxCompressedLength);
+    }
+
+    public static StreamBlockCompression fromPersistedValue(BlockCompression persistedValue) {
+        for (StreamBlockCompression compression : values()) {
+            if (compression.persistedValue == persistedValue) {
+                return compression;
+            }
+        }
+        throw new AssertionError("Unreachable code");
+    }
+
+    public BlockCompression persistedValue() {
+        return persistedValue;
+    }
+
+    /**
+     * The number of bytes of the stream stored in each block, other than possibly the last.
+     */
+    public int blockPayloadSize() {
+        return blockPayloadSize;
+    }
+
+    public byte[] compress(byte[] block) {
+        return compressor.apply(block);
+    }
+
+    public byte[] decompress(byte[] block) {
+        return decompressor.apply(block);
+    }
+
+    private static int largestPayloadFittingInBlock(IntToLongFunction maxCompressedLength) {
+        int low = 0;
+        int high = GenericStreamStore.BLOCK_SIZE_IN_BYTES;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (maxCompressedLength.applyAsLong(mid) <= GenericStreamStore.BLOCK_SIZE_IN_BYTES) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+}
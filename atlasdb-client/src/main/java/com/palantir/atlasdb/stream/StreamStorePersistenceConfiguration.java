@@ -55,11 +55,45 @@ public interface StreamStorePersistenceConfiguration {
         return 0;
     }
 
+    /**
+     * The number of blocks of a nontransactional storeStream() that may be written concurrently, each in its own
+     * transaction. This also bounds the number of blocks held in memory while storing a stream. A value of 1 stores
+     * blocks sequentially.
+     *
+     * Parallel writes require stream stores generated by this version of AtlasDB or later.
+     */
+    @Value.Default
+    default int numConcurrentBlockWrites() {
+        return 1;
+    }
+
+    /**
+     * The number of blocks beyond those currently being read that streams loaded from the stream store will fetch
+     * in the background. These are held in memory in addition to the blocks of the in-memory threshold.
+     */
+    @Value.Default
+    default int numBlocksToReadAhead() {
+        return 0;
+    }
+
+    /**
+     * Compression to apply to each block of newly stored streams. Streams record the compression that was used to
+     * store them, so this may be changed without affecting the readability of existing streams.
+     */
+    @Value.Default
+    default StreamBlockCompression blockCompression() {
+        return StreamBlockCompression.NONE;
+    }
+
     @Value.Check
     default void check() {
         Preconditions.checkState(numBlocksToWriteBeforePause() > 0,
                 "Number of blocks to write before pausing must be positive");
         Preconditions.checkState(writePauseDurationMillis() >= 0,
                 "Pause duration between batches of writes must be non-negative");
+        Preconditions.checkState(numConcurrentBlockWrites() > 0,
+                "Number of concurrent block writes must be positive");
+        Preconditions.checkState(numBlocksToReadAhead() >= 0,
+                "Number of blocks to read ahead must be non-negative");
     }
 }
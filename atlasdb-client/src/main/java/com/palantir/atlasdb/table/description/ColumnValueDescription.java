@@ -18,6 +18,7 @@ package com.palantir.atlasdb.table.description;
 import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.Optional;
 
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.Immutable;
@@ -38,6 +39,8 @@ import com.google.protobuf.InvalidProtocolBufferException;
 import com.google.protobuf.Message;
 import com.googlecode.protobuf.format.JsonFormat;
 import com.googlecode.protobuf.format.JsonFormat.ParseException;
+import com.palantir.atlasdb.compress.CompressionDictionaries;
+import com.palantir.atlasdb.compress.CompressionDictionary;
 import com.palantir.atlasdb.compress.CompressionUtils;
 import com.palantir.atlasdb.persist.api.Persister;
 import com.palantir.atlasdb.protos.generated.TableMetadataPersistence;
@@ -72,7 +75,9 @@ public final class ColumnValueDescription {
 
     public enum Compression {
         SNAPPY,
-        NONE;
+        NONE,
+        LZ4,
+        ZSTD;
 
         public TableMetadataPersistence.Compression persistToProto() {
             return TableMetadataPersistence.Compression.valueOf(name());
@@ -91,6 +96,8 @@ public final class ColumnValueDescription {
     @Nullable final String canonicalClassName; // null if format is VALUE_TYPE
     // null if not a proto or descriptor is missing
     @Nullable final Descriptor protoDescriptor;
+    // null unless values are compressed with a Zstd dictionary
+    @Nullable final String compressionDictionary;
 
     private ColumnValueDescription(ValueType type, Compression compression) {
         this.format = Format.VALUE_TYPE;
@@ -99,6 +106,7 @@ public final class ColumnValueDescription {
         this.canonicalClassName = null;
         this.className = null;
         this.protoDescriptor = null;
+        this.compressionDictionary = null;
     }
 
     public static ColumnValueDescription forType(ValueType type) {
@@ -167,6 +175,28 @@ public final class ColumnValueDescription {
         this.canonicalClassName = Preconditions.checkNotNull(canonicalClassName);
         this.className = Preconditions.checkNotNull(className);
         this.protoDescriptor = protoDescriptor;
+        this.compressionDictionary = null;
+    }
+
+    private ColumnValueDescription(ColumnValueDescription description, String compressionDictionary) {
+        this.format = description.format;
+        this.compression = description.compression;
+        this.type = description.type;
+        this.canonicalClassName = description.canonicalClassName;
+        this.className = description.className;
+        this.protoDescriptor = description.protoDescriptor;
+        this.compressionDictionary = compressionDictionary;
+    }
+
+    /**
+     * Returns a copy of this description whose values are compressed with the latest version of the named dictionary
+     * registered with {@link CompressionDictionaries}. Requires {@link Compression#ZSTD} compression.
+     */
+    public ColumnValueDescription withCompressionDictionary(String dictionaryName) {
+        Preconditions.checkArgument(compression == Compression.ZSTD,
+                "Only Zstd compression supports dictionaries");
+        CompressionDictionary.checkValidName(dictionaryName);
+        return new ColumnValueDescription(this, dictionaryName);
     }
 
     public int getMaxValueSize() {
@@ -181,6 +211,10 @@ public final class ColumnValueDescription {
         return compression;
     }
 
+    public Optional<String> getCompressionDictionary() {
+        return Optional.ofNullable(compressionDictionary);
+    }
+
     public Format getFormat() {
         return format;
     }
@@ -247,8 +281,10 @@ public final class ColumnValueDescription {
         } else {
             result = type.getPersistCode(varName);
         }
+        String dictionaryArgument = compressionDictionary == null ? "" : ", \"" + compressionDictionary + "\"";
         return "com.palantir.atlasdb.compress.CompressionUtils.compress(" + result + ", " +
-                "com.palantir.atlasdb.table.description.ColumnValueDescription.Compression." + compression + ")";
+                "com.palantir.atlasdb.table.description.ColumnValueDescription.Compression." + compression
+                + dictionaryArgument + ")";
     }
 
     public byte[] persistJsonToBytes(String str) throws ParseException {
@@ -280,7 +316,14 @@ public final class ColumnValueDescription {
         } else {
             bytes = type.convertFromString(str);
         }
-        return CompressionUtils.compress(bytes, compression);
+        return compress(bytes);
+    }
+
+    private byte[] compress(byte[] bytes) {
+        if (compressionDictionary == null) {
+            return CompressionUtils.compress(bytes, compression);
+        }
+        return CompressionUtils.compress(bytes, compression, compressionDictionary);
     }
 
     private Message.Builder createBuilder(ClassLoader classLoader) {
@@ -374,6 +417,9 @@ public final class ColumnValueDescription {
         Builder builder = TableMetadataPersistence.ColumnValueDescription.newBuilder();
         builder.setType(type.persistToProto());
         builder.setCompression(compression.persistToProto());
+        if (compressionDictionary != null) {
+            builder.setCompressionDictionary(compressionDictionary);
+        }
         if (className != null) {
             builder.setClassName(className);
         }
@@ -401,6 +447,15 @@ public final class ColumnValueDescription {
     }
 
     public static ColumnValueDescription hydrateFromProto(TableMetadataPersistence.ColumnValueDescription message) {
+        ColumnValueDescription description = hydrateFromProtoWithoutDictionary(message);
+        if (message.hasCompressionDictionary()) {
+            return description.withCompressionDictionary(message.getCompressionDictionary());
+        }
+        return description;
+    }
+
+    private static ColumnValueDescription hydrateFromProtoWithoutDictionary(
+            TableMetadataPersistence.ColumnValueDescription message) {
         ValueType type = ValueType.hydrateFromProto(message.getType());
         Compression compression = Compression.hydrateFromProto(message.getCompression());
         if (!message.hasClassName()) {
@@ -470,7 +525,7 @@ public final class ColumnValueDescription {
     @Override
     public String toString() {
         return "ColumnValueDescription [format=" + format + ", compression=" + compression
-                + ", type=" + type + ", className=" + className + ", canonicalClassName="
+                + ", compressionDictionary=" + compressionDictionary + ", type=" + type + ", className=" + className + ", canonicalClassName="
                 + canonicalClassName + "]";
     }
 
@@ -481,6 +536,7 @@ public final class ColumnValueDescription {
         int result = 1;
         result = prime * result + (format == null ? 0 : format.hashCode());
         result = prime * result + (compression == null ? 0 : compression.hashCode());
+        result = prime * result + (compressionDictionary == null ? 0 : compressionDictionary.hashCode());
         result = prime * result + (type == null ? 0 : type.hashCode());
         result = prime * result + (className == null ? 0 : className.hashCode());
         result = prime * result + (canonicalClassName == null ? 0 : canonicalClassName.hashCode());
@@ -513,6 +569,13 @@ public final class ColumnValueDescription {
         } else if (!compression.equals(other.getCompression())) {
             return false;
         }
+        if (compressionDictionary == null) {
+            if (other.compressionDictionary != null) {
+                return false;
+            }
+        } else if (!compressionDictionary.equals(other.compressionDictionary)) {
+            return false;
+        }
         if (type == null) {
             if (other.type != null) {
                 return false;
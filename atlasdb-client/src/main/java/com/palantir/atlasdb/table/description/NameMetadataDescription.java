@@ -152,6 +152,24 @@ public class NameMetadataDescription {
         return partitioners;
     }
 
+    /**
+     * Returns row names at which a scan over rows with this description can be split into roughly numberRanges
+     * sub-ranges, derived from the partitioners declared for the row components. The row names are unsorted and may
+     * contain duplicates; if no partitioners are declared, an empty list is returned.
+     */
+    public List<byte[]> getRowSplitPoints(int numberRanges) {
+        List<RowNamePartitioner> partitioners = getPartitionersForRow();
+        if (partitioners.isEmpty()) {
+            return ImmutableList.of();
+        }
+        int rangesPerPartitioner = Math.max(1, numberRanges / partitioners.size());
+        List<byte[]> splitPoints = Lists.newArrayList();
+        for (RowNamePartitioner partitioner : partitioners) {
+            splitPoints.addAll(partitioner.getPartitions(rangesPerPartitioner));
+        }
+        return splitPoints;
+    }
+
     public String renderToJson(byte[] name) {
         StringBuilder sb = new StringBuilder("{");
         int offset = 0;
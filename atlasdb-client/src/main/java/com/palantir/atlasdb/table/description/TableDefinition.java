@@ -133,6 +133,28 @@ public class TableDefinition extends AbstractDefinition {
                         columnNameLoggable));
     }
 
+    /**
+     * Defines a column whose values are compressed with the latest version of the named Zstd dictionary, which must
+     * be trained and loaded through {@link com.palantir.atlasdb.compress.CompressionDictionaryStore}. Values written
+     * before any version of the dictionary is loaded are compressed without one.
+     */
+    public void column(
+            String columnName,
+            String shortName,
+            Class<?> protoOrPersistable,
+            Compression compression,
+            String compressionDictionary) {
+        checkStateForNamedColumnDefinition();
+        checkUniqueColumnNames(columnName, shortName);
+        fixedColumns.add(
+                new NamedColumnDescription(
+                        shortName,
+                        columnName,
+                        getColumnValueDescription(protoOrPersistable, compression)
+                                .withCompressionDictionary(compressionDictionary),
+                        defaultNamedComponentLogSafety));
+    }
+
     public void column(String columnName, String shortName, ValueType valueType) {
         column(columnName, shortName, valueType, defaultNamedComponentLogSafety);
     }
@@ -290,6 +312,15 @@ public class TableDefinition extends AbstractDefinition {
         dynamicColumnValue = getColumnValueDescription(protoOrPersistable, compression);
     }
 
+    /**
+     * As {@link #column(String, String, Class, Compression, String)}, for dynamic column values.
+     */
+    public void value(Class<?> protoOrPersistable, Compression compression, String compressionDictionary) {
+        checkStateForDynamicColumnValues();
+        dynamicColumnValue = getColumnValueDescription(protoOrPersistable, compression)
+                .withCompressionDictionary(compressionDictionary);
+    }
+
     public void value(ValueType valueType) {
         checkStateForDynamicColumnValues();
         dynamicColumnValue = ColumnValueDescription.forType(valueType);
@@ -159,12 +159,14 @@ public class StreamStoreRenderer {
                     line();
                     storeBlock();
                     line();
+                    reserveBlocksForStoring();
+                    line();
+                    supportsConcurrentBlockWrites();
+                    line();
                     touchMetadataWhileStoringForConflicts();
                     line();
                     putMetadataAndHashIndexTask();
                     line();
-                    getNumberOfBlocksFromMetadata();
-                    line();
                     createTempFile();
                     line();
                     loadSingleBlockToOutputStream();
@@ -251,6 +253,20 @@ public class StreamStoreRenderer {
                 } line("}");
             }
 
+            private void reserveBlocksForStoring() {
+                line("@Override");
+                line("protected void reserveBlocksForStoring(Transaction t, long id, long lastBlockNumber) {"); {
+                    line("touchMetadataWhileStoringForConflicts(t, id, lastBlockNumber);");
+                } line("}");
+            }
+
+            private void supportsConcurrentBlockWrites() {
+                line("@Override");
+                line("protected boolean supportsConcurrentBlockWrites() {"); {
+                    line("return true;");
+                } line("}");
+            }
+
             private void touchMetadataWhileStoringForConflicts() {
                 line("private void touchMetadataWhileStoringForConflicts(Transaction t, ", StreamId, " id, long blockNumber) {"); {
                     line(StreamMetadataTable, " metaTable = tables.get", StreamMetadataTable, "(t);");
@@ -258,7 +274,7 @@ public class StreamStoreRenderer {
                     line("StreamMetadata metadata = metaTable.getMetadatas(ImmutableSet.of(row)).values().iterator().next();");
                     line("Preconditions.checkState(metadata.getStatus() == Status.STORING, \"This stream is being cleaned up while storing blocks: %s\", id);");
                     line("StreamMetadata.Builder builder = StreamMetadata.newBuilder(metadata);");
-                    line("builder.setLength(blockNumber * BLOCK_SIZE_IN_BYTES + 1);");
+                    line("builder.setLength(Math.max(metadata.getLength(), blockNumber * BLOCK_SIZE_IN_BYTES + 1));");
                     line("metaTable.putMetadata(row, builder.build());");
                 } line("}");
             }
@@ -299,12 +315,6 @@ public class StreamStoreRenderer {
                 } line("}");
             }
 
-            private void getNumberOfBlocksFromMetadata() {
-                line("private long getNumberOfBlocksFromMetadata(StreamMetadata metadata) {"); {
-                    line("return (metadata.getLength() + BLOCK_SIZE_IN_BYTES - 1) / BLOCK_SIZE_IN_BYTES;");
-                } line("}");
-            }
-
             private void getInMemoryThreshold() {
                 line("@Override");
                 line("protected long getInMemoryThreshold() {"); {
@@ -460,7 +470,7 @@ public class StreamStoreRenderer {
                     line("Set<", StreamValueRow, "> streamValueToDelete = Sets.newHashSet();");
                     line("for (Entry<", StreamMetadataRow, ", StreamMetadata> e : metadatas.entrySet()) {"); {
                         line(StreamId, " streamId = e.getKey().getId();");
-                        line("long blocks = getNumberOfBlocksFromMetadata(e.getValue());");
+                        line("long blocks = getNumberOfBlocks(e.getValue());");
                         line("for (long i = 0; i < blocks; i++) {"); {
                             line("streamValueToDelete.add(", StreamValueRow, ".of(streamId, i));");
                         } line("}");
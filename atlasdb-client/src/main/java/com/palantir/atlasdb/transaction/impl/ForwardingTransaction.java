@@ -16,6 +16,7 @@
 package com.palantir.atlasdb.transaction.impl;
 
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.NavigableMap;
@@ -117,6 +118,15 @@ public abstract class ForwardingTransaction extends ForwardingObject implements
         return delegate().getRanges(getRangesQuery);
     }
 
+    @Override
+    public BatchingVisitable<RowResult<byte[]>> getRangeInParallel(
+            TableReference tableRef,
+            RangeRequest rangeRequest,
+            Iterable<byte[]> splitPoints,
+            int concurrencyLevel) {
+        return delegate().getRangeInParallel(tableRef, rangeRequest, splitPoints, concurrencyLevel);
+    }
+
     @Override
     public Stream<BatchingVisitable<RowResult<byte[]>>> getRangesLazy(
             final TableReference tableRef, Iterable<RangeRequest> rangeRequests) {
@@ -187,4 +197,20 @@ public abstract class ForwardingTransaction extends ForwardingObject implements
     public ListenableFuture<Map<Cell, byte[]>> getAsync(TableReference tableRef, Set<Cell> cells) {
         return delegate().getAsync(tableRef, cells);
     }
+
+    @Override
+    public ListenableFuture<NavigableMap<byte[], RowResult<byte[]>>> getRowsAsync(
+            TableReference tableRef,
+            Iterable<byte[]> rows,
+            ColumnSelection columnSelection) {
+        return delegate().getRowsAsync(tableRef, rows, columnSelection);
+    }
+
+    @Override
+    public ListenableFuture<Map<byte[], List<Map.Entry<Cell, byte[]>>>> getRowsColumnRangeAsync(
+            TableReference tableRef,
+            Iterable<byte[]> rows,
+            BatchColumnRangeSelection columnRangeSelection) {
+        return delegate().getRowsColumnRangeAsync(tableRef, rows, columnRangeSelection);
+    }
 }
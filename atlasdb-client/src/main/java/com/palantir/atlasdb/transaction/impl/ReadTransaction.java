@@ -16,6 +16,7 @@
 package com.palantir.atlasdb.transaction.impl;
 
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.NavigableMap;
 import java.util.Set;
@@ -103,6 +104,16 @@ public class ReadTransaction extends ForwardingTransaction {
         return delegate().getRanges(getRangesQuery);
     }
 
+    @Override
+    public BatchingVisitable<RowResult<byte[]>> getRangeInParallel(
+            TableReference tableRef,
+            RangeRequest rangeRequest,
+            Iterable<byte[]> splitPoints,
+            int concurrencyLevel) {
+        checkTableName(tableRef);
+        return delegate().getRangeInParallel(tableRef, rangeRequest, splitPoints, concurrencyLevel);
+    }
+
     @Override
     public Stream<BatchingVisitable<RowResult<byte[]>>> getRangesLazy(
             final TableReference tableRef, Iterable<RangeRequest> rangeRequests) {
@@ -154,4 +165,22 @@ public class ReadTransaction extends ForwardingTransaction {
         checkTableName(tableRef);
         return delegate().getAsync(tableRef, cells);
     }
+
+    @Override
+    public ListenableFuture<NavigableMap<byte[], RowResult<byte[]>>> getRowsAsync(
+            TableReference tableRef,
+            Iterable<byte[]> rows,
+            ColumnSelection columnSelection) {
+        checkTableName(tableRef);
+        return delegate().getRowsAsync(tableRef, rows, columnSelection);
+    }
+
+    @Override
+    public ListenableFuture<Map<byte[], List<Map.Entry<Cell, byte[]>>>> getRowsColumnRangeAsync(
+            TableReference tableRef,
+            Iterable<byte[]> rows,
+            BatchColumnRangeSelection columnRangeSelection) {
+        checkTableName(tableRef);
+        return delegate().getRowsColumnRangeAsync(tableRef, rows, columnRangeSelection);
+    }
 }
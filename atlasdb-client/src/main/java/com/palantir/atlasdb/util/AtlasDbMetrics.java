@@ -23,8 +23,10 @@ import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.codahale.metrics.Gauge;
 import com.codahale.metrics.MetricRegistry;
 import com.github.benmanes.caffeine.cache.Cache;
+import com.palantir.atlasdb.cache.LongLongClockCache;
 import com.palantir.tritium.api.event.InstrumentationFilter;
 import com.palantir.tritium.event.InstrumentationFilters;
 import com.palantir.tritium.event.InvocationContext;
@@ -98,15 +100,50 @@ public final class AtlasDbMetrics {
     }
 
     public static void registerCache(MetricRegistry metricRegistry, Cache<?, ?> cache, String metricsPrefix) {
+        if (hasNoMetricsWithPrefix(metricRegistry, metricsPrefix)) {
+            CaffeineCacheStats.registerCache(metricRegistry, cache, metricsPrefix);
+        }
+    }
+
+    /**
+     * Registers the subset of the Caffeine cache gauges that are meaningful for a {@link LongLongClockCache}, under
+     * the same names, so that dashboards survive switching between the two.
+     */
+    public static void registerCache(MetricRegistry metricRegistry, LongLongClockCache cache, String metricsPrefix) {
+        if (hasNoMetricsWithPrefix(metricRegistry, metricsPrefix)) {
+            metricRegistry.register(MetricRegistry.name(metricsPrefix, "estimated.size"),
+                    (Gauge<Long>) cache::estimatedSize);
+            metricRegistry.register(MetricRegistry.name(metricsPrefix, "maximum.size"),
+                    (Gauge<Long>) cache::maximumSize);
+            metricRegistry.register(MetricRegistry.name(metricsPrefix, "request.count"),
+                    (Gauge<Long>) () -> cache.hitCount() + cache.missCount());
+            metricRegistry.register(MetricRegistry.name(metricsPrefix, "hit.count"),
+                    (Gauge<Long>) cache::hitCount);
+            metricRegistry.register(MetricRegistry.name(metricsPrefix, "hit.ratio"),
+                    (Gauge<Double>) () -> ratio(cache.hitCount(), cache.hitCount() + cache.missCount(), 1.0));
+            metricRegistry.register(MetricRegistry.name(metricsPrefix, "miss.count"),
+                    (Gauge<Long>) cache::missCount);
+            metricRegistry.register(MetricRegistry.name(metricsPrefix, "miss.ratio"),
+                    (Gauge<Double>) () -> ratio(cache.missCount(), cache.hitCount() + cache.missCount(), 0.0));
+            metricRegistry.register(MetricRegistry.name(metricsPrefix, "eviction.count"),
+                    (Gauge<Long>) cache::evictionCount);
+        }
+    }
+
+    private static boolean hasNoMetricsWithPrefix(MetricRegistry metricRegistry, String metricsPrefix) {
         Set<String> existingMetrics = metricRegistry.getMetrics().keySet().stream()
                 .filter(name -> name.startsWith(metricsPrefix))
                 .collect(Collectors.toSet());
         if (existingMetrics.isEmpty()) {
-            CaffeineCacheStats.registerCache(metricRegistry, cache, metricsPrefix);
-        } else {
-            log.info("Not registering cache with prefix '{}' as metric registry already contains metrics: {}",
-                    metricsPrefix, existingMetrics);
+            return true;
         }
+        log.info("Not registering cache with prefix '{}' as metric registry already contains metrics: {}",
+                metricsPrefix, existingMetrics);
+        return false;
+    }
+
+    private static double ratio(long numerator, long denominator, double ratioIfNoRequests) {
+        return denominator == 0 ? ratioIfNoRequests : (double) numerator / denominator;
     }
 
     private static <T, U extends T> T instrument(
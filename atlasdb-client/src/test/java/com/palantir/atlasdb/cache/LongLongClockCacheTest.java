@@ -0,0 +1,166 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.LongStream;
+
+import org.junit.Test;
+
+public class LongLongClockCacheTest {
+    private static final long ABSENT = -1L;
+
+    private final LongLongClockCache cache = new LongLongClockCache(1_000, 4);
+
+    @Test
+    public void returnsDefaultForAbsentKeys() {
+        assertThat(cache.getOrDefault(1L, ABSENT)).isEqualTo(ABSENT);
+        assertThat(cache.missCount()).isEqualTo(1L);
+    }
+
+    @Test
+    public void returnsCachedValues() {
+        cache.put(1L, 2L);
+        cache.put(-5L, Long.MIN_VALUE);
+
+        assertThat(cache.getOrDefault(1L, ABSENT)).isEqualTo(2L);
+        assertThat(cache.getOrDefault(-5L, ABSENT)).isEqualTo(Long.MIN_VALUE);
+        assertThat(cache.hitCount()).isEqualTo(2L);
+    }
+
+    @Test
+    public void putOverwritesExistingValue() {
+        cache.put(1L, 2L);
+        cache.put(1L, 3L);
+
+        assertThat(cache.getOrDefault(1L, ABSENT)).isEqualTo(3L);
+        assertThat(cache.estimatedSize()).isEqualTo(1L);
+    }
+
+    @Test
+    public void cannotUseMinValueAsKey() {
+        assertThatThrownBy(() -> cache.put(Long.MIN_VALUE, 1L)).isInstanceOf(IllegalArgumentException.class);
+        assertThat(cache.getOrDefault(Long.MIN_VALUE, ABSENT)).isEqualTo(ABSENT);
+    }
+
+    @Test
+    public void retainsEverythingUpToMaximumSize() {
+        LongStream.range(0, 1_000).forEach(key -> cache.put(key, key + 1));
+
+        assertThat(cache.estimatedSize()).isEqualTo(1_000L);
+        LongStream.range(0, 1_000).forEach(key -> assertThat(cache.getOrDefault(key, ABSENT)).isEqualTo(key + 1));
+    }
+
+    @Test
+    public void evictsToStayWithinMaximumSize() {
+        LongStream.range(0, 10_000).forEach(key -> cache.put(key, key + 1));
+
+        assertThat(cache.estimatedSize()).isEqualTo(1_000L);
+        assertThat(cache.evictionCount()).isEqualTo(9_000L);
+        assertThat(LongStream.range(0, 10_000).filter(key -> cache.getOrDefault(key, ABSENT) == key + 1).count())
+                .isEqualTo(1_000L);
+    }
+
+    @Test
+    public void recentlyReadEntriesSurviveEviction() {
+        LongStream.range(0, 100).forEach(key -> cache.put(key, key));
+        for (long key = 100; key < 10_000; key++) {
+            cache.put(key, key);
+            LongStream.range(0, 100).forEach(hotKey -> cache.getOrDefault(hotKey, ABSENT));
+        }
+
+        LongStream.range(0, 100).forEach(key -> assertThat(cache.getOrDefault(key, ABSENT)).isEqualTo(key));
+    }
+
+    @Test
+    public void shrinkingEvictsEntries() {
+        LongStream.range(0, 1_000).forEach(key -> cache.put(key, key));
+        cache.setMaximumSize(10);
+
+        assertThat(cache.estimatedSize()).isEqualTo(10L);
+        assertThat(LongStream.range(0, 1_000).filter(key -> cache.getOrDefault(key, ABSENT) == key).count())
+                .isEqualTo(10L);
+    }
+
+    @Test
+    public void admitsNewEntriesWhenFullCacheIsSmallerThanSegmentCount() {
+        LongLongClockCache smallCache = new LongLongClockCache(1, 4);
+        for (long key = 0; key < 100; key++) {
+            smallCache.put(key, key);
+
+            assertThat(smallCache.getOrDefault(key, ABSENT)).isEqualTo(key);
+            assertThat(smallCache.estimatedSize()).isEqualTo(1L);
+        }
+    }
+
+    @Test
+    public void cachesNothingIfMaximumSizeIsZero() {
+        cache.setMaximumSize(0);
+        cache.put(1L, 2L);
+
+        assertThat(cache.getOrDefault(1L, ABSENT)).isEqualTo(ABSENT);
+        assertThat(cache.estimatedSize()).isZero();
+    }
+
+    @Test
+    public void clearRemovesAllEntries() {
+        LongStream.range(0, 1_000).forEach(key -> cache.put(key, key));
+        cache.clear();
+
+        assertThat(cache.estimatedSize()).isZero();
+        LongStream.range(0, 1_000).forEach(key -> assertThat(cache.getOrDefault(key, ABSENT)).isEqualTo(ABSENT));
+    }
+
+    @Test
+    public void concurrentReadersNeverSeeValuesForOtherKeys() throws Exception {
+        LongLongClockCache concurrentCache = LongLongClockCache.create(1_000);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(executor.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int j = 0; j < 100_000; j++) {
+                        long key = random.nextLong(10_000);
+                        if (random.nextInt(4) == 0) {
+                            concurrentCache.put(key, key * 2);
+                        } else {
+                            long value = concurrentCache.getOrDefault(key, ABSENT);
+                            assertThat(value).isIn(ABSENT, key * 2);
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // each writer may overshoot the bound by one insertion racing with writers to other segments
+        assertThat(concurrentCache.estimatedSize()).isLessThanOrEqualTo(1_000L + 8);
+    }
+}
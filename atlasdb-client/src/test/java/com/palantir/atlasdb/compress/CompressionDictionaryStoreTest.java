@@ -0,0 +1,109 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.compress;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.IntStream;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.palantir.atlasdb.keyvalue.api.KeyValueService;
+import com.palantir.atlasdb.keyvalue.impl.InMemoryKeyValueService;
+import com.palantir.atlasdb.table.description.ColumnValueDescription;
+import com.palantir.atlasdb.table.description.ColumnValueDescription.Compression;
+import com.palantir.atlasdb.table.description.ValueType;
+
+public class CompressionDictionaryStoreTest {
+    private static final String NAME = "widgets";
+
+    private final KeyValueService kvs = new InMemoryKeyValueService(true);
+    private final CompressionDictionaryStore store = CompressionDictionaryStore.create(kvs);
+
+    @After
+    public void tearDown() {
+        CompressionDictionaries.clear();
+    }
+
+    @Test
+    public void storedDictionariesAreRegistered() {
+        CompressionDictionary dictionary = store.trainAndStore(NAME, values(0), 1_000, 2_048);
+
+        assertThat(dictionary.version()).isEqualTo(1L);
+        assertThat(CompressionDictionaries.getLatest(NAME)).contains(dictionary);
+        assertThat(CompressionDictionaries.getById(dictionary.id())).contains(dictionary);
+    }
+
+    @Test
+    public void eachTrainingCreatesANewVersion() {
+        store.trainAndStore(NAME, values(0), 1_000, 2_048);
+        CompressionDictionary second = store.trainAndStore(NAME, values(1), 1_000, 2_048);
+
+        assertThat(second.version()).isEqualTo(2L);
+        assertThat(CompressionDictionaries.getLatest(NAME)).contains(second);
+    }
+
+    @Test
+    public void loadAllRegistersEveryPersistedVersion() {
+        CompressionDictionary first = store.trainAndStore(NAME, values(0), 1_000, 2_048);
+        CompressionDictionary second = store.trainAndStore(NAME, values(1), 1_000, 2_048);
+        CompressionDictionaries.clear();
+
+        CompressionDictionaryStore.create(kvs).loadAll();
+
+        assertThat(CompressionDictionaries.getLatest(NAME).map(CompressionDictionary::version)).contains(2L);
+        assertThat(CompressionDictionaries.getById(first.id())).isPresent();
+        assertThat(CompressionDictionaries.getById(second.id())).isPresent();
+    }
+
+    @Test
+    public void rejectsInvalidNames() {
+        assertThatThrownBy(() -> store.trainAndStore("no spaces", values(0), 1_000, 2_048))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void columnValueDescriptionsPersistTheirDictionary() {
+        ColumnValueDescription description = ColumnValueDescription.forType(ValueType.BLOB, Compression.ZSTD)
+                .withCompressionDictionary(NAME);
+
+        ColumnValueDescription hydrated = ColumnValueDescription.hydrateFromProto(
+                description.persistToProto().build());
+
+        assertThat(hydrated).isEqualTo(description);
+        assertThat(hydrated.getCompressionDictionary()).contains(NAME);
+        assertThat(hydrated.getPersistCode("value")).contains("\"" + NAME + "\"");
+    }
+
+    @Test
+    public void onlyZstdSupportsDictionaries() {
+        assertThatThrownBy(() -> ColumnValueDescription.forType(ValueType.BLOB, Compression.LZ4)
+                .withCompressionDictionary(NAME))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static Iterator<byte[]> values(int seed) {
+        return IntStream.range(0, 5_000)
+                .mapToObj(i -> ("{\"widget\":" + (i + seed * 5_000) + ",\"colour\":\"blue\",\"owner\":\"user-"
+                        + (i % 31) + "\"}").getBytes(StandardCharsets.UTF_8))
+                .iterator();
+    }
+}
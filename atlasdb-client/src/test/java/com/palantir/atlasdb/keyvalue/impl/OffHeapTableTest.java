@@ -0,0 +1,158 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.keyvalue.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.Test;
+
+import com.palantir.atlasdb.keyvalue.impl.InMemoryTable.Key;
+import com.palantir.atlasdb.keyvalue.impl.InMemoryTable.Version;
+
+public class OffHeapTableTest {
+    private static final byte[] ROW = {1};
+    private static final byte[] COL = {2};
+    private static final byte[] VALUE = {3};
+
+    private final OffHeapTable table = new OffHeapTable(1);
+
+    @Test
+    public void readsValuesFromRuns() {
+        table.put(key(1), VALUE);
+        table.put(key(2), VALUE);
+
+        assertThat(table.get(key(1))).isEqualTo(ByteBuffer.wrap(VALUE));
+        assertThat(keys(table.iterator(null, false, null, false, false))).containsExactly(key(1), key(2));
+    }
+
+    @Test
+    public void putIfAbsentReturnsExistingValueInOlderRun() {
+        table.put(key(1), VALUE);
+        table.put(key(2), VALUE);
+
+        assertThat(table.putIfAbsent(key(1), new byte[] {4})).isEqualTo(VALUE);
+        assertThat(table.get(key(1))).isEqualTo(ByteBuffer.wrap(VALUE));
+    }
+
+    @Test
+    public void deletesHideVersionsInOlderRuns() {
+        table.put(key(1), VALUE);
+        table.put(key(2), VALUE);
+        table.delete(key(1));
+
+        assertThat(table.get(key(1))).isNull();
+        assertThat(keys(table.iterator(null, false, null, false, false))).containsExactly(key(2));
+        assertThat(table.putIfAbsent(key(1), new byte[] {4})).isNull();
+    }
+
+    @Test
+    public void replaceOnlySucceedsForExpectedValue() {
+        table.put(key(1), VALUE);
+
+        assertThat(table.replace(key(1), new byte[] {4}, new byte[] {5})).isFalse();
+        assertThat(table.replace(key(1), VALUE, new byte[] {5})).isTrue();
+        assertThat(table.get(key(1))).isEqualTo(ByteBuffer.wrap(new byte[] {5}));
+    }
+
+    @Test
+    public void iteratesInReverseWithinBounds() {
+        for (long ts = 0; ts < 10; ts++) {
+            table.put(key(ts), VALUE);
+        }
+
+        assertThat(keys(table.iterator(key(2), false, key(5), true, true))).containsExactly(key(5), key(4), key(3));
+    }
+
+    @Test
+    public void clearRemovesEverything() {
+        table.put(key(1), VALUE);
+        table.put(key(2), VALUE);
+        table.clear();
+
+        assertThat(table.get(key(1))).isNull();
+        assertThat(table.iterator(null, false, null, false, false).hasNext()).isFalse();
+    }
+
+    @Test
+    public void behavesLikeSortedMapUnderRandomOperations() {
+        for (int seed = 0; seed < 20; seed++) {
+            Random random = new Random(seed);
+            OffHeapTable randomTable = new OffHeapTable(1 + random.nextInt(512));
+            NavigableMap<Key, byte[]> model = new TreeMap<>();
+            for (int i = 0; i < 2_000; i++) {
+                Key key = randomKey(random);
+                switch (random.nextInt(5)) {
+                    case 0:
+                    case 1:
+                        byte[] value = new byte[random.nextInt(16)];
+                        random.nextBytes(value);
+                        randomTable.put(key, value);
+                        model.put(key, value);
+                        break;
+                    case 2:
+                        randomTable.delete(key);
+                        model.remove(key);
+                        break;
+                    case 3:
+                        Key other = randomKey(random);
+                        Key lower = key.compareTo(other) <= 0 ? key : other;
+                        Key upper = key.compareTo(other) <= 0 ? other : key;
+                        randomTable.deleteRange(lower, upper);
+                        model.subMap(lower, true, upper, true).clear();
+                        break;
+                    default:
+                        assertThat(randomTable.get(key))
+                                .isEqualTo(model.containsKey(key) ? ByteBuffer.wrap(model.get(key)) : null);
+                }
+            }
+            assertSameContents(randomTable.iterator(null, false, null, false, false), model);
+            assertSameContents(randomTable.iterator(null, false, null, false, true), model.descendingMap());
+        }
+    }
+
+    private static void assertSameContents(Iterator<Version> versions, Map<Key, byte[]> expected) {
+        for (Map.Entry<Key, byte[]> entry : expected.entrySet()) {
+            assertThat(versions.hasNext()).isTrue();
+            Version version = versions.next();
+            assertThat(version.key()).isEqualTo(entry.getKey());
+            assertThat(version.copyOfValue()).isEqualTo(entry.getValue());
+        }
+        assertThat(versions.hasNext()).isFalse();
+    }
+
+    private static Key randomKey(Random random) {
+        return new Key(new byte[] {(byte) random.nextInt(8)}, new byte[] {(byte) random.nextInt(4)}, random.nextInt(4));
+    }
+
+    private static Key key(long ts) {
+        return new Key(ROW, COL, ts);
+    }
+
+    private static List<Key> keys(Iterator<Version> versions) {
+        List<Key> keys = new ArrayList<>();
+        versions.forEachRemaining(version -> keys.add(version.key()));
+        return keys;
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.keyvalue.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.Futures;
+import com.palantir.atlasdb.autobatch.BatchElement;
+import com.palantir.atlasdb.autobatch.DisruptorAutobatcher;
+import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.atlasdb.keyvalue.api.KeyValueService;
+import com.palantir.atlasdb.keyvalue.api.TableReference;
+import com.palantir.atlasdb.keyvalue.api.Value;
+import com.palantir.atlasdb.keyvalue.impl.ReadBatchingKeyValueService.ReadRequest;
+
+public class ReadBatchingKeyValueServiceTest {
+    private static final TableReference TABLE = TableReference.createFromFullyQualifiedName("test.table");
+    private static final TableReference OTHER_TABLE = TableReference.createFromFullyQualifiedName("test.other");
+    private static final Cell CELL_1 = Cell.create(new byte[] {1}, new byte[] {1});
+    private static final Cell CELL_2 = Cell.create(new byte[] {2}, new byte[] {2});
+    private static final Cell CELL_3 = Cell.create(new byte[] {3}, new byte[] {3});
+    private static final Value VALUE_1 = Value.create(new byte[] {11}, 1L);
+    private static final Value VALUE_2 = Value.create(new byte[] {12}, 1L);
+
+    private final KeyValueService delegate = mock(KeyValueService.class);
+
+    @Test
+    public void coalescesReadsOfTheSameTable() {
+        when(delegate.get(eq(TABLE), any())).thenReturn(ImmutableMap.of(CELL_1, VALUE_1, CELL_2, VALUE_2));
+
+        List<Map<Cell, Value>> results = processBatch(
+                new ReadRequest(TABLE, ImmutableMap.of(CELL_1, 5L)),
+                new ReadRequest(TABLE, ImmutableMap.of(CELL_2, 7L, CELL_3, 7L)));
+
+        verify(delegate).get(TABLE, ImmutableMap.of(CELL_1, 5L, CELL_2, 7L, CELL_3, 7L));
+        verifyNoMoreInteractions(delegate);
+        assertThat(results.get(0)).isEqualTo(ImmutableMap.of(CELL_1, VALUE_1));
+        assertThat(results.get(1)).isEqualTo(ImmutableMap.of(CELL_2, VALUE_2));
+    }
+
+    @Test
+    public void readsDifferentTablesSeparately() {
+        when(delegate.get(eq(TABLE), any())).thenReturn(ImmutableMap.of(CELL_1, VALUE_1));
+        when(delegate.get(eq(OTHER_TABLE), any())).thenReturn(ImmutableMap.of(CELL_1, VALUE_2));
+
+        List<Map<Cell, Value>> results = processBatch(
+                new ReadRequest(TABLE, ImmutableMap.of(CELL_1, 5L)),
+                new ReadRequest(OTHER_TABLE, ImmutableMap.of(CELL_1, 5L)));
+
+        verify(delegate).get(TABLE, ImmutableMap.of(CELL_1, 5L));
+        verify(delegate).get(OTHER_TABLE, ImmutableMap.of(CELL_1, 5L));
+        assertThat(results.get(0)).isEqualTo(ImmutableMap.of(CELL_1, VALUE_1));
+        assertThat(results.get(1)).isEqualTo(ImmutableMap.of(CELL_1, VALUE_2));
+    }
+
+    @Test
+    public void readsTheSameCellAtDifferentTimestampsSeparately() {
+        when(delegate.get(TABLE, ImmutableMap.of(CELL_1, 5L, CELL_2, 5L)))
+                .thenReturn(ImmutableMap.of(CELL_1, VALUE_1, CELL_2, VALUE_2));
+        when(delegate.get(TABLE, ImmutableMap.of(CELL_1, 3L))).thenReturn(ImmutableMap.of());
+
+        List<Map<Cell, Value>> results = processBatch(
+                new ReadRequest(TABLE, ImmutableMap.of(CELL_1, 5L)),
+                new ReadRequest(TABLE, ImmutableMap.of(CELL_1, 3L)),
+                new ReadRequest(TABLE, ImmutableMap.of(CELL_2, 5L)));
+
+        assertThat(results.get(0)).isEqualTo(ImmutableMap.of(CELL_1, VALUE_1));
+        assertThat(results.get(1)).isEmpty();
+        assertThat(results.get(2)).isEqualTo(ImmutableMap.of(CELL_2, VALUE_2));
+    }
+
+    @Test
+    public void failuresAreOnlyPropagatedToRequestsInTheFailedRead() {
+        RuntimeException failure = new RuntimeException("boom");
+        when(delegate.get(eq(TABLE), any())).thenThrow(failure);
+        when(delegate.get(eq(OTHER_TABLE), any())).thenReturn(ImmutableMap.of(CELL_1, VALUE_1));
+
+        List<BatchElement<ReadRequest, Map<Cell, Value>>> elements = elements(
+                new ReadRequest(TABLE, ImmutableMap.of(CELL_1, 5L)),
+                new ReadRequest(OTHER_TABLE, ImmutableMap.of(CELL_1, 5L)));
+        ReadBatchingKeyValueService.processBatch(delegate, elements);
+
+        assertThatThrownBy(() -> Futures.getUnchecked(elements.get(0).result())).hasCause(failure);
+        assertThat(Futures.getUnchecked(elements.get(1).result())).isEqualTo(ImmutableMap.of(CELL_1, VALUE_1));
+    }
+
+    @Test
+    public void emptyReadsAreNotSentToTheDelegate() {
+        KeyValueService kvs = ReadBatchingKeyValueService.create(delegate, 1);
+
+        assertThat(kvs.get(TABLE, ImmutableMap.of())).isEmpty();
+        verifyNoMoreInteractions(delegate);
+        kvs.close();
+    }
+
+    @Test
+    public void readsThroughTheDelegate() {
+        when(delegate.get(TABLE, ImmutableMap.of(CELL_1, 5L))).thenReturn(ImmutableMap.of(CELL_1, VALUE_1));
+        KeyValueService kvs = ReadBatchingKeyValueService.create(delegate, 2);
+
+        assertThat(kvs.get(TABLE, ImmutableMap.of(CELL_1, 5L))).isEqualTo(ImmutableMap.of(CELL_1, VALUE_1));
+        kvs.close();
+        verify(delegate).close();
+    }
+
+    private List<Map<Cell, Value>> processBatch(ReadRequest... requests) {
+        List<BatchElement<ReadRequest, Map<Cell, Value>>> elements = elements(requests);
+        ReadBatchingKeyValueService.processBatch(delegate, elements);
+        return elements.stream()
+                .map(element -> Futures.getUnchecked(element.result()))
+                .collect(Collectors.toList());
+    }
+
+    private static List<BatchElement<ReadRequest, Map<Cell, Value>>> elements(ReadRequest... requests) {
+        return Arrays.stream(requests)
+                .map(TestBatchElement::new)
+                .collect(Collectors.toList());
+    }
+
+    private static final class TestBatchElement implements BatchElement<ReadRequest, Map<Cell, Value>> {
+        private final ReadRequest argument;
+        private final DisruptorAutobatcher.DisruptorFuture<Map<Cell, Value>> result =
+                new DisruptorAutobatcher.DisruptorFuture<>("test");
+
+        private TestBatchElement(ReadRequest argument) {
+            this.argument = argument;
+        }
+
+        @Override
+        public ReadRequest argument() {
+            return argument;
+        }
+
+        @Override
+        public DisruptorAutobatcher.DisruptorFuture<Map<Cell, Value>> result() {
+            return result;
+        }
+    }
+}
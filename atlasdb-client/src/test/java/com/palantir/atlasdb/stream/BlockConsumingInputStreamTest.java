@@ -29,11 +29,14 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mockito;
 
+import com.google.common.util.concurrent.MoreExecutors;
 import com.palantir.atlasdb.schema.stream.StreamStoreDefinition;
 
 @SuppressWarnings("ResultOfMethodCallIgnored")
@@ -291,6 +294,59 @@ public class BlockConsumingInputStreamTest {
         verify(spiedGetter, times(1)).get(anyLong(), eq(1L), any());
     }
 
+    @Test
+    public void readsAheadOnExecutor() throws IOException {
+        BlockGetter spiedGetter = Mockito.spy(threeByteConsumer);
+        ExecutorService executor = MoreExecutors.newDirectExecutorService();
+        BlockConsumingInputStream stream = BlockConsumingInputStream.create(spiedGetter, 3, 1, 2, executor);
+
+        assertEquals('d', stream.read());
+        verify(spiedGetter, times(3)).get(anyLong(), eq(1L), any());
+
+        byte[] rest = new byte[8];
+        assertEquals(8, stream.read(rest));
+        assertArrayEquals("ivisible".getBytes(StandardCharsets.UTF_8), rest);
+        assertEquals(-1, stream.read());
+        verify(spiedGetter, times(3)).get(anyLong(), anyLong(), any());
+    }
+
+    @Test
+    public void readAheadIsRoundedUpToWholeBatches() throws IOException {
+        BlockGetter spiedGetter = Mockito.spy(threeByteConsumer);
+        ExecutorService executor = MoreExecutors.newDirectExecutorService();
+        BlockConsumingInputStream stream = BlockConsumingInputStream.create(spiedGetter, 3, 2, 1, executor);
+
+        stream.read();
+        verify(spiedGetter).get(eq(0L), eq(2L), any());
+        verify(spiedGetter).get(eq(2L), eq(1L), any());
+    }
+
+    @Test
+    public void fetchesBlocksAgainIfReadingAheadFails() throws IOException {
+        AtomicBoolean failed = new AtomicBoolean();
+        BlockGetter failingOnceGetter = new BlockGetter() {
+            @Override
+            public void get(long firstBlock, long numBlocks, OutputStream destination) {
+                if (firstBlock == 1 && failed.compareAndSet(false, true)) {
+                    throw new RuntimeException("failed to read block");
+                }
+                threeByteConsumer.get(firstBlock, numBlocks, destination);
+            }
+
+            @Override
+            public int expectedBlockLength() {
+                return threeByteConsumer.expectedBlockLength();
+            }
+        };
+        ExecutorService executor = MoreExecutors.newDirectExecutorService();
+        BlockConsumingInputStream stream = BlockConsumingInputStream.create(failingOnceGetter, 3, 1, 2, executor);
+
+        byte[] all = new byte[stored.length];
+        assertEquals(stored.length, stream.read(all));
+        assertArrayEquals(stored, all);
+        assertTrue(failed.get());
+    }
+
     private void expectNextBytesFromStream(BlockConsumingInputStream stream, String expectedOutput) throws IOException {
         byte[] chunk = new byte[2];
         int read = stream.read(chunk);
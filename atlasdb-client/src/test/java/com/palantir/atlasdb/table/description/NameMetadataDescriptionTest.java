@@ -164,4 +164,40 @@ public class NameMetadataDescriptionTest {
         assertThat(MULTIPART_NAME_METADATA_DESCRIPTION.parseFromJson(jumbledPrefix, true))
                 .containsExactly(SAMPLE_ROW_PREFIX);
     }
+
+    @Test
+    public void rowSplitPointsComeFromUniformPartitioner() {
+        NameMetadataDescription description = NameMetadataDescription.create(ImmutableList.of(
+                NameComponentDescription.of("id", ValueType.FIXED_LONG)));
+
+        assertThat(description.getRowSplitPoints(4))
+                .containsExactlyElementsOf(new UniformRowNamePartitioner(ValueType.FIXED_LONG).getPartitions(4));
+    }
+
+    @Test
+    public void rowSplitPointsComeFromExplicitPartitioner() {
+        NameMetadataDescription description = NameMetadataDescription.create(ImmutableList.of(
+                new NameComponentDescription.Builder()
+                        .componentName("name")
+                        .type(ValueType.STRING)
+                        .uniformRowNamePartitioner(null)
+                        .explicitRowNamePartitioner(new ExplicitRowNamePartitioner(
+                                ValueType.STRING, ImmutableList.of("apple", "banana")))
+                        .build()));
+
+        assertThat(description.getRowSplitPoints(16))
+                .containsExactly(PtBytes.toBytes("apple"), PtBytes.toBytes("banana"));
+    }
+
+    @Test
+    public void noRowSplitPointsWithoutPartitioners() {
+        NameMetadataDescription description = NameMetadataDescription.create(ImmutableList.of(
+                new NameComponentDescription.Builder()
+                        .componentName("name")
+                        .type(ValueType.STRING)
+                        .uniformRowNamePartitioner(null)
+                        .build()));
+
+        assertThat(description.getRowSplitPoints(16)).isEmpty();
+    }
 }
@@ -58,7 +58,7 @@ public abstract class NanoTime implements Comparable<NanoTime> {
         }
     }
 
-    private static long nanosBetween(NanoTime first, NanoTime second) {
+    public static long nanosBetween(NanoTime first, NanoTime second) {
         return second.time() - first.time();
     }
 
@@ -35,6 +35,7 @@ import com.palantir.atlasdb.memory.InMemoryAtlasDbConfig;
 import com.palantir.atlasdb.spi.KeyValueServiceConfig;
 import com.palantir.atlasdb.sweep.queue.config.TargetedSweepInstallConfig;
 import com.palantir.exception.NotInitializedException;
+import com.palantir.logsafe.SafeArg;
 import com.palantir.logsafe.exceptions.SafeIllegalStateException;
 
 @JsonDeserialize(as = ImmutableAtlasDbConfig.class)
@@ -271,12 +272,23 @@ public abstract class AtlasDbConfig {
      */
     public abstract Optional<TimestampCache> timestampCache();
 
+    /**
+     * If set, concurrent single-table reads against the key value service are coalesced into batched reads, with at
+     * most this many batched reads in flight at once. This trades a small amount of latency for reduced per-request
+     * overhead when many transactions concurrently read a few cells each.
+     */
+    public abstract Optional<Integer> kvsReadBatchingConcurrency();
+
     @Value.Check
     protected final void check() {
         checkLeaderAndTimelockBlocks();
         checkLockAndTimestampBlocks();
         checkNamespaceConfigAndGetNamespace();
         checkSweepConfigs();
+        kvsReadBatchingConcurrency().ifPresent(concurrency -> com.palantir.logsafe.Preconditions.checkArgument(
+                concurrency > 0,
+                "kvsReadBatchingConcurrency must be positive",
+                SafeArg.of("kvsReadBatchingConcurrency", concurrency)));
     }
 
     private void checkSweepConfigs() {
@@ -15,14 +15,27 @@
  */
 package com.palantir.atlasdb.keyvalue.dbkvs;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
 import org.apache.commons.lang3.StringUtils;
 import org.junit.After;
 import org.junit.ClassRule;
 import org.junit.Test;
 
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
 import com.palantir.atlasdb.AtlasDbConstants;
+import com.palantir.atlasdb.encoding.PtBytes;
+import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.atlasdb.keyvalue.api.KeyAlreadyExistsException;
 import com.palantir.atlasdb.keyvalue.api.Namespace;
 import com.palantir.atlasdb.keyvalue.api.TableReference;
+import com.palantir.atlasdb.keyvalue.api.Value;
 import com.palantir.atlasdb.keyvalue.dbkvs.impl.postgres.PostgresDdlTable;
 import com.palantir.atlasdb.keyvalue.impl.TestResourceManager;
 
@@ -34,6 +47,8 @@ public class DbkvsPostgresKeyValueServiceTest extends AbstractDbKvsKeyValueServi
     private static final String TEST_LONG_TABLE_NAME =
             "ThisShouldAlwaysBeAVeryLongTableNameThatExceedsPostgresLengthLimit";
     private static final int TWO_UNDERSCORES = 2;
+    private static final int LARGE_BATCH_SIZE = 2_500;
+    private static final long TIMESTAMP = 10L;
 
     public DbkvsPostgresKeyValueServiceTest() {
         super(TRM);
@@ -81,6 +96,60 @@ public class DbkvsPostgresKeyValueServiceTest extends AbstractDbKvsKeyValueServi
         createTwoTablesWithSamePrefix(TEST_LONG_TABLE_NAME);
     }
 
+    @Test
+    public void canReadBackLargeBatchWrittenWithCopy() {
+        Map<Cell, byte[]> batch = createLargeBatch();
+        keyValueService.put(TEST_TABLE, batch, TIMESTAMP);
+
+        Map<Cell, Value> read = keyValueService.get(TEST_TABLE, Maps.asMap(batch.keySet(), unused -> TIMESTAMP + 1));
+        assertThat(read).hasSize(LARGE_BATCH_SIZE);
+        batch.forEach((cell, value) -> {
+            assertThat(read.get(cell).getContents()).isEqualTo(value);
+            assertThat(read.get(cell).getTimestamp()).isEqualTo(TIMESTAMP);
+        });
+    }
+
+    @Test
+    public void canRewriteLargeBatchWithSameValues() {
+        Map<Cell, byte[]> batch = createLargeBatch();
+        keyValueService.put(TEST_TABLE, batch, TIMESTAMP);
+        keyValueService.put(TEST_TABLE, batch, TIMESTAMP);
+
+        assertThat(keyValueService.get(TEST_TABLE, Maps.asMap(batch.keySet(), unused -> TIMESTAMP + 1)))
+                .hasSize(LARGE_BATCH_SIZE);
+    }
+
+    @Test
+    public void largePutUnlessExistsWritesNothingIfAnyCellExists() {
+        Map<Cell, byte[]> batch = createLargeBatch();
+        Cell existingCell = batch.keySet().iterator().next();
+        keyValueService.putUnlessExists(TEST_TABLE, ImmutableMap.of(existingCell, PtBytes.toBytes("existing")));
+
+        assertThatThrownBy(() -> keyValueService.putUnlessExists(TEST_TABLE, batch))
+                .isInstanceOf(KeyAlreadyExistsException.class);
+        assertThat(keyValueService.get(TEST_TABLE, Maps.asMap(batch.keySet(), unused -> Long.MAX_VALUE)))
+                .containsOnlyKeys(existingCell);
+    }
+
+    @Test
+    public void canAddSentinelsForManyCellsRepeatedly() {
+        Map<Cell, byte[]> batch = createLargeBatch();
+        keyValueService.addGarbageCollectionSentinelValues(TEST_TABLE, batch.keySet());
+        keyValueService.addGarbageCollectionSentinelValues(TEST_TABLE, batch.keySet());
+
+        Map<Cell, Value> read = keyValueService.get(TEST_TABLE, Maps.asMap(batch.keySet(), unused -> 0L));
+        assertThat(read).hasSize(LARGE_BATCH_SIZE);
+        assertThat(read.values()).allMatch(value -> value.getTimestamp() == Value.INVALID_VALUE_TIMESTAMP);
+    }
+
+    private static Map<Cell, byte[]> createLargeBatch() {
+        return IntStream.range(0, LARGE_BATCH_SIZE)
+                .boxed()
+                .collect(Collectors.toMap(
+                        i -> Cell.create(PtBytes.toBytes("row" + i / 10), PtBytes.toBytes("col" + i % 10)),
+                        i -> PtBytes.toBytes("value" + i)));
+    }
+
     private void createTwoTablesWithSamePrefix(String tableNamePrefix) {
         TableReference longTableName1 = TableReference.create(TEST_NAMESPACE, tableNamePrefix + "1");
         TableReference longTableName2 = TableReference.create(TEST_NAMESPACE, tableNamePrefix + "2");
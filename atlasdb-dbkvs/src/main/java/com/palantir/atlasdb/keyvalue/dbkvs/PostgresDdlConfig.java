@@ -51,4 +51,13 @@ public abstract class PostgresDdlConfig extends DdlConfig {
     public HumanReadableDuration compactInterval() {
         return HumanReadableDuration.seconds(0);
     }
+
+    /**
+     * Batches of at least this many cells are written with COPY rather than a multi-row INSERT. Note that writes
+     * are split into batches of at most {@link #mutationBatchCount()} cells.
+     */
+    @Value.Default
+    public int copyWriteThreshold() {
+        return 256;
+    }
 }
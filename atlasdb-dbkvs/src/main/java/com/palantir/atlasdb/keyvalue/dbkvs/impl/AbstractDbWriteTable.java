@@ -73,7 +73,11 @@ public abstract class AbstractDbWriteTable implements DbWriteTable {
         put(args);
     }
 
-    private void put(List<Object[]> args) {
+    /**
+     * Inserts rows of (row name, column name, timestamp, value), throwing {@link KeyAlreadyExistsException} without
+     * inserting any of them if one already exists.
+     */
+    protected void put(List<Object[]> args) {
         try {
             String prefixedTableName = prefixedTableNames.get(tableRef, conns);
             conns.get().insertManyUnregisteredQuery("/* INSERT_ONE (" + prefixedTableName + ") */"
@@ -15,18 +15,170 @@
  */
 package com.palantir.atlasdb.keyvalue.dbkvs.impl.postgres;
 
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.List;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Ordering;
+import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.atlasdb.keyvalue.api.KeyAlreadyExistsException;
 import com.palantir.atlasdb.keyvalue.api.TableReference;
-import com.palantir.atlasdb.keyvalue.dbkvs.DdlConfig;
+import com.palantir.atlasdb.keyvalue.api.Value;
+import com.palantir.atlasdb.keyvalue.dbkvs.PostgresDdlConfig;
 import com.palantir.atlasdb.keyvalue.dbkvs.impl.AbstractDbWriteTable;
 import com.palantir.atlasdb.keyvalue.dbkvs.impl.ConnectionSupplier;
 import com.palantir.atlasdb.keyvalue.dbkvs.impl.PrefixedTableNames;
+import com.palantir.common.base.Throwables;
+import com.palantir.exception.PalantirSqlException;
+import com.palantir.nexus.db.sql.ExceptionCheck;
 
+/**
+ * Writes batches of cells as a single statement: small batches as a multi-row INSERT, and large ones by streaming
+ * them into the table with a binary COPY. Both are atomic, so a batch containing a cell that already exists fails
+ * as a whole, as batched inserts do.
+ */
 public class PostgresWriteTable extends AbstractDbWriteTable {
+    private static final int COLUMNS = 4;
+    // the extended query protocol limits the number of bind parameters of a statement to 2^15 - 1
+    private static final int MAX_ROWS_PER_INSERT = Short.MAX_VALUE / COLUMNS;
+    private static final int SENTINEL_BATCH_SIZE = 1000;
+    private static final int COPY_BUFFER_SIZE_BYTES = 64 * 1024;
+    private static final byte[] COPY_SIGNATURE = "PGCOPY\n\377\r\n\0".getBytes(StandardCharsets.ISO_8859_1);
+
+    private final PostgresDdlConfig postgresConfig;
+    private final PrefixedTableNames prefixedTableNames;
+
     public PostgresWriteTable(
-            DdlConfig config,
+            PostgresDdlConfig config,
             ConnectionSupplier conns,
             TableReference tableRef,
             PrefixedTableNames prefixedTableNames) {
         super(config, conns, tableRef, prefixedTableNames);
+        this.postgresConfig = config;
+        this.prefixedTableNames = prefixedTableNames;
+    }
+
+    @Override
+    protected void put(List<Object[]> args) {
+        if (args.size() <= 1) {
+            super.put(args);
+            return;
+        }
+        try {
+            String prefixedTableName = prefixedTableNames.get(tableRef, conns);
+            if (args.size() >= Math.min(postgresConfig.copyWriteThreshold(), MAX_ROWS_PER_INSERT)) {
+                copy(prefixedTableName, args);
+            } else {
+                conns.get().insertOneUnregisteredQuery(
+                        multiRowInsert("INSERT_MANY", prefixedTableName, args.size(), ""),
+                        flatten(args));
+            }
+        } catch (PalantirSqlException e) {
+            if (ExceptionCheck.isUniqueConstraintViolation(e)) {
+                throw new KeyAlreadyExistsException("primary key violation", e);
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public void putSentinels(Iterable<Cell> cells) {
+        byte[] value = new byte[0];
+        long ts = Value.INVALID_VALUE_TIMESTAMP;
+        String prefixedTableName = prefixedTableNames.get(tableRef, conns);
+        for (List<Cell> batch : Lists.partition(Ordering.natural().sortedCopy(cells), SENTINEL_BATCH_SIZE)) {
+            List<Object[]> args = Lists.newArrayListWithCapacity(batch.size());
+            for (Cell cell : batch) {
+                args.add(new Object[] {cell.getRowName(), cell.getColumnName(), ts, value});
+            }
+            conns.get().insertOneUnregisteredQuery(
+                    multiRowInsert("INSERT_MANY_IF_NOT_EXISTS", prefixedTableName, args.size(),
+                            " ON CONFLICT (row_name, col_name, ts) DO NOTHING"),
+                    flatten(args));
+        }
+    }
+
+    private static String multiRowInsert(String queryName, String prefixedTableName, int rows, String suffix) {
+        StringBuilder query = new StringBuilder(rows * 16 + 128);
+        query.append("/* ").append(queryName).append(" (").append(prefixedTableName).append(") */")
+                .append(" INSERT INTO ").append(prefixedTableName).append(" (row_name, col_name, ts, val) VALUES ");
+        for (int i = 0; i < rows; i++) {
+            query.append(i == 0 ? "(?, ?, ?, ?)" : ", (?, ?, ?, ?)");
+        }
+        return query.append(suffix).toString();
+    }
+
+    private static Object[] flatten(List<Object[]> args) {
+        Object[] flattened = new Object[args.size() * COLUMNS];
+        for (int i = 0; i < args.size(); i++) {
+            System.arraycopy(args.get(i), 0, flattened, i * COLUMNS, COLUMNS);
+        }
+        return flattened;
+    }
+
+    private void copy(String prefixedTableName, List<Object[]> args) {
+        String query = "COPY " + prefixedTableName + " (row_name, col_name, ts, val) FROM STDIN (FORMAT binary)";
+        PGCopyOutputStream copyStream = null;
+        try {
+            PGConnection connection = conns.get().getUnderlyingConnection().unwrap(PGConnection.class);
+            copyStream = new PGCopyOutputStream(connection, query, COPY_BUFFER_SIZE_BYTES);
+            DataOutputStream out = new DataOutputStream(copyStream);
+            writeBinaryCopy(out, args);
+            out.flush();
+            copyStream.endCopy();
+        } catch (SQLException e) {
+            throw PalantirSqlException.create(e);
+        } catch (IOException e) {
+            if (e.getCause() instanceof SQLException) {
+                throw PalantirSqlException.create((SQLException) e.getCause());
+            }
+            throw Throwables.rewrapAndThrowUncheckedException("Failed to copy rows into " + prefixedTableName, e);
+        } finally {
+            cancelIfActive(copyStream);
+        }
+    }
+
+    private static void cancelIfActive(PGCopyOutputStream copyStream) {
+        if (copyStream != null && copyStream.isActive()) {
+            try {
+                copyStream.cancelCopy();
+            } catch (SQLException e) {
+                // the copy has already failed, and that failure is being propagated
+            }
+        }
+    }
+
+    /**
+     * Writes rows in the binary COPY format: a header, then for each row the number of columns followed by each
+     * column as its length and bytes (with -1 for nulls), and finally a trailer of -1.
+     */
+    private static void writeBinaryCopy(DataOutputStream out, List<Object[]> args) throws IOException {
+        out.write(COPY_SIGNATURE);
+        out.writeInt(0); // flags
+        out.writeInt(0); // header extension length
+        for (Object[] row : args) {
+            out.writeShort(COLUMNS);
+            writeBytes(out, (byte[]) row[0]);
+            writeBytes(out, (byte[]) row[1]);
+            out.writeInt(Long.BYTES);
+            out.writeLong((Long) row[2]);
+            writeBytes(out, (byte[]) row[3]);
+        }
+        out.writeShort(-1);
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+        if (bytes == null) {
+            out.writeInt(-1);
+        } else {
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
     }
 }
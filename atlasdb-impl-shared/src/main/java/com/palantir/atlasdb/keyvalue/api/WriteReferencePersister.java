@@ -16,6 +16,7 @@
 package com.palantir.atlasdb.keyvalue.api;
 
 import java.io.IOException;
+import java.util.Set;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
@@ -86,6 +87,14 @@ public final class WriteReferencePersister {
         });
     }
 
+    /**
+     * Resolves the identifiers of all the given tables together, so that subsequently persisting references to
+     * cells in these tables does not require looking up each table individually.
+     */
+    public void loadTableIds(Set<TableReference> tables) {
+        tableIndices.getTableIds(tables);
+    }
+
     public StoredWriteReference persist(WriteReference writeReference) {
         byte[] tableId = EncodingUtils.encodeUnsignedVarLong(tableIndices.getTableId(writeReference.tableRef()));
         byte[] row = EncodingUtils.encodeSizedBytes(writeReference.cell().getRowName());
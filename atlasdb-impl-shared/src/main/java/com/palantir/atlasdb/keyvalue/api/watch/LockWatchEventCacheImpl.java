@@ -25,6 +25,10 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableSet;
@@ -49,12 +53,18 @@ import com.palantir.lock.watch.UnlockEvent;
 import com.palantir.logsafe.Preconditions;
 
 /**
- * This class should only be used through {@link ResilientLockWatchEventCache} as a proxy; failure to do so will result
- * in concurrency issues and inconsistency in the cache state.
+ * This class should only be used through {@link ResilientLockWatchEventCache} as a proxy, so that unexpected failures
+ * cause the cache to be replaced by the no-op fallback rather than leaving it in an inconsistent state.
+ *
+ * Updates from TimeLock are applied under an exclusive lock, as they must be applied to the event log and timestamp
+ * store in order. Queries, which make up the bulk of the calls on the transaction path, share a lock and so proceed in
+ * parallel; looking up the start version of a single transaction takes no lock at all. Removing a finished
+ * transaction only needs the shared lock, and trims the event log opportunistically if the exclusive lock is free.
  */
 public final class LockWatchEventCacheImpl implements LockWatchEventCache {
     private final LockWatchEventLog eventLog;
     private final TimestampStateStore timestampStateStore;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
 
     public static LockWatchEventCache create(MetricsManager metricsManager) {
         return ResilientLockWatchEventCache.newProxyInstance(
@@ -70,28 +80,68 @@ public final class LockWatchEventCacheImpl implements LockWatchEventCache {
 
     @Override
     public Optional<IdentifiedVersion> lastKnownVersion() {
-        return eventLog.getLatestKnownVersion();
+        return withLock(lock.readLock(), eventLog::getLatestKnownVersion);
     }
 
     @Override
     public void processStartTransactionsUpdate(
             Set<Long> startTimestamps,
             LockWatchStateUpdate update) {
-        Optional<IdentifiedVersion> updateVersion = processEventLogUpdate(update);
-        updateVersion.ifPresent(version -> timestampStateStore.putStartTimestamps(startTimestamps, version));
-        retentionEventsInLog();
+        withLock(lock.writeLock(), () -> {
+            Optional<IdentifiedVersion> updateVersion = processEventLogUpdate(update);
+            updateVersion.ifPresent(version -> timestampStateStore.putStartTimestamps(startTimestamps, version));
+            retentionEventsInLog();
+        });
     }
 
     @Override
     public void processGetCommitTimestampsUpdate(
             Collection<TransactionUpdate> transactionUpdates,
             LockWatchStateUpdate update) {
-        Optional<IdentifiedVersion> updateVersion = processEventLogUpdate(update);
-        updateVersion.ifPresent(version -> timestampStateStore.putCommitUpdates(transactionUpdates, version));
+        withLock(lock.writeLock(), () -> {
+            Optional<IdentifiedVersion> updateVersion = processEventLogUpdate(update);
+            updateVersion.ifPresent(version -> timestampStateStore.putCommitUpdates(transactionUpdates, version));
+        });
     }
 
     @Override
     public CommitUpdate getCommitUpdate(long startTs) {
+        return withLock(lock.readLock(), () -> getCommitUpdateUnderLock(startTs));
+    }
+
+    @Override
+    public TransactionsLockWatchUpdate getUpdateForTransactions(
+            Set<Long> startTimestamps,
+            Optional<IdentifiedVersion> lastKnownVersion) {
+        Preconditions.checkArgument(!startTimestamps.isEmpty(), "Cannot get events for empty set of transactions");
+        return withLock(lock.readLock(), () -> {
+            Map<Long, IdentifiedVersion> timestampToVersion = getTimestampMappings(startTimestamps);
+            IdentifiedVersion endVersion = Collections.max(timestampToVersion.values(),
+                    Comparator.comparingLong(IdentifiedVersion::version));
+            return eventLog.getEventsBetweenVersions(lastKnownVersion, endVersion).map(timestampToVersion);
+        });
+    }
+
+    @Override
+    public Optional<IdentifiedVersion> getStartTransactionVersion(long startTimestamp) {
+        return timestampStateStore.getStartVersion(startTimestamp);
+    }
+
+    @Override
+    public void removeTransactionStateFromCache(long startTimestamp) {
+        withLock(lock.readLock(), () -> timestampStateStore.remove(startTimestamp));
+        // Trimming the log is not needed for correctness, so skip it if updates are being applied; the next update
+        // will trim the log anyway.
+        if (lock.writeLock().tryLock()) {
+            try {
+                retentionEventsInLog();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    private CommitUpdate getCommitUpdateUnderLock(long startTs) {
         Optional<IdentifiedVersion> startVersion = timestampStateStore.getStartVersion(startTs);
         Optional<CommitInfo> maybeCommitInfo = timestampStateStore.getCommitInfo(startTs);
 
@@ -109,23 +159,6 @@ public final class LockWatchEventCacheImpl implements LockWatchEventCache {
         return createCommitUpdate(commitInfo, update.events());
     }
 
-    @Override
-    public TransactionsLockWatchUpdate getUpdateForTransactions(
-            Set<Long> startTimestamps,
-            Optional<IdentifiedVersion> lastKnownVersion) {
-        Preconditions.checkArgument(!startTimestamps.isEmpty(), "Cannot get events for empty set of transactions");
-        Map<Long, IdentifiedVersion> timestampToVersion = getTimestampMappings(startTimestamps);
-        IdentifiedVersion endVersion = Collections.max(timestampToVersion.values(),
-                Comparator.comparingLong(IdentifiedVersion::version));
-        return eventLog.getEventsBetweenVersions(lastKnownVersion, endVersion).map(timestampToVersion);
-    }
-
-    @Override
-    public void removeTransactionStateFromCache(long startTimestamp) {
-        timestampStateStore.remove(startTimestamp);
-        retentionEventsInLog();
-    }
-
     @VisibleForTesting
     Map<Long, IdentifiedVersion> getTimestampMappings(Set<Long> startTimestamps) {
         Map<Long, IdentifiedVersion> timestampToVersion = new HashMap<>();
@@ -146,12 +179,27 @@ public final class LockWatchEventCacheImpl implements LockWatchEventCache {
 
     @VisibleForTesting
     LockWatchEventCacheState getStateForTesting() {
-        return ImmutableLockWatchEventCacheState.builder()
+        return withLock(lock.writeLock(), () -> ImmutableLockWatchEventCacheState.builder()
                 .timestampStoreState(timestampStateStore.getStateForTesting())
                 .logState(eventLog.getStateForTesting())
-                .build();
+                .build());
     }
 
+    private static void withLock(Lock heldLock, Runnable task) {
+        withLock(heldLock, () -> {
+            task.run();
+            return null;
+        });
+    }
+
+    private static <T> T withLock(Lock heldLock, Supplier<T> task) {
+        heldLock.lock();
+        try {
+            return task.get();
+        } finally {
+            heldLock.unlock();
+        }
+    }
 
     private void assertTrue(boolean condition, String message) {
         if (!condition) {
@@ -27,6 +27,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.palantir.atlasdb.timelock.api.LockWatchRequest;
+import com.palantir.atlasdb.transaction.api.LockWatchingCache;
+import com.palantir.atlasdb.transaction.api.TransactionLockWatchingCacheView;
 import com.palantir.common.concurrent.PTExecutors;
 import com.palantir.lock.client.NamespacedConjureLockWatchingService;
 import com.palantir.lock.watch.CommitUpdate;
@@ -42,6 +44,7 @@ public final class LockWatchManagerImpl extends LockWatchManager implements Auto
 
     private final Set<LockWatchReferences.LockWatchReference> lockWatchReferences = ConcurrentHashMap.newKeySet();
     private final LockWatchEventCache lockWatchEventCache;
+    private final LockWatchingCache lockWatchingCache;
     private final NamespacedConjureLockWatchingService lockWatchingService;
     private final ScheduledExecutorService executorService = PTExecutors.newSingleThreadScheduledExecutor();
     private final ScheduledFuture<?> refreshTask;
@@ -49,11 +52,17 @@ public final class LockWatchManagerImpl extends LockWatchManager implements Auto
     public LockWatchManagerImpl(LockWatchEventCache lockWatchEventCache,
             NamespacedConjureLockWatchingService lockWatchingService) {
         this.lockWatchEventCache = lockWatchEventCache;
+        this.lockWatchingCache = LockWatchingCacheImpl.create(lockWatchEventCache);
         this.lockWatchingService = lockWatchingService;
         refreshTask = executorService.scheduleWithFixedDelay(this::registerWatchesWithTimelock, 0, 5,
                 TimeUnit.SECONDS);
     }
 
+    @Override
+    public TransactionLockWatchingCacheView getCacheView(long startTs) {
+        return lockWatchingCache.getView(startTs);
+    }
+
     CommitUpdate getCommitUpdate(long startTs) {
         return lockWatchEventCache.getCommitUpdate(startTs);
     }
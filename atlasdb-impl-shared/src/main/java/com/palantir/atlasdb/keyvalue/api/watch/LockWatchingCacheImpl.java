@@ -0,0 +1,378 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.keyvalue.api.watch;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.RangeSet;
+import com.google.common.collect.TreeRangeSet;
+import com.google.errorprone.annotations.concurrent.GuardedBy;
+import com.palantir.atlasdb.keyvalue.api.AtlasLockDescriptorUtils;
+import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.atlasdb.keyvalue.api.CellReference;
+import com.palantir.atlasdb.keyvalue.api.TableReference;
+import com.palantir.atlasdb.transaction.api.GuardedValue;
+import com.palantir.atlasdb.transaction.api.LockWatchingCache;
+import com.palantir.atlasdb.transaction.api.NoOpTransactionLockWatchingCacheView;
+import com.palantir.atlasdb.transaction.api.TransactionLockWatchFailedException;
+import com.palantir.atlasdb.transaction.api.TransactionLockWatchingCacheView;
+import com.palantir.lock.AtlasCellLockDescriptor;
+import com.palantir.lock.AtlasRowLockDescriptor;
+import com.palantir.lock.LockDescriptor;
+import com.palantir.lock.v2.LockToken;
+import com.palantir.lock.watch.IdentifiedVersion;
+import com.palantir.lock.watch.LockEvent;
+import com.palantir.lock.watch.LockWatchCreatedEvent;
+import com.palantir.lock.watch.LockWatchEvent;
+import com.palantir.lock.watch.LockWatchEventCache;
+import com.palantir.lock.watch.LockWatchReferences;
+import com.palantir.lock.watch.TransactionsLockWatchUpdate;
+import com.palantir.lock.watch.UnlockEvent;
+
+import okio.ByteString;
+
+/**
+ * A bounded, per-table cache of committed values for cells covered by lock watches.
+ *
+ * Every cached value is tagged with the lock watch version at which it was known to be the latest committed value,
+ * and with a guard timestamp (see {@link GuardedValue}). The cache consumes the lock watch events of the
+ * {@link LockWatchEventCache} in order, evicting cached values as soon as a lock on them is observed. Hence, a value
+ * that is still cached at version v, and was cached at a version no later than the version of a transaction which
+ * is itself at most v, must be the value that transaction would read from the key value service, provided the
+ * transaction started after the guard timestamp.
+ *
+ * Only cells for which both the cell and row lock descriptors are watched may be cached; it is the responsibility of
+ * callers to only use the cache for tables where writers lock cells or rows on commit.
+ */
+public final class LockWatchingCacheImpl implements LockWatchingCache {
+    @VisibleForTesting
+    static final long DEFAULT_MAX_CACHED_CELLS_PER_TABLE = 10_000;
+
+    private final LockWatchEventCache eventCache;
+    private final long maxCachedCellsPerTable;
+    private final Map<TableReference, TableCache> valuesByTable = new ConcurrentHashMap<>();
+    private final EventProcessor eventProcessor = new EventProcessor();
+
+    @GuardedBy("this")
+    private final RangeSet<LockDescriptor> watchedRanges = TreeRangeSet.create();
+    @GuardedBy("this")
+    private final Map<LockDescriptor, Optional<LockToken>> heldLocks = new HashMap<>();
+    @GuardedBy("this")
+    private Optional<IdentifiedVersion> currentVersion = Optional.empty();
+
+    public static LockWatchingCache create(LockWatchEventCache eventCache) {
+        return new LockWatchingCacheImpl(eventCache, DEFAULT_MAX_CACHED_CELLS_PER_TABLE);
+    }
+
+    @VisibleForTesting
+    LockWatchingCacheImpl(LockWatchEventCache eventCache, long maxCachedCellsPerTable) {
+        this.eventCache = eventCache;
+        this.maxCachedCellsPerTable = maxCachedCellsPerTable;
+    }
+
+    @Override
+    public Map<Cell, GuardedValue> getCached(TableReference tableRef, Set<Cell> reads) {
+        TableCache values = valuesByTable.get(tableRef);
+        if (values == null) {
+            return ImmutableMap.of();
+        }
+        Map<Cell, GuardedValue> result = new HashMap<>();
+        values.getAllPresent(reads).forEach((cell, cached) -> result.put(cell, cached.value()));
+        return result;
+    }
+
+    @Override
+    public TransactionLockWatchingCacheView getView(long startTimestamp) {
+        try {
+            return eventCache.getStartTransactionVersion(startTimestamp)
+                    .flatMap(version -> catchUpTo(startTimestamp, version))
+                    .<TransactionLockWatchingCacheView>map(version -> new View(startTimestamp, version))
+                    .orElse(NoOpTransactionLockWatchingCacheView.INSTANCE);
+        } catch (TransactionLockWatchFailedException e) {
+            // The event cache lost track of this transaction; it will simply not use the cache.
+            return NoOpTransactionLockWatchingCacheView.INSTANCE;
+        }
+    }
+
+    /**
+     * Processes all lock watch events up to the version of the given transaction, if they have not been processed
+     * already.
+     *
+     * @return the version of the transaction, if it belongs to the same lock watch log as the cache's current state
+     */
+    private synchronized Optional<IdentifiedVersion> catchUpTo(long startTimestamp, IdentifiedVersion version) {
+        if (currentVersion.isPresent()
+                && currentVersion.get().id().equals(version.id())
+                && currentVersion.get().version() >= version.version()) {
+            return Optional.of(version);
+        }
+
+        TransactionsLockWatchUpdate update =
+                eventCache.getUpdateForTransactions(ImmutableSet.of(startTimestamp), currentVersion);
+        if (update.clearCache()) {
+            clear();
+        }
+        update.events().forEach(event -> event.accept(eventProcessor));
+        currentVersion = Optional.of(version);
+        return currentVersion;
+    }
+
+    private synchronized boolean isCurrentVersion(IdentifiedVersion version) {
+        return currentVersion.map(version::equals).orElse(false);
+    }
+
+    private synchronized boolean isSameLog(IdentifiedVersion version) {
+        return currentVersion.map(current -> current.id().equals(version.id())).orElse(false);
+    }
+
+    private synchronized void clear() {
+        valuesByTable.clear();
+        watchedRanges.clear();
+        heldLocks.clear();
+    }
+
+    /**
+     * A lock descriptor may either be a row or a cell lock descriptor, so we evict both the candidate cells, and all
+     * cells of the candidate row.
+     */
+    @GuardedBy("this")
+    private void invalidate(Set<LockDescriptor> descriptors) {
+        for (LockDescriptor descriptor : descriptors) {
+            AtlasLockDescriptorUtils.tryParseTableRef(descriptor).ifPresent(tableRefAndRemainder -> {
+                TableCache values = valuesByTable.get(tableRefAndRemainder.tableRef());
+                if (values == null) {
+                    return;
+                }
+                AtlasLockDescriptorUtils.candidateCells(descriptor).stream()
+                        .map(CellReference::cell)
+                        .forEach(values::invalidate);
+                values.invalidateRow(tableRefAndRemainder.remainder());
+            });
+        }
+    }
+
+    private synchronized void tryCache(
+            TableReference tableRef,
+            Map<Cell, byte[]> values,
+            long guardTimestamp,
+            IdentifiedVersion version,
+            Optional<LockToken> ownLocks) {
+        for (Map.Entry<Cell, byte[]> entry : values.entrySet()) {
+            Cell cell = entry.getKey();
+            LockDescriptor cellDescriptor = AtlasCellLockDescriptor.of(
+                    tableRef.getQualifiedName(), cell.getRowName(), cell.getColumnName());
+            LockDescriptor rowDescriptor = AtlasRowLockDescriptor.of(tableRef.getQualifiedName(), cell.getRowName());
+            if (isWatched(cellDescriptor, rowDescriptor)
+                    && isNotLockedByOthers(cellDescriptor, ownLocks)
+                    && isNotLockedByOthers(rowDescriptor, ownLocks)) {
+                valuesByTable.computeIfAbsent(tableRef, unused -> createTableCache())
+                        .put(cell, CachedValue.of(entry.getValue(), guardTimestamp, version));
+            }
+        }
+    }
+
+    @GuardedBy("this")
+    private boolean isWatched(LockDescriptor cellDescriptor, LockDescriptor rowDescriptor) {
+        return watchedRanges.contains(cellDescriptor) && watchedRanges.contains(rowDescriptor);
+    }
+
+    @GuardedBy("this")
+    private boolean isNotLockedByOthers(LockDescriptor descriptor, Optional<LockToken> ownLocks) {
+        Optional<LockToken> holder = heldLocks.get(descriptor);
+        if (holder == null) {
+            return true;
+        }
+        return holder.isPresent() && ownLocks.isPresent()
+                && holder.get().getRequestId().equals(ownLocks.get().getRequestId());
+    }
+
+    private TableCache createTableCache() {
+        return new TableCache(maxCachedCellsPerTable);
+    }
+
+    /**
+     * Must only be used while holding the monitor of the enclosing cache.
+     */
+    private final class EventProcessor implements LockWatchEvent.Visitor<Void> {
+        @Override
+        public Void visit(LockEvent lockEvent) {
+            lockEvent.lockDescriptors().forEach(
+                    descriptor -> heldLocks.put(descriptor, Optional.of(lockEvent.lockToken())));
+            invalidate(lockEvent.lockDescriptors());
+            return null;
+        }
+
+        @Override
+        public Void visit(UnlockEvent unlockEvent) {
+            unlockEvent.lockDescriptors().forEach(heldLocks::remove);
+            return null;
+        }
+
+        @Override
+        public Void visit(LockWatchCreatedEvent lockWatchCreatedEvent) {
+            lockWatchCreatedEvent.references().forEach(reference ->
+                    watchedRanges.add(reference.accept(LockWatchReferences.TO_RANGES_VISITOR)));
+            lockWatchCreatedEvent.lockDescriptors().forEach(descriptor -> heldLocks.put(descriptor, Optional.empty()));
+            invalidate(lockWatchCreatedEvent.lockDescriptors());
+            return null;
+        }
+    }
+
+    private final class View implements TransactionLockWatchingCacheView {
+        private final long startTimestamp;
+        private final IdentifiedVersion version;
+
+        private View(long startTimestamp, IdentifiedVersion version) {
+            this.startTimestamp = startTimestamp;
+            this.version = version;
+        }
+
+        @Override
+        public Map<Cell, byte[]> readCached(TableReference tableRef, Set<Cell> cells) {
+            TableCache values = valuesByTable.get(tableRef);
+            if (values == null) {
+                return ImmutableMap.of();
+            }
+            Map<Cell, byte[]> result = new HashMap<>();
+            values.getAllPresent(cells).forEach((cell, cached) -> {
+                if (cached.isVisibleTo(startTimestamp, version)) {
+                    result.put(cell, cached.value().value());
+                }
+            });
+            return result;
+        }
+
+        @Override
+        public void tryCacheNewValuesRead(TableReference tableRef, Map<Cell, byte[]> reads) {
+            // Only values read at the latest processed version are safe to cache, as we otherwise cannot tell whether
+            // a lock was taken on the cell since the version of this transaction.
+            synchronized (LockWatchingCacheImpl.this) {
+                if (isCurrentVersion(version)) {
+                    tryCache(tableRef, reads, startTimestamp, version, Optional.empty());
+                }
+            }
+        }
+
+        @Override
+        public void tryCacheWrittenValues(TableReference tableRef, Map<Cell, byte[]> writes,
+                LockToken commitLocksToken, long commitTimestamp) {
+            // Our commit locks are still held, so nobody else can have locked these cells since we took them; if the
+            // lock event for our own locks has not yet been processed, processing it will evict these values, which
+            // is wasteful but safe.
+            synchronized (LockWatchingCacheImpl.this) {
+                if (isSameLog(version)) {
+                    tryCache(tableRef, writes, commitTimestamp, currentVersion.get(), Optional.of(commitLocksToken));
+                }
+            }
+        }
+    }
+
+    /**
+     * The cached values of a single table, indexed by row so that invalidating a row only touches the cells cached for
+     * that row. Values may be read concurrently, but must only be written while holding the monitor of the enclosing
+     * cache.
+     *
+     * The index may refer to cells that have since been evicted, but never misses a cached cell: cells are indexed
+     * before they are cached, and the index is only pruned while no cells are being cached.
+     */
+    private static final class TableCache {
+        private final Cache<Cell, CachedValue> values;
+        private final long maxIndexedCells;
+        private final Map<ByteString, Set<Cell>> cellsByRow = new HashMap<>();
+        private long indexedCells = 0;
+
+        private TableCache(long maximumSize) {
+            this.values = Caffeine.newBuilder()
+                    .maximumSize(maximumSize)
+                    .build();
+            this.maxIndexedCells = 2 * Math.max(maximumSize, 1);
+        }
+
+        private Map<Cell, CachedValue> getAllPresent(Set<Cell> cells) {
+            return values.getAllPresent(cells);
+        }
+
+        private void put(Cell cell, CachedValue value) {
+            if (cellsByRow.computeIfAbsent(ByteString.of(cell.getRowName()), unused -> new HashSet<>()).add(cell)) {
+                indexedCells++;
+            }
+            values.put(cell, value);
+            if (indexedCells > maxIndexedCells) {
+                pruneIndex();
+            }
+        }
+
+        private void invalidate(Cell cell) {
+            values.invalidate(cell);
+        }
+
+        private void invalidateRow(ByteString row) {
+            Set<Cell> cells = cellsByRow.remove(row);
+            if (cells != null) {
+                values.invalidateAll(cells);
+                indexedCells -= cells.size();
+            }
+        }
+
+        /**
+         * Drops evicted cells from the index, which otherwise grows without bound. Amortised over the puts since the
+         * last prune, this is constant work per put.
+         */
+        private void pruneIndex() {
+            cellsByRow.clear();
+            indexedCells = 0;
+            for (Cell cell : values.asMap().keySet()) {
+                cellsByRow.computeIfAbsent(ByteString.of(cell.getRowName()), unused -> new HashSet<>()).add(cell);
+                indexedCells++;
+            }
+        }
+    }
+
+    private static final class CachedValue {
+        private final GuardedValue value;
+        private final IdentifiedVersion version;
+
+        private CachedValue(GuardedValue value, IdentifiedVersion version) {
+            this.value = value;
+            this.version = version;
+        }
+
+        static CachedValue of(byte[] value, long guardTimestamp, IdentifiedVersion version) {
+            return new CachedValue(GuardedValue.of(value, guardTimestamp), version);
+        }
+
+        GuardedValue value() {
+            return value;
+        }
+
+        boolean isVisibleTo(long startTimestamp, IdentifiedVersion transactionVersion) {
+            return version.id().equals(transactionVersion.id())
+                    && version.version() <= transactionVersion.version()
+                    && value.guardTimestamp() < startTimestamp;
+        }
+    }
+}
@@ -24,7 +24,6 @@ import org.slf4j.LoggerFactory;
 
 import com.codahale.metrics.Counter;
 import com.google.common.reflect.AbstractInvocationHandler;
-import com.google.errorprone.annotations.concurrent.GuardedBy;
 import com.palantir.atlasdb.transaction.api.TransactionLockWatchFailedException;
 import com.palantir.atlasdb.util.MetricsManager;
 import com.palantir.lock.watch.LockWatchEventCache;
@@ -46,8 +45,7 @@ final class ResilientLockWatchEventCache extends AbstractInvocationHandler {
     private final LockWatchEventCache fallbackCache;
     private final Counter fallbackCacheSelectedCounter;
 
-    @GuardedBy("this")
-    private LockWatchEventCache delegate;
+    private volatile LockWatchEventCache delegate;
 
     private ResilientLockWatchEventCache(LockWatchEventCache defaultCache, LockWatchEventCache fallbackCache,
             MetricsManager metricsManager) {
@@ -58,17 +56,24 @@ final class ResilientLockWatchEventCache extends AbstractInvocationHandler {
     }
 
     @Override
-    protected synchronized Object handleInvocation(Object proxy, Method method, Object[] args) {
+    protected Object handleInvocation(Object proxy, Method method, Object[] args) {
         try {
             return method.invoke(delegate, args);
         } catch (TransactionLockWatchFailedException e) {
             throw e;
         } catch (Throwable t) {
-            log.warn("Unexpected failure occurred when trying to use the default cache. Switching to the fallback "
-                    + "implementation", t);
-            fallbackCacheSelectedCounter.inc();
-            delegate = fallbackCache;
+            switchToFallback(t);
             throw new TransactionLockWatchFailedException("Unexpected failure in the lock watch cache", t);
         }
     }
+
+    private synchronized void switchToFallback(Throwable cause) {
+        if (delegate == fallbackCache) {
+            return;
+        }
+        log.warn("Unexpected failure occurred when trying to use the default cache. Switching to the fallback "
+                + "implementation", cause);
+        fallbackCacheSelectedCounter.inc();
+        delegate = fallbackCache;
+    }
 }
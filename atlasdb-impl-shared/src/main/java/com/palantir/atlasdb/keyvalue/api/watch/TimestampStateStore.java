@@ -17,16 +17,18 @@
 package com.palantir.atlasdb.keyvalue.api.watch;
 
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.NavigableMap;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 
 import org.immutables.value.Value;
 
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import com.google.common.annotations.VisibleForTesting;
-import com.google.common.collect.Iterables;
 import com.google.common.collect.SortedSetMultimap;
 import com.google.common.collect.TreeMultimap;
 import com.palantir.atlasdb.transaction.api.TransactionLockWatchFailedException;
@@ -35,15 +37,22 @@ import com.palantir.lock.watch.IdentifiedVersion;
 import com.palantir.lock.watch.TransactionUpdate;
 import com.palantir.logsafe.Preconditions;
 
+/**
+ * Maps start timestamps to the versions at which their transactions started and committed.
+ *
+ * Reads and {@link #remove} may be called concurrently with each other. The other mutating methods may be called
+ * concurrently with reads, but not with each other or with {@link #remove}.
+ */
 final class TimestampStateStore {
-    private final Map<Long, MapEntry> timestampMap = new HashMap<>();
-    private final SortedSetMultimap<Long, Long> aliveVersions = TreeMultimap.create();
+    private final Map<Long, MapEntry> timestampMap = new ConcurrentHashMap<>();
+    private final NavigableMap<Long, Set<Long>> aliveVersions = new ConcurrentSkipListMap<>();
 
     void putStartTimestamps(Collection<Long> startTimestamps, IdentifiedVersion version) {
         startTimestamps.forEach(startTimestamp -> {
             MapEntry previous = timestampMap.putIfAbsent(startTimestamp, MapEntry.of(version));
             Preconditions.checkArgument(previous == null, "Start timestamp already present in map");
-            aliveVersions.put(version.version(), startTimestamp);
+            aliveVersions.computeIfAbsent(version.version(), unused -> ConcurrentHashMap.newKeySet())
+                    .add(startTimestamp);
         });
     }
 
@@ -65,7 +74,11 @@ final class TimestampStateStore {
 
     void remove(long startTimestamp) {
         Optional.ofNullable(timestampMap.remove(startTimestamp))
-                .ifPresent(entry -> aliveVersions.remove(entry.version().version(), startTimestamp));
+                .ifPresent(entry -> aliveVersions.computeIfPresent(entry.version().version(), (unused, timestamps) -> {
+                    // removals are idempotent, so this is safe even if the function is applied more than once
+                    timestamps.remove(startTimestamp);
+                    return timestamps.isEmpty() ? null : timestamps;
+                }));
     }
 
     void clear() {
@@ -74,7 +87,7 @@ final class TimestampStateStore {
     }
 
     Optional<Long> getEarliestVersion() {
-        return Optional.ofNullable(Iterables.getFirst(aliveVersions.keySet(), null));
+        return Optional.ofNullable(aliveVersions.firstEntry()).map(Map.Entry::getKey);
     }
 
     Optional<IdentifiedVersion> getStartVersion(long startTimestamp) {
@@ -87,9 +100,11 @@ final class TimestampStateStore {
 
     @VisibleForTesting
     TimestampStateStoreState getStateForTesting() {
+        SortedSetMultimap<Long, Long> aliveVersionsMultimap = TreeMultimap.create();
+        aliveVersions.forEach(aliveVersionsMultimap::putAll);
         return ImmutableTimestampStateStoreState.builder()
                 .timestampMap(timestampMap)
-                .aliveVersions(aliveVersions)
+                .aliveVersions(aliveVersionsMultimap)
                 .build();
     }
 
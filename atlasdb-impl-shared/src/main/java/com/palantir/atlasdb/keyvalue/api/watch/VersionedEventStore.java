@@ -69,6 +69,9 @@ final class VersionedEventStore {
     }
 
     private Collection<LockWatchEvent> getValuesBetweenInclusive(long endVersion, Long startVersion) {
+        if (startVersion > endVersion) {
+            return ImmutableList.of();
+        }
         return eventMap.subMap(startVersion, INCLUSIVE, endVersion, INCLUSIVE).values();
     }
 
@@ -471,4 +471,49 @@ public final class TableRemappingKeyValueService extends ForwardingObject implem
             throw new IllegalArgumentException(e);
         }
     }
+
+    @Override
+    public ListenableFuture<Map<Cell, Value>> getRowsAsync(
+            TableReference tableRef,
+            Iterable<byte[]> rows,
+            ColumnSelection columnSelection,
+            long timestamp) {
+        try {
+            return delegate().getRowsAsync(tableMapper.getMappedTableName(tableRef), rows, columnSelection, timestamp);
+        } catch (TableMappingNotFoundException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    @Override
+    public ListenableFuture<Map<Cell, Value>> getRowsColumnRangeAsync(
+            TableReference tableRef,
+            Iterable<byte[]> rows,
+            BatchColumnRangeSelection batchColumnRangeSelection,
+            long timestamp) {
+        try {
+            return delegate().getRowsColumnRangeAsync(
+                    tableMapper.getMappedTableName(tableRef),
+                    rows,
+                    batchColumnRangeSelection,
+                    timestamp);
+        } catch (TableMappingNotFoundException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    @Override
+    public ListenableFuture<TokenBackedBasicResultsPage<RowResult<Value>, byte[]>> getFirstBatchForRangeAsync(
+            TableReference tableRef,
+            RangeRequest rangeRequest,
+            long timestamp) {
+        try {
+            return delegate().getFirstBatchForRangeAsync(
+                    tableMapper.getMappedTableName(tableRef),
+                    rangeRequest,
+                    timestamp);
+        } catch (TableMappingNotFoundException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
 }
@@ -16,23 +16,25 @@
 package com.palantir.atlasdb.sweep;
 
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.TimeUnit;
+import java.util.Set;
 
-import com.github.benmanes.caffeine.cache.Caffeine;
-import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.palantir.atlasdb.cache.LongLongClockCache;
 import com.palantir.atlasdb.transaction.service.TransactionService;
 
 public final class CommitTsCache {
-    private static final Long ONE_MILLION = 1_000_000L;
-    private LoadingCache<Long, Long> cache;
+    private static final long ONE_MILLION = 1_000_000L;
+    private static final long NOT_CACHED = Long.MIN_VALUE;
+
+    private final LongLongClockCache cache;
+    private final AbortingCommitTsLoader loader;
 
     private CommitTsCache(TransactionService transactionService, long maxSize) {
-        cache = Caffeine.newBuilder()
-                .maximumSize(maxSize)
-                .expireAfterAccess(5, TimeUnit.MINUTES)
-                .build(new AbortingCommitTsLoader(transactionService));
+        cache = LongLongClockCache.create(maxSize);
+        loader = new AbortingCommitTsLoader(transactionService);
     }
 
     public static CommitTsCache create(TransactionService transactionService) {
@@ -40,11 +42,17 @@ public final class CommitTsCache {
     }
 
     public Optional<Long> loadIfCached(long startTs) {
-        return Optional.ofNullable(cache.getIfPresent(startTs));
+        long commitTs = cache.getOrDefault(startTs, NOT_CACHED);
+        return commitTs == NOT_CACHED ? Optional.empty() : Optional.of(commitTs);
     }
 
     public long load(long startTs) {
-        return cache.get(startTs);
+        long commitTs = cache.getOrDefault(startTs, NOT_CACHED);
+        if (commitTs == NOT_CACHED) {
+            commitTs = loader.load(startTs);
+            cache.put(startTs, commitTs);
+        }
+        return commitTs;
     }
 
     /**
@@ -52,6 +60,23 @@ public final class CommitTsCache {
      * does batched lookups for non-cached start timestamps.
      */
     public Map<Long, Long> loadBatch(Collection<Long> timestamps) {
-        return cache.getAll(timestamps);
+        Map<Long, Long> result = new HashMap<>();
+        Set<Long> nonCachedTimestamps = new LinkedHashSet<>();
+        for (Long startTs : timestamps) {
+            long commitTs = cache.getOrDefault(startTs, NOT_CACHED);
+            if (commitTs == NOT_CACHED) {
+                nonCachedTimestamps.add(startTs);
+            } else {
+                result.put(startTs, commitTs);
+            }
+        }
+
+        if (!nonCachedTimestamps.isEmpty()) {
+            loader.loadAll(nonCachedTimestamps).forEach((startTs, commitTs) -> {
+                cache.put(startTs, commitTs);
+                result.put(startTs, commitTs);
+            });
+        }
+        return result;
     }
 }
@@ -18,6 +18,7 @@ package com.palantir.atlasdb.sweep.metrics;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import java.util.function.Function;
@@ -28,8 +29,10 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.github.benmanes.caffeine.cache.Cache;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.palantir.atlasdb.AtlasDbMetricNames;
@@ -39,6 +42,7 @@ import com.palantir.atlasdb.sweep.queue.ShardAndStrategy;
 import com.palantir.atlasdb.sweep.queue.SweepQueueUtils;
 import com.palantir.atlasdb.table.description.SweepStrategy.SweeperStrategy;
 import com.palantir.atlasdb.util.AccumulatingValueMetric;
+import com.palantir.atlasdb.util.AtlasDbMetrics;
 import com.palantir.atlasdb.util.CurrentValueMetric;
 import com.palantir.atlasdb.util.MetricsManager;
 import com.palantir.atlasdb.util.SlidingWindowMeanGauge;
@@ -52,11 +56,13 @@ import com.palantir.tritium.metrics.registry.MetricName;
 import com.palantir.util.AggregatingVersionedMetric;
 import com.palantir.util.AggregatingVersionedSupplier;
 import com.palantir.util.CachedComposedSupplier;
+import com.palantir.util.VersionedType;
 
 @SuppressWarnings("checkstyle:FinalClass") // non-final for mocking
 public class TargetedSweepMetrics {
     private static final Logger log = LoggerFactory.getLogger(TargetedSweepMetrics.class);
     private static final long ONE_WEEK = TimeUnit.DAYS.toMillis(7L);
+    private final MetricsManager metricsManager;
     private final Map<SweeperStrategy, MetricsForStrategy> metricsForStrategyMap;
 
     private TargetedSweepMetrics(
@@ -64,6 +70,7 @@ public class TargetedSweepMetrics {
             Function<Long, Long> tsToMillis,
             Clock clock,
             MetricsConfiguration metricsConfiguration) {
+        this.metricsManager = metricsManager;
         metricsForStrategyMap = KeyedStream.of(metricsConfiguration.trackedSweeperStrategies())
                 .map(TargetedSweepMetrics::getTagForStrategy)
                 .map(strategyTag -> new MetricsForStrategy(
@@ -125,6 +132,23 @@ public class TargetedSweepMetrics {
                 shardStrategy, metrics -> metrics.updateProgressForShard(shardStrategy.shard(), lastSweptTs));
     }
 
+    /**
+     * Registers the standard cache metrics for a cache used by the sweep queue, named after this class and the given
+     * cache name.
+     */
+    public void registerCache(String cacheName, Cache<?, ?> cache) {
+        AtlasDbMetrics.registerCache(
+                metricsManager.getRegistry(), cache, MetricRegistry.name(TargetedSweepMetrics.class, cacheName));
+    }
+
+    /**
+     * Returns an estimate of how old the oldest last swept timestamp across all shards of the given strategy is, or
+     * empty if this is not yet known or metrics are not tracked for the strategy.
+     */
+    public Optional<Long> getMillisSinceLastSwept(SweeperStrategy strategy) {
+        return Optional.ofNullable(getMetrics(strategy)).flatMap(MetricsForStrategy::getMillisSinceLastSwept);
+    }
+
     public void registerOccurrenceOf(ShardAndStrategy shardStrategy, SweepOutcome outcome) {
         updateMetricsIfPresent(shardStrategy, metrics -> metrics.registerOccurrenceOf(outcome));
     }
@@ -162,7 +186,11 @@ public class TargetedSweepMetrics {
 
     private static final class MetricsForStrategy {
         private final Map<String, String> tag;
+        private final String strategy;
         private final MetricsManager manager;
+        private final Function<Long, Long> tsToMillis;
+        private final Clock wallClock;
+        private final long recomputeMillis;
         private final AccumulatingValueMetric enqueuedWrites;
         private final AccumulatingValueMetric entriesRead;
         private final AccumulatingValueMetric tombstonesPut;
@@ -172,31 +200,41 @@ public class TargetedSweepMetrics {
         private final Gauge<Long> millisSinceLastSwept;
         private final SweepOutcomeMetrics outcomeMetrics;
         private final SlidingWindowMeanGauge batchSizeMean;
+        private final Map<Integer, AggregatingVersionedSupplier<Long>> lastSweptTsByShard = new ConcurrentHashMap<>();
+        private final TargetedSweepMetricPublicationFilter filter;
 
         private MetricsForStrategy(MetricsManager manager, String strategy, Function<Long, Long> tsToMillis,
                 Clock wallClock, long recomputeMillis) {
             tag = ImmutableMap.of(AtlasDbMetricNames.TAG_STRATEGY, strategy);
+            this.strategy = strategy;
             this.manager = manager;
+            this.tsToMillis = tsToMillis;
+            this.wallClock = wallClock;
+            this.recomputeMillis = recomputeMillis;
             enqueuedWrites = new AccumulatingValueMetric();
             entriesRead = new AccumulatingValueMetric();
             tombstonesPut = new AccumulatingValueMetric();
             abortedWritesDeleted = new AccumulatingValueMetric();
             sweepTimestamp = new CurrentValueMetric<>();
             lastSweptTs = createLastSweptTsMetric(recomputeMillis);
-            millisSinceLastSwept = createMillisSinceLastSweptMetric(tsToMillis, wallClock, recomputeMillis);
+            millisSinceLastSwept = createMillisSinceLastSweptMetric(lastSweptTs::getVersionedValue);
             batchSizeMean = new SlidingWindowMeanGauge();
-            registerProgressMetrics(strategy);
+            filter = createPublicationFilter();
+            registerProgressMetrics();
             outcomeMetrics = SweepOutcomeMetrics.registerTargeted(manager, tag);
         }
 
-        private void registerProgressMetrics(String strategy) {
-            TargetedSweepMetricPublicationFilter filter = new TargetedSweepMetricPublicationFilter(
+        private TargetedSweepMetricPublicationFilter createPublicationFilter() {
+            return new TargetedSweepMetricPublicationFilter(
                     ImmutableDecisionMetrics.builder()
                             .enqueuedWrites(enqueuedWrites::getValue)
                             .entriesRead(entriesRead::getValue)
                             .millisSinceLastSweptTs(
                                     () -> Optional.ofNullable(millisSinceLastSwept.getValue()).orElse(0L))
                             .build());
+        }
+
+        private void registerProgressMetrics() {
             // This is kind of against the point of metrics-filter, but is needed for our filtering
             AtlasDbMetricNames.TARGETED_SWEEP_PROGRESS_METRIC_NAMES
                     .stream()
@@ -222,12 +260,11 @@ public class TargetedSweepMetrics {
             return new AggregatingVersionedMetric<>(lastSweptTimestamp);
         }
 
-        private Gauge<Long> createMillisSinceLastSweptMetric(
-                Function<Long, Long> tsToMillis, Clock wallClock, long millis) {
+        private Gauge<Long> createMillisSinceLastSweptMetric(Supplier<VersionedType<Long>> sweptTimestamp) {
             Supplier<Long> millisSinceLastSweptTs = new CachedComposedSupplier<>(
                     sweptTs -> estimateMillisSinceTs(sweptTs, wallClock, tsToMillis),
-                    lastSweptTs::getVersionedValue,
-                    millis,
+                    sweptTimestamp,
+                    recomputeMillis,
                     wallClock);
 
             return millisSinceLastSweptTs::get;
@@ -271,6 +308,27 @@ public class TargetedSweepMetrics {
 
         private void updateProgressForShard(int shard, long sweptTs) {
             lastSweptTs.update(shard, sweptTs);
+            lastSweptTsByShard.computeIfAbsent(shard, this::registerMillisSinceLastSweptForShard).update(0, sweptTs);
+        }
+
+        private AggregatingVersionedSupplier<Long> registerMillisSinceLastSweptForShard(int shard) {
+            AggregatingVersionedSupplier<Long> lastSweptTsForShard = AggregatingVersionedSupplier.min(recomputeMillis);
+            MetricName metricName = MetricName.builder()
+                    .safeName("targetedSweepProgress." + AtlasDbMetricNames.LAG_MILLIS_FOR_SHARD)
+                    .putSafeTags(AtlasDbMetricNames.TAG_STRATEGY, strategy)
+                    .putSafeTags(AtlasDbMetricNames.TAG_SHARD, Integer.toString(shard))
+                    .build();
+            manager.addMetricFilter(metricName, filter);
+            TargetedSweepProgressMetrics.of(manager.getTaggedRegistry())
+                    .millisSinceLastSweptTsForShard()
+                    .strategy(strategy)
+                    .shard(Integer.toString(shard))
+                    .build(createMillisSinceLastSweptMetric(lastSweptTsForShard));
+            return lastSweptTsForShard;
+        }
+
+        private Optional<Long> getMillisSinceLastSwept() {
+            return Optional.ofNullable(millisSinceLastSwept.getValue());
         }
 
         public void registerOccurrenceOf(SweepOutcome outcome) {
@@ -16,7 +16,11 @@
 package com.palantir.atlasdb.sweep.queue;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
 import java.util.function.IntSupplier;
 import java.util.function.Supplier;
 
@@ -24,6 +28,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.common.base.Suppliers;
+import com.palantir.atlasdb.futures.AtlasFutures;
 import com.palantir.atlasdb.keyvalue.api.KeyValueService;
 import com.palantir.atlasdb.schema.TargetedSweepSchema;
 import com.palantir.atlasdb.sweep.Sweeper;
@@ -124,17 +129,90 @@ public final class SweepQueue implements MultiTableSweepQueueWriter {
             return false;
         }
 
+        SweepBatchWithPartitionInfo batchWithInfo = readNextBatch(shardStrategy, lastSweptTs, sweepTs);
+        deleter.sweep(batchWithInfo.sweepBatch().writes(), Sweeper.of(shardStrategy));
+        return completeBatch(shardStrategy, lastSweptTs, batchWithInfo);
+    }
+
+    /**
+     * Sweeps consecutive batches for the shard and strategy specified by shardStrategy, with the sweep timestamp
+     * sweepTs, for as long as there is more to sweep and shouldContinue returns true. Each batch is read from the
+     * sweep queue on the readExecutor while the deletes for the previous batch are executed, so that the latency of
+     * reading the sweep queue is hidden behind the deletes. Cleaning up the sweep queue and updating progress for a
+     * batch only happens once the read of the next batch has completed, so this behaves exactly like successive calls
+     * to {@link #sweepNextBatch(ShardAndStrategy, long)}.
+     *
+     * @param shardStrategy shard and strategy to use
+     * @param sweepTs sweep timestamp, the upper limit to the start timestamp of writes to sweep
+     * @param shouldContinue checked before reading each subsequent batch
+     * @param readExecutor executor used to read the next batch from the sweep queue
+     */
+    public void sweepBatchesPipelined(
+            ShardAndStrategy shardStrategy,
+            long sweepTs,
+            BooleanSupplier shouldContinue,
+            ExecutorService readExecutor) {
+        metrics.updateSweepTimestamp(shardStrategy, sweepTs);
+        long lastSweptTs = progress.getLastSweptTimestamp(shardStrategy);
+
+        if (lastSweptTs + 1 >= sweepTs) {
+            return;
+        }
+
+        SweepBatchWithPartitionInfo batchWithInfo = readNextBatch(shardStrategy, lastSweptTs, sweepTs);
+        while (true) {
+            SweepBatch sweepBatch = batchWithInfo.sweepBatch();
+            long nextLastSweptTs = sweepBatch.lastSweptTimestamp();
+            Optional<Future<SweepBatchWithPartitionInfo>> nextBatch = Optional.empty();
+            if (lastSweptTs != nextLastSweptTs && sweepBatch.hasNext() && nextLastSweptTs + 1 < sweepTs
+                    && shouldContinue.getAsBoolean()) {
+                nextBatch = Optional.of(
+                        readExecutor.submit(() -> readNextBatch(shardStrategy, nextLastSweptTs, sweepTs)));
+            }
+
+            try {
+                deleter.sweep(sweepBatch.writes(), Sweeper.of(shardStrategy));
+            } catch (RuntimeException e) {
+                nextBatch.ifPresent(future -> future.cancel(true));
+                throw e;
+            }
+
+            if (!nextBatch.isPresent()) {
+                completeBatch(shardStrategy, lastSweptTs, batchWithInfo);
+                return;
+            }
+
+            SweepBatchWithPartitionInfo sweptBatchWithInfo = batchWithInfo;
+            try {
+                batchWithInfo = AtlasFutures.getUnchecked(nextBatch.get());
+            } finally {
+                // the deletes have succeeded, so progress must be recorded even if reading the next batch failed
+                completeBatch(shardStrategy, lastSweptTs, sweptBatchWithInfo);
+            }
+            lastSweptTs = nextLastSweptTs;
+        }
+    }
+
+    private SweepBatchWithPartitionInfo readNextBatch(ShardAndStrategy shardStrategy, long lastSweptTs, long sweepTs) {
         log.debug("Beginning iteration of targeted sweep for {}, and sweep timestamp {}. Last previously swept "
                         + "timestamp for this shard and strategy was {}.",
                 SafeArg.of("shardStrategy", shardStrategy.toText()),
                 SafeArg.of("sweepTs", sweepTs), SafeArg.of("lastSweptTs", lastSweptTs));
 
         SweepBatchWithPartitionInfo batchWithInfo = reader.getNextBatchToSweep(shardStrategy, lastSweptTs, sweepTs);
-        SweepBatch sweepBatch = batchWithInfo.sweepBatch();
-        metrics.registerEntriesReadInBatch(shardStrategy, sweepBatch.entriesRead());
-
-        deleter.sweep(sweepBatch.writes(), Sweeper.of(shardStrategy));
+        metrics.registerEntriesReadInBatch(shardStrategy, batchWithInfo.sweepBatch().entriesRead());
+        return batchWithInfo;
+    }
 
+    /**
+     * Removes the persisted information about the writes in a batch whose deletes have been executed, and updates
+     * progress and metrics accordingly.
+     *
+     * @return true if we should immediately process another batch for this shard and strategy
+     */
+    private boolean completeBatch(
+            ShardAndStrategy shardStrategy, long lastSweptTs, SweepBatchWithPartitionInfo batchWithInfo) {
+        SweepBatch sweepBatch = batchWithInfo.sweepBatch();
         if (!sweepBatch.isEmpty()) {
             log.debug("Put {} ranged tombstones and swept up to timestamp {} for {}.",
                     SafeArg.of("tombstones", sweepBatch.writes().size()),
@@ -79,7 +79,11 @@ public class SweepableCells extends SweepQueueTable {
             TransactionService transactionService) {
         super(kvs, TargetedSweepTableFactory.of().getSweepableCellsTable(null).getTableRef(), partitioner, metrics);
         this.commitTsCache = CommitTsCache.create(transactionService);
-        this.writeReferencePersister = new WriteReferencePersister(new SweepTableIndices(kvs));
+        SweepTableIndices tableIndices = new SweepTableIndices(kvs);
+        if (metrics != null) {
+            tableIndices.registerCacheMetrics(metrics);
+        }
+        this.writeReferencePersister = new WriteReferencePersister(tableIndices);
     }
 
     @Override
@@ -96,6 +100,7 @@ public class SweepableCells extends SweepQueueTable {
     Map<Cell, byte[]> populateCells(PartitionInfo partitionInfo, List<WriteInfo> writes) {
         Map<Cell, byte[]> cells = new HashMap<>();
         boolean dedicate = writes.size() > SweepQueueUtils.MAX_CELLS_GENERIC;
+        writeReferencePersister.loadTableIds(writes.stream().map(WriteInfo::tableRef).collect(Collectors.toSet()));
 
         long index = 0;
         for (WriteInfo write : writes) {
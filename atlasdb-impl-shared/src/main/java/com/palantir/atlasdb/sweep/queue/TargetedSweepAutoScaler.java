@@ -0,0 +1,119 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.sweep.queue;
+
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.palantir.atlasdb.sweep.queue.config.TargetedSweepRuntimeConfig;
+import com.palantir.atlasdb.table.description.SweepStrategy.SweeperStrategy;
+import com.palantir.common.time.Clock;
+import com.palantir.logsafe.Preconditions;
+import com.palantir.logsafe.SafeArg;
+
+/**
+ * Decides how many of the background threads of a sweep strategy should be actively sweeping, based on the backlog
+ * of targeted sweep as measured by the age of the oldest last swept timestamp. The number of active threads is
+ * doubled while the backlog exceeds {@link TargetedSweepRuntimeConfig#autoScalingBacklogThresholdMillis()}, and
+ * reduced by one once it falls below half of that, so that we react quickly to sweep falling behind without
+ * oscillating around the threshold. Decisions are reevaluated at most once every {@code reevaluationMillis}, as it
+ * takes a while for a change to be reflected in the backlog.
+ */
+final class TargetedSweepAutoScaler {
+    private static final Logger log = LoggerFactory.getLogger(TargetedSweepAutoScaler.class);
+
+    private final SweeperStrategy strategy;
+    private final int minimumThreads;
+    private final int maximumThreads;
+    private final Supplier<TargetedSweepRuntimeConfig> runtime;
+    private final Supplier<Optional<Long>> backlogMillis;
+    private final Clock clock;
+    private final long reevaluationMillis;
+
+    private volatile int activeThreads;
+    private volatile long nextEvaluationMillis;
+
+    TargetedSweepAutoScaler(
+            SweeperStrategy strategy,
+            int minimumThreads,
+            int maximumThreads,
+            Supplier<TargetedSweepRuntimeConfig> runtime,
+            Supplier<Optional<Long>> backlogMillis,
+            Clock clock,
+            long reevaluationMillis) {
+        Preconditions.checkArgument(minimumThreads <= maximumThreads,
+                "Minimum number of threads must not exceed the maximum",
+                SafeArg.of("minimumThreads", minimumThreads),
+                SafeArg.of("maximumThreads", maximumThreads));
+        this.strategy = strategy;
+        this.minimumThreads = minimumThreads;
+        this.maximumThreads = maximumThreads;
+        this.runtime = runtime;
+        this.backlogMillis = backlogMillis;
+        this.clock = clock;
+        this.reevaluationMillis = reevaluationMillis;
+        this.activeThreads = minimumThreads;
+        this.nextEvaluationMillis = clock.getTimeMillis() + reevaluationMillis;
+    }
+
+    /**
+     * Returns the number of threads that should currently be sweeping; this is always between the minimum and
+     * maximum number of threads, and equal to the minimum if auto scaling is disabled.
+     */
+    int getActiveThreads() {
+        if (!runtime.get().autoScale()) {
+            activeThreads = minimumThreads;
+            return minimumThreads;
+        }
+        if (clock.getTimeMillis() >= nextEvaluationMillis) {
+            reevaluate();
+        }
+        return activeThreads;
+    }
+
+    private synchronized void reevaluate() {
+        long now = clock.getTimeMillis();
+        if (now < nextEvaluationMillis) {
+            return;
+        }
+        nextEvaluationMillis = now + reevaluationMillis;
+
+        Optional<Long> backlog = backlogMillis.get();
+        if (!backlog.isPresent()) {
+            return;
+        }
+        long threshold = runtime.get().autoScalingBacklogThresholdMillis();
+        int previousThreads = activeThreads;
+        if (backlog.get() > threshold) {
+            activeThreads = Math.min(maximumThreads, Math.max(previousThreads + 1, 2 * previousThreads));
+        } else if (backlog.get() < threshold / 2) {
+            activeThreads = Math.max(minimumThreads, previousThreads - 1);
+        }
+
+        if (activeThreads != previousThreads) {
+            log.info("Changed the number of active targeted sweep threads for strategy {} from {} to {}, as the "
+                            + "backlog is {} ms.",
+                    SafeArg.of("sweepStrategy", strategy),
+                    SafeArg.of("previousThreads", previousThreads),
+                    SafeArg.of("activeThreads", activeThreads),
+                    SafeArg.of("backlogMillis", backlog.get()));
+        }
+    }
+}
@@ -18,7 +18,8 @@ package com.palantir.atlasdb.sweep.queue;
 import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
-import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Supplier;
@@ -29,7 +30,6 @@ import org.slf4j.LoggerFactory;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Stopwatch;
-import com.google.common.base.Suppliers;
 import com.google.common.collect.ImmutableList;
 import com.palantir.atlasdb.cleaner.Follower;
 import com.palantir.atlasdb.keyvalue.api.InsufficientConsistencyException;
@@ -49,6 +49,7 @@ import com.palantir.atlasdb.util.MetricsManager;
 import com.palantir.atlasdb.util.MetricsManagers;
 import com.palantir.common.concurrent.NamedThreadFactory;
 import com.palantir.common.concurrent.PTExecutors;
+import com.palantir.common.time.SystemClock;
 import com.palantir.exception.NotInitializedException;
 import com.palantir.lock.v2.TimelockService;
 import com.palantir.logsafe.Preconditions;
@@ -63,6 +64,8 @@ public class TargetedSweeper implements MultiTableSweepQueueWriter, BackgroundSw
     private final List<Follower> followers;
     private final MetricsManager metricsManager;
     private final TargetedSweepMetrics.MetricsConfiguration metricsConfiguration;
+    private final ExecutorService sweepQueueReadExecutor = PTExecutors.newCachedThreadPool(
+            new NamedThreadFactory("Targeted Sweep Queue Reader", true));
 
     private TargetedSweepMetrics metrics;
     private SweepQueue queue;
@@ -80,9 +83,9 @@ public class TargetedSweeper implements MultiTableSweepQueueWriter, BackgroundSw
         this.metricsManager = metricsManager;
         this.runtime = runtime;
         this.conservativeScheduler = new BackgroundSweepScheduler(install.conservativeThreads(),
-                SweeperStrategy.CONSERVATIVE);
+                install.maximumConservativeThreads(), SweeperStrategy.CONSERVATIVE);
         this.thoroughScheduler = new BackgroundSweepScheduler(install.thoroughThreads(),
-                SweeperStrategy.THOROUGH);
+                install.maximumThoroughThreads(), SweeperStrategy.THOROUGH);
         this.followers = followers;
         this.metricsConfiguration = install.metricsConfiguration();
     }
@@ -161,7 +164,7 @@ public class TargetedSweeper implements MultiTableSweepQueueWriter, BackgroundSw
                 metrics,
                 kvs,
                 timelockService,
-                Suppliers.compose(TargetedSweepRuntimeConfig::shards, runtime::get),
+                this::getNumberOfShardsToUse,
                 transaction,
                 follower,
                 () -> runtime.get().maximumPartitionsToBatchInSingleRead());
@@ -170,6 +173,22 @@ public class TargetedSweeper implements MultiTableSweepQueueWriter, BackgroundSw
         isInitialized = true;
     }
 
+    /**
+     * The configured number of shards, unless auto scaling is enabled and more threads are sweeping than there are
+     * shards; in that case we use as many shards as threads (within the configured limit), as a shard can only be
+     * swept by one thread at a time.
+     */
+    private int getNumberOfShardsToUse() {
+        TargetedSweepRuntimeConfig config = runtime.get();
+        if (!config.autoScale()) {
+            return config.shards();
+        }
+        int activeThreads = Math.max(
+                conservativeScheduler.autoScaler.getActiveThreads(),
+                thoroughScheduler.autoScaler.getActiveThreads());
+        return Math.max(config.shards(), Math.min(config.maximumAutoScaledShards(), activeThreads));
+    }
+
     @Override
     public void runInBackground() {
         assertInitialized();
@@ -201,12 +220,13 @@ public class TargetedSweeper implements MultiTableSweepQueueWriter, BackgroundSw
     void processShard(ShardAndStrategy shardAndStrategy) {
         long maxTsExclusive = Sweeper.of(shardAndStrategy).getSweepTimestamp(timestampsSupplier);
         if (runtime.get().batchShardIterations()) {
+            assertInitialized();
             Stopwatch watch = Stopwatch.createStarted();
-            boolean processNextBatch = true;
-            while (processNextBatch && runtime.get().enabled()
-                    && (watch.elapsed().compareTo(MAX_SHARD_DURATION) < 0)) {
-                processNextBatch = sweepNextBatch(shardAndStrategy, maxTsExclusive);
-            }
+            queue.sweepBatchesPipelined(
+                    shardAndStrategy,
+                    maxTsExclusive,
+                    () -> runtime.get().enabled() && (watch.elapsed().compareTo(MAX_SHARD_DURATION) < 0),
+                    sweepQueueReadExecutor);
         } else {
             sweepNextBatch(shardAndStrategy, maxTsExclusive);
         }
@@ -216,6 +236,7 @@ public class TargetedSweeper implements MultiTableSweepQueueWriter, BackgroundSw
     public void close() {
         conservativeScheduler.close();
         thoroughScheduler.close();
+        sweepQueueReadExecutor.shutdown();
     }
 
     @Override
@@ -230,30 +251,65 @@ public class TargetedSweeper implements MultiTableSweepQueueWriter, BackgroundSw
     }
 
     private class BackgroundSweepScheduler implements AutoCloseable {
-        private final int numThreads;
+        private final int minThreads;
+        private final int maxThreads;
         private final SweeperStrategy sweepStrategy;
+        private final TargetedSweepAutoScaler autoScaler;
         private final AtomicLong counter = new AtomicLong(0);
 
-        private ScheduledExecutorService executorService;
+        private ScheduledThreadPoolExecutor executorService;
+        private volatile int scheduledThreads = 0;
 
-        private BackgroundSweepScheduler(int numThreads, SweeperStrategy sweepStrategy) {
-            this.numThreads = numThreads;
+        private BackgroundSweepScheduler(int minThreads, int maxThreads, SweeperStrategy sweepStrategy) {
+            this.minThreads = minThreads;
+            this.maxThreads = maxThreads;
             this.sweepStrategy = sweepStrategy;
+            this.autoScaler = new TargetedSweepAutoScaler(
+                    sweepStrategy,
+                    minThreads,
+                    maxThreads,
+                    runtime,
+                    () -> isInitialized ? metrics.getMillisSinceLastSwept(sweepStrategy) : Optional.empty(),
+                    new SystemClock(),
+                    SweepQueueUtils.REFRESH_TIME);
         }
 
-        private void scheduleBackgroundThreads() {
+        /**
+         * Schedules the configured number of threads, or the maximum number if auto scaling is enabled. If auto
+         * scaling is only enabled later, the remaining threads are scheduled once the running threads notice.
+         */
+        private synchronized void scheduleBackgroundThreads() {
+            int numThreads = runtime.get().autoScale() ? maxThreads : minThreads;
             if (numThreads > 0 && executorService == null) {
                 executorService = PTExecutors
                         .newScheduledThreadPoolExecutor(numThreads, new NamedThreadFactory("Targeted Sweep", true));
-                for (int i = 0; i < numThreads; i++) {
-                    executorService.scheduleWithFixedDelay(this::runOneIteration, 1000,
-                            Math.max(runtime.get().pauseMillis(), 1L), TimeUnit.MILLISECONDS);
+                scheduleThreads(numThreads);
+            }
+        }
+
+        private void scheduleAutoScaledThreadsIfNeeded() {
+            if (scheduledThreads < maxThreads && runtime.get().autoScale()) {
+                synchronized (this) {
+                    if (!executorService.isShutdown()) {
+                        scheduleThreads(maxThreads);
+                    }
                 }
             }
         }
 
-        private void runOneIteration() {
-            if (!runtime.get().enabled()) {
+        private void scheduleThreads(int numThreads) {
+            executorService.setCorePoolSize(Math.max(numThreads, executorService.getCorePoolSize()));
+            for (int i = scheduledThreads; i < numThreads; i++) {
+                int threadIndex = i;
+                executorService.scheduleWithFixedDelay(() -> runOneIteration(threadIndex), 1000,
+                        Math.max(runtime.get().pauseMillis(), 1L), TimeUnit.MILLISECONDS);
+            }
+            scheduledThreads = Math.max(numThreads, scheduledThreads);
+        }
+
+        private void runOneIteration(int threadIndex) {
+            scheduleAutoScaledThreadsIfNeeded();
+            if (!runtime.get().enabled() || threadIndex >= autoScaler.getActiveThreads()) {
                 return;
             }
 
@@ -310,7 +366,7 @@ public class TargetedSweeper implements MultiTableSweepQueueWriter, BackgroundSw
         }
 
         @Override
-        public void close() {
+        public synchronized void close() {
             if (executorService != null) {
                 executorService.shutdown();
             }
@@ -75,6 +75,49 @@ public class TargetedSweepInstallConfig {
                 thoroughThreads());
     }
 
+    /**
+     * The maximum number of background threads that may run targeted sweep of tables with SweepStrategy CONSERVATIVE
+     * when {@link TargetedSweepRuntimeConfig#autoScale()} is enabled. Threads in excess of
+     * {@link #conservativeThreads()} are idle unless targeted sweep is falling behind.
+     */
+    @Value.Default
+    public int maximumConservativeThreads() {
+        return defaultMaximumThreads(conservativeThreads());
+    }
+
+    /**
+     * The maximum number of background threads that may run targeted sweep of tables with SweepStrategy THOROUGH
+     * when {@link TargetedSweepRuntimeConfig#autoScale()} is enabled.
+     */
+    @Value.Default
+    public int maximumThoroughThreads() {
+        return defaultMaximumThreads(thoroughThreads());
+    }
+
+    @Value.Check
+    void checkMaximumThreads() {
+        Preconditions.checkArgument(
+                maximumConservativeThreads() >= conservativeThreads()
+                        && maximumConservativeThreads() <= AtlasDbConstants.MAX_SWEEP_QUEUE_SHARDS,
+                "Maximum number of conservative targeted sweep threads must be between %s and %s inclusive, "
+                        + "but is %s instead.",
+                conservativeThreads(),
+                AtlasDbConstants.MAX_SWEEP_QUEUE_SHARDS,
+                maximumConservativeThreads());
+        Preconditions.checkArgument(
+                maximumThoroughThreads() >= thoroughThreads()
+                        && maximumThoroughThreads() <= AtlasDbConstants.MAX_SWEEP_QUEUE_SHARDS,
+                "Maximum number of thorough targeted sweep threads must be between %s and %s inclusive, "
+                        + "but is %s instead.",
+                thoroughThreads(),
+                AtlasDbConstants.MAX_SWEEP_QUEUE_SHARDS,
+                maximumThoroughThreads());
+    }
+
+    private static int defaultMaximumThreads(int threads) {
+        return Math.min(AtlasDbConstants.MAX_SWEEP_QUEUE_SHARDS, 4 * threads);
+    }
+
     /**
      * Specifies how metrics are tracked for this instance of Targeted Sweep.
      */
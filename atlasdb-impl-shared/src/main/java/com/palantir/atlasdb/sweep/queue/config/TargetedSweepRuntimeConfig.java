@@ -15,6 +15,8 @@
  */
 package com.palantir.atlasdb.sweep.queue.config;
 
+import java.util.concurrent.TimeUnit;
+
 import org.immutables.value.Value;
 
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
@@ -86,6 +88,40 @@ public abstract class TargetedSweepRuntimeConfig {
         return 500L;
     }
 
+    /**
+     * If true, the number of background threads actively sweeping each strategy is adjusted based on how far behind
+     * targeted sweep is, as measured by the age of the oldest last swept timestamp across shards. Threads are added
+     * while this exceeds {@link #autoScalingBacklogThresholdMillis()}, up to the maximum number of threads specified in
+     * the install config, and removed once it falls below half of the threshold. The number of shards is increased to
+     * be at least the number of active threads, up to {@link #maximumAutoScaledShards()}; as for {@link #shards()},
+     * the number of shards is never reduced again.
+     */
+    @Value.Default
+    public boolean autoScale() {
+        return false;
+    }
+
+    @Value.Default
+    public long autoScalingBacklogThresholdMillis() {
+        return TimeUnit.MINUTES.toMillis(30L);
+    }
+
+    @Value.Default
+    public int maximumAutoScaledShards() {
+        return 64;
+    }
+
+    @Value.Check
+    void checkAutoScaling() {
+        Preconditions.checkArgument(autoScalingBacklogThresholdMillis() > 0,
+                "Auto scaling backlog threshold must be positive, but found %s.", autoScalingBacklogThresholdMillis());
+        Preconditions.checkArgument(maximumAutoScaledShards() >= 1
+                        && maximumAutoScaledShards() <= AtlasDbConstants.MAX_SWEEP_QUEUE_SHARDS,
+                "Maximum auto scaled shards must be between 1 and %s inclusive, but it is %s.",
+                AtlasDbConstants.MAX_SWEEP_QUEUE_SHARDS,
+                maximumAutoScaledShards());
+    }
+
     public static TargetedSweepRuntimeConfig defaultTargetedSweepRuntimeConfig() {
         return ImmutableTargetedSweepRuntimeConfig.builder().build();
     }
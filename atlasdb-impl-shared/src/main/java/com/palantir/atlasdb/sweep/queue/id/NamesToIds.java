@@ -16,8 +16,12 @@
 package com.palantir.atlasdb.sweep.queue.id;
 
 import java.util.Collections;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
+import com.google.common.collect.Maps;
 import com.palantir.atlasdb.keyvalue.api.Cell;
 import com.palantir.atlasdb.keyvalue.api.CheckAndSetException;
 import com.palantir.atlasdb.keyvalue.api.CheckAndSetRequest;
@@ -27,6 +31,7 @@ import com.palantir.atlasdb.keyvalue.api.Value;
 import com.palantir.atlasdb.schema.generated.SweepNameToIdTable.SweepNameToIdNamedColumn;
 import com.palantir.atlasdb.schema.generated.SweepNameToIdTable.SweepNameToIdRow;
 import com.palantir.atlasdb.schema.generated.TargetedSweepTableFactory;
+import com.palantir.common.streams.KeyedStream;
 import com.palantir.logsafe.Preconditions;
 
 class NamesToIds {
@@ -85,10 +90,27 @@ class NamesToIds {
     }
 
     Optional<SweepTableIdentifier> currentMapping(TableReference table) {
-        SweepNameToIdRow row = SweepNameToIdRow.of(table.getQualifiedName());
-        Cell cell = Cell.create(row.persistToBytes(), SweepNameToIdNamedColumn.ID.getShortName());
+        Cell cell = cellFor(table);
         return Optional.ofNullable(kvs.get(NAME_TO_ID, Collections.singletonMap(cell, Long.MAX_VALUE)).get(cell))
                 .map(Value::getContents)
                 .map(SweepTableIdentifier.BYTES_HYDRATOR::hydrateFromBytes);
     }
+
+    /**
+     * Reads the current mappings of all the given tables in a single request; tables without a mapping are absent
+     * from the result.
+     */
+    Map<TableReference, SweepTableIdentifier> currentMappings(Set<TableReference> tables) {
+        Map<Cell, TableReference> tablesByCell = tables.stream().collect(Collectors.toMap(this::cellFor, t -> t));
+        Map<Cell, Value> values = kvs.get(NAME_TO_ID, Maps.asMap(tablesByCell.keySet(), unused -> Long.MAX_VALUE));
+        return KeyedStream.stream(values)
+                .map(value -> SweepTableIdentifier.BYTES_HYDRATOR.hydrateFromBytes(value.getContents()))
+                .mapKeys(tablesByCell::get)
+                .collectToMap();
+    }
+
+    private Cell cellFor(TableReference table) {
+        SweepNameToIdRow row = SweepNameToIdRow.of(table.getQualifiedName());
+        return Cell.create(row.persistToBytes(), SweepNameToIdNamedColumn.ID.getShortName());
+    }
 }
@@ -15,17 +15,23 @@
  */
 package com.palantir.atlasdb.sweep.queue.id;
 
+import java.util.HashMap;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.Set;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.github.benmanes.caffeine.cache.CacheLoader;
 import com.github.benmanes.caffeine.cache.Caffeine;
 import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.google.common.collect.ImmutableSet;
 import com.palantir.atlasdb.keyvalue.api.KeyValueService;
 import com.palantir.atlasdb.keyvalue.api.TableReference;
 import com.palantir.atlasdb.logging.LoggingArgs;
+import com.palantir.atlasdb.sweep.metrics.TargetedSweepMetrics;
 import com.palantir.logsafe.SafeArg;
 
 /**
@@ -56,8 +62,20 @@ public final class SweepTableIndices {
     SweepTableIndices(IdsToNames idsToNames, NamesToIds namesToIds) {
         this.idToNames = idsToNames;
         this.namesToIds = namesToIds;
-        this.tableIndices = Caffeine.newBuilder().maximumSize(20_000).build(this::loadUncached);
-        this.tableRefs = Caffeine.newBuilder().maximumSize(20_000).build(this::getTableReferenceUncached);
+        this.tableIndices = Caffeine.newBuilder().maximumSize(20_000).recordStats().build(
+                new CacheLoader<TableReference, Integer>() {
+                    @Override
+                    public Integer load(TableReference table) {
+                        return loadAndCacheReverseMapping(table);
+                    }
+
+                    @Override
+                    public Map<TableReference, Integer> loadAll(Iterable<? extends TableReference> tables) {
+                        return loadAllUncached(ImmutableSet.copyOf(tables));
+                    }
+                });
+        this.tableRefs = Caffeine.newBuilder().maximumSize(20_000).recordStats()
+                .build(this::getTableReferenceUncached);
     }
 
     public SweepTableIndices(KeyValueService kvs) {
@@ -68,15 +86,56 @@ public final class SweepTableIndices {
         return tableIndices.get(table);
     }
 
+    /**
+     * Returns the identifiers of all the given tables. The current mappings of tables that are not cached are read
+     * in a single batch, and only tables that do not have an identifier yet are assigned one individually.
+     */
+    public Map<TableReference, Integer> getTableIds(Set<TableReference> tables) {
+        return tableIndices.getAll(tables);
+    }
+
     public TableReference getTableReference(int tableId) {
         return tableRefs.get(tableId);
     }
 
+    /**
+     * Registers hit and miss metrics for the caches of identifiers and table references.
+     */
+    public void registerCacheMetrics(TargetedSweepMetrics metrics) {
+        metrics.registerCache("sweepTableIds", tableIndices);
+        metrics.registerCache("sweepTableReferences", tableRefs);
+    }
+
     private TableReference getTableReferenceUncached(int tableId) {
         return idToNames.get(tableId)
                 .orElseThrow(() -> new NoSuchElementException("Id " + tableId + " does not exist"));
     }
 
+    private Map<TableReference, Integer> loadAllUncached(Set<TableReference> tables) {
+        Map<TableReference, SweepTableIdentifier> mappings = namesToIds.currentMappings(tables);
+        Map<TableReference, Integer> ids = new HashMap<>();
+        for (TableReference table : tables) {
+            SweepTableIdentifier identifier = mappings.get(table);
+            if (identifier != null && !identifier.isPending()) {
+                ids.put(table, identifier.identifier());
+                tableRefs.put(identifier.identifier(), table);
+            } else {
+                ids.put(table, loadAndCacheReverseMapping(table));
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Once a table is identified its identifier never changes, so the reverse mapping can be cached as well, saving a
+     * lookup when the sweep queue is read.
+     */
+    private int loadAndCacheReverseMapping(TableReference table) {
+        int id = loadUncached(table);
+        tableRefs.put(id, table);
+        return id;
+    }
+
     private int loadUncached(TableReference table) {
         while (true) {
             Optional<SweepTableIdentifier> identifier = namesToIds.currentMapping(table);
@@ -52,6 +52,28 @@ public abstract class TransactionConfig {
         return false;
     }
 
+    /**
+     * If true, commit stages that the transaction protocol does not order relative to each other are run
+     * concurrently: conflict checking alongside writing to the sweep queue, and the serializable read-write conflict
+     * check alongside user pre-commit conditions. This reduces commit latency for write-heavy transactions, at the
+     * cost of a thread from a shared pool per commit.
+     */
+    @Value.Default
+    public boolean pipelineCommitStages() {
+        return false;
+    }
+
+    /**
+     * Serializable transactions record the values they read, to check at commit time that those values have not
+     * changed. Once a transaction has recorded this many bytes of values, it records a 128-bit fingerprint of each
+     * further value read instead of the value itself, and compares fingerprints at commit time. This bounds the memory
+     * used by transactions that read a lot of data, while small transactions still compare values exactly.
+     */
+    @Value.Default
+    public long serializableReadSetFingerprintThresholdBytes() {
+        return 16 * 1024 * 1024;
+    }
+
     /**
      * TODO(fdesouza): Remove this once PDS-95791 is resolved.
      * @deprecated Remove this once PDS-95791 is resolved.
@@ -47,4 +47,8 @@ final class DefaultTaskExecutors {
                 new NamedThreadFactory("atlas-delete-executor", true),
                 new ThreadPoolExecutor.AbortPolicy());
     }
+
+    static ExecutorService createDefaultCommitStageExecutor() {
+        return PTExecutors.newCachedThreadPool("atlas-commit-stage-executor");
+    }
 }
@@ -33,6 +33,8 @@ import java.util.concurrent.ConcurrentNavigableMap;
 import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
 import java.util.function.Supplier;
 
 import javax.annotation.Nullable;
@@ -56,6 +58,8 @@ import com.google.common.collect.Multimap;
 import com.google.common.collect.Multimaps;
 import com.google.common.collect.Ordering;
 import com.google.common.collect.Sets;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
 import com.google.common.primitives.UnsignedBytes;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
@@ -96,6 +100,7 @@ import com.palantir.common.base.BatchingVisitableView;
 import com.palantir.common.base.Throwables;
 import com.palantir.common.collect.IterableUtils;
 import com.palantir.common.collect.Maps2;
+import com.palantir.common.streams.MoreStreams;
 import com.palantir.lock.v2.LockToken;
 import com.palantir.lock.v2.TimelockService;
 import com.palantir.logsafe.Preconditions;
@@ -115,6 +120,8 @@ public class SerializableTransaction extends SnapshotTransaction {
     private static final Logger log = LoggerFactory.getLogger(SerializableTransaction.class);
 
     private static final int BATCH_SIZE = 1000;
+    private static final HashFunction FINGERPRINT_FUNCTION = Hashing.murmur3_128();
+    private static final int FINGERPRINT_LENGTH_BYTES = FINGERPRINT_FUNCTION.bits() / Byte.SIZE;
 
     final ConcurrentMap<TableReference, ConcurrentNavigableMap<Cell, byte[]>> readsByTable = Maps.newConcurrentMap();
     final ConcurrentMap<TableReference, ConcurrentMap<RangeRequest, byte[]>> rangeEndByTable = Maps.newConcurrentMap();
@@ -123,6 +130,10 @@ public class SerializableTransaction extends SnapshotTransaction {
     final ConcurrentMap<TableReference, Set<Cell>> cellsRead = Maps.newConcurrentMap();
     final ConcurrentMap<TableReference, Set<RowRead>> rowsRead = Maps.newConcurrentMap();
 
+    private final AtomicLong recordedValueBytes = new AtomicLong();
+    // Once set, values recorded in readsByTable may be fingerprints, and are compared as fingerprints at commit time.
+    private volatile boolean fingerprintingReads = false;
+
     public SerializableTransaction(MetricsManager metricsManager,
                                    KeyValueService keyValueService,
                                    TimelockService timelockService,
@@ -144,6 +155,7 @@ public class SerializableTransaction extends SnapshotTransaction {
                                    int defaultGetRangesConcurrency,
                                    MultiTableSweepQueueWriter sweepQueue,
                                    ExecutorService deleteExecutor,
+                                   @Nullable ExecutorService commitStageExecutor,
                                    boolean validateLocksOnReads,
                                    Supplier<TransactionConfig> transactionConfig,
                                    ConflictTracer conflictTracer) {
@@ -168,6 +180,7 @@ public class SerializableTransaction extends SnapshotTransaction {
               defaultGetRangesConcurrency,
               sweepQueue,
               deleteExecutor,
+              commitStageExecutor,
               validateLocksOnReads,
               transactionConfig,
               conflictTracer);
@@ -183,6 +196,38 @@ public class SerializableTransaction extends SnapshotTransaction {
         return ret;
     }
 
+    @Override
+    @Idempotent
+    public ListenableFuture<NavigableMap<byte[], RowResult<byte[]>>> getRowsAsync(
+            TableReference tableRef,
+            Iterable<byte[]> rows,
+            ColumnSelection columnSelection) {
+        return Futures.transform(super.getRowsAsync(tableRef, rows, columnSelection),
+                loadedRows -> {
+                    markRowsRead(tableRef, rows, columnSelection, loadedRows.values());
+                    return loadedRows;
+                },
+                MoreExecutors.directExecutor());
+    }
+
+    @Override
+    public ListenableFuture<Map<byte[], List<Entry<Cell, byte[]>>>> getRowsColumnRangeAsync(
+            TableReference tableRef,
+            Iterable<byte[]> rows,
+            BatchColumnRangeSelection columnRangeSelection) {
+        return Futures.transform(super.getRowsColumnRangeAsync(tableRef, rows, columnRangeSelection),
+                loadedRanges -> {
+                    loadedRanges.forEach((row, cells) -> {
+                        if (!cells.isEmpty()) {
+                            markRowColumnRangeRead(tableRef, row, columnRangeSelection, cells);
+                        }
+                        reachedEndOfColumnRange(tableRef, row, columnRangeSelection);
+                    });
+                    return loadedRanges;
+                },
+                MoreExecutors.directExecutor());
+    }
+
     @Override
     public Map<byte[], BatchingVisitable<Map.Entry<Cell, byte[]>>> getRowsColumnRange(
             TableReference tableRef,
@@ -402,7 +447,7 @@ public class SerializableTransaction extends SnapshotTransaction {
         if (!isSerializableTable(table)) {
             return;
         }
-        getReadsForTable(table).putAll(transformGetsForTesting(result));
+        recordReads(getReadsForTable(table), transformGetsForTesting(result));
         Set<Cell> cellsForTable = cellsRead.computeIfAbsent(table, unused -> ConcurrentHashMap.newKeySet());
         cellsForTable.addAll(searched);
     }
@@ -415,7 +460,7 @@ public class SerializableTransaction extends SnapshotTransaction {
         for (RowResult<byte[]> row : result) {
             Map<Cell, byte[]> map = Maps2.fromEntries(row.getCells());
             map = transformGetsForTesting(map);
-            reads.putAll(map);
+            recordReads(reads, map);
         }
         setRangeEnd(table, range, Iterables.getLast(result).getRowName());
     }
@@ -430,10 +475,49 @@ public class SerializableTransaction extends SnapshotTransaction {
         }
         ConcurrentNavigableMap<Cell, byte[]> reads = getReadsForTable(table);
         Map<Cell, byte[]> map = Maps2.fromEntries(result);
-        reads.putAll(transformGetsForTesting(map));
+        recordReads(reads, transformGetsForTesting(map));
         setColumnRangeEnd(table, row, range, Iterables.getLast(result).getKey().getColumnName());
     }
 
+    /**
+     * Records the given values as read. Values are kept in full until the values recorded by this transaction exceed
+     * {@link TransactionConfig#serializableReadSetFingerprintThresholdBytes()}; after that, only a fingerprint of each
+     * value is kept.
+     */
+    private void recordReads(ConcurrentNavigableMap<Cell, byte[]> reads, Map<Cell, byte[]> values) {
+        if (!fingerprintingReads) {
+            long valueBytes = 0;
+            for (byte[] value : values.values()) {
+                valueBytes += value.length;
+            }
+            long threshold = transactionConfig.get().serializableReadSetFingerprintThresholdBytes();
+            if (recordedValueBytes.addAndGet(valueBytes) <= threshold) {
+                reads.putAll(values);
+                return;
+            }
+            fingerprintingReads = true;
+        }
+        values.forEach((cell, value) -> reads.put(cell, fingerprint(value)));
+    }
+
+    /**
+     * Returns a 128-bit hash of values longer than that, and other values unchanged. This is idempotent, so values
+     * recorded in full and fingerprints can be compared against current values alike, by fingerprinting both sides.
+     */
+    private static byte[] fingerprint(byte[] value) {
+        if (value.length <= FINGERPRINT_LENGTH_BYTES) {
+            return value;
+        }
+        return FINGERPRINT_FUNCTION.hashBytes(value).asBytes();
+    }
+
+    /**
+     * Returns the form in which a value is compared with the recorded reads at commit time.
+     */
+    private byte[] comparableValue(byte[] value) {
+        return fingerprintingReads ? fingerprint(value) : value;
+    }
+
     private static class RowRead {
         final ImmutableList<byte[]> rows;
         final ColumnSelection cols;
@@ -455,7 +539,7 @@ public class SerializableTransaction extends SnapshotTransaction {
         ConcurrentNavigableMap<Cell, byte[]> reads = getReadsForTable(table);
         for (RowResult<byte[]> row : result) {
             Map<Cell, byte[]> map = Maps2.fromEntries(row.getCells());
-            reads.putAll(transformGetsForTesting(map));
+            recordReads(reads, transformGetsForTesting(map));
         }
 
         Set<RowRead> rowReads = rowsRead.computeIfAbsent(table, unused -> ConcurrentHashMap.newKeySet());
@@ -488,13 +572,41 @@ public class SerializableTransaction extends SnapshotTransaction {
     @Override
     protected void throwIfReadWriteConflictForSerializable(long commitTimestamp) {
         Transaction ro = getReadOnlyTransaction(commitTimestamp);
-        verifyRanges(ro);
-        verifyColumnRanges(ro);
-        verifyCells(ro);
-        verifyRows(ro);
+        // Cells are re-read asynchronously, so those reads are in flight while ranges and rows are re-read.
+        ListenableFuture<Optional<TableReference>> cellConflict = verifyCellsAsync(ro);
+        List<ReadValidation> validations = ImmutableList.<ReadValidation>builder()
+                .addAll(getRangeValidations(ro))
+                .addAll(getColumnRangeValidations(ro))
+                .addAll(getRowValidations(ro))
+                .build();
+        findConflict(validations).ifPresent(this::handleTransactionConflict);
+        AtlasFutures.getUnchecked(cellConflict).ifPresent(this::handleTransactionConflict);
+    }
+
+    /**
+     * Runs the given validations, concurrently on the getRanges executor if there are several of them, and returns
+     * a table whose reads have changed if any validation fails.
+     */
+    private Optional<TableReference> findConflict(List<ReadValidation> validations) {
+        if (validations.size() <= 1 || defaultGetRangesConcurrency <= 1) {
+            return validations.stream()
+                    .map(ReadValidation::findConflict)
+                    .filter(Optional::isPresent)
+                    .map(Optional::get)
+                    .findFirst();
+        }
+        return MoreStreams.blockingStreamWithParallelism(
+                validations.stream(),
+                ReadValidation::findConflict,
+                getRangesExecutor,
+                defaultGetRangesConcurrency)
+                .filter(Optional::isPresent)
+                .map(Optional::get)
+                .findFirst();
     }
 
-    private void verifyRows(Transaction ro) {
+    private List<ReadValidation> getRowValidations(Transaction ro) {
+        List<ReadValidation> validations = Lists.newArrayList();
         for (Map.Entry<TableReference, Set<RowRead>> tableAndRowsEntry : rowsRead.entrySet()) {
             TableReference table = tableAndRowsEntry.getKey();
             Set<RowRead> rows = tableAndRowsEntry.getValue();
@@ -507,65 +619,68 @@ public class SerializableTransaction extends SnapshotTransaction {
                 rowsReadByColumns.putAll(r.cols, r.rows);
             }
             for (ColumnSelection cols : rowsReadByColumns.keySet()) {
-                verifyColumns(ro, table, readsForTable, rowsReadByColumns, cols);
+                for (List<byte[]> batch : Iterables.partition(rowsReadByColumns.get(cols), BATCH_SIZE)) {
+                    validations.add(new ReadValidation(
+                            table,
+                            () -> areRowsUnchanged(ro, table, readsForTable, cols, batch)));
+                }
             }
-
         }
+        return validations;
     }
 
-    private void verifyColumns(
+    private boolean areRowsUnchanged(
             Transaction ro,
             TableReference table,
             ConcurrentNavigableMap<Cell, byte[]> readsForTable,
-            Multimap<ColumnSelection, byte[]> rowsReadByColumns,
-            ColumnSelection columns) {
-        for (List<byte[]> batch : Iterables.partition(rowsReadByColumns.get(columns), BATCH_SIZE)) {
-            SortedMap<byte[], RowResult<byte[]>> currentRows = ro.getRows(table, batch, columns);
-            for (byte[] row : batch) {
-                RowResult<byte[]> currentRow = currentRows.get(row);
-                Map<Cell, byte[]> originalReads = readsForTable
-                        .tailMap(Cells.createSmallestCellForRow(row), true)
-                        .headMap(Cells.createLargestCellForRow(row), true);
-
-                // We want to filter out all our reads to just the set that matches our column selection.
-                originalReads = Maps.filterKeys(originalReads, input -> columns.contains(input.getColumnName()));
-
-                if (writesByTable.get(table) != null) {
-                    // We don't want to verify any reads that we wrote to cause
-                    // we will just read our own values.
-                    // NB: We filter our write set out here because our normal SI
-                    // checking handles this case to ensure the value hasn't changed.
-                    originalReads = Maps.filterKeys(
-                            originalReads,
-                            Predicates.not(Predicates.in(writesByTable.get(table).keySet())));
-                }
+            ColumnSelection columns,
+            List<byte[]> batch) {
+        SortedMap<byte[], RowResult<byte[]>> currentRows = ro.getRows(table, batch, columns);
+        for (byte[] row : batch) {
+            RowResult<byte[]> currentRow = currentRows.get(row);
+            Map<Cell, byte[]> originalReads = readsForTable
+                    .tailMap(Cells.createSmallestCellForRow(row), true)
+                    .headMap(Cells.createLargestCellForRow(row), true);
+
+            // We want to filter out all our reads to just the set that matches our column selection.
+            originalReads = Maps.filterKeys(originalReads, input -> columns.contains(input.getColumnName()));
+
+            if (writesByTable.get(table) != null) {
+                // We don't want to verify any reads that we wrote to cause
+                // we will just read our own values.
+                // NB: We filter our write set out here because our normal SI
+                // checking handles this case to ensure the value hasn't changed.
+                originalReads = Maps.filterKeys(
+                        originalReads,
+                        Predicates.not(Predicates.in(writesByTable.get(table).keySet())));
+            }
 
-                if (currentRow == null && originalReads.isEmpty()) {
-                    continue;
-                }
+            if (currentRow == null && originalReads.isEmpty()) {
+                continue;
+            }
 
-                if (currentRow == null) {
-                    handleTransactionConflict(table);
-                }
+            if (currentRow == null) {
+                return false;
+            }
 
-                Map<Cell, byte[]> currentCells = Maps2.fromEntries(currentRow.getCells());
-                if (writesByTable.get(table) != null) {
-                    // We don't want to verify any reads that we wrote to cause
-                    // we will just read our own values.
-                    // NB: We filter our write set out here because our normal SI
-                    // checking handles this case to ensure the value hasn't changed.
-                    currentCells = Maps.filterKeys(
-                            currentCells,
-                            Predicates.not(Predicates.in(writesByTable.get(table).keySet())));
-                }
-                if (!areMapsEqual(originalReads, currentCells)) {
-                    handleTransactionConflict(table);
-                }
+            Map<Cell, byte[]> currentCells = Maps2.fromEntries(currentRow.getCells());
+            if (writesByTable.get(table) != null) {
+                // We don't want to verify any reads that we wrote to cause
+                // we will just read our own values.
+                // NB: We filter our write set out here because our normal SI
+                // checking handles this case to ensure the value hasn't changed.
+                currentCells = Maps.filterKeys(
+                        currentCells,
+                        Predicates.not(Predicates.in(writesByTable.get(table).keySet())));
+            }
+            if (!areMapsEqual(originalReads, currentCells)) {
+                return false;
             }
         }
+        return true;
     }
 
-    private static boolean areMapsEqual(Map<Cell, byte[]> map1, Map<Cell, byte[]> map2) {
+    private boolean areMapsEqual(Map<Cell, byte[]> map1, Map<Cell, byte[]> map2) {
         if (map1.size() != map2.size()) {
             return false;
         }
@@ -573,14 +688,22 @@ public class SerializableTransaction extends SnapshotTransaction {
             if (!map2.containsKey(e.getKey())) {
                 return false;
             }
-            if (UnsignedBytes.lexicographicalComparator().compare(e.getValue(), map2.get(e.getKey())) != 0) {
+            byte[] value1 = comparableValue(e.getValue());
+            byte[] value2 = comparableValue(map2.get(e.getKey()));
+            if (UnsignedBytes.lexicographicalComparator().compare(value1, value2) != 0) {
                 return false;
             }
         }
         return true;
     }
 
-    private void verifyCells(Transaction readOnlyTransaction) {
+    /**
+     * Re-reads all cells read by this transaction, across all tables, with asynchronous batched reads that are all
+     * issued up front. Each batch is compared as soon as it is loaded, so that the values read at commit time need
+     * not all be held in memory at once.
+     */
+    private ListenableFuture<Optional<TableReference>> verifyCellsAsync(Transaction readOnlyTransaction) {
+        List<ListenableFuture<Optional<TableReference>>> batchConflicts = Lists.newArrayList();
         for (Entry<TableReference, Set<Cell>> tableAndCellsEntry : cellsRead.entrySet()) {
             TableReference table = tableAndCellsEntry.getKey();
             Set<Cell> cells = tableAndCellsEntry.getValue();
@@ -593,19 +716,27 @@ public class SerializableTransaction extends SnapshotTransaction {
                         ? Iterables.filter(batch, Predicates.not(Predicates.in(writesByTable.get(table).keySet())))
                         : batch;
                 ImmutableSet<Cell> batchWithoutWritesSet = ImmutableSet.copyOf(batchWithoutWrites);
-                Map<Cell, byte[]> currentBatch = readOnlyTransaction.get(table, batchWithoutWritesSet);
-                ImmutableMap<Cell, byte[]> originalReads = Maps.toMap(
-                        Sets.intersection(batchWithoutWritesSet, readsForTable.keySet()),
-                        Functions.forMap(readsForTable));
-                if (!areMapsEqual(currentBatch, originalReads)) {
-                    handleTransactionConflict(table);
-                }
+                batchConflicts.add(Futures.transform(
+                        readOnlyTransaction.getAsync(table, batchWithoutWritesSet),
+                        currentBatch -> {
+                            ImmutableMap<Cell, byte[]> originalReads = Maps.toMap(
+                                    Sets.intersection(batchWithoutWritesSet, readsForTable.keySet()),
+                                    Functions.forMap(readsForTable));
+                            return areMapsEqual(currentBatch, originalReads)
+                                    ? Optional.<TableReference>empty()
+                                    : Optional.of(table);
+                        },
+                        MoreExecutors.directExecutor()));
             }
         }
+        return Futures.transform(
+                Futures.allAsList(batchConflicts),
+                conflicts -> conflicts.stream().filter(Optional::isPresent).map(Optional::get).findFirst(),
+                MoreExecutors.directExecutor());
     }
 
-    private void verifyRanges(Transaction readOnlyTransaction) {
-        // verify each set of reads to ensure they are the same.
+    private List<ReadValidation> getRangeValidations(Transaction readOnlyTransaction) {
+        List<ReadValidation> validations = Lists.newArrayList();
         for (Entry<TableReference, ConcurrentMap<RangeRequest, byte[]>> tableAndRange : rangeEndByTable.entrySet()) {
             TableReference table = tableAndRange.getKey();
             Map<RangeRequest, byte[]> rangeEnds = tableAndRange.getValue();
@@ -620,17 +751,24 @@ public class SerializableTransaction extends SnapshotTransaction {
                             .build();
                 }
 
-                ConcurrentNavigableMap<Cell, byte[]> writes = writesByTable.get(table);
-                BatchingVisitableView<RowResult<byte[]>> bv = BatchingVisitableView.of(
-                        readOnlyTransaction.getRange(table, range));
-                NavigableMap<Cell, ByteBuffer> readsInRange = Maps.transformValues(
-                        getReadsInRange(table, range),
-                        ByteBuffer::wrap);
-                if (!bv.transformBatch(input -> filterWritesFromRows(input, writes)).isEqual(readsInRange.entrySet())) {
-                    handleTransactionConflict(table);
-                }
+                RangeRequest rangeRead = range;
+                validations.add(new ReadValidation(
+                        table,
+                        () -> isRangeUnchanged(readOnlyTransaction, table, rangeRead)));
             }
         }
+        return validations;
+    }
+
+    private boolean isRangeUnchanged(Transaction readOnlyTransaction, TableReference table, RangeRequest range) {
+        // verify each set of reads to ensure they are the same.
+        ConcurrentNavigableMap<Cell, byte[]> writes = writesByTable.get(table);
+        BatchingVisitableView<RowResult<byte[]>> bv = BatchingVisitableView.of(
+                readOnlyTransaction.getRange(table, range));
+        NavigableMap<Cell, ByteBuffer> readsInRange = Maps.transformValues(
+                getReadsInRange(table, range),
+                value -> ByteBuffer.wrap(comparableValue(value)));
+        return bv.transformBatch(input -> filterWritesFromRows(input, writes)).isEqual(readsInRange.entrySet());
     }
 
     private NavigableMap<Cell, byte[]> getReadsInColumnRangeSkippingWrites(
@@ -657,8 +795,8 @@ public class SerializableTransaction extends SnapshotTransaction {
         return reads;
     }
 
-    private void verifyColumnRanges(Transaction readOnlyTransaction) {
-        // verify each set of reads to ensure they are the same.
+    private List<ReadValidation> getColumnRangeValidations(Transaction readOnlyTransaction) {
+        List<ReadValidation> validations = Lists.newArrayList();
         for (Entry<TableReference,
                 ConcurrentMap<ByteBuffer, ConcurrentMap<BatchColumnRangeSelection, byte[]>>> tableAndColumnRangeEnds :
                 columnRangeEndsByTable.entrySet()) {
@@ -680,24 +818,38 @@ public class SerializableTransaction extends SnapshotTransaction {
 
             TableReference table = tableAndColumnRangeEnds.getKey();
             rangesToRows.asMap().forEach((columnRange, rows) -> {
-                Map<byte[], BatchingVisitable<Map.Entry<Cell, byte[]>>> result =
-                        readOnlyTransaction.getRowsColumnRange(table, rows, columnRange);
-
-                for (Entry<byte[], BatchingVisitable<Map.Entry<Cell, byte[]>>> cellValuesForRow : result.entrySet()) {
-                    byte[] row = cellValuesForRow.getKey();
-                    BatchingVisitableView<Entry<Cell, byte[]>> visitable =
-                            BatchingVisitableView.of(cellValuesForRow.getValue());
-                    NavigableMap<Cell, ByteBuffer> readsInRange = Maps.transformValues(
-                            getReadsInColumnRangeSkippingWrites(table, row, columnRange),
-                            ByteBuffer::wrap);
-                    boolean isEqual = visitable.transformBatch(cellValues -> filterWritesFromCells(cellValues, table))
-                            .isEqual(readsInRange.entrySet());
-                    if (!isEqual) {
-                        handleTransactionConflict(table);
-                    }
-                }
+                List<byte[]> rowsInRange = ImmutableList.copyOf(rows);
+                validations.add(new ReadValidation(
+                        table,
+                        () -> areColumnRangesUnchanged(readOnlyTransaction, table, columnRange, rowsInRange)));
             });
         }
+        return validations;
+    }
+
+    private boolean areColumnRangesUnchanged(
+            Transaction readOnlyTransaction,
+            TableReference table,
+            BatchColumnRangeSelection columnRange,
+            List<byte[]> rows) {
+        // verify each set of reads to ensure they are the same.
+        Map<byte[], BatchingVisitable<Map.Entry<Cell, byte[]>>> result =
+                readOnlyTransaction.getRowsColumnRange(table, rows, columnRange);
+
+        for (Entry<byte[], BatchingVisitable<Map.Entry<Cell, byte[]>>> cellValuesForRow : result.entrySet()) {
+            byte[] row = cellValuesForRow.getKey();
+            BatchingVisitableView<Entry<Cell, byte[]>> visitable =
+                    BatchingVisitableView.of(cellValuesForRow.getValue());
+            NavigableMap<Cell, ByteBuffer> readsInRange = Maps.transformValues(
+                    getReadsInColumnRangeSkippingWrites(table, row, columnRange),
+                    value -> ByteBuffer.wrap(comparableValue(value)));
+            boolean isEqual = visitable.transformBatch(cellValues -> filterWritesFromCells(cellValues, table))
+                    .isEqual(readsInRange.entrySet());
+            if (!isEqual) {
+                return false;
+            }
+        }
+        return true;
     }
 
     private static BatchColumnRangeSelection nextLexicographicalRangeEnd(
@@ -719,7 +871,7 @@ public class SerializableTransaction extends SnapshotTransaction {
         return filterWritesFromCells(cells, writesByTable.get(table));
     }
 
-    private static List<Entry<Cell, ByteBuffer>> filterWritesFromCells(
+    private List<Entry<Cell, ByteBuffer>> filterWritesFromCells(
             Iterable<Entry<Cell, byte[]>> cells,
             @Nullable Map<Cell, byte[]> writes) {
         List<Entry<Cell, ByteBuffer>> cellsWithoutWrites = Lists.newArrayList();
@@ -727,13 +879,15 @@ public class SerializableTransaction extends SnapshotTransaction {
             // NB: We filter our write set out here because our normal SI
             // checking handles this case to ensure the value hasn't changed.
             if (writes == null || !writes.containsKey(cell.getKey())) {
-                cellsWithoutWrites.add(Maps.immutableEntry(cell.getKey(), ByteBuffer.wrap(cell.getValue())));
+                cellsWithoutWrites.add(Maps.immutableEntry(
+                        cell.getKey(),
+                        ByteBuffer.wrap(comparableValue(cell.getValue()))));
             }
         }
         return cellsWithoutWrites;
     }
 
-    private static List<Entry<Cell, ByteBuffer>> filterWritesFromRows(
+    private List<Entry<Cell, ByteBuffer>> filterWritesFromRows(
             Iterable<RowResult<byte[]>> rows,
             @Nullable Map<Cell, byte[]> writes) {
         List<Entry<Cell, ByteBuffer>> rowsWithoutWrites = Lists.newArrayList();
@@ -788,6 +942,7 @@ public class SerializableTransaction extends SnapshotTransaction {
                 defaultGetRangesConcurrency,
                 MultiTableSweepQueueWriter.NO_OP,
                 deleteExecutor,
+                null,
                 validateLocksOnReads,
                 transactionConfig,
                 conflictTracer) {
@@ -882,6 +1037,24 @@ public class SerializableTransaction extends SnapshotTransaction {
         };
     }
 
+    /**
+     * A check that some of the reads made by this transaction, all from the same table, would read the same values at
+     * the commit timestamp.
+     */
+    private static final class ReadValidation {
+        private final TableReference table;
+        private final BooleanSupplier readsUnchanged;
+
+        ReadValidation(TableReference table, BooleanSupplier readsUnchanged) {
+            this.table = table;
+            this.readsUnchanged = readsUnchanged;
+        }
+
+        Optional<TableReference> findConflict() {
+            return readsUnchanged.getAsBoolean() ? Optional.empty() : Optional.of(table);
+        }
+    }
+
     private void handleTransactionConflict(TableReference tableRef) {
         transactionOutcomeMetrics.markReadWriteConflict(tableRef);
         log.info("Serializable conflict", LoggingArgs.tableRef(tableRef));
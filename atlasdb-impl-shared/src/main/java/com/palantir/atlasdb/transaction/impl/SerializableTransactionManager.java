@@ -545,6 +545,7 @@ public class SerializableTransactionManager extends SnapshotTransactionManager {
                 defaultGetRangesConcurrency,
                 sweepQueueWriter,
                 deleteExecutor,
+                commitStageExecutor,
                 validateLocksOnReads,
                 transactionConfig,
                 conflictTracer);
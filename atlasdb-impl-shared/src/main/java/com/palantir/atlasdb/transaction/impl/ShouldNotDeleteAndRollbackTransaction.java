@@ -101,6 +101,7 @@ public class ShouldNotDeleteAndRollbackTransaction extends SnapshotTransaction {
                 defaultGetRangesConcurrency,
                 MultiTableSweepQueueWriter.NO_OP,
                 IGNORING_EXECUTOR,
+                null,
                 true,
                 transactionConfig,
                 ConflictTracer.NO_OP);
@@ -16,11 +16,13 @@
 package com.palantir.atlasdb.transaction.impl;
 
 import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.Deque;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
@@ -29,17 +31,20 @@ import java.util.NavigableMap;
 import java.util.Optional;
 import java.util.Set;
 import java.util.SortedMap;
+import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ConcurrentNavigableMap;
 import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BiFunction;
 import java.util.function.Supplier;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
@@ -58,6 +63,7 @@ import com.google.common.base.Functions;
 import com.google.common.base.MoreObjects;
 import com.google.common.base.Predicate;
 import com.google.common.base.Predicates;
+import com.google.common.base.Suppliers;
 import com.google.common.collect.AbstractIterator;
 import com.google.common.collect.Collections2;
 import com.google.common.collect.FluentIterable;
@@ -115,6 +121,7 @@ import com.palantir.atlasdb.transaction.api.ConstraintCheckable;
 import com.palantir.atlasdb.transaction.api.ConstraintCheckingTransaction;
 import com.palantir.atlasdb.transaction.api.GetRangesQuery;
 import com.palantir.atlasdb.transaction.api.ImmutableGetRangesQuery;
+import com.palantir.atlasdb.transaction.api.NoOpTransactionLockWatchingCacheView;
 import com.palantir.atlasdb.transaction.api.PreCommitCondition;
 import com.palantir.atlasdb.transaction.api.TransactionCommitFailedException;
 import com.palantir.atlasdb.transaction.api.TransactionConflictException;
@@ -123,7 +130,9 @@ import com.palantir.atlasdb.transaction.api.TransactionFailedException;
 import com.palantir.atlasdb.transaction.api.TransactionFailedRetriableException;
 import com.palantir.atlasdb.transaction.api.TransactionLockAcquisitionTimeoutException;
 import com.palantir.atlasdb.transaction.api.TransactionLockTimeoutException;
+import com.palantir.atlasdb.transaction.api.TransactionLockWatchingCacheView;
 import com.palantir.atlasdb.transaction.api.TransactionReadSentinelBehavior;
+import com.palantir.atlasdb.transaction.api.TransactionSerializableConflictException;
 import com.palantir.atlasdb.transaction.impl.metrics.TransactionOutcomeMetrics;
 import com.palantir.atlasdb.transaction.service.AsyncTransactionService;
 import com.palantir.atlasdb.transaction.service.TransactionService;
@@ -234,6 +243,8 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
     protected final int defaultGetRangesConcurrency;
     private final Set<TableReference> involvedTables = ConcurrentHashMap.newKeySet();
     protected final ExecutorService deleteExecutor;
+    @Nullable
+    protected final ExecutorService commitStageExecutor;
     private final Timer.Context transactionTimerContext;
     protected final TransactionOutcomeMetrics transactionOutcomeMetrics;
     protected final boolean validateLocksOnReads;
@@ -241,10 +252,15 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
 
     protected volatile boolean hasReads;
 
+    private final Supplier<TransactionLockWatchingCacheView> lockWatchingCacheView =
+            Suppliers.memoize(() -> lockWatchManager.getCacheView(getStartTimestamp()));
+
     /**
      * @param immutableTimestamp If we find a row written before the immutableTimestamp we don't need to
      *                           grab a read lock for it because we know that no writers exist.
      * @param preCommitCondition This check must pass for this transaction to commit.
+     * @param commitStageExecutor Runs the commit stages that may be pipelined; if null, the stages always run
+     *                            sequentially on the committing thread.
      */
     /* package */ SnapshotTransaction(
             MetricsManager metricsManager,
@@ -268,6 +284,7 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
             int defaultGetRangesConcurrency,
             MultiTableSweepQueueWriter sweepQueue,
             ExecutorService deleteExecutor,
+            @Nullable ExecutorService commitStageExecutor,
             boolean validateLocksOnReads,
             Supplier<TransactionConfig> transactionConfig,
             ConflictTracer conflictTracer) {
@@ -296,6 +313,7 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
         this.defaultGetRangesConcurrency = defaultGetRangesConcurrency;
         this.sweepQueue = sweepQueue;
         this.deleteExecutor = deleteExecutor;
+        this.commitStageExecutor = commitStageExecutor;
         this.hasReads = false;
         this.transactionOutcomeMetrics = TransactionOutcomeMetrics.create(metricsManager);
         this.validateLocksOnReads = validateLocksOnReads;
@@ -344,19 +362,26 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
         }
         hasReads = true;
         ImmutableSortedMap.Builder<Cell, byte[]> result = ImmutableSortedMap.naturalOrder();
-        Map<Cell, Value> rawResults = Maps.newHashMap(
-                keyValueService.getRows(tableRef, rows, columnSelection, getStartTimestamp()));
         NavigableMap<Cell, byte[]> writes = writesByTable.get(tableRef);
         if (writes != null) {
             for (byte[] row : rows) {
                 extractLocalWritesForRow(result, writes, row, columnSelection);
             }
         }
+        Map<Cell, byte[]> localWrites = result.build();
+
+        TransactionLockWatchingCacheView cacheView = getLockWatchingCacheView(tableRef);
+        List<byte[]> uncachedRows = readCachedRows(cacheView, tableRef, rows, columnSelection, localWrites, result);
+        Map<Cell, Value> rawResults = uncachedRows.isEmpty()
+                ? Maps.newHashMap()
+                : Maps.newHashMap(keyValueService.getRows(tableRef, uncachedRows, columnSelection,
+                        getStartTimestamp()));
 
         // We don't need to do work postFiltering if we have a write locally.
-        rawResults.keySet().removeAll(result.build().keySet());
+        rawResults.keySet().removeAll(localWrites.keySet());
 
         NavigableMap<byte[], RowResult<byte[]>> results = filterRowResults(tableRef, rawResults, result);
+        tryCacheRowsRead(cacheView, tableRef, uncachedRows, columnSelection, localWrites, results);
         long getRowsMillis = TimeUnit.NANOSECONDS.toMillis(timer.stop());
         if (perfLogger.isDebugEnabled()) {
             perfLogger.debug("getRows({}, {} rows) found {} rows, took {} ms",
@@ -366,6 +391,68 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
         return results;
     }
 
+    @Override
+    public ListenableFuture<NavigableMap<byte[], RowResult<byte[]>>> getRowsAsync(
+            TableReference tableRef,
+            Iterable<byte[]> rows,
+            ColumnSelection columnSelection) {
+        Timer.Context timer = getTimer("getRowsAsync").time();
+        checkGetPreconditions(tableRef);
+        List<byte[]> stableRows = ImmutableList.copyOf(rows);
+        if (stableRows.isEmpty()) {
+            return Futures.immediateFuture(AbstractTransaction.EMPTY_SORTED_ROWS);
+        }
+        hasReads = true;
+        ImmutableSortedMap.Builder<Cell, byte[]> result = ImmutableSortedMap.naturalOrder();
+        NavigableMap<Cell, byte[]> writes = writesByTable.get(tableRef);
+        if (writes != null) {
+            for (byte[] row : stableRows) {
+                extractLocalWritesForRow(result, writes, row, columnSelection);
+            }
+        }
+        Map<Cell, byte[]> localWrites = result.build();
+
+        TransactionLockWatchingCacheView cacheView = getLockWatchingCacheView(tableRef);
+        List<byte[]> uncachedRows = readCachedRows(
+                cacheView, tableRef, stableRows, columnSelection, localWrites, result);
+        Map<Cell, byte[]> localResults = result.build();
+        ListenableFuture<Map<Cell, Value>> rawResultsFuture = uncachedRows.isEmpty()
+                ? Futures.immediateFuture(ImmutableMap.of())
+                : keyValueService.getRowsAsync(tableRef, uncachedRows, columnSelection, getStartTimestamp());
+
+        ListenableFuture<Collection<Map.Entry<Cell, byte[]>>> postFilteredResults = Futures.transformAsync(
+                rawResultsFuture,
+                rawResults -> {
+                    // We don't need to do work postFiltering if we have a write locally.
+                    Map<Cell, Value> remoteResults = Maps.newHashMap(rawResults);
+                    remoteResults.keySet().removeAll(localWrites.keySet());
+                    return getWithPostFilteringAsync(
+                            tableRef,
+                            remoteResults,
+                            Value.GET_VALUE,
+                            keyValueService,
+                            defaultTransactionService);
+                },
+                MoreExecutors.directExecutor());
+
+        return Futures.transform(postFilteredResults, fromKeyValueService -> {
+            Map<Cell, byte[]> collected = ImmutableMap.<Cell, byte[]>builder()
+                    .putAll(localResults)
+                    .putAll(fromKeyValueService)
+                    .build();
+            NavigableMap<byte[], RowResult<byte[]>> results =
+                    RowResults.viewOfSortedMap(Cells.breakCellsUpByRow(removeEmptyColumns(collected, tableRef)));
+            tryCacheRowsRead(cacheView, tableRef, uncachedRows, columnSelection, localWrites, results);
+            long getRowsMillis = TimeUnit.NANOSECONDS.toMillis(timer.stop());
+            if (perfLogger.isDebugEnabled()) {
+                perfLogger.debug("getRowsAsync({}, {} rows) found {} rows, took {} ms",
+                        tableRef, stableRows.size(), results.size(), getRowsMillis);
+            }
+            validatePreCommitRequirementsOnReadIfNecessary(tableRef, getStartTimestamp());
+            return results;
+        }, MoreExecutors.directExecutor());
+    }
+
     @Override
     public Map<byte[], BatchingVisitable<Map.Entry<Cell, byte[]>>> getRowsColumnRange(
             TableReference tableRef,
@@ -424,6 +511,53 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
         return postFilteredResults.build();
     }
 
+    @Override
+    public ListenableFuture<Map<byte[], List<Map.Entry<Cell, byte[]>>>> getRowsColumnRangeAsync(
+            TableReference tableRef,
+            Iterable<byte[]> rows,
+            BatchColumnRangeSelection columnRangeSelection) {
+        checkGetPreconditions(tableRef);
+        if (Iterables.isEmpty(rows)) {
+            return Futures.immediateFuture(ImmutableMap.of());
+        }
+        Iterable<byte[]> stableRows = ImmutableList.copyOf(rows);
+        hasReads = true;
+
+        ListenableFuture<Collection<Map.Entry<Cell, byte[]>>> postFilteredResults = Futures.transformAsync(
+                keyValueService.getRowsColumnRangeAsync(
+                        tableRef,
+                        stableRows,
+                        columnRangeSelection,
+                        getStartTimestamp()),
+                rawResults -> getWithPostFilteringAsync(
+                        tableRef,
+                        rawResults,
+                        Value.GET_VALUE,
+                        keyValueService,
+                        defaultTransactionService),
+                MoreExecutors.directExecutor());
+
+        return Futures.transform(postFilteredResults, fromKeyValueService -> {
+            Map<byte[], SortedMap<Cell, byte[]>> cellsByRow = new TreeMap<>(PtBytes.BYTES_COMPARATOR);
+            for (byte[] row : stableRows) {
+                cellsByRow.put(row, new TreeMap<>());
+            }
+            for (Map.Entry<Cell, byte[]> entry : fromKeyValueService) {
+                cellsByRow.computeIfAbsent(entry.getKey().getRowName(), unused -> new TreeMap<>())
+                        .put(entry.getKey(), entry.getValue());
+            }
+
+            ImmutableSortedMap.Builder<byte[], List<Map.Entry<Cell, byte[]>>> results =
+                    ImmutableSortedMap.orderedBy(PtBytes.BYTES_COMPARATOR);
+            cellsByRow.forEach((row, cells) -> {
+                cells.putAll(getLocalWritesForColumnRange(tableRef, columnRangeSelection, row));
+                results.put(row, ImmutableList.copyOf(removeEmptyColumns(cells, tableRef).entrySet()));
+            });
+            validatePreCommitRequirementsOnReadIfNecessary(tableRef, getStartTimestamp());
+            return results.build();
+        }, MoreExecutors.directExecutor());
+    }
+
     private Iterator<Map.Entry<Cell, byte[]>> getPostFilteredColumns(
             TableReference tableRef,
             BatchColumnRangeSelection batchColumnRangeSelection,
@@ -760,7 +894,14 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
             Set<Cell> cells,
             AsyncKeyValueService asyncKeyValueService,
             AsyncTransactionService asyncTransactionService) {
-        Map<Cell, Long> toRead = Cells.constantValueMap(cells, getStartTimestamp());
+        TransactionLockWatchingCacheView cacheView = getLockWatchingCacheView(tableRef);
+        Map<Cell, byte[]> cachedResults = cacheView.readCached(tableRef, cells);
+        Set<Cell> uncachedCells = Sets.difference(cells, cachedResults.keySet());
+        if (uncachedCells.isEmpty()) {
+            return Futures.immediateFuture(cachedResults);
+        }
+
+        Map<Cell, Long> toRead = Cells.constantValueMap(uncachedCells, getStartTimestamp());
         ListenableFuture<Collection<Map.Entry<Cell, byte[]>>> postFilteredResults =
                 Futures.transformAsync(
                         asyncKeyValueService.getAsync(tableRef, toRead),
@@ -772,7 +913,103 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
                                 asyncTransactionService),
                         MoreExecutors.directExecutor());
 
-        return Futures.transform(postFilteredResults, ImmutableMap::copyOf, MoreExecutors.directExecutor());
+        return Futures.transform(postFilteredResults, fromKeyValueService -> {
+            Map<Cell, byte[]> results = ImmutableMap.copyOf(fromKeyValueService);
+            cacheView.tryCacheNewValuesRead(tableRef, withEmptyValuesForMissingCells(uncachedCells, results));
+            if (cachedResults.isEmpty()) {
+                return results;
+            }
+            return ImmutableMap.<Cell, byte[]>builder().putAll(cachedResults).putAll(results).build();
+        }, MoreExecutors.directExecutor());
+    }
+
+    /**
+     * Adds the cached values of rows whose selected cells are all cached to the given result, and returns the rows
+     * which must be read from the key value service. Only explicit column selections can be served from the cache, as
+     * the cache cannot tell whether it holds every column of a row.
+     */
+    private static List<byte[]> readCachedRows(
+            TransactionLockWatchingCacheView cacheView,
+            TableReference tableRef,
+            Iterable<byte[]> rows,
+            ColumnSelection columnSelection,
+            Map<Cell, byte[]> localWrites,
+            ImmutableSortedMap.Builder<Cell, byte[]> result) {
+        List<byte[]> allRows = ImmutableList.copyOf(rows);
+        if (columnSelection.allColumnsSelected()) {
+            return allRows;
+        }
+        Map<Cell, byte[]> cached = cacheView.readCached(tableRef, cellsOf(allRows, columnSelection));
+        if (cached.isEmpty()) {
+            return allRows;
+        }
+
+        List<byte[]> uncachedRows = Lists.newArrayList();
+        Set<Cell> served = Sets.newHashSet();
+        for (byte[] row : allRows) {
+            Set<Cell> rowCells = cellsOf(ImmutableList.of(row), columnSelection);
+            if (!cached.keySet().containsAll(rowCells)) {
+                uncachedRows.add(row);
+                continue;
+            }
+            for (Cell cell : rowCells) {
+                if (!localWrites.containsKey(cell) && served.add(cell)) {
+                    result.put(cell, cached.get(cell));
+                }
+            }
+        }
+        return uncachedRows;
+    }
+
+    /**
+     * Caches the post-filtered values read for the given rows. Selected cells that were not found are cached as empty,
+     * as they are when reading individual cells; cells written by this transaction are not cached.
+     */
+    private static void tryCacheRowsRead(
+            TransactionLockWatchingCacheView cacheView,
+            TableReference tableRef,
+            List<byte[]> rowsRead,
+            ColumnSelection columnSelection,
+            Map<Cell, byte[]> localWrites,
+            NavigableMap<byte[], RowResult<byte[]>> results) {
+        if (columnSelection.allColumnsSelected() || rowsRead.isEmpty()) {
+            return;
+        }
+        Map<Cell, byte[]> reads = Maps.newHashMap();
+        for (Cell cell : cellsOf(rowsRead, columnSelection)) {
+            if (localWrites.containsKey(cell)) {
+                continue;
+            }
+            RowResult<byte[]> rowResult = results.get(cell.getRowName());
+            byte[] value = rowResult == null ? null : rowResult.getColumns().get(cell.getColumnName());
+            reads.put(cell, value == null ? PtBytes.EMPTY_BYTE_ARRAY : value);
+        }
+        cacheView.tryCacheNewValuesRead(tableRef, reads);
+    }
+
+    private static Set<Cell> cellsOf(Iterable<byte[]> rows, ColumnSelection columnSelection) {
+        Set<Cell> cells = Sets.newHashSet();
+        for (byte[] row : rows) {
+            for (byte[] column : columnSelection.getSelectedColumns()) {
+                cells.add(Cell.create(row, column));
+            }
+        }
+        return cells;
+    }
+
+    private TransactionLockWatchingCacheView getLockWatchingCacheView(TableReference tableRef) {
+        // Values can only be cached for tables where writers lock what they write, as otherwise writes to watched
+        // tables do not generate lock watch events.
+        if (conflictDetectionManager.isLockedOnWrite(tableRef)) {
+            return lockWatchingCacheView.get();
+        }
+        return NoOpTransactionLockWatchingCacheView.INSTANCE;
+    }
+
+    private static Map<Cell, byte[]> withEmptyValuesForMissingCells(Set<Cell> cells, Map<Cell, byte[]> values) {
+        Map<Cell, byte[]> result = Maps.newHashMapWithExpectedSize(cells.size());
+        cells.forEach(cell -> result.put(cell, values.getOrDefault(cell, PtBytes.EMPTY_BYTE_ARRAY)));
+        return result;
     }
 
     private static byte[] getNextStartRowName(
@@ -937,6 +1174,54 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
         };
     }
 
+    @Override
+    public BatchingVisitable<RowResult<byte[]>> getRangeInParallel(
+            TableReference tableRef,
+            RangeRequest rangeRequest,
+            Iterable<byte[]> splitPoints,
+            int concurrencyLevel) {
+        checkGetPreconditions(tableRef);
+        Preconditions.checkArgument(concurrencyLevel > 0, "Concurrency level must be positive",
+                SafeArg.of("concurrencyLevel", concurrencyLevel));
+        List<RangeRequest> subRanges = RangeRequests.splitRange(rangeRequest, splitPoints);
+        if (concurrencyLevel == 1 || subRanges.size() == 1) {
+            return BatchingVisitables.concat(getRangesLazy(tableRef, subRanges).collect(Collectors.toList()));
+        }
+        hasReads = true;
+
+        return new AbstractBatchingVisitable<RowResult<byte[]>>() {
+            @Override
+            protected <K extends Exception> void batchAcceptSizeHint(
+                    int batchSizeHint, ConsistentVisitor<RowResult<byte[]>, K> visitor) throws K {
+                // Sub-ranges are scanned in a sliding window of concurrencyLevel, each read in pages of batchSizeHint
+                // and buffering only a few pages ahead of the visitor, so memory use does not depend on the size of
+                // the sub-ranges. Whenever the oldest sub-range has been fully visited, the next one starts.
+                Iterator<RangeRequest> rangesToScan = subRanges.iterator();
+                Deque<SubRangeScan<RowResult<byte[]>>> runningScans = new ArrayDeque<>(concurrencyLevel);
+                try {
+                    while (true) {
+                        while (runningScans.size() < concurrencyLevel && rangesToScan.hasNext()) {
+                            runningScans.addLast(SubRangeScan.start(
+                                    getRange(tableRef, rangesToScan.next()), batchSizeHint, getRangesExecutor));
+                        }
+                        SubRangeScan<RowResult<byte[]>> scan = runningScans.peekFirst();
+                        if (scan == null) {
+                            return;
+                        }
+                        Optional<List<RowResult<byte[]>>> page = scan.nextPage();
+                        if (!page.isPresent()) {
+                            runningScans.removeFirst();
+                        } else if (!visitor.visit(page.get())) {
+                            return;
+                        }
+                    }
+                } finally {
+                    runningScans.forEach(SubRangeScan::cancel);
+                }
+            }
+        };
+    }
+
     private void validatePreCommitRequirementsOnReadIfNecessary(TableReference tableRef, long timestamp) {
         if (!isValidationNecessaryOnReads(tableRef)) {
             return;
@@ -1656,6 +1941,7 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
             return;
         }
 
+        boolean pipelined = commitStageExecutor != null && transactionConfig.get().pipelineCommitStages();
         timedAndTraced("commitStage", () -> {
             // Acquire row locks and a lock on the start timestamp row in the transactions table.
             // This must happen before conflict checking, otherwise we could complete the checks and then have someone
@@ -1665,12 +1951,15 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
             try {
                 // Conflict checking. We can actually do this later without compromising correctness, but there is no
                 // reason to postpone this check - we waste resources writing unnecessarily if these are going to fail.
-                timedAndTraced("commitCheckingForConflicts",
-                        () -> throwIfConflictOnCommit(commitLocksToken, transactionService));
-
                 // Write to the targeted sweep queue. We must do this before writing to the key value service -
-                // otherwise we may have hanging values that targeted sweep won't know about.
-                timedAndTraced("writingToSweepQueue", () -> sweepQueue.enqueue(writesByTable, getStartTimestamp()));
+                // otherwise we may have hanging values that targeted sweep won't know about. Neither of these depends
+                // on the other, so they may be run concurrently; if conflict checking fails, sweep will treat the
+                // enqueued writes as belonging to an aborted transaction.
+                runCommitStages(pipelined, "commitConflictCheckAndSweepQueueWrite",
+                        () -> timedAndTraced("commitCheckingForConflicts",
+                                () -> throwIfConflictOnCommit(commitLocksToken, transactionService)),
+                        () -> timedAndTraced("writingToSweepQueue",
+                                () -> sweepQueue.enqueue(writesByTable, getStartTimestamp())));
 
                 // Write to the key value service. We must do this before getting the commit timestamp - otherwise
                 // we risk another transaction starting at a timestamp after our commit timestamp not seeing our writes.
@@ -1696,14 +1985,16 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
                 // commitTs + 1. This must happen before the lock check for thorough tables, because the lock check
                 // verifies the immutable timestamp hasn't moved forward - thorough sweep might sweep a conflict out
                 // from underneath us.
-                timedAndTraced("readWriteConflictCheck",
-                        () -> throwIfReadWriteConflictForSerializable(commitTimestamp));
-
                 // Verify that our locks and pre-commit conditions are still valid before we actually commit;
                 // this throwIfPreCommitRequirementsNotMet is required by the transaction protocol for correctness.
                 // We check the pre-commit conditions first since they may operate similarly to read write conflict
                 // handling - we should check lock validity last to ensure that sweep hasn't affected the checks.
-                timedAndTraced("userPreCommitCondition", () -> throwIfPreCommitConditionInvalid(commitTimestamp));
+                // The read write conflict check and pre-commit conditions are independent of each other.
+                runCommitStages(pipelined, "commitReadWriteConflictAndPreCommitChecks",
+                        () -> timedAndTraced("readWriteConflictCheck",
+                                () -> throwIfReadWriteConflictForSerializable(commitTimestamp)),
+                        () -> timedAndTraced("userPreCommitCondition",
+                                () -> throwIfPreCommitConditionInvalid(commitTimestamp)));
 
                 // Not timed, because this just calls ConjureTimelockServiceBlocking.refreshLockLeases, and that is
                 // timed.
@@ -1713,6 +2004,10 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
                 traced("commitPutCommitTs",
                         () -> putCommitTimestamp(commitTimestamp, commitLocksToken, transactionService));
 
+                // This must happen while we still hold our commit locks, so that no other transaction can have
+                // written to these cells since our commit.
+                cacheCommittedWrites(commitLocksToken, commitTimestamp);
+
                 long microsSinceCreation = TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis() - timeCreated);
                 getTimer("commitTotalTimeSinceTxCreation").update(microsSinceCreation, TimeUnit.MICROSECONDS);
                 getHistogram(AtlasDbMetricNames.SNAPSHOT_TRANSACTION_BYTES_WRITTEN).update(byteCount.get());
@@ -1723,6 +2018,53 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
         });
     }
 
+    /**
+     * Runs two commit stages whose relative order the transaction protocol does not constrain, returning once both
+     * have completed. If pipelined, the first runs on the commit stage executor while the second runs on this thread,
+     * and the time spent on both together is recorded under the given timer; otherwise they run one after the other,
+     * in order. The first stage is always awaited, even if the second fails, so that it cannot outlive the commit
+     * locks; if it failed with a conflict, that conflict is thrown in preference to the failure of the second stage.
+     */
+    private void runCommitStages(boolean pipelined, String timerName, Runnable first, Runnable second) {
+        if (!pipelined) {
+            first.run();
+            second.run();
+            return;
+        }
+        try (Timer.Context timer = getTimer(timerName).time()) {
+            Future<?> firstStage = commitStageExecutor.submit(first);
+            try {
+                second.run();
+            } catch (RuntimeException | Error secondStageFailure) {
+                throwIfFirstStageConflicted(firstStage, secondStageFailure);
+                throw secondStageFailure;
+            }
+            AtlasFutures.getUnchecked(firstStage);
+        }
+    }
+
+    private static void throwIfFirstStageConflicted(Future<?> firstStage, Throwable secondStageFailure) {
+        try {
+            AtlasFutures.getUnchecked(firstStage);
+        } catch (TransactionConflictException | TransactionSerializableConflictException conflict) {
+            conflict.addSuppressed(secondStageFailure);
+            throw conflict;
+        } catch (RuntimeException | Error firstStageFailure) {
+            secondStageFailure.addSuppressed(firstStageFailure);
+        }
+    }
+
+    private void cacheCommittedWrites(LockToken commitLocksToken, long commitTimestamp) {
+        // We have already committed at this point, so failing to cache must not fail the transaction.
+        try {
+            writesByTable.forEach((tableRef, writes) ->
+                    getLockWatchingCacheView(tableRef).tryCacheWrittenValues(
+                            tableRef, writes, commitLocksToken, commitTimestamp));
+        } catch (RuntimeException e) {
+            log.warn("Failed to cache the values written by a committed transaction", e);
+        }
+    }
+
     private void traced(String spanName, Runnable runnable) {
         try (CloseableTracer tracer = CloseableTracer.startSpan(spanName)) {
             runnable.run();
@@ -93,6 +93,7 @@ import com.palantir.util.SafeShutdownRunner;
     final boolean allowHiddenTableAccess;
     final ExecutorService getRangesExecutor;
     final ExecutorService deleteExecutor;
+    final ExecutorService commitStageExecutor;
     final int defaultGetRangesConcurrency;
     final MultiTableSweepQueueWriter sweepQueueWriter;
     final boolean validateLocksOnReads;
@@ -144,6 +145,7 @@ import com.palantir.util.SafeShutdownRunner;
         this.defaultGetRangesConcurrency = defaultGetRangesConcurrency;
         this.sweepQueueWriter = sweepQueueWriter;
         this.deleteExecutor = deleteExecutor;
+        this.commitStageExecutor = DefaultTaskExecutors.createDefaultCommitStageExecutor();
         this.validateLocksOnReads = validateLocksOnReads;
         this.transactionConfig = transactionConfig;
         this.conflictTracer = conflictTracer;
@@ -298,6 +300,7 @@ import com.palantir.util.SafeShutdownRunner;
                 defaultGetRangesConcurrency,
                 sweepQueueWriter,
                 deleteExecutor,
+                commitStageExecutor,
                 validateLocksOnReads,
                 transactionConfig,
                 conflictTracer);
@@ -339,6 +342,7 @@ import com.palantir.util.SafeShutdownRunner;
                 defaultGetRangesConcurrency,
                 sweepQueueWriter,
                 deleteExecutor,
+                commitStageExecutor,
                 validateLocksOnReads,
                 transactionConfig,
                 conflictTracer);
@@ -379,6 +383,7 @@ import com.palantir.util.SafeShutdownRunner;
             shutdownRunner.shutdownSafely(keyValueService::close);
             shutdownRunner.shutdownSafely(() -> shutdownExecutor(deleteExecutor));
             shutdownRunner.shutdownSafely(() -> shutdownExecutor(getRangesExecutor));
+            shutdownRunner.shutdownSafely(() -> shutdownExecutor(commitStageExecutor));
             shutdownRunner.shutdownSafely(this::closeLockServiceIfPossible);
 
             for (Runnable callback : Lists.reverse(closingCallbacks)) {
@@ -0,0 +1,150 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.transaction.impl;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import com.palantir.common.base.BatchingVisitable;
+import com.palantir.common.base.Throwables;
+import com.palantir.logsafe.exceptions.SafeIllegalStateException;
+
+/**
+ * Reads a sub-range on an executor in pages of a fixed size, buffering a bounded number of pages ahead of the
+ * consumer, so that several sub-ranges of a range may be scanned concurrently without holding any of them in memory
+ * in full.
+ */
+final class SubRangeScan<T> {
+    @VisibleForTesting
+    static final int PAGES_BUFFERED = 4;
+    private static final long QUEUE_TIMEOUT_MILLIS = 100;
+
+    private final BlockingQueue<ScanResult<T>> results = new ArrayBlockingQueue<>(PAGES_BUFFERED);
+    private final Future<?> scan;
+
+    private volatile boolean cancelled = false;
+
+    private SubRangeScan(BatchingVisitable<T> subRange, int pageSize, ExecutorService executor) {
+        this.scan = executor.submit(() -> scan(subRange, pageSize));
+    }
+
+    static <T> SubRangeScan<T> start(BatchingVisitable<T> subRange, int pageSize, ExecutorService executor) {
+        return new SubRangeScan<>(subRange, pageSize, executor);
+    }
+
+    /**
+     * Returns the next page of the sub-range, blocking until it has been read, or empty if the sub-range has been
+     * fully read.
+     */
+    Optional<List<T>> nextPage() {
+        try {
+            while (true) {
+                ScanResult<T> result = results.poll(QUEUE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                if (result == null && scan.isDone()) {
+                    result = results.poll();
+                    if (result == null) {
+                        throw new SafeIllegalStateException("Sub-range scan stopped before reading the whole range");
+                    }
+                }
+                if (result != null) {
+                    return result.get();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw Throwables.rewrapAndThrowUncheckedException(e);
+        }
+    }
+
+    /**
+     * Stops reading the sub-range; pages read but not yet consumed are discarded.
+     */
+    void cancel() {
+        cancelled = true;
+        scan.cancel(false);
+    }
+
+    private void scan(BatchingVisitable<T> subRange, int pageSize) {
+        ScanResult<T> lastResult;
+        try {
+            if (!subRange.<InterruptedException>batchAccept(pageSize,
+                    page -> offer(ScanResult.page(ImmutableList.copyOf(page))))) {
+                return;
+            }
+            lastResult = ScanResult.end();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } catch (RuntimeException | Error e) {
+            lastResult = ScanResult.failure(e);
+        }
+
+        try {
+            offer(lastResult);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Blocks until the consumer has room for the result, returning false if the scan is cancelled first.
+     */
+    private boolean offer(ScanResult<T> result) throws InterruptedException {
+        while (!cancelled) {
+            if (results.offer(result, QUEUE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static final class ScanResult<T> {
+        private final List<T> page;
+        private final Throwable failure;
+
+        private ScanResult(List<T> page, Throwable failure) {
+            this.page = page;
+            this.failure = failure;
+        }
+
+        private static <T> ScanResult<T> page(List<T> page) {
+            return new ScanResult<>(page, null);
+        }
+
+        private static <T> ScanResult<T> end() {
+            return new ScanResult<>(null, null);
+        }
+
+        private static <T> ScanResult<T> failure(Throwable failure) {
+            return new ScanResult<>(null, failure);
+        }
+
+        private Optional<List<T>> get() {
+            if (failure != null) {
+                throw Throwables.rewrapAndThrowUncheckedException(failure);
+            }
+            return Optional.ofNullable(page);
+        }
+    }
+}
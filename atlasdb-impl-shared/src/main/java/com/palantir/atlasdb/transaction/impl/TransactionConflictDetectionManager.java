@@ -68,6 +68,16 @@ public final class TransactionConflictDetectionManager {
         }
     }
 
+    /**
+     * Returns whether every transaction writing to the given table takes out locks for its writes on commit. Unlike
+     * {@link #get(TableReference)}, this does not fix the conflict handler of the table for this transaction.
+     */
+    public boolean isLockedOnWrite(TableReference tableReference) {
+        ConflictHandler conflictHandler = delegate.get(tableReference);
+        return conflictHandler != null
+                && (conflictHandler.lockCellsForConflicts() || conflictHandler.lockRowsForConflicts());
+    }
+
     @Nullable
     public ConflictHandler get(TableReference tableReference) {
         return conflictHandlers.computeIfAbsent(tableReference,
@@ -0,0 +1,230 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.keyvalue.api.watch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.atlasdb.keyvalue.api.TableReference;
+import com.palantir.atlasdb.transaction.api.NoOpTransactionLockWatchingCacheView;
+import com.palantir.atlasdb.transaction.api.TransactionLockWatchingCacheView;
+import com.palantir.lock.AtlasCellLockDescriptor;
+import com.palantir.lock.AtlasRowLockDescriptor;
+import com.palantir.lock.LockDescriptor;
+import com.palantir.lock.v2.LockToken;
+import com.palantir.lock.watch.LockEvent;
+import com.palantir.lock.watch.LockWatchEvent;
+import com.palantir.lock.watch.LockWatchReferences;
+import com.palantir.lock.watch.LockWatchStateUpdate;
+import com.palantir.lock.watch.UnlockEvent;
+
+public class LockWatchingCacheImplTest {
+    private static final UUID LEADER = UUID.fromString("470c855e-f77b-44df-b56a-14d3df085dbc");
+    private static final TableReference TABLE = TableReference.createFromFullyQualifiedName("test.table");
+    private static final TableReference UNWATCHED_TABLE = TableReference.createFromFullyQualifiedName("test.other");
+    private static final Cell CELL = Cell.create(new byte[] {1}, new byte[] {2});
+    private static final Cell OTHER_CELL = Cell.create(new byte[] {3}, new byte[] {4});
+    private static final LockDescriptor CELL_DESCRIPTOR =
+            AtlasCellLockDescriptor.of(TABLE.getQualifiedName(), CELL.getRowName(), CELL.getColumnName());
+    private static final LockDescriptor ROW_DESCRIPTOR =
+            AtlasRowLockDescriptor.of(TABLE.getQualifiedName(), CELL.getRowName());
+    private static final LockDescriptor OTHER_CELL_DESCRIPTOR = AtlasCellLockDescriptor.of(
+            TABLE.getQualifiedName(), OTHER_CELL.getRowName(), OTHER_CELL.getColumnName());
+    private static final LockToken TOKEN = LockToken.of(UUID.fromString("203fcd7a-b3d7-4c2a-9d2c-3d61cde1ba59"));
+    private static final byte[] VALUE = new byte[] {42};
+    private static final byte[] NEW_VALUE = new byte[] {43};
+
+    private LockWatchEventCacheImpl eventCache;
+    private LockWatchingCacheImpl cache;
+
+    @Before
+    public void before() {
+        eventCache = new LockWatchEventCacheImpl(LockWatchEventLog.create());
+        cache = new LockWatchingCacheImpl(eventCache, 100);
+        eventCache.processStartTransactionsUpdate(ImmutableSet.of(1L), LockWatchStateUpdate.snapshot(
+                LEADER,
+                0L,
+                ImmutableSet.of(),
+                ImmutableSet.of(LockWatchReferences.entireTable(TABLE.getQualifiedName()))));
+    }
+
+    @Test
+    public void unknownTransactionsGetNoOpView() {
+        assertThat(cache.getView(100L)).isEqualTo(NoOpTransactionLockWatchingCacheView.INSTANCE);
+    }
+
+    @Test
+    public void valuesReadAreServedToLaterTransactions() {
+        cache.getView(1L).tryCacheNewValuesRead(TABLE, ImmutableMap.of(CELL, VALUE));
+        startTransaction(2L, 0L);
+
+        assertThat(readCached(2L, CELL)).containsOnlyKeys(CELL).containsValue(VALUE);
+    }
+
+    @Test
+    public void valuesAreNotServedToTransactionsStartingBeforeTheyWereRead() {
+        cache.getView(1L).tryCacheNewValuesRead(TABLE, ImmutableMap.of(CELL, VALUE));
+
+        assertThat(readCached(1L, CELL)).isEmpty();
+    }
+
+    @Test
+    public void valuesForUnwatchedTablesAreNotCached() {
+        cache.getView(1L).tryCacheNewValuesRead(UNWATCHED_TABLE, ImmutableMap.of(CELL, VALUE));
+        startTransaction(2L, 0L);
+
+        assertThat(cache.getView(2L).readCached(UNWATCHED_TABLE, ImmutableSet.of(CELL))).isEmpty();
+    }
+
+    @Test
+    public void lockEventsInvalidateCachedValues() {
+        cache.getView(1L).tryCacheNewValuesRead(TABLE, ImmutableMap.of(CELL, VALUE, OTHER_CELL, VALUE));
+        startTransaction(2L, 1L, LockEvent.builder(ImmutableSet.of(CELL_DESCRIPTOR), TOKEN).build(1L));
+
+        assertThat(readCached(2L, CELL, OTHER_CELL)).containsOnlyKeys(OTHER_CELL);
+    }
+
+    @Test
+    public void rowLockEventsInvalidateAllCachedValuesInTheRow() {
+        Cell cellInSameRow = Cell.create(CELL.getRowName(), new byte[] {7});
+        cache.getView(1L).tryCacheNewValuesRead(TABLE, ImmutableMap.of(CELL, VALUE, cellInSameRow, VALUE));
+        startTransaction(2L, 1L, LockEvent.builder(ImmutableSet.of(ROW_DESCRIPTOR), TOKEN).build(1L));
+
+        assertThat(readCached(2L, CELL, cellInSameRow)).isEmpty();
+    }
+
+    @Test
+    public void rowLockEventsInvalidateCellsCachedAfterManyCellInvalidations() {
+        // each round caches cells and then invalidates them with cell locks, leaving stale entries in the row index
+        // until it is rebuilt
+        long timestamp = 2L;
+        long version = 0L;
+        for (int round = 0; round < 5; round++) {
+            Map<Cell, byte[]> others = new HashMap<>();
+            Set<LockDescriptor> otherDescriptors = new HashSet<>();
+            for (int i = 0; i < 50; i++) {
+                Cell other = Cell.create(new byte[] {5, (byte) round, (byte) i}, new byte[] {6});
+                others.put(other, VALUE);
+                otherDescriptors.add(AtlasCellLockDescriptor.of(
+                        TABLE.getQualifiedName(), other.getRowName(), other.getColumnName()));
+            }
+            startTransaction(timestamp, version);
+            cache.getView(timestamp++).tryCacheNewValuesRead(TABLE, others);
+            version++;
+            startTransaction(timestamp++, version, LockEvent.builder(otherDescriptors, TOKEN).build(version));
+        }
+
+        startTransaction(timestamp, version);
+        cache.getView(timestamp++).tryCacheNewValuesRead(TABLE, ImmutableMap.of(CELL, VALUE));
+        startTransaction(timestamp, version);
+        assertThat(readCached(timestamp++, CELL)).containsOnlyKeys(CELL);
+
+        version++;
+        startTransaction(timestamp, version, LockEvent.builder(ImmutableSet.of(ROW_DESCRIPTOR), TOKEN).build(version));
+        assertThat(readCached(timestamp, CELL)).isEmpty();
+    }
+
+    @Test
+    public void valuesOfLockedCellsAreNotCachedUntilUnlocked() {
+        startTransaction(2L, 1L, LockEvent.builder(ImmutableSet.of(CELL_DESCRIPTOR), TOKEN).build(1L));
+        cache.getView(2L).tryCacheNewValuesRead(TABLE, ImmutableMap.of(CELL, VALUE));
+        startTransaction(3L, 1L);
+        assertThat(readCached(3L, CELL)).isEmpty();
+
+        startTransaction(4L, 2L, UnlockEvent.builder(ImmutableSet.of(CELL_DESCRIPTOR)).build(2L));
+        cache.getView(4L).tryCacheNewValuesRead(TABLE, ImmutableMap.of(CELL, NEW_VALUE));
+        startTransaction(5L, 2L);
+        assertThat(readCached(5L, CELL)).containsValue(NEW_VALUE);
+    }
+
+    @Test
+    public void valuesReadAtStaleVersionsAreNotCached() {
+        startTransaction(2L, 1L, LockEvent.builder(ImmutableSet.of(OTHER_CELL_DESCRIPTOR), TOKEN).build(1L));
+        TransactionLockWatchingCacheView staleView = cache.getView(1L);
+        cache.getView(2L);
+        staleView.tryCacheNewValuesRead(TABLE, ImmutableMap.of(CELL, VALUE));
+        startTransaction(3L, 1L);
+
+        assertThat(readCached(3L, CELL)).isEmpty();
+    }
+
+    @Test
+    public void valuesCachedAtLaterVersionsAreNotServedToEarlierTransactions() {
+        TransactionLockWatchingCacheView earlierView = cache.getView(1L);
+        startTransaction(2L, 1L, LockEvent.builder(ImmutableSet.of(OTHER_CELL_DESCRIPTOR), TOKEN).build(1L));
+        cache.getView(2L).tryCacheNewValuesRead(TABLE, ImmutableMap.of(CELL, VALUE));
+
+        assertThat(earlierView.readCached(TABLE, ImmutableSet.of(CELL))).isEmpty();
+    }
+
+    @Test
+    public void committedWritesAreServedToTransactionsStartingAfterCommit() {
+        startTransaction(2L, 1L, LockEvent.builder(ImmutableSet.of(CELL_DESCRIPTOR), TOKEN).build(1L));
+        cache.getView(2L).tryCacheWrittenValues(TABLE, ImmutableMap.of(CELL, NEW_VALUE), TOKEN, 5L);
+
+        startTransaction(3L, 1L);
+        assertThat(readCached(3L, CELL)).isEmpty();
+
+        startTransaction(6L, 1L);
+        assertThat(readCached(6L, CELL)).containsValue(NEW_VALUE);
+    }
+
+    @Test
+    public void committedWritesAreNotCachedIfLockedByAnotherTransaction() {
+        LockToken otherToken = LockToken.of(UUID.randomUUID());
+        startTransaction(2L, 1L, LockEvent.builder(ImmutableSet.of(CELL_DESCRIPTOR), otherToken).build(1L));
+        cache.getView(2L).tryCacheWrittenValues(TABLE, ImmutableMap.of(CELL, NEW_VALUE), TOKEN, 5L);
+        startTransaction(6L, 1L);
+
+        assertThat(readCached(6L, CELL)).isEmpty();
+    }
+
+    @Test
+    public void leaderChangeClearsCache() {
+        cache.getView(1L).tryCacheNewValuesRead(TABLE, ImmutableMap.of(CELL, VALUE));
+        eventCache.processStartTransactionsUpdate(ImmutableSet.of(2L), LockWatchStateUpdate.snapshot(
+                UUID.randomUUID(),
+                0L,
+                ImmutableSet.of(),
+                ImmutableSet.of(LockWatchReferences.entireTable(TABLE.getQualifiedName()))));
+
+        assertThat(readCached(2L, CELL)).isEmpty();
+        assertThat(cache.getCached(TABLE, ImmutableSet.of(CELL))).isEmpty();
+    }
+
+    private void startTransaction(long startTimestamp, long version, LockWatchEvent... events) {
+        eventCache.processStartTransactionsUpdate(
+                ImmutableSet.of(startTimestamp),
+                LockWatchStateUpdate.success(LEADER, version, ImmutableList.copyOf(events)));
+    }
+
+    private Map<Cell, byte[]> readCached(long startTimestamp, Cell... cells) {
+        return cache.getView(startTimestamp).readCached(TABLE, ImmutableSet.copyOf(cells));
+    }
+}
@@ -19,7 +19,15 @@ package com.palantir.atlasdb.keyvalue.api.watch;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -87,6 +95,31 @@ public final class TimestampStateStoreTest {
                 .hasMessage("start timestamp missing from map");
     }
 
+    @Test
+    public void concurrentRemovalsLeaveNoAliveVersions() throws Exception {
+        Set<Long> timestamps = LongStream.range(0, 10_000).boxed().collect(Collectors.toSet());
+        timestampStateStore.putStartTimestamps(timestamps, version1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                long offset = i;
+                futures.add(executor.submit(() -> LongStream.range(0, 10_000)
+                        .filter(timestamp -> timestamp % 8 == offset)
+                        .forEach(timestampStateStore::remove)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(timestampStateStore.getEarliestVersion()).isEmpty();
+        assertThat(timestampStateStore.getStateForTesting().aliveVersions().isEmpty()).isTrue();
+    }
+
     private void removeAndCheckEarliestVersion(long timestamp, long sequence) {
         timestampStateStore.remove(timestamp);
         assertThat(timestampStateStore.getEarliestVersion()).hasValue(sequence);
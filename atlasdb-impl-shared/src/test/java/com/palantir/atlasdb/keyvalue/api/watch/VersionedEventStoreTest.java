@@ -70,4 +70,10 @@ public final class VersionedEventStoreTest {
         assertThat(eventStore.getEventsBetweenVersionsInclusive(Optional.empty(), 3L))
                 .containsExactly(EVENT_1, EVENT_2, EVENT_3);
     }
+
+    @Test
+    public void getEventsBetweenVersionsIsEmptyIfAllEventsAreAfterEndVersion() {
+        eventStore.putAll(ImmutableList.of(EVENT_3, EVENT_4));
+        assertThat(eventStore.getEventsBetweenVersionsInclusive(Optional.empty(), 2L)).isEmpty();
+    }
 }
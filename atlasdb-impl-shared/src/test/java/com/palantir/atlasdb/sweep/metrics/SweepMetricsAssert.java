@@ -86,6 +86,14 @@ public final class SweepMetricsAssert extends AbstractAssert<SweepMetricsAssert,
         objects.assertEqual(info, getGaugeConservative(AtlasDbMetricNames.LAG_MILLIS).getValue(), value);
     }
 
+    public void hasMillisSinceLastSweptConservativeForShardEqualTo(int shard, Long value) {
+        Map<String, String> tag = ImmutableMap.of(
+                AtlasDbMetricNames.TAG_STRATEGY, AtlasDbMetricNames.TAG_CONSERVATIVE,
+                AtlasDbMetricNames.TAG_SHARD, Integer.toString(shard));
+        Gauge<Long> gauge = getGauge("targetedSweepProgress", AtlasDbMetricNames.LAG_MILLIS_FOR_SHARD, tag);
+        objects.assertEqual(info, gauge.getValue(), value);
+    }
+
     public void hasEnqueuedWritesThoroughEqualTo(long value) {
         objects.assertEqual(info, getGaugeThorough(AtlasDbMetricNames.ENQUEUED_WRITES).getValue(), value);
     }
@@ -231,6 +231,23 @@ public class TargetedSweepMetricsTest {
         assertThat(metricsManager).hasMillisSinceLastSweptConservativeEqualTo(clockTime - 5);
     }
 
+    @Test
+    public void millisSinceLastSweptIsAlsoReportedPerShard() {
+        metrics.updateEnqueuedWrites(CONS_ZERO, 1);
+        metrics.updateProgressForShard(CONS_ZERO, 100);
+        metrics.updateProgressForShard(CONS_ONE, 1);
+        metrics.updateProgressForShard(CONS_TWO, 1000);
+        waitForProgressToRecompute();
+
+        puncherStore.put(0, 5);
+        puncherStore.put(2, 50);
+        puncherStore.put(200, 80);
+        assertThat(metricsManager).hasMillisSinceLastSweptConservativeEqualTo(clockTime - 5);
+        assertThat(metricsManager).hasMillisSinceLastSweptConservativeForShardEqualTo(0, clockTime - 50);
+        assertThat(metricsManager).hasMillisSinceLastSweptConservativeForShardEqualTo(1, clockTime - 5);
+        assertThat(metricsManager).hasMillisSinceLastSweptConservativeForShardEqualTo(2, clockTime - 80);
+    }
+
     @Test
     public void millisSinceLastSweptUpdatesAsClockUpdatesAfterWaiting() {
         metrics.updateEnqueuedWrites(CONS_ZERO, 1);
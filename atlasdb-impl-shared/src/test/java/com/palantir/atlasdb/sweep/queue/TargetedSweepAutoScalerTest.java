@@ -0,0 +1,111 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.sweep.queue;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Optional;
+
+import org.junit.Test;
+
+import com.palantir.atlasdb.sweep.queue.config.ImmutableTargetedSweepRuntimeConfig;
+import com.palantir.atlasdb.table.description.SweepStrategy.SweeperStrategy;
+
+public class TargetedSweepAutoScalerTest {
+    private static final long THRESHOLD = 1_000L;
+    private static final long REEVALUATION_MILLIS = 100L;
+
+    private boolean autoScale = true;
+    private Optional<Long> backlog = Optional.empty();
+    private long clockTime = 0L;
+
+    private final TargetedSweepAutoScaler autoScaler = new TargetedSweepAutoScaler(
+            SweeperStrategy.CONSERVATIVE,
+            1,
+            6,
+            () -> ImmutableTargetedSweepRuntimeConfig.builder()
+                    .autoScale(autoScale)
+                    .autoScalingBacklogThresholdMillis(THRESHOLD)
+                    .build(),
+            () -> backlog,
+            () -> clockTime,
+            REEVALUATION_MILLIS);
+
+    @Test
+    public void startsWithMinimumThreads() {
+        backlog = Optional.of(10 * THRESHOLD);
+        assertThat(autoScaler.getActiveThreads()).isEqualTo(1);
+    }
+
+    @Test
+    public void doublesThreadsWhileBacklogExceedsThresholdUpToMaximum() {
+        backlog = Optional.of(THRESHOLD + 1);
+
+        assertThat(activeThreadsAfterReevaluation()).isEqualTo(2);
+        assertThat(activeThreadsAfterReevaluation()).isEqualTo(4);
+        assertThat(activeThreadsAfterReevaluation()).isEqualTo(6);
+        assertThat(activeThreadsAfterReevaluation()).isEqualTo(6);
+    }
+
+    @Test
+    public void doesNotReevaluateMoreOftenThanConfigured() {
+        backlog = Optional.of(THRESHOLD + 1);
+        assertThat(activeThreadsAfterReevaluation()).isEqualTo(2);
+
+        clockTime += REEVALUATION_MILLIS - 1;
+        assertThat(autoScaler.getActiveThreads()).isEqualTo(2);
+    }
+
+    @Test
+    public void removesThreadsOneAtATimeOnceBacklogIsWellBelowThreshold() {
+        backlog = Optional.of(THRESHOLD + 1);
+        activeThreadsAfterReevaluation();
+        activeThreadsAfterReevaluation();
+
+        backlog = Optional.of(THRESHOLD / 2);
+        assertThat(activeThreadsAfterReevaluation()).isEqualTo(4);
+
+        backlog = Optional.of(THRESHOLD / 2 - 1);
+        assertThat(activeThreadsAfterReevaluation()).isEqualTo(3);
+        assertThat(activeThreadsAfterReevaluation()).isEqualTo(2);
+        assertThat(activeThreadsAfterReevaluation()).isEqualTo(1);
+        assertThat(activeThreadsAfterReevaluation()).isEqualTo(1);
+    }
+
+    @Test
+    public void keepsThreadsIfBacklogIsUnknown() {
+        backlog = Optional.of(THRESHOLD + 1);
+        activeThreadsAfterReevaluation();
+
+        backlog = Optional.empty();
+        assertThat(activeThreadsAfterReevaluation()).isEqualTo(2);
+    }
+
+    @Test
+    public void usesMinimumThreadsIfAutoScalingIsDisabled() {
+        backlog = Optional.of(THRESHOLD + 1);
+        activeThreadsAfterReevaluation();
+
+        autoScale = false;
+        assertThat(activeThreadsAfterReevaluation()).isEqualTo(1);
+    }
+
+    private int activeThreadsAfterReevaluation() {
+        clockTime += REEVALUATION_MILLIS;
+        return autoScaler.getActiveThreads();
+    }
+}
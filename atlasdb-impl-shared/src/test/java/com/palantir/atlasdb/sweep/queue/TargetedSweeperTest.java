@@ -1080,6 +1080,23 @@ public class TargetedSweeperTest extends AbstractSweepQueueTest {
         assertReadAtTimestampReturnsSentinel(TABLE_CONS, maxTsForFinePartition(0) + 1);
     }
 
+    @Test
+    public void batchShardIterationsSweepsAllFinePartitionsAndProgressesToSweepTimestamp() {
+        batchShardIterations = true;
+
+        enqueueWriteCommitted(TABLE_CONS, LOW_TS);
+        enqueueWriteCommitted(TABLE_CONS, maxTsForFinePartition(0) + 1);
+        enqueueWriteCommitted(TABLE_CONS, maxTsForFinePartition(1) + 1);
+        enqueueWriteCommitted(TABLE_CONS, maxTsForFinePartition(2) + 1);
+
+        sweepQueue.processShard(ShardAndStrategy.conservative(CONS_SHARD));
+
+        assertReadAtTimestampReturnsSentinel(TABLE_CONS, maxTsForFinePartition(2));
+        assertTestValueEnqueuedAtGivenTimestampStillPresent(TABLE_CONS, maxTsForFinePartition(2) + 1);
+        assertThat(progress.getLastSweptTimestamp(ShardAndStrategy.conservative(CONS_SHARD)))
+                .isEqualTo(getSweepTsCons() - 1);
+    }
+
     @Test
     public void sweepNextBatchReturnsFalseWhenEncounteringEntryCommittedAfterSweepTs() {
         ShardAndStrategy shardStrategy = ShardAndStrategy.conservative(CONS_SHARD);
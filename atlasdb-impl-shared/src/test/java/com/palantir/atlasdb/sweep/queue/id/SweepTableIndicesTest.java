@@ -17,11 +17,19 @@ package com.palantir.atlasdb.sweep.queue.id;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
+import java.util.Map;
 import java.util.NoSuchElementException;
 
 import org.junit.Test;
 
+import com.google.common.collect.ImmutableSet;
 import com.palantir.atlasdb.keyvalue.api.KeyValueService;
 import com.palantir.atlasdb.keyvalue.api.Namespace;
 import com.palantir.atlasdb.keyvalue.api.TableReference;
@@ -65,6 +73,41 @@ public class SweepTableIndicesTest {
         assertThat(tableIndices.getTableId(table(1))).isEqualTo(2);
     }
 
+    @Test
+    public void testBatchLookupAssignsIdsToNewTablesAndKeepsExistingIds() {
+        assertThat(tableIndices.getTableId(table(1))).isEqualTo(1);
+
+        Map<TableReference, Integer> ids = tableIndices.getTableIds(ImmutableSet.of(table(1), table(2), table(3)));
+
+        assertThat(ids).containsEntry(table(1), 1);
+        assertThat(ids.values()).containsExactlyInAnyOrder(1, 2, 3);
+        ids.forEach((table, id) -> assertThat(tableIndices.getTableReference(id)).isEqualTo(table));
+    }
+
+    @Test
+    public void testBatchLookupReadsExistingMappingsTogether() {
+        tableIndices.getTableIds(ImmutableSet.of(table(1), table(2)));
+        NamesToIds spiedNamesToIds = spy(namesToIds);
+        SweepTableIndices freshIndices = new SweepTableIndices(idsToNames, spiedNamesToIds);
+
+        assertThat(freshIndices.getTableIds(ImmutableSet.of(table(1), table(2))))
+                .isEqualTo(tableIndices.getTableIds(ImmutableSet.of(table(1), table(2))));
+        verify(spiedNamesToIds, times(1)).currentMappings(any());
+        verify(spiedNamesToIds, never()).currentMapping(any());
+    }
+
+    @Test
+    public void testTableReferencesOfLoadedIdsAreCached() {
+        tableIndices.getTableId(table(1));
+        IdsToNames spiedIdsToNames = spy(idsToNames);
+        SweepTableIndices freshIndices = new SweepTableIndices(spiedIdsToNames, namesToIds);
+
+        int id = freshIndices.getTableId(table(1));
+
+        assertThat(freshIndices.getTableReference(id)).isEqualTo(table(1));
+        verify(spiedIdsToNames, never()).get(anyInt());
+    }
+
     private static TableReference table(int id) {
         return TableReference.create(Namespace.create(Integer.toString(id)), Integer.toString(id));
     }
@@ -0,0 +1,98 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.transaction.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.palantir.common.base.BatchingVisitable;
+import com.palantir.common.base.BatchingVisitableFromIterable;
+
+public class SubRangeScanTest {
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @After
+    public void after() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void returnsPagesOfTheGivenSizeInOrder() {
+        SubRangeScan<Integer> scan = SubRangeScan.start(
+                BatchingVisitableFromIterable.create(ImmutableList.of(1, 2, 3, 4, 5)), 2, executor);
+
+        assertThat(scan.nextPage()).contains(ImmutableList.of(1, 2));
+        assertThat(scan.nextPage()).contains(ImmutableList.of(3, 4));
+        assertThat(scan.nextPage()).contains(ImmutableList.of(5));
+        assertThat(scan.nextPage()).isEmpty();
+    }
+
+    @Test
+    public void returnsNothingForAnEmptySubRange() {
+        SubRangeScan<Integer> scan = SubRangeScan.start(
+                BatchingVisitableFromIterable.create(ImmutableList.<Integer>of()), 2, executor);
+
+        assertThat(scan.nextPage()).isEmpty();
+    }
+
+    @Test
+    public void propagatesFailuresFromTheScan() {
+        BatchingVisitable<Integer> failing = BatchingVisitableFromIterable.create(() -> {
+            throw new IllegalStateException("boom");
+        });
+        SubRangeScan<Integer> scan = SubRangeScan.start(failing, 2, executor);
+
+        assertThatThrownBy(scan::nextPage).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    public void readsOnlyABoundedNumberOfPagesAheadOfTheConsumer() throws InterruptedException {
+        AtomicInteger rowsRead = new AtomicInteger();
+        SubRangeScan<Integer> scan = SubRangeScan.start(infiniteSubRange(rowsRead), 1, executor);
+
+        await().atMost(10, TimeUnit.SECONDS).until(() -> rowsRead.get() >= SubRangeScan.PAGES_BUFFERED);
+        Thread.sleep(200);
+        assertThat(rowsRead.get()).isLessThanOrEqualTo(SubRangeScan.PAGES_BUFFERED + 1);
+        scan.cancel();
+    }
+
+    @Test
+    public void cancellingStopsAScanBlockedOnTheConsumer() throws InterruptedException {
+        SubRangeScan<Integer> scan = SubRangeScan.start(infiniteSubRange(new AtomicInteger()), 1, executor);
+        assertThat(scan.nextPage()).contains(ImmutableList.of(1));
+        scan.cancel();
+
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+    }
+
+    private static BatchingVisitable<Integer> infiniteSubRange(AtomicInteger rowsRead) {
+        return BatchingVisitableFromIterable.create(
+                () -> Stream.generate(rowsRead::incrementAndGet).iterator());
+    }
+}
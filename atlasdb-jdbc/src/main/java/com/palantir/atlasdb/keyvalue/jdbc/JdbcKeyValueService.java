@@ -1156,4 +1156,32 @@ public class JdbcKeyValueService implements KeyValueService {
                                                                           cellBatchHint,
                                                                           timestamp);
     }
+
+    @Override
+    public ListenableFuture<Map<Cell, Value>> getRowsAsync(
+            TableReference tableRef,
+            Iterable<byte[]> rows,
+            ColumnSelection columnSelection,
+            long timestamp) {
+        return Futures.immediateFuture(getRows(tableRef, rows, columnSelection, timestamp));
+    }
+
+    @Override
+    public ListenableFuture<Map<Cell, Value>> getRowsColumnRangeAsync(
+            TableReference tableRef,
+            Iterable<byte[]> rows,
+            BatchColumnRangeSelection batchColumnRangeSelection,
+            long timestamp) {
+        return Futures.immediateFuture(
+                KeyValueServices.getRowsColumnRangeFully(this, tableRef, rows, batchColumnRangeSelection, timestamp));
+    }
+
+    @Override
+    public ListenableFuture<TokenBackedBasicResultsPage<RowResult<Value>, byte[]>> getFirstBatchForRangeAsync(
+            TableReference tableRef,
+            RangeRequest rangeRequest,
+            long timestamp) {
+        return Futures.immediateFuture(
+                KeyValueServices.getFirstBatchForRange(this, tableRef, rangeRequest, timestamp));
+    }
 }
@@ -25,11 +25,14 @@ import java.util.concurrent.TimeUnit;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.BenchmarkMode;
 import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
 import org.openjdk.jmh.annotations.Measurement;
 import org.openjdk.jmh.annotations.Mode;
 import org.openjdk.jmh.annotations.OperationsPerInvocation;
 import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
 import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
 import org.openjdk.jmh.annotations.Threads;
 import org.openjdk.jmh.annotations.Warmup;
@@ -42,6 +45,7 @@ import com.google.common.util.concurrent.MoreExecutors;
 import com.palantir.common.concurrent.PTExecutors;
 import com.palantir.leader.LeaderElectionService;
 import com.palantir.leader.proxy.AwaitingLeadershipProxy;
+import com.palantir.processors.AutoLeadershipProxy;
 
 @Measurement(iterations = 10, time = 2)
 @Warmup(iterations = 6, time = 1)
@@ -50,13 +54,32 @@ import com.palantir.leader.proxy.AwaitingLeadershipProxy;
 @BenchmarkMode(Mode.Throughput)
 @OutputTimeUnit(TimeUnit.SECONDS)
 public class AwaitingLeadershipProxyBenchmark {
-    private final LeaderAwareService service =
-            AwaitingLeadershipProxy.newProxyInstance(
-                    LeaderAwareService.class,
-                    () -> LeaderAwareImpl.INSTANCE,
-                    FakeLeaderElectionService.INSTANCE);
     private static final int ASYNC_ITERATIONS = 1000;
 
+    @Param({"REFLECTIVE", "GENERATED"})
+    public String proxyType;
+
+    private LeaderAwareService service;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        switch (proxyType) {
+            case "REFLECTIVE":
+                service = AwaitingLeadershipProxy.newProxyInstance(
+                        LeaderAwareService.class,
+                        () -> LeaderAwareImpl.INSTANCE,
+                        FakeLeaderElectionService.INSTANCE);
+                break;
+            case "GENERATED":
+                service = AutoLeadershipProxy_LeaderAwareService.newProxyInstance(
+                        () -> LeaderAwareImpl.INSTANCE,
+                        FakeLeaderElectionService.INSTANCE);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown proxy type " + proxyType);
+        }
+    }
+
     @Benchmark
     @Threads(256)
     public int benchmarkBlocking() {
@@ -76,6 +99,7 @@ public class AwaitingLeadershipProxyBenchmark {
     }
 
 
+    @AutoLeadershipProxy
     public interface LeaderAwareService {
         int somethingBlocking();
         ListenableFuture<?> somethingAsync();
@@ -0,0 +1,162 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.performance.benchmarks;
+
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Iterators;
+import com.google.common.primitives.Ints;
+import com.palantir.atlasdb.AtlasDbConstants;
+import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.atlasdb.keyvalue.api.KeyValueService;
+import com.palantir.atlasdb.keyvalue.api.RangeRequest;
+import com.palantir.atlasdb.keyvalue.api.TableReference;
+import com.palantir.atlasdb.keyvalue.api.Value;
+import com.palantir.atlasdb.keyvalue.impl.InMemoryKeyValueService;
+import com.palantir.atlasdb.keyvalue.impl.OffHeapKeyValueService;
+import com.palantir.common.base.ClosableIterator;
+
+/**
+ * Compares the off-heap {@link OffHeapKeyValueService} against the on-heap {@link InMemoryKeyValueService}. Run with
+ * {@code -prof gc} to also compare allocation rates; the heap used by each after {@link #fill(EmptyKvsState)} shows
+ * the difference in footprint.
+ */
+@Measurement(iterations = 5, time = 5)
+@Warmup(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "-XX:MaxDirectMemorySize=4g"})
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class InMemoryKeyValueServiceBenchmarks {
+    private static final TableReference TABLE = TableReference.createFromFullyQualifiedName("benchmark.table");
+    private static final byte[] COLUMN = {0};
+    private static final int NUM_ROWS = 1_000_000;
+    private static final int VALUE_SIZE = 256;
+    private static final int RANGE_SIZE = 100;
+    private static final long TIMESTAMP = 1L;
+
+    @State(Scope.Benchmark)
+    public static class KvsState {
+        @Param({"ON_HEAP", "OFF_HEAP"})
+        public String implementation;
+
+        private KeyValueService kvs;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            kvs = createKvs(implementation);
+            fillKvs(kvs);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            kvs.close();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class EmptyKvsState {
+        @Param({"ON_HEAP", "OFF_HEAP"})
+        public String implementation;
+
+        private KeyValueService kvs;
+
+        @Setup(Level.Invocation)
+        public void setup() {
+            kvs = createKvs(implementation);
+        }
+
+        @TearDown(Level.Invocation)
+        public void tearDown() {
+            kvs.close();
+        }
+    }
+
+    @Benchmark
+    @Threads(16)
+    public Map<Cell, Value> get(KvsState state) {
+        Cell cell = Cell.create(Ints.toByteArray(ThreadLocalRandom.current().nextInt(NUM_ROWS)), COLUMN);
+        return state.kvs.get(TABLE, ImmutableMap.of(cell, Long.MAX_VALUE));
+    }
+
+    @Benchmark
+    @Threads(4)
+    public int getRange(KvsState state) {
+        int startRow = ThreadLocalRandom.current().nextInt(NUM_ROWS - RANGE_SIZE);
+        RangeRequest request = RangeRequest.builder()
+                .startRowInclusive(Ints.toByteArray(startRow))
+                .endRowExclusive(Ints.toByteArray(startRow + RANGE_SIZE))
+                .build();
+        try (ClosableIterator<?> rows = state.kvs.getRange(TABLE, request, Long.MAX_VALUE)) {
+            return Iterators.size(rows);
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    @Warmup(iterations = 1, batchSize = 1)
+    @Measurement(iterations = 3, batchSize = 1)
+    @BenchmarkMode(Mode.SingleShotTime)
+    public Object fill(EmptyKvsState state) {
+        fillKvs(state.kvs);
+        return state.kvs;
+    }
+
+    private static KeyValueService createKvs(String implementation) {
+        KeyValueService kvs;
+        switch (implementation) {
+            case "ON_HEAP":
+                kvs = new InMemoryKeyValueService(false);
+                break;
+            case "OFF_HEAP":
+                kvs = new OffHeapKeyValueService(false);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown key value service implementation " + implementation);
+        }
+        kvs.createTable(TABLE, AtlasDbConstants.GENERIC_TABLE_METADATA);
+        return kvs;
+    }
+
+    private static void fillKvs(KeyValueService kvs) {
+        byte[] value = new byte[VALUE_SIZE];
+        for (int batchStart = 0; batchStart < NUM_ROWS; batchStart += 1_000) {
+            ImmutableMap.Builder<Cell, byte[]> batch = ImmutableMap.builder();
+            for (int row = batchStart; row < batchStart + 1_000; row++) {
+                ThreadLocalRandom.current().nextBytes(value);
+                batch.put(Cell.create(Ints.toByteArray(row), COLUMN), value.clone());
+            }
+            kvs.put(TABLE, batch.build(), TIMESTAMP);
+        }
+    }
+}
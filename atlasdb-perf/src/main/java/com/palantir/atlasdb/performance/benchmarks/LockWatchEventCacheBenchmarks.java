@@ -0,0 +1,109 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.performance.benchmarks;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.palantir.atlasdb.keyvalue.api.watch.LockWatchEventCacheImpl;
+import com.palantir.atlasdb.util.MetricsManagers;
+import com.palantir.lock.v2.LockToken;
+import com.palantir.lock.watch.CommitUpdate;
+import com.palantir.lock.watch.ImmutableTransactionUpdate;
+import com.palantir.lock.watch.LockWatchEventCache;
+import com.palantir.lock.watch.LockWatchReferences;
+import com.palantir.lock.watch.LockWatchStateUpdate;
+
+/**
+ * Measures the throughput of the client-side lock watch event cache on the transaction path: each operation starts a
+ * transaction, looks up its start version, commits it and then removes it from the cache, as a transaction manager
+ * with lock watches enabled would. Comparing the single and multi threaded results shows how far the cache scales
+ * with concurrent transactions.
+ */
+@Measurement(iterations = 5, time = 5)
+@Warmup(iterations = 3, time = 2)
+@Fork(1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class LockWatchEventCacheBenchmarks {
+    private static final UUID LEADER = UUID.randomUUID();
+    private static final long VERSION = 0L;
+    private static final LockWatchStateUpdate SUCCESS = LockWatchStateUpdate.success(LEADER, VERSION,
+            ImmutableList.of());
+
+    @State(Scope.Benchmark)
+    public static class CacheState {
+        private final AtomicLong timestamps = new AtomicLong();
+        private LockWatchEventCache cache;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            cache = LockWatchEventCacheImpl.create(MetricsManagers.createForTests());
+            cache.processStartTransactionsUpdate(ImmutableSet.of(), LockWatchStateUpdate.snapshot(
+                    LEADER,
+                    VERSION,
+                    ImmutableSet.of(),
+                    ImmutableSet.of(LockWatchReferences.entireTable("test.table"))));
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public CommitUpdate singleThreadedTransactions(CacheState state) {
+        return runTransaction(state);
+    }
+
+    @Benchmark
+    @Threads(16)
+    public CommitUpdate manyThreadsTransactions(CacheState state) {
+        return runTransaction(state);
+    }
+
+    private static CommitUpdate runTransaction(CacheState state) {
+        long startTimestamp = state.timestamps.incrementAndGet();
+        LockWatchEventCache cache = state.cache;
+
+        cache.processStartTransactionsUpdate(ImmutableSet.of(startTimestamp), SUCCESS);
+        cache.getStartTransactionVersion(startTimestamp);
+        cache.processGetCommitTimestampsUpdate(
+                ImmutableSet.of(ImmutableTransactionUpdate.builder()
+                        .startTs(startTimestamp)
+                        .commitTs(startTimestamp + 1)
+                        .writesToken(LockToken.of(UUID.randomUUID()))
+                        .build()),
+                SUCCESS);
+        CommitUpdate commitUpdate = cache.getCommitUpdate(startTimestamp);
+        cache.removeTransactionStateFromCache(startTimestamp);
+        return commitUpdate;
+    }
+}
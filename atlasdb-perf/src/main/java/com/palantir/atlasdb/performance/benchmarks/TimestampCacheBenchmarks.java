@@ -0,0 +1,174 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.performance.benchmarks;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.palantir.atlasdb.cache.LongLongClockCache;
+
+/**
+ * Compares the primitive {@link LongLongClockCache} backing the timestamp caches against the Caffeine cache they
+ * previously used. Run with {@code -prof gc} to also compare allocation rates; for {@link #fill(EmptyCacheState)}
+ * this approximates the footprint of a full cache.
+ *
+ * Reads follow a skewed distribution over a key space larger than the cache, so that both hits and evictions occur.
+ */
+@Measurement(iterations = 5, time = 5)
+@Warmup(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class TimestampCacheBenchmarks {
+    private static final long CACHE_SIZE = 1_000_000L;
+    private static final long KEY_SPACE = 4 * CACHE_SIZE;
+    private static final long ABSENT = Long.MIN_VALUE;
+
+    @State(Scope.Benchmark)
+    public static class CacheState {
+        @Param({"CAFFEINE", "CLOCK"})
+        public String implementation;
+
+        private LongCache cache;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            cache = createCache(implementation);
+            for (long key = 0; key < CACHE_SIZE; key++) {
+                cache.put(key, key + 1);
+            }
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class EmptyCacheState {
+        @Param({"CAFFEINE", "CLOCK"})
+        public String implementation;
+
+        private LongCache cache;
+
+        @Setup(Level.Invocation)
+        public void setup() {
+            cache = createCache(implementation);
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public long singleThreadedGet(CacheState state) {
+        return state.cache.get(nextKey());
+    }
+
+    @Benchmark
+    @Threads(16)
+    public long manyThreadsGet(CacheState state) {
+        return state.cache.get(nextKey());
+    }
+
+    @Benchmark
+    @Threads(16)
+    public long manyThreadsGetOrLoad(CacheState state) {
+        long key = nextKey();
+        long value = state.cache.get(key);
+        if (value == ABSENT) {
+            state.cache.put(key, key + 1);
+            return key + 1;
+        }
+        return value;
+    }
+
+    @Benchmark
+    @Threads(1)
+    @Warmup(iterations = 2, batchSize = 1)
+    @Measurement(iterations = 5, batchSize = 1)
+    @BenchmarkMode(Mode.SingleShotTime)
+    public Object fill(EmptyCacheState state) {
+        for (long key = 0; key < CACHE_SIZE; key++) {
+            state.cache.put(key, key + 1);
+        }
+        return state.cache;
+    }
+
+    private static long nextKey() {
+        // squaring a uniform variable biases towards low keys: about half of reads fall in the first quarter
+        double uniform = ThreadLocalRandom.current().nextDouble();
+        return (long) (uniform * uniform * KEY_SPACE);
+    }
+
+    private static LongCache createCache(String implementation) {
+        switch (implementation) {
+            case "CAFFEINE":
+                return new CaffeineLongCache();
+            case "CLOCK":
+                return new ClockLongCache();
+            default:
+                throw new IllegalArgumentException("Unknown cache implementation " + implementation);
+        }
+    }
+
+    private interface LongCache {
+        long get(long key);
+        void put(long key, long value);
+    }
+
+    private static final class CaffeineLongCache implements LongCache {
+        private final Cache<Long, Long> cache = Caffeine.newBuilder()
+                .maximumSize(CACHE_SIZE)
+                .build();
+
+        @Override
+        public long get(long key) {
+            Long value = cache.getIfPresent(key);
+            return value == null ? ABSENT : value;
+        }
+
+        @Override
+        public void put(long key, long value) {
+            cache.put(key, value);
+        }
+    }
+
+    private static final class ClockLongCache implements LongCache {
+        private final LongLongClockCache cache = LongLongClockCache.create(CACHE_SIZE);
+
+        @Override
+        public long get(long key) {
+            return cache.getOrDefault(key, ABSENT);
+        }
+
+        @Override
+        public void put(long key, long value) {
+            cache.put(key, value);
+        }
+    }
+}
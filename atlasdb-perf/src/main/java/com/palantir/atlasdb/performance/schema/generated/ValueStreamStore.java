@@ -124,13 +124,23 @@ public final class ValueStreamStore extends AbstractPersistentStreamStore {
         }
     }
 
+    @Override
+    protected void reserveBlocksForStoring(Transaction t, long id, long lastBlockNumber) {
+        touchMetadataWhileStoringForConflicts(t, id, lastBlockNumber);
+    }
+
+    @Override
+    protected boolean supportsConcurrentBlockWrites() {
+        return true;
+    }
+
     private void touchMetadataWhileStoringForConflicts(Transaction t, Long id, long blockNumber) {
         ValueStreamMetadataTable metaTable = tables.getValueStreamMetadataTable(t);
         ValueStreamMetadataTable.ValueStreamMetadataRow row = ValueStreamMetadataTable.ValueStreamMetadataRow.of(id);
         StreamMetadata metadata = metaTable.getMetadatas(ImmutableSet.of(row)).values().iterator().next();
         Preconditions.checkState(metadata.getStatus() == Status.STORING, "This stream is being cleaned up while storing blocks: %s", id);
         StreamMetadata.Builder builder = StreamMetadata.newBuilder(metadata);
-        builder.setLength(blockNumber * BLOCK_SIZE_IN_BYTES + 1);
+        builder.setLength(Math.max(metadata.getLength(), blockNumber * BLOCK_SIZE_IN_BYTES + 1));
         metaTable.putMetadata(row, builder.build());
     }
 
@@ -167,10 +177,6 @@ public final class ValueStreamStore extends AbstractPersistentStreamStore {
         mdTable.putMetadata(rowsToMetadata);
     }
 
-    private long getNumberOfBlocksFromMetadata(StreamMetadata metadata) {
-        return (metadata.getLength() + BLOCK_SIZE_IN_BYTES - 1) / BLOCK_SIZE_IN_BYTES;
-    }
-
     @Override
     protected File createTempFile(Long id) throws IOException {
         File file = TempFileUtils.createTempFile(STREAM_FILE_PREFIX + id, STREAM_FILE_SUFFIX);
@@ -300,7 +306,7 @@ public final class ValueStreamStore extends AbstractPersistentStreamStore {
         Set<ValueStreamValueTable.ValueStreamValueRow> streamValueToDelete = Sets.newHashSet();
         for (Entry<ValueStreamMetadataTable.ValueStreamMetadataRow, StreamMetadata> e : metadatas.entrySet()) {
             Long streamId = e.getKey().getId();
-            long blocks = getNumberOfBlocksFromMetadata(e.getValue());
+            long blocks = getNumberOfBlocks(e.getValue());
             for (long i = 0; i < blocks; i++) {
                 streamValueToDelete.add(ValueStreamValueTable.ValueStreamValueRow.of(streamId, i));
             }
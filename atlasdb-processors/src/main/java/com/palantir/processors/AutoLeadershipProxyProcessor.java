@@ -0,0 +1,318 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.processors;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.FilerException;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.Processor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+
+import com.google.auto.service.AutoService;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.MapMaker;
+import com.google.common.collect.Sets;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.JavaFile;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.TypeSpec;
+
+@AutoService(Processor.class)
+public final class AutoLeadershipProxyProcessor extends AbstractProcessor {
+    // See AutoDelegateProcessor for why we keep track of registrations.
+    private static final ConcurrentMap<ProcessingEnvironment, Processor> registeredProcessors =
+            new MapMaker().weakKeys().weakValues().concurrencyLevel(1).initialCapacity(1).makeMap();
+    private static final String PREFIX = "AutoLeadershipProxy_";
+    private static final String STATE_MANAGER_FIELD = "leadershipStateManager";
+    private static final String LISTENABLE_FUTURE = "com.google.common.util.concurrent.ListenableFuture";
+
+    private static final ClassName LEADER_ELECTION_SERVICE =
+            ClassName.get("com.palantir.leader", "LeaderElectionService");
+    private static final ClassName LEADERSHIP_TOKEN = LEADER_ELECTION_SERVICE.nestedClass("LeadershipToken");
+    private static final ClassName LEADERSHIP_STATE_MANAGER =
+            ClassName.get("com.palantir.leader.proxy", "LeadershipStateManager");
+    private static final ClassName CLOSEABLE_TRACER = ClassName.get("com.palantir.tracing", "CloseableTracer");
+
+    private Types typeUtils;
+    private Elements elementUtils;
+    private Filer filer;
+    private Messager messager;
+    private AtomicBoolean abortProcessing = new AtomicBoolean(false);
+
+    @Override
+    public synchronized void init(ProcessingEnvironment processingEnv) {
+        super.init(processingEnv);
+
+        typeUtils = processingEnv.getTypeUtils();
+        elementUtils = processingEnv.getElementUtils();
+        filer = processingEnv.getFiler();
+        messager = processingEnv.getMessager();
+
+        if (registeredProcessors.putIfAbsent(processingEnv, this) != null) {
+            messager.printMessage(Diagnostic.Kind.NOTE,
+                    "AutoLeadershipProxy processor registered twice; disabling duplicate instance");
+            abortProcessing.set(true);
+        }
+    }
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return ImmutableSet.of(AutoLeadershipProxy.class.getCanonicalName());
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.RELEASE_8;
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (abortProcessing.get()) {
+            // Another instance of AutoLeadershipProxyProcessor is running in the current processing environment.
+            return false;
+        }
+
+        Set<String> generatedTypes = new HashSet<>();
+        for (Element annotatedElement : roundEnv.getElementsAnnotatedWith(AutoLeadershipProxy.class)) {
+            try {
+                TypeElement typeElement = validateAnnotatedElement(annotatedElement);
+                TypeToExtend typeToExtend = createTypeToExtend(typeElement);
+
+                if (generatedTypes.add(typeToExtend.getCanonicalName())) {
+                    generateCode(typeElement, typeToExtend);
+                }
+            } catch (FilerException e) {
+                // Happens when same file is written twice.
+                warn(annotatedElement, e.getMessage());
+            } catch (ProcessingException e) {
+                error(e.getElement(), e.getMessage());
+            } catch (IOException | RuntimeException e) {
+                error(annotatedElement, e.getMessage());
+            }
+        }
+
+        return false;
+    }
+
+    private static TypeElement validateAnnotatedElement(Element annotatedElement) throws ProcessingException {
+        if (annotatedElement.getKind() != ElementKind.INTERFACE) {
+            throw new ProcessingException(annotatedElement, "Only interfaces can be annotated with @%s",
+                    AutoLeadershipProxy.class.getSimpleName());
+        }
+
+        TypeElement typeElement = (TypeElement) annotatedElement;
+        if (!typeElement.getTypeParameters().isEmpty()) {
+            throw new ProcessingException(annotatedElement, "Generic interfaces cannot be annotated with @%s",
+                    AutoLeadershipProxy.class.getSimpleName());
+        }
+        return typeElement;
+    }
+
+    private TypeToExtend createTypeToExtend(TypeElement annotatedElement) throws ProcessingException {
+        PackageElement typePackage = elementUtils.getPackageOf(annotatedElement);
+
+        if (typePackage.isUnnamed()) {
+            throw new ProcessingException(annotatedElement, "Type %s doesn't have a package", annotatedElement);
+        }
+
+        return new TypeToExtend(typePackage, annotatedElement, fetchSuperinterfaces(annotatedElement));
+    }
+
+    private TypeElement[] fetchSuperinterfaces(TypeElement baseInterface) {
+        List<TypeMirror> interfacesQueue = new ArrayList<>(baseInterface.getInterfaces());
+        Set<TypeMirror> interfacesSet = Sets.newHashSet(interfacesQueue);
+        List<TypeElement> superinterfaceElements = new ArrayList<>();
+
+        for (int i = 0; i < interfacesQueue.size(); i++) {
+            TypeElement superinterfaceType = ProcessorUtils.extractType(typeUtils, interfacesQueue.get(i));
+            superinterfaceElements.add(superinterfaceType);
+
+            for (TypeMirror newInterface : superinterfaceType.getInterfaces()) {
+                if (interfacesSet.add(newInterface)) {
+                    interfacesQueue.add(newInterface);
+                }
+            }
+        }
+
+        return superinterfaceElements.toArray(new TypeElement[0]);
+    }
+
+    private void generateCode(TypeElement typeElement, TypeToExtend typeToExtend) throws IOException {
+        TypeName interfaceName = TypeName.get(typeToExtend.getType());
+        ClassName proxyName = ClassName.get(typeToExtend.getPackageName(), PREFIX + typeToExtend.getSimpleName());
+        TypeName stateManagerType = ParameterizedTypeName.get(LEADERSHIP_STATE_MANAGER, interfaceName);
+
+        TypeSpec.Builder typeBuilder = TypeSpec.classBuilder(proxyName)
+                .addModifiers(Modifier.FINAL)
+                .addSuperinterface(interfaceName);
+        if (typeToExtend.isPublic()) {
+            typeBuilder.addModifiers(Modifier.PUBLIC);
+        }
+        TypeMirror closeable = elementUtils.getTypeElement(Closeable.class.getCanonicalName()).asType();
+        if (!typeUtils.isAssignable(typeToExtend.getType(), closeable)) {
+            typeBuilder.addSuperinterface(Closeable.class);
+        }
+
+        typeBuilder.addField(FieldSpec.builder(stateManagerType, STATE_MANAGER_FIELD, Modifier.PRIVATE, Modifier.FINAL)
+                .build());
+        typeBuilder.addMethod(MethodSpec.constructorBuilder()
+                .addModifiers(Modifier.PRIVATE)
+                .addParameter(stateManagerType, STATE_MANAGER_FIELD)
+                .addStatement("this.$N = $N", STATE_MANAGER_FIELD, STATE_MANAGER_FIELD)
+                .build());
+        typeBuilder.addMethod(MethodSpec.methodBuilder("newProxyInstance")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .returns(proxyName)
+                .addParameter(ParameterizedTypeName.get(ClassName.get(Supplier.class), interfaceName),
+                        "delegateSupplier")
+                .addParameter(LEADER_ELECTION_SERVICE, "leaderElectionService")
+                .addStatement("return new $T($T.create($T.class, delegateSupplier, leaderElectionService))",
+                        proxyName, LEADERSHIP_STATE_MANAGER, interfaceName)
+                .build());
+        typeBuilder.addMethod(MethodSpec.methodBuilder("close")
+                .addAnnotation(Override.class)
+                .addModifiers(Modifier.PUBLIC)
+                .addStatement("this.$N.close()", STATE_MANAGER_FIELD)
+                .build());
+
+        DeclaredType declaredType = (DeclaredType) typeElement.asType();
+        for (ExecutableElement methodElement : typeToExtend.getMethods()) {
+            if (!isClose(methodElement) && !isObjectMethod(methodElement)) {
+                typeBuilder.addMethod(generateMethod(methodElement, declaredType, interfaceName));
+            }
+        }
+
+        JavaFile
+                .builder(typeToExtend.getPackageName(), typeBuilder.build())
+                .build()
+                .writeTo(filer);
+    }
+
+    private MethodSpec generateMethod(ExecutableElement methodElement, DeclaredType enclosing, TypeName interfaceName) {
+        Set<String> parameterNames = methodElement.getParameters().stream()
+                .map(parameter -> parameter.getSimpleName().toString())
+                .collect(Collectors.toSet());
+        String token = unusedName("leadershipToken", parameterNames);
+        String delegate = unusedName("delegate", parameterNames);
+        String call = "$N.$N(" + methodElement.getParameters().stream()
+                .map(VariableElement::getSimpleName)
+                .collect(Collectors.joining(", ")) + ")";
+
+        MethodSpec.Builder method = MethodSpec.overriding(methodElement, enclosing, typeUtils)
+                .addStatement("$T $N = this.$N.getLeadershipToken()", LEADERSHIP_TOKEN, token, STATE_MANAGER_FIELD);
+
+        if (returnsListenableFuture(methodElement)) {
+            return method
+                    .addStatement("return this.$N.executeAsync($N, $N -> " + call + ")",
+                            STATE_MANAGER_FIELD, token, delegate, delegate, methodElement.getSimpleName())
+                    .build();
+        }
+
+        String span = unusedName("ignored", parameterNames);
+        String thrown = unusedName("thrown", parameterNames);
+        String returnPrefix = methodElement.getReturnType().getKind() == TypeKind.VOID ? "" : "return ";
+        return method
+                .addStatement("$T $N = this.$N.getDelegate($N)", interfaceName, delegate, STATE_MANAGER_FIELD, token)
+                .beginControlFlow("try ($T $N = $T.startSpan($S))",
+                        CLOSEABLE_TRACER, span, CLOSEABLE_TRACER, "execute-on-delegate")
+                .addStatement(returnPrefix + call, delegate, methodElement.getSimpleName())
+                .nextControlFlow("catch ($T $N)", Throwable.class, thrown)
+                .addStatement("this.$N.handleDelegateException($N, $N)", STATE_MANAGER_FIELD, token, thrown)
+                // the delegate can only have thrown exceptions declared by the method, so this compiles
+                .addStatement("throw $N", thrown)
+                .endControlFlow()
+                .build();
+    }
+
+    private boolean returnsListenableFuture(ExecutableElement methodElement) {
+        TypeElement listenableFuture = elementUtils.getTypeElement(LISTENABLE_FUTURE);
+        return listenableFuture != null && typeUtils.isSameType(
+                typeUtils.erasure(methodElement.getReturnType()),
+                typeUtils.erasure(listenableFuture.asType()));
+    }
+
+    private static boolean isClose(ExecutableElement methodElement) {
+        return methodElement.getSimpleName().contentEquals("close") && methodElement.getParameters().isEmpty();
+    }
+
+    private static boolean isObjectMethod(ExecutableElement methodElement) {
+        String name = methodElement.getSimpleName().toString();
+        List<? extends VariableElement> parameters = methodElement.getParameters();
+        if (parameters.isEmpty()) {
+            return name.equals("toString") || name.equals("hashCode");
+        }
+        return name.equals("equals") && parameters.size() == 1
+                && parameters.get(0).asType().toString().equals(Object.class.getCanonicalName());
+    }
+
+    private static String unusedName(String name, Set<String> usedNames) {
+        String candidate = name;
+        while (usedNames.contains(candidate)) {
+            candidate = candidate + "_";
+        }
+        return candidate;
+    }
+
+    /**
+     * Prints a warn message.
+     *
+     * @param element The element which has caused the error. Can be null
+     * @param msg The error message
+     */
+    private void warn(Element element, String msg) {
+        messager.printMessage(Diagnostic.Kind.WARNING, msg, element);
+    }
+
+    /**
+     * Prints an error message.
+     *
+     * @param element The element which has caused the error. Can be null
+     * @param msg The error message
+     */
+    private void error(Element element, String msg) {
+        messager.printMessage(Diagnostic.Kind.ERROR, msg, element);
+    }
+}
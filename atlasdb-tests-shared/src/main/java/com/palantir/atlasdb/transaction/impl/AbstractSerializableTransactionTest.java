@@ -16,6 +16,7 @@
 package com.palantir.atlasdb.transaction.impl;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.fail;
@@ -23,6 +24,7 @@ import static org.junit.Assert.fail;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.BrokenBarrierException;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CyclicBarrier;
@@ -33,6 +35,7 @@ import java.util.concurrent.Future;
 import org.junit.Assert;
 import org.junit.Test;
 
+import com.google.common.base.Strings;
 import com.google.common.base.Suppliers;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
@@ -41,6 +44,7 @@ import com.google.common.collect.Iterables;
 import com.google.common.collect.Iterators;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Ordering;
+import com.google.common.collect.Sets;
 import com.google.common.primitives.UnsignedBytes;
 import com.google.common.util.concurrent.MoreExecutors;
 import com.palantir.atlasdb.cleaner.NoOpCleaner;
@@ -58,6 +62,7 @@ import com.palantir.atlasdb.keyvalue.impl.TransactionManagerManager;
 import com.palantir.atlasdb.sweep.queue.MultiTableSweepQueueWriter;
 import com.palantir.atlasdb.table.description.ValueType;
 import com.palantir.atlasdb.transaction.ImmutableTransactionConfig;
+import com.palantir.atlasdb.transaction.TransactionConfig;
 import com.palantir.atlasdb.transaction.api.AtlasDbConstraintCheckingMode;
 import com.palantir.atlasdb.transaction.api.ConflictHandler;
 import com.palantir.atlasdb.transaction.api.Transaction;
@@ -74,6 +79,7 @@ import com.palantir.lock.impl.LegacyTimelockService;
 
 @SuppressWarnings("CheckReturnValue")
 public abstract class AbstractSerializableTransactionTest extends AbstractTransactionTest {
+    private TransactionConfig transactionConfig = ImmutableTransactionConfig.builder().build();
 
     public AbstractSerializableTransactionTest(KvsManager kvsManager, TransactionManagerManager tmManager) {
         super(kvsManager, tmManager);
@@ -130,8 +136,9 @@ public abstract class AbstractSerializableTransactionTest extends AbstractTransa
                 AbstractTransactionTest.DEFAULT_GET_RANGES_CONCURRENCY,
                 getSweepQueueWriterInitialized(),
                 MoreExecutors.newDirectExecutorService(),
+                MoreExecutors.newDirectExecutorService(),
                 true,
-                () -> ImmutableTransactionConfig.builder().build(),
+                () -> transactionConfig,
                 ConflictTracer.NO_OP) {
             @Override
             protected Map<Cell, byte[]> transformGetsForTesting(Map<Cell, byte[]> map) {
@@ -510,6 +517,117 @@ public abstract class AbstractSerializableTransactionTest extends AbstractTransa
         }
     }
 
+    @Test
+    public void testConflictInOneOfManyRangesIsDetected() {
+        Transaction t0 = startTransaction();
+        for (int i = 0; i < 20; i++) {
+            put(t0, "row" + i, "col1", "100");
+        }
+        t0.commit();
+
+        Transaction t1 = startTransaction();
+        for (int i = 0; i < 20; i++) {
+            RangeRequest range = RangeRequest.builder().prefixRange(PtBytes.toBytes("row" + i)).build();
+            BatchingVisitables.copyToList(t1.getRange(TEST_TABLE, range));
+        }
+        put(t1, "other", "col1", "100");
+
+        Transaction t2 = startTransaction();
+        put(t2, "row17", "col1", "101");
+        t2.commit();
+
+        assertThatThrownBy(t1::commit).isInstanceOf(TransactionSerializableConflictException.class);
+    }
+
+    @Test
+    public void testCellReadsSpanningManyBatchesAreValidated() {
+        Transaction t0 = startTransaction();
+        Set<Cell> cells = Sets.newHashSet();
+        for (int i = 0; i < 2500; i++) {
+            put(t0, "row" + i, "col1", "100");
+            cells.add(Cell.create(PtBytes.toBytes("row" + i), PtBytes.toBytes("col1")));
+        }
+        t0.commit();
+
+        Transaction t1 = startTransaction();
+        assertThat(t1.get(TEST_TABLE, cells)).hasSize(2500);
+        put(t1, "other", "col1", "100");
+        Transaction t2 = startTransaction();
+        put(t2, "unread", "col1", "100");
+        t2.commit();
+        t1.commit();
+
+        Transaction t3 = startTransaction();
+        assertThat(t3.get(TEST_TABLE, cells)).hasSize(2500);
+        put(t3, "other", "col1", "101");
+        Transaction t4 = startTransaction();
+        put(t4, "row2499", "col1", "101");
+        t4.commit();
+
+        assertThatThrownBy(t3::commit).isInstanceOf(TransactionSerializableConflictException.class);
+    }
+
+    @Test
+    public void testFingerprintedCellAndRangeReadsWithoutConflictsCommit() {
+        fingerprintReadsAfterBytes(0);
+        String largeValue = Strings.repeat("v", 100);
+        Transaction t0 = startTransaction();
+        put(t0, "row1", "col1", largeValue);
+        put(t0, "row2", "col1", "small");
+        t0.commit();
+
+        Transaction t1 = startTransaction();
+        assertEquals(largeValue, get(t1, "row1", "col1"));
+        BatchingVisitables.copyToList(t1.getRange(TEST_TABLE, RangeRequest.all()));
+        put(t1, "row3", "col1", largeValue);
+
+        Transaction t2 = startTransaction();
+        put(t2, "unread", "col1", largeValue);
+        t2.commit();
+
+        t1.commit();
+    }
+
+    @Test
+    public void testFingerprintedCellReadsDetectConflicts() {
+        fingerprintReadsAfterBytes(0);
+        Transaction t0 = startTransaction();
+        put(t0, "row1", "col1", Strings.repeat("v", 100));
+        t0.commit();
+
+        Transaction t1 = startTransaction();
+        get(t1, "row1", "col1");
+        put(t1, "row2", "col1", "100");
+
+        Transaction t2 = startTransaction();
+        put(t2, "row1", "col1", Strings.repeat("w", 100));
+        t2.commit();
+
+        assertThatThrownBy(t1::commit).isInstanceOf(TransactionSerializableConflictException.class);
+    }
+
+    @Test
+    public void testRangeReadsSwitchingToFingerprintsDetectConflicts() {
+        fingerprintReadsAfterBytes(150);
+        Transaction t0 = startTransaction();
+        for (int i = 0; i < 5; i++) {
+            put(t0, "row" + i, "col1", Strings.repeat("v", 100));
+        }
+        t0.commit();
+
+        Transaction t1 = startTransaction();
+        RangeRequest range = RangeRequest.builder().prefixRange(PtBytes.toBytes("row")).batchHint(1).build();
+        assertThat(BatchingVisitables.copyToList(t1.getRange(TEST_TABLE, range))).hasSize(5);
+        put(t1, "other", "col1", "100");
+
+        Transaction t2 = startTransaction();
+        put(t2, "row0", "col1", Strings.repeat("w", 100));
+        put(t2, "row4", "col1", Strings.repeat("w", 100));
+        t2.commit();
+
+        assertThatThrownBy(t1::commit).isInstanceOf(TransactionSerializableConflictException.class);
+    }
+
     @Test
     public void testColumnSelection() {
         String initialValue = "100";
@@ -1023,6 +1141,12 @@ public abstract class AbstractSerializableTransactionTest extends AbstractTransa
         t2.commit();
     }
 
+    private void fingerprintReadsAfterBytes(long thresholdBytes) {
+        transactionConfig = ImmutableTransactionConfig.builder()
+                .serializableReadSetFingerprintThresholdBytes(thresholdBytes)
+                .build();
+    }
+
     private void writeColumns() {
         Transaction t1 = startTransaction();
         int totalPuts = 101;
@@ -17,6 +17,7 @@ package com.palantir.atlasdb.transaction.impl;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
@@ -153,6 +154,7 @@ public abstract class AbstractTransactionTest extends TransactionTestSetup {
                 DEFAULT_GET_RANGES_CONCURRENCY,
                 MultiTableSweepQueueWriter.NO_OP,
                 MoreExecutors.newDirectExecutorService(),
+                MoreExecutors.newDirectExecutorService(),
                 true,
                 () -> TRANSACTION_CONFIG,
                 ConflictTracer.NO_OP);
@@ -1652,6 +1654,59 @@ public abstract class AbstractTransactionTest extends TransactionTestSetup {
         assertThat(extractedValue).containsExactly(PtBytes.toBytes("value"));
     }
 
+    @Test
+    public void getRangeInParallelVisitsRowsInOrder() {
+        Transaction t = startTransaction();
+        for (int i = 0; i < 20; i++) {
+            t.put(TEST_TABLE, ImmutableMap.of(Cell.create(toBytes(String.format("row%02d", i)), column(0)), value(i)));
+        }
+        t.commit();
+
+        t = startTransaction();
+        t.put(TEST_TABLE, ImmutableMap.of(Cell.create(toBytes("row07a"), column(0)), value(7)));
+        t.delete(TEST_TABLE, ImmutableSet.of(Cell.create(toBytes("row12"), column(0))));
+        List<byte[]> splitPoints = ImmutableList.of(toBytes("row15"), toBytes("row05"), toBytes("row10"));
+
+        List<String> serialRows = BatchingVisitables.copyToList(t.getRange(TEST_TABLE, RangeRequest.all()))
+                .stream()
+                .map(rowResult -> PtBytes.toString(rowResult.getRowName()))
+                .collect(Collectors.toList());
+        List<String> parallelRows = BatchingVisitables.copyToList(
+                t.getRangeInParallel(TEST_TABLE, RangeRequest.all(), splitPoints, 2))
+                .stream()
+                .map(rowResult -> PtBytes.toString(rowResult.getRowName()))
+                .collect(Collectors.toList());
+
+        assertThat(serialRows).hasSize(20).contains("row07a").doesNotContain("row12");
+        assertThat(parallelRows).containsExactlyElementsOf(serialRows);
+        assertThat(BatchingVisitables.take(
+                t.getRangeInParallel(TEST_TABLE, RangeRequest.all(), splitPoints, 2), 7))
+                .extracting(rowResult -> PtBytes.toString(rowResult.getRowName()))
+                .containsExactlyElementsOf(serialRows.subList(0, 7));
+    }
+
+    @Test
+    public void getRangeInParallelUnorderedProcessesEachSubRange() {
+        Transaction t = startTransaction();
+        for (int i = 0; i < 20; i++) {
+            t.put(TEST_TABLE, ImmutableMap.of(Cell.create(toBytes(String.format("row%02d", i)), column(0)), value(i)));
+        }
+        t.commit();
+
+        t = startTransaction();
+        RangeRequest range = RangeRequest.builder().startRowInclusive(toBytes("row03")).build();
+        List<byte[]> splitPoints = ImmutableList.of(toBytes("row01"), toBytes("row10"));
+        Map<RangeRequest, Integer> rowsPerSubRange = t.getRangeInParallelUnordered(
+                TEST_TABLE, range, splitPoints, 2, (subRange, visitable) -> Pair.create(subRange, visitable))
+                .collect(Collectors.toMap(
+                        Pair::getLhSide,
+                        pair -> BatchingVisitables.copyToList(pair.getRhSide()).size()));
+
+        assertThat(rowsPerSubRange).containsOnly(
+                entry(range.getBuilder().endRowExclusive(toBytes("row10")).build(), 7),
+                entry(range.getBuilder().startRowInclusive(toBytes("row10")).build(), 10));
+    }
+
     private void verifyAllGetRangesImplsRangeSizes(Transaction t, RangeRequest templateRangeRequest, int expectedRangeSize) {
         Iterable<RangeRequest> rangeRequests = Iterables.limit(Iterables.cycle(templateRangeRequest), 1000);
 
@@ -205,6 +205,7 @@ public class TestTransactionManagerImpl extends SerializableTransactionManager i
                         defaultGetRangesConcurrency,
                         sweepQueueWriter,
                         deleteExecutor,
+                        commitStageExecutor,
                         validateLocksOnReads,
                         () -> TRANSACTION_CONFIG,
                         ConflictTracer.NO_OP),
@@ -241,6 +242,7 @@ public class TestTransactionManagerImpl extends SerializableTransactionManager i
                         defaultGetRangesConcurrency,
                         sweepQueueWriter,
                         deleteExecutor,
+                        commitStageExecutor,
                         validateLocksOnReads,
                         transactionConfig,
                         ConflictTracer.NO_OP),
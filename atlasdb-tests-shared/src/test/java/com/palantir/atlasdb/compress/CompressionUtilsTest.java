@@ -15,17 +15,31 @@
  */
 package com.palantir.atlasdb.compress;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
+import java.util.Iterator;
+import java.util.stream.IntStream;
 
+import org.junit.After;
 import org.junit.Test;
 
 import com.palantir.atlasdb.table.description.ColumnValueDescription.Compression;
+import com.palantir.logsafe.exceptions.SafeIllegalStateException;
 
 public class CompressionUtilsTest {
+    private static final String DICTIONARY_NAME = "test";
+
+    @After
+    public void tearDown() {
+        CompressionDictionaries.clear();
+    }
+
     @Test
     public void testCompressAndDecompress() {
         byte[] original = new byte[] { 1, 1, 1, 1, 1, 1, 1, 1, 1, 1 };
@@ -73,4 +87,83 @@ public class CompressionUtilsTest {
         }
         assertTrue(threwIllegalArgumentException);
     }
+
+    @Test
+    public void roundTripsWithLz4AndZstd() {
+        byte[] original = similarValue(1).getBytes(StandardCharsets.UTF_8);
+        for (Compression compression : new Compression[] { Compression.LZ4, Compression.ZSTD }) {
+            byte[] compressed = CompressionUtils.compress(original, compression);
+            assertThat(compressed).isNotEqualTo(original);
+            assertThat(CompressionUtils.decompress(compressed, compression)).isEqualTo(original);
+        }
+    }
+
+    @Test
+    public void roundTripsEmptyValues() {
+        for (Compression compression : new Compression[] { Compression.NONE, Compression.LZ4, Compression.ZSTD }) {
+            byte[] compressed = CompressionUtils.compress(new byte[0], compression);
+            assertThat(CompressionUtils.decompress(compressed, compression)).isEmpty();
+        }
+    }
+
+    @Test
+    public void invalidLz4AndZstdBytesThrowIllegalArgumentException() {
+        byte[] invalid = new byte[] { 1, 2, 3, 4, 5, 6, 7, 8 };
+        assertThatThrownBy(() -> CompressionUtils.decompress(invalid, Compression.LZ4))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> CompressionUtils.decompress(invalid, Compression.ZSTD))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void compressesWithoutDictionaryIfNoneRegistered() {
+        byte[] original = similarValue(1).getBytes(StandardCharsets.UTF_8);
+        byte[] compressed = CompressionUtils.compress(original, Compression.ZSTD, DICTIONARY_NAME);
+        assertThat(compressed).isEqualTo(CompressionUtils.compressWithZstd(original));
+    }
+
+    @Test
+    public void dictionaryCompressesSmallSimilarValuesBetter() {
+        CompressionDictionaries.register(trainDictionary(1));
+
+        byte[] original = similarValue(123_456).getBytes(StandardCharsets.UTF_8);
+        byte[] withDictionary = CompressionUtils.compress(original, Compression.ZSTD, DICTIONARY_NAME);
+        assertThat(withDictionary.length).isLessThan(CompressionUtils.compressWithZstd(original).length);
+        assertThat(CompressionUtils.decompress(withDictionary, Compression.ZSTD)).isEqualTo(original);
+    }
+
+    @Test
+    public void valuesCompressedWithOlderDictionaryVersionsCanBeDecompressed() {
+        CompressionDictionaries.register(trainDictionary(1));
+        byte[] original = similarValue(5).getBytes(StandardCharsets.UTF_8);
+        byte[] compressedWithFirstVersion = CompressionUtils.compress(original, Compression.ZSTD, DICTIONARY_NAME);
+
+        CompressionDictionary secondVersion = trainDictionary(2);
+        CompressionDictionaries.register(secondVersion);
+        assertThat(CompressionDictionaries.getLatest(DICTIONARY_NAME)).contains(secondVersion);
+        assertThat(CompressionUtils.decompress(compressedWithFirstVersion, Compression.ZSTD)).isEqualTo(original);
+    }
+
+    @Test
+    public void decompressingWithUnknownDictionaryThrows() {
+        CompressionDictionaries.register(trainDictionary(1));
+        byte[] compressed = CompressionUtils.compress(
+                similarValue(5).getBytes(StandardCharsets.UTF_8), Compression.ZSTD, DICTIONARY_NAME);
+        CompressionDictionaries.clear();
+
+        assertThatThrownBy(() -> CompressionUtils.decompress(compressed, Compression.ZSTD))
+                .isInstanceOf(SafeIllegalStateException.class);
+    }
+
+    private static CompressionDictionary trainDictionary(long version) {
+        Iterator<byte[]> values = IntStream.range(0, 10_000)
+                .mapToObj(i -> similarValue(i * (int) version).getBytes(StandardCharsets.UTF_8))
+                .iterator();
+        return CompressionDictionary.train(DICTIONARY_NAME, version, values, 2_000, 4_096);
+    }
+
+    private static String similarValue(int index) {
+        return "{\"id\":" + index + ",\"type\":\"com.palantir.example.Widget\",\"owner\":\"user-" + (index % 97)
+                + "\",\"tags\":[\"alpha\",\"beta\"],\"active\":" + (index % 2 == 0) + "}";
+    }
 }
@@ -16,20 +16,25 @@
 package com.palantir.atlasdb.keyvalue.impl;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import java.util.Arrays;
+import java.util.List;
 import java.util.Random;
 
 import org.junit.Assert;
 import org.junit.Test;
 
+import com.google.common.collect.ImmutableList;
 import com.palantir.atlasdb.encoding.PtBytes;
+import com.palantir.atlasdb.keyvalue.api.RangeRequest;
 import com.palantir.atlasdb.keyvalue.api.RangeRequests;
 
 public class RangeRequestsTest {
 
     private static final byte[] BYTES_1 = PtBytes.toBytes("apple");
     private static final byte[] BYTES_2 = PtBytes.toBytes("banana");
+    private static final byte[] BYTES_3 = PtBytes.toBytes("cherry");
 
     private Random random = new Random();
 
@@ -100,6 +105,45 @@ public class RangeRequestsTest {
         assertThat(RangeRequests.isExactlyEmptyRange(BYTES_2, BYTES_2)).isTrue();
     }
 
+    @Test
+    public void splittingWithoutSplitPointsReturnsOriginalRange() {
+        RangeRequest range = RangeRequest.builder().startRowInclusive(BYTES_1).endRowExclusive(BYTES_3).build();
+
+        assertThat(RangeRequests.splitRange(range, ImmutableList.of())).containsExactly(range);
+    }
+
+    @Test
+    public void splitRangesAreContiguousAndSorted() {
+        RangeRequest range = RangeRequest.builder().batchHint(10).retainColumns(ImmutableList.of(BYTES_1)).build();
+
+        List<RangeRequest> subRanges = RangeRequests.splitRange(range, ImmutableList.of(BYTES_3, BYTES_2, BYTES_1));
+
+        assertThat(subRanges).containsExactly(
+                range.getBuilder().endRowExclusive(BYTES_1).build(),
+                range.getBuilder().startRowInclusive(BYTES_1).endRowExclusive(BYTES_2).build(),
+                range.getBuilder().startRowInclusive(BYTES_2).endRowExclusive(BYTES_3).build(),
+                range.getBuilder().startRowInclusive(BYTES_3).build());
+    }
+
+    @Test
+    public void splitPointsOutsideRangeAreIgnored() {
+        RangeRequest range = RangeRequest.builder().startRowInclusive(BYTES_1).endRowExclusive(BYTES_3).build();
+
+        List<RangeRequest> subRanges = RangeRequests.splitRange(range, ImmutableList.of(
+                PtBytes.EMPTY_BYTE_ARRAY, PtBytes.toBytes("aardvark"), BYTES_1, BYTES_2, BYTES_2, BYTES_3));
+
+        assertThat(subRanges).containsExactly(
+                RangeRequest.builder().startRowInclusive(BYTES_1).endRowExclusive(BYTES_2).build(),
+                RangeRequest.builder().startRowInclusive(BYTES_2).endRowExclusive(BYTES_3).build());
+    }
+
+    @Test
+    public void cannotSplitReverseRanges() {
+        assertThatThrownBy(() -> RangeRequests.splitRange(RangeRequest.reverseBuilder().build(),
+                ImmutableList.of(BYTES_1)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
     private byte[] generateRandomWithFreqLogLen() {
         long randomLong = random.nextLong();
         // lg(n) distribution of len
@@ -85,7 +85,10 @@ import com.palantir.atlasdb.schema.stream.generated.TestHashComponentsStreamMeta
 import com.palantir.atlasdb.schema.stream.generated.TestHashComponentsStreamMetadataTable.TestHashComponentsStreamMetadataRow;
 import com.palantir.atlasdb.schema.stream.generated.TestHashComponentsStreamStore;
 import com.palantir.atlasdb.schema.stream.generated.TestHashComponentsStreamValueTable.TestHashComponentsStreamValueRow;
+import com.palantir.atlasdb.stream.ImmutableStreamStorePersistenceConfiguration;
 import com.palantir.atlasdb.stream.PersistentStreamStore;
+import com.palantir.atlasdb.stream.StreamBlockCompression;
+import com.palantir.atlasdb.stream.StreamStorePersistenceConfiguration;
 import com.palantir.atlasdb.table.description.Schemas;
 import com.palantir.atlasdb.transaction.api.Transaction;
 import com.palantir.atlasdb.transaction.api.TransactionConflictException;
@@ -119,16 +122,20 @@ public class StreamTest extends AtlasDbTestCase {
         Schemas.deleteTablesAndIndexes(StreamTestSchema.getSchema(), keyValueService);
         Schemas.createTablesAndIndexes(StreamTestSchema.getSchema(), keyValueService);
 
-        if (!useStoreWithHashedComponents) {
-            defaultStore = StreamTestStreamStore.of(txManager, StreamTestTableFactory.of());
-        } else {
-            defaultStore = TestHashComponentsStreamStore.of(txManager, StreamTestTableFactory.of());
-        }
+        defaultStore = createDefaultStore(StreamStorePersistenceConfiguration.DEFAULT_CONFIG);
 
         compressedStore = StreamTestWithHashStreamStore.of(txManager, StreamTestTableFactory.of());
         maxMemStore = StreamTestMaxMemStreamStore.of(txManager, StreamTestTableFactory.of());
     }
 
+    private PersistentStreamStore createDefaultStore(StreamStorePersistenceConfiguration config) {
+        if (!useStoreWithHashedComponents) {
+            return StreamTestStreamStore.of(txManager, StreamTestTableFactory.of(), () -> config);
+        } else {
+            return TestHashComponentsStreamStore.of(txManager, StreamTestTableFactory.of(), () -> config);
+        }
+    }
+
     @Test
     public void testRender() throws IOException {
         StreamTestSchema.getSchema().renderTables(temporaryFolder.getRoot());
@@ -301,6 +308,53 @@ public class StreamTest extends AtlasDbTestCase {
         storeAndCheckByteStreams(maxMemStore, getIncompressibleBytes(20_000_000));
     }
 
+    @Test
+    public void testStoreWithConcurrentBlockWritesAndReadAhead() throws IOException {
+        PersistentStreamStore store = createDefaultStore(ImmutableStreamStorePersistenceConfiguration.builder()
+                .numConcurrentBlockWrites(4)
+                .numBlocksToReadAhead(8)
+                .build());
+        storeNonTransactionallyAndCheck(store,
+                getIncompressibleBytes(StreamTestStreamStore.BLOCK_SIZE_IN_BYTES * 10 + 17));
+    }
+
+    @Test
+    public void testStoreWithConcurrentBlockWritesExactlyFillingReservations() throws IOException {
+        PersistentStreamStore store = createDefaultStore(ImmutableStreamStorePersistenceConfiguration.builder()
+                .numConcurrentBlockWrites(2)
+                .build());
+        storeNonTransactionallyAndCheck(store, getIncompressibleBytes(StreamTestStreamStore.BLOCK_SIZE_IN_BYTES * 6));
+    }
+
+    @Test
+    public void testStoreWithBlockCompression() throws IOException {
+        for (StreamBlockCompression blockCompression : StreamBlockCompression.values()) {
+            PersistentStreamStore store = createDefaultStore(ImmutableStreamStorePersistenceConfiguration.builder()
+                    .blockCompression(blockCompression)
+                    .numConcurrentBlockWrites(3)
+                    .build());
+            storeAndCheckByteStreams(store, getCompressibleBytes(5_000_000));
+            storeAndCheckByteStreams(store, getIncompressibleBytes(blockCompression.blockPayloadSize()));
+            storeNonTransactionallyAndCheck(store,
+                    getIncompressibleBytes(StreamTestStreamStore.BLOCK_SIZE_IN_BYTES * 3));
+        }
+    }
+
+    @Test
+    public void streamsRemainReadableWhenBlockCompressionChanges() throws IOException {
+        byte[] bytes = getIncompressibleBytes(StreamTestStreamStore.BLOCK_SIZE_IN_BYTES * 5 + 1);
+        long id = storeStream(defaultStore, bytes, PtBytes.toBytes("ref"));
+
+        PersistentStreamStore compressingStore = createDefaultStore(ImmutableStreamStorePersistenceConfiguration
+                .builder()
+                .blockCompression(StreamBlockCompression.ZSTD)
+                .build());
+        verifyLoadingStreams(compressingStore, id, bytes);
+
+        long compressedId = storeStream(compressingStore, bytes, PtBytes.toBytes("ref"));
+        verifyLoadingStreams(defaultStore, compressedId, bytes);
+    }
+
     private long storeAndCheckByteStreams(PersistentStreamStore store, byte[] bytesToStore) throws IOException {
         byte[] reference = PtBytes.toBytes("ref");
 
@@ -314,6 +368,12 @@ public class StreamTest extends AtlasDbTestCase {
         return id;
     }
 
+    private void storeNonTransactionallyAndCheck(PersistentStreamStore store, byte[] bytesToStore)
+            throws IOException {
+        long id = store.storeStream(new ByteArrayInputStream(bytesToStore)).lhSide;
+        verifyLoadingStreams(store, id, bytesToStore);
+    }
+
     private long storeStream(PersistentStreamStore store, byte[] bytesToStore, byte[] reference) {
         final long id = timestampService.getFreshTimestamp();
         txManager.runTaskWithRetry(t -> {
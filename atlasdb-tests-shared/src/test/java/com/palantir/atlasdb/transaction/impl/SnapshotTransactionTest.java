@@ -190,6 +190,7 @@ public class SnapshotTransactionTest extends AtlasDbTestCase {
     private final TimestampCache timestampCache = new DefaultTimestampCache(
             metricsManager.getRegistry(), () -> AtlasDbConstants.DEFAULT_TIMESTAMP_CACHE_SIZE);
     private final ExecutorService getRangesExecutor = Executors.newFixedThreadPool(8);
+    private final ExecutorService commitStageExecutor = Executors.newCachedThreadPool();
     private final int defaultGetRangesConcurrency = 2;
     private final TransactionOutcomeMetrics transactionOutcomeMetrics
             = TransactionOutcomeMetrics.create(metricsManager);
@@ -422,6 +423,7 @@ public class SnapshotTransactionTest extends AtlasDbTestCase {
                         defaultGetRangesConcurrency,
                         MultiTableSweepQueueWriter.NO_OP,
                         MoreExecutors.newDirectExecutorService(),
+                        MoreExecutors.newDirectExecutorService(),
                         true,
                         () -> transactionConfig,
                         ConflictTracer.NO_OP),
@@ -494,6 +496,7 @@ public class SnapshotTransactionTest extends AtlasDbTestCase {
                         defaultGetRangesConcurrency,
                         MultiTableSweepQueueWriter.NO_OP,
                         MoreExecutors.newDirectExecutorService(),
+                        MoreExecutors.newDirectExecutorService(),
                         true,
                         () -> transactionConfig,
                         ConflictTracer.NO_OP),
@@ -1498,6 +1501,77 @@ public class SnapshotTransactionTest extends AtlasDbTestCase {
 
     }
 
+    @Test
+    public void pipelinedCommitWritesValues() {
+        setTransactionConfig(ImmutableTransactionConfig.builder().pipelineCommitStages(true).build());
+        TimelockService timelockService = new LegacyTimelockService(timestampService, lockService, lockClient);
+        LockImmutableTimestampResponse res = timelockService.lockImmutableTimestamp();
+        long transactionTs = timelockService.getFreshTimestamp();
+
+        Transaction transaction = getSnapshotTransactionWith(
+                timelockService, () -> transactionTs, res, PreCommitConditions.NO_OP);
+        transaction.put(TABLE, ImmutableMap.of(TEST_CELL, PtBytes.toBytes("value")));
+        transaction.commit();
+        timelockService.unlock(ImmutableSet.of(res.getLock()));
+
+        Transaction reader = txManager.createNewTransaction();
+        assertThat(reader.get(TABLE, ImmutableSet.of(TEST_CELL)).get(TEST_CELL), is(PtBytes.toBytes("value")));
+    }
+
+    @Test
+    public void pipelinedCommitThrowsOnWriteWriteConflict() {
+        setTransactionConfig(ImmutableTransactionConfig.builder().pipelineCommitStages(true).build());
+        TimelockService timelockService = new LegacyTimelockService(timestampService, lockService, lockClient);
+        LockImmutableTimestampResponse res = timelockService.lockImmutableTimestamp();
+        long transactionTs = timelockService.getFreshTimestamp();
+
+        Transaction transaction = getSnapshotTransactionWith(
+                timelockService, () -> transactionTs, res, PreCommitConditions.NO_OP);
+        writeCells(TABLE, ImmutableMap.of(TEST_CELL, PtBytes.toBytes("other")));
+        transaction.put(TABLE, ImmutableMap.of(TEST_CELL, PtBytes.toBytes("value")));
+
+        assertThatExceptionOfType(TransactionConflictException.class).isThrownBy(transaction::commit);
+        timelockService.unlock(ImmutableSet.of(res.getLock()));
+    }
+
+    @Test
+    public void pipelinedCommitFailsIfPreCommitConditionFails() {
+        setTransactionConfig(ImmutableTransactionConfig.builder().pipelineCommitStages(true).build());
+        TimelockService timelockService = new LegacyTimelockService(timestampService, lockService, lockClient);
+        LockImmutableTimestampResponse res = timelockService.lockImmutableTimestamp();
+        long transactionTs = timelockService.getFreshTimestamp();
+
+        Transaction transaction = getSnapshotTransactionWith(
+                timelockService, () -> transactionTs, res, ALWAYS_FAILS_CONDITION);
+        transaction.put(TABLE, ImmutableMap.of(TEST_CELL, PtBytes.toBytes("value")));
+
+        assertThatExceptionOfType(TransactionFailedRetriableException.class).isThrownBy(transaction::commit);
+        timelockService.unlock(ImmutableSet.of(res.getLock()));
+    }
+
+    @Test
+    public void pipelinedCommitThrowsWriteWriteConflictInPreferenceToSweepQueueFailure() {
+        setTransactionConfig(ImmutableTransactionConfig.builder().pipelineCommitStages(true).build());
+        TimelockService timelockService = new LegacyTimelockService(timestampService, lockService, lockClient);
+        LockImmutableTimestampResponse res = timelockService.lockImmutableTimestamp();
+        long transactionTs = timelockService.getFreshTimestamp();
+        IllegalStateException sweepQueueFailure = new IllegalStateException("sweep queue unavailable");
+        MultiTableSweepQueueWriter failingSweepQueue = writes -> {
+            throw sweepQueueFailure;
+        };
+
+        Transaction transaction = getSnapshotTransactionWith(
+                timelockService, () -> transactionTs, res, PreCommitConditions.NO_OP, true, failingSweepQueue);
+        writeCells(TABLE, ImmutableMap.of(TEST_CELL, PtBytes.toBytes("other")));
+        transaction.put(TABLE, ImmutableMap.of(TEST_CELL, PtBytes.toBytes("value")));
+
+        assertThatExceptionOfType(TransactionConflictException.class)
+                .isThrownBy(transaction::commit)
+                .satisfies(conflict ->
+                        assertThat(Arrays.asList(conflict.getSuppressed()), hasItem(sweepQueueFailure)));
+        timelockService.unlock(ImmutableSet.of(res.getLock()));
+    }
+
     private void setTransactionConfig(TransactionConfig config) {
         transactionConfig = config;
     }
@@ -1521,6 +1595,22 @@ public class SnapshotTransactionTest extends AtlasDbTestCase {
             LockImmutableTimestampResponse lockImmutableTimestampResponse,
             PreCommitCondition preCommitCondition,
             boolean validateLocksOnReads) {
+        return getSnapshotTransactionWith(
+                timelockService,
+                startTs,
+                lockImmutableTimestampResponse,
+                preCommitCondition,
+                validateLocksOnReads,
+                MultiTableSweepQueueWriter.NO_OP);
+    }
+
+    private Transaction getSnapshotTransactionWith(
+            TimelockService timelockService,
+            Supplier<Long> startTs,
+            LockImmutableTimestampResponse lockImmutableTimestampResponse,
+            PreCommitCondition preCommitCondition,
+            boolean validateLocksOnReads,
+            MultiTableSweepQueueWriter sweepQueue) {
         PathTypeTracker pathTypeTracker = PathTypeTrackers.constructSynchronousTracker();
         return transactionWrapper.apply(
                 new SnapshotTransaction(
@@ -1544,8 +1634,9 @@ public class SnapshotTransactionTest extends AtlasDbTestCase {
                         timestampCache,
                         getRangesExecutor,
                         defaultGetRangesConcurrency,
-                        MultiTableSweepQueueWriter.NO_OP,
+                        sweepQueue,
                         MoreExecutors.newDirectExecutorService(),
+                        commitStageExecutor,
                         validateLocksOnReads,
                         () -> transactionConfig,
                         ConflictTracer.NO_OP),
@@ -0,0 +1,490 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.paxos;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import com.palantir.common.base.Throwables;
+import com.palantir.common.persist.Persistable;
+import com.palantir.logsafe.Preconditions;
+import com.palantir.logsafe.SafeArg;
+import com.palantir.logsafe.UnsafeArg;
+import com.palantir.logsafe.exceptions.SafeIllegalStateException;
+
+/**
+ * A {@link PaxosStateLog} that appends rounds to a sequence of memory-mapped segment files, rather than writing a file
+ * or a database row per round.
+ *
+ * Every record carries a CRC32 checksum, which is verified on each read and when the segments are scanned on startup
+ * to rebuild the in-memory index from sequence number to record. A checksum failure at the end of the newest segment is
+ * treated as a write torn by a crash and discarded; anywhere else it is a corrupt log.
+ *
+ * Concurrent writers are group committed: each writer appends its records under a short lock and then waits for them
+ * to be forced to disk, but whichever writer forces first does so for every record appended so far, so under load many
+ * rounds share a single fsync. Rounds only become visible to readers once they are durable. As in
+ * {@link SqlitePaxosStateLog}, writing a round for a sequence number that is already present overwrites it.
+ *
+ * Truncation appends a marker record, and deletes the oldest segments once every round they contain is truncated.
+ */
+public final class SegmentedPaxosStateLog<V extends Persistable & Versionable> implements PaxosStateLog<V>, Closeable {
+    private static final Logger log = LoggerFactory.getLogger(SegmentedPaxosStateLog.class);
+
+    @VisibleForTesting
+    static final int DEFAULT_SEGMENT_SIZE_BYTES = 16 * 1024 * 1024;
+    @VisibleForTesting
+    static final String SEGMENT_SUFFIX = ".segment";
+
+    private final Path directory;
+    private final int segmentSizeBytes;
+    private final ConcurrentSkipListMap<Long, RecordLocation> index = new ConcurrentSkipListMap<>();
+
+    private final Object appendLock = new Object();
+    private final Object syncLock = new Object();
+
+    // guarded by appendLock; the last segment is the one being appended to
+    private final List<Segment> segments = new ArrayList<>();
+    private final List<Runnable> pendingIndexUpdates = new ArrayList<>();
+    private long appendedBatches = 0;
+    private boolean closed = false;
+
+    // guarded by syncLock
+    private long durableBatches = 0;
+
+    private SegmentedPaxosStateLog(Path directory, int segmentSizeBytes) {
+        this.directory = directory;
+        this.segmentSizeBytes = segmentSizeBytes;
+    }
+
+    public static <V extends Persistable & Versionable> SegmentedPaxosStateLog<V> create(Path directory) {
+        return create(directory, DEFAULT_SEGMENT_SIZE_BYTES);
+    }
+
+    @VisibleForTesting
+    static <V extends Persistable & Versionable> SegmentedPaxosStateLog<V> create(
+            Path directory,
+            int segmentSizeBytes) {
+        Preconditions.checkArgument(segmentSizeBytes > Record.HEADER_BYTES, "Segments must be able to hold a record",
+                SafeArg.of("segmentSizeBytes", segmentSizeBytes));
+        try {
+            Files.createDirectories(directory);
+            SegmentedPaxosStateLog<V> stateLog = new SegmentedPaxosStateLog<>(directory, segmentSizeBytes);
+            stateLog.recover();
+            return stateLog;
+        } catch (IOException e) {
+            throw Throwables.rewrapAndThrowUncheckedException(
+                    "IO problem related to the paxos state log directory " + directory.toAbsolutePath(), e);
+        }
+    }
+
+    /**
+     * Opens the log in the given directory, first copying across every entry of {@code legacyLog}, which may be file
+     * or sqlite backed, unless this has already been done for the directory.
+     */
+    public static <V extends Persistable & Versionable> SegmentedPaxosStateLog<V> createMigratingFrom(
+            Path directory,
+            PaxosStateLog<V> legacyLog,
+            Persistable.Hydrator<V> hydrator) {
+        SegmentedPaxosStateLog<V> stateLog = create(directory);
+        long cutoff = PaxosStateLogMigrator.migrateAndReturnCutoff(ImmutableMigrationContext.<V>builder()
+                .sourceLog(legacyLog)
+                .destinationLog(stateLog)
+                .hydrator(hydrator)
+                .migrationState(SegmentedPaxosStateLogMigrationState.create(directory))
+                .migrateFrom(legacyLog.getLeastLogEntry())
+                .build());
+        log.info("Paxos state log in {} has been migrated with cutoff {}.",
+                UnsafeArg.of("directory", directory.toAbsolutePath()),
+                SafeArg.of("cutoff", cutoff));
+        return stateLog;
+    }
+
+    @Override
+    public void writeRound(long seq, V round) {
+        writeBatchOfRounds(ImmutableList.of(PaxosRound.of(seq, round)));
+    }
+
+    @Override
+    public void writeBatchOfRounds(Iterable<PaxosRound<V>> rounds) {
+        long batch;
+        synchronized (appendLock) {
+            checkNotClosed();
+            for (PaxosRound<V> round : rounds) {
+                long sequence = round.sequence();
+                RecordLocation location = append(Record.ROUND, sequence, round.valueBytes());
+                pendingIndexUpdates.add(() -> index.put(sequence, location));
+            }
+            batch = ++appendedBatches;
+        }
+        awaitDurable(batch);
+    }
+
+    @Override
+    public byte[] readRound(long seq) throws IOException {
+        RecordLocation location = index.get(seq);
+        if (location == null) {
+            return null;
+        }
+        return location.segment.readRound(location.offset, seq);
+    }
+
+    @Override
+    public long getLeastLogEntry() {
+        Map.Entry<Long, RecordLocation> least = index.firstEntry();
+        return least == null ? PaxosAcceptor.NO_LOG_ENTRY : least.getKey();
+    }
+
+    @Override
+    public long getGreatestLogEntry() {
+        Map.Entry<Long, RecordLocation> greatest = index.lastEntry();
+        return greatest == null ? PaxosAcceptor.NO_LOG_ENTRY : greatest.getKey();
+    }
+
+    @Override
+    public void truncate(long toDeleteInclusive) {
+        long batch;
+        synchronized (appendLock) {
+            checkNotClosed();
+            append(Record.TRUNCATE, toDeleteInclusive, new byte[0]);
+            pendingIndexUpdates.add(() -> {
+                index.headMap(toDeleteInclusive, true).clear();
+                deleteSegmentsTruncatedBy(toDeleteInclusive);
+            });
+            batch = ++appendedBatches;
+        }
+        awaitDurable(batch);
+    }
+
+    /**
+     * Forces any outstanding writes to disk; the log may not be written to afterwards.
+     */
+    @Override
+    public void close() {
+        long batch;
+        synchronized (appendLock) {
+            closed = true;
+            batch = appendedBatches;
+        }
+        awaitDurable(batch);
+    }
+
+    private void checkNotClosed() {
+        if (closed) {
+            throw new SafeIllegalStateException("Paxos state log has been closed",
+                    UnsafeArg.of("directory", directory.toAbsolutePath()));
+        }
+    }
+
+    // must hold appendLock
+    private RecordLocation append(byte type, long sequence, byte[] payload) {
+        try {
+            Segment segment = activeSegment();
+            int recordBytes = Record.HEADER_BYTES + payload.length;
+            if (segment.remaining() < recordBytes) {
+                segment = rollSegment(recordBytes);
+            }
+            return new RecordLocation(segment, segment.append(type, sequence, payload));
+        } catch (IOException e) {
+            throw Throwables.rewrapAndThrowUncheckedException("Failed to append to paxos state log", e);
+        }
+    }
+
+    // must hold appendLock
+    private Segment rollSegment(int minimumBytes) throws IOException {
+        Segment previous = activeSegment();
+        // segments other than the active one are never forced by commits, so must be durable before we move on
+        previous.force();
+        Segment next = Segment.create(directory, previous.id + 1, Math.max(segmentSizeBytes, minimumBytes));
+        syncDirectory();
+        segments.add(next);
+        return next;
+    }
+
+    private Segment activeSegment() {
+        return segments.get(segments.size() - 1);
+    }
+
+    /**
+     * Returns once every record appended as part of the given batch is durable and visible to readers. If no other
+     * writer is already doing so, this forces all records appended so far, including those of concurrent writers.
+     */
+    private void awaitDurable(long batch) {
+        synchronized (syncLock) {
+            if (durableBatches >= batch) {
+                return;
+            }
+
+            Segment segment;
+            List<Runnable> indexUpdates;
+            long batchesToFlush;
+            synchronized (appendLock) {
+                segment = activeSegment();
+                indexUpdates = new ArrayList<>(pendingIndexUpdates);
+                pendingIndexUpdates.clear();
+                batchesToFlush = appendedBatches;
+            }
+
+            segment.force();
+            synchronized (appendLock) {
+                indexUpdates.forEach(Runnable::run);
+            }
+            durableBatches = batchesToFlush;
+        }
+    }
+
+    // must hold appendLock
+    private void deleteSegmentsTruncatedBy(long toDeleteInclusive) {
+        while (segments.size() > 1 && segments.get(0).greatestRound <= toDeleteInclusive) {
+            Segment segment = segments.remove(0);
+            try {
+                Files.deleteIfExists(segment.path);
+            } catch (IOException e) {
+                log.warn("Failed to delete truncated paxos state log segment {}.",
+                        UnsafeArg.of("path", segment.path.toAbsolutePath()), e);
+            }
+        }
+    }
+
+    private void syncDirectory() throws IOException {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        }
+    }
+
+    private void recover() throws IOException {
+        List<Path> segmentPaths;
+        try (Stream<Path> files = Files.list(directory)) {
+            segmentPaths = files.filter(path -> path.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .sorted((first, second) -> Long.compare(Segment.idOf(first), Segment.idOf(second)))
+                    .collect(Collectors.toList());
+        }
+
+        for (int i = 0; i < segmentPaths.size(); i++) {
+            boolean isNewest = i == segmentPaths.size() - 1;
+            Segment segment = Segment.open(segmentPaths.get(i));
+            replay(segment, isNewest);
+            segments.add(segment);
+        }
+
+        if (segments.isEmpty()) {
+            segments.add(Segment.create(directory, 0, segmentSizeBytes));
+            syncDirectory();
+        }
+    }
+
+    private void replay(Segment segment, boolean isNewest) {
+        int offset = 0;
+        int recordBytes = segment.validRecordBytes(offset);
+        while (recordBytes > 0) {
+            long sequence = segment.sequenceAt(offset);
+            if (segment.typeAt(offset) == Record.ROUND) {
+                index.put(sequence, new RecordLocation(segment, offset));
+                segment.greatestRound = Math.max(segment.greatestRound, sequence);
+            } else {
+                index.headMap(sequence, true).clear();
+            }
+            offset += recordBytes;
+            recordBytes = segment.validRecordBytes(offset);
+        }
+        segment.writePosition = offset;
+
+        if (segment.isZeroFrom(offset)) {
+            return;
+        }
+        if (!isNewest) {
+            throw new SafeIllegalStateException("Paxos state log segment contains a corrupt record",
+                    UnsafeArg.of("path", segment.path.toAbsolutePath()),
+                    SafeArg.of("offset", offset));
+        }
+        log.warn("Discarding a partially written record at offset {} of the newest paxos state log segment {}.",
+                SafeArg.of("offset", offset),
+                UnsafeArg.of("path", segment.path.toAbsolutePath()));
+        segment.zeroFrom(offset);
+        segment.force();
+    }
+
+    /**
+     * A record is laid out as a checksum of everything following it, then a type byte, the sequence number, the length
+     * of the payload and the payload. A zero type byte marks the end of the records in a segment.
+     */
+    private static final class Record {
+        private static final byte ROUND = 1;
+        private static final byte TRUNCATE = 2;
+
+        private static final int CHECKSUM_OFFSET = 0;
+        private static final int TYPE_OFFSET = CHECKSUM_OFFSET + Integer.BYTES;
+        private static final int SEQUENCE_OFFSET = TYPE_OFFSET + Byte.BYTES;
+        private static final int LENGTH_OFFSET = SEQUENCE_OFFSET + Long.BYTES;
+        private static final int HEADER_BYTES = LENGTH_OFFSET + Integer.BYTES;
+
+        private Record() {
+            // constants
+        }
+    }
+
+    private static final class RecordLocation {
+        private final Segment segment;
+        private final int offset;
+
+        private RecordLocation(Segment segment, int offset) {
+            this.segment = segment;
+            this.offset = offset;
+        }
+    }
+
+    private static final class Segment {
+        private final long id;
+        private final Path path;
+        private final MappedByteBuffer buffer;
+
+        // guarded by the log's appendLock, or only accessed by recovery
+        private int writePosition = 0;
+        private long greatestRound = PaxosAcceptor.NO_LOG_ENTRY;
+
+        private Segment(long id, Path path, MappedByteBuffer buffer) {
+            this.id = id;
+            this.path = path;
+            this.buffer = buffer;
+        }
+
+        private static Segment create(Path directory, long id, int sizeBytes) throws IOException {
+            Path path = directory.resolve(String.format("%019d%s", id, SEGMENT_SUFFIX));
+            try (FileChannel channel = FileChannel.open(path,
+                    StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                return new Segment(id, path, channel.map(FileChannel.MapMode.READ_WRITE, 0, sizeBytes));
+            }
+        }
+
+        private static Segment open(Path path) throws IOException {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                return new Segment(idOf(path), path, channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size()));
+            }
+        }
+
+        private static long idOf(Path path) {
+            String fileName = path.getFileName().toString();
+            return Long.parseLong(fileName.substring(0, fileName.length() - SEGMENT_SUFFIX.length()));
+        }
+
+        private int remaining() {
+            return buffer.capacity() - writePosition;
+        }
+
+        private int append(byte type, long sequence, byte[] payload) {
+            int offset = writePosition;
+            ByteBuffer view = buffer.duplicate();
+            view.position(offset + Record.TYPE_OFFSET);
+            view.put(type);
+            view.putLong(sequence);
+            view.putInt(payload.length);
+            view.put(payload);
+            buffer.putInt(offset + Record.CHECKSUM_OFFSET, checksum(offset, payload.length));
+
+            writePosition = offset + Record.HEADER_BYTES + payload.length;
+            if (type == Record.ROUND) {
+                greatestRound = Math.max(greatestRound, sequence);
+            }
+            return offset;
+        }
+
+        private byte[] readRound(int offset, long sequence) throws CorruptLogFileException {
+            if (validRecordBytes(offset) < 0 || typeAt(offset) != Record.ROUND || sequenceAt(offset) != sequence) {
+                throw new CorruptLogFileException();
+            }
+            byte[] payload = new byte[buffer.getInt(offset + Record.LENGTH_OFFSET)];
+            ByteBuffer view = buffer.duplicate();
+            view.position(offset + Record.HEADER_BYTES);
+            view.get(payload);
+            return payload;
+        }
+
+        /**
+         * Returns the total size of the record at the given offset if there is one and its checksum matches, or -1.
+         */
+        private int validRecordBytes(int offset) {
+            if (offset > buffer.capacity() - Record.HEADER_BYTES) {
+                return -1;
+            }
+            byte type = typeAt(offset);
+            if (type != Record.ROUND && type != Record.TRUNCATE) {
+                return -1;
+            }
+            int length = buffer.getInt(offset + Record.LENGTH_OFFSET);
+            if (length < 0 || length > buffer.capacity() - offset - Record.HEADER_BYTES) {
+                return -1;
+            }
+            if (buffer.getInt(offset + Record.CHECKSUM_OFFSET) != checksum(offset, length)) {
+                return -1;
+            }
+            return Record.HEADER_BYTES + length;
+        }
+
+        private byte typeAt(int offset) {
+            return buffer.get(offset + Record.TYPE_OFFSET);
+        }
+
+        private long sequenceAt(int offset) {
+            return buffer.getLong(offset + Record.SEQUENCE_OFFSET);
+        }
+
+        private int checksum(int offset, int payloadLength) {
+            ByteBuffer view = buffer.duplicate();
+            view.limit(offset + Record.HEADER_BYTES + payloadLength);
+            view.position(offset + Record.TYPE_OFFSET);
+            CRC32 crc = new CRC32();
+            crc.update(view);
+            return (int) crc.getValue();
+        }
+
+        private boolean isZeroFrom(int offset) {
+            for (int position = offset; position < buffer.capacity(); position++) {
+                if (buffer.get(position) != 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void zeroFrom(int offset) {
+            for (int position = offset; position < buffer.capacity(); position++) {
+                buffer.put(position, (byte) 0);
+            }
+        }
+
+        private void force() {
+            buffer.force();
+        }
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.paxos;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+import com.google.common.primitives.Longs;
+import com.palantir.common.base.Throwables;
+
+/**
+ * Migration state for a {@link SegmentedPaxosStateLog}, kept in small files alongside its segments. Each file is
+ * written to a temporary file and renamed into place, so that a crash never leaves a partially written state behind.
+ */
+public final class SegmentedPaxosStateLogMigrationState implements PaxosStateLogMigrationState {
+    private static final String CUTOFF_FILE = "migration-cutoff";
+    private static final String MIGRATED_FILE = "migrated";
+    private static final String TMP_FILE_SUFFIX = ".tmp";
+
+    private final Path directory;
+
+    private SegmentedPaxosStateLogMigrationState(Path directory) {
+        this.directory = directory;
+    }
+
+    static SegmentedPaxosStateLogMigrationState create(Path directory) {
+        return new SegmentedPaxosStateLogMigrationState(directory);
+    }
+
+    @Override
+    public boolean isInMigratedState() {
+        return Files.exists(directory.resolve(MIGRATED_FILE));
+    }
+
+    @Override
+    public void migrateToMigratedState() {
+        writeAtomically(MIGRATED_FILE, new byte[0]);
+    }
+
+    @Override
+    public void setCutoff(long value) {
+        writeAtomically(CUTOFF_FILE, Longs.toByteArray(value));
+    }
+
+    @Override
+    public long getCutoff() {
+        Path cutoffFile = directory.resolve(CUTOFF_FILE);
+        if (!Files.exists(cutoffFile)) {
+            return PaxosAcceptor.NO_LOG_ENTRY;
+        }
+        try {
+            return Longs.fromByteArray(Files.readAllBytes(cutoffFile));
+        } catch (IOException e) {
+            throw Throwables.rewrapAndThrowUncheckedException("Failed to read paxos state log migration cutoff", e);
+        }
+    }
+
+    private void writeAtomically(String fileName, byte[] contents) {
+        Path target = directory.resolve(fileName);
+        Path tmpFile = directory.resolve(fileName + TMP_FILE_SUFFIX);
+        try {
+            Files.createDirectories(directory);
+            try (FileChannel channel = FileChannel.open(tmpFile, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                ByteBuffer buffer = ByteBuffer.wrap(contents);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(true);
+            }
+            Files.move(tmpFile, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+                channel.force(true);
+            }
+        } catch (IOException e) {
+            throw Throwables.rewrapAndThrowUncheckedException("Failed to write paxos state log migration state", e);
+        }
+    }
+}
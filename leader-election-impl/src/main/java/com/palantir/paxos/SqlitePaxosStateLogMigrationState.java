@@ -32,7 +32,7 @@ import org.jdbi.v3.sqlobject.statement.SqlUpdate;
 import com.palantir.logsafe.Preconditions;
 import com.palantir.logsafe.SafeArg;
 
-public final class SqlitePaxosStateLogMigrationState {
+public final class SqlitePaxosStateLogMigrationState implements PaxosStateLogMigrationState {
     private final Client namespace;
     private final String useCase;
     private final Jdbi jdbi;
@@ -60,6 +60,7 @@ public final class SqlitePaxosStateLogMigrationState {
         execute(migrateToState(States.VALIDATION));
     }
 
+    @Override
     public void migrateToMigratedState() {
         execute(migrateToState(States.MIGRATED));
     }
@@ -74,16 +75,19 @@ public final class SqlitePaxosStateLogMigrationState {
                 .orElse(false));
     }
 
+    @Override
     public boolean isInMigratedState() {
         return execute(dao -> dao.getVersion(namespace, useCase)
                 .map(States.MIGRATED.getSchemaVersion()::equals)
                 .orElse(false));
     }
 
+    @Override
     public void setCutoff(long value) {
         execute(dao -> dao.setCutoff(namespace, useCase, value));
     }
 
+    @Override
     public long getCutoff() {
         return execute(dao -> dao.getCutoff(namespace, useCase)).orElse(PaxosAcceptor.NO_LOG_ENTRY);
     }
@@ -0,0 +1,125 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.leader.proxy;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.locks.LockSupport;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.SettableFuture;
+import com.palantir.leader.LeaderElectionService;
+import com.palantir.leader.LeaderElectionService.LeadershipToken;
+import com.palantir.leader.LeaderElectionService.StillLeadingStatus;
+import com.palantir.leader.NotCurrentLeaderException;
+import com.palantir.leader.PaxosLeadershipToken;
+
+public class AutoLeadershipProxyTest {
+    private final LeadershipToken leadershipToken = mock(PaxosLeadershipToken.class);
+    private final LeaderElectionService leaderElectionService = mock(LeaderElectionService.class);
+    private final LeaderOnlyService delegate = mock(LeaderOnlyService.class);
+
+    @Before
+    public void before() throws InterruptedException {
+        when(leaderElectionService.getCurrentTokenIfLeading()).thenReturn(Optional.of(leadershipToken));
+        when(leaderElectionService.isStillLeading(leadershipToken))
+                .thenReturn(Futures.immediateFuture(StillLeadingStatus.LEADING));
+        when(delegate.compute(1)).thenReturn(2);
+        when(delegate.computeAsync(1)).thenReturn(Futures.immediateFuture(2));
+    }
+
+    @Test
+    public void forwardsCallsWhileLeading() throws InterruptedException, ExecutionException {
+        LeaderOnlyService proxy = createProxy();
+
+        assertThat(proxy.compute(1)).isEqualTo(2);
+        assertThat(proxy.computeAsync(1).get()).isEqualTo(2);
+    }
+
+    @Test
+    public void throwsNotCurrentLeaderIfNeverLeading() throws InterruptedException {
+        when(leaderElectionService.getCurrentTokenIfLeading()).thenReturn(Optional.empty());
+        when(leaderElectionService.blockOnBecomingLeader()).then(invocation -> {
+            // never return
+            LockSupport.park();
+            return null;
+        });
+        LeaderOnlyService proxy = createProxy();
+
+        assertThatThrownBy(() -> proxy.compute(1))
+                .isInstanceOf(NotCurrentLeaderException.class)
+                .hasMessage("method invoked on a non-leader");
+        assertThatThrownBy(() -> proxy.computeAsync(1))
+                .isInstanceOf(NotCurrentLeaderException.class);
+    }
+
+    @Test
+    public void asyncCallsFailWithoutBlockingIfLeadershipLost() throws InterruptedException {
+        LeaderOnlyService proxy = createProxy();
+        SettableFuture<StillLeadingStatus> inProgressCheck = SettableFuture.create();
+        when(leaderElectionService.isStillLeading(any(LeadershipToken.class))).thenReturn(inProgressCheck);
+
+        assertThat(proxy.computeAsync(1)).isNotDone();
+        inProgressCheck.set(StillLeadingStatus.NOT_LEADING);
+
+        assertThatThrownBy(() -> proxy.computeAsync(1).get())
+                .hasCauseInstanceOf(NotCurrentLeaderException.class);
+    }
+
+    @Test
+    public void delegateThrowingNotCurrentLeaderCausesLeadershipToBeRegained() throws InterruptedException {
+        when(delegate.compute(1)).thenThrow(new NotCurrentLeaderException("not leading"));
+        LeaderOnlyService proxy = createProxy();
+
+        assertThatThrownBy(() -> proxy.compute(1))
+                .isInstanceOf(NotCurrentLeaderException.class)
+                .hasMessage("method invoked on a non-leader (leadership lost)");
+        verify(leaderElectionService, timeout(5_000).times(2)).getCurrentTokenIfLeading();
+    }
+
+    @Test
+    public void rethrowsCheckedExceptionsFromDelegate() throws InterruptedException {
+        InterruptedException exception = new InterruptedException();
+        when(delegate.compute(1)).thenThrow(exception);
+        LeaderOnlyService proxy = createProxy();
+
+        assertThatThrownBy(() -> proxy.compute(1)).isSameAs(exception);
+    }
+
+    @Test
+    public void closingProxyClosesDelegate() throws IOException {
+        LeaderOnlyService proxy = createProxy();
+        proxy.close();
+
+        verify(delegate).close();
+    }
+
+    private LeaderOnlyService createProxy() {
+        return AutoLeadershipProxy_LeaderOnlyService.newProxyInstance(() -> delegate, leaderElectionService);
+    }
+}
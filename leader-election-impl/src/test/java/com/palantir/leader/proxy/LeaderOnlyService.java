@@ -0,0 +1,28 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.leader.proxy;
+
+import java.io.Closeable;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.palantir.processors.AutoLeadershipProxy;
+
+@AutoLeadershipProxy
+interface LeaderOnlyService extends Closeable {
+    int compute(int value) throws InterruptedException;
+
+    ListenableFuture<Integer> computeAsync(int value);
+}
@@ -0,0 +1,319 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.paxos;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import static com.palantir.paxos.PaxosStateLogTestUtils.NAMESPACE;
+import static com.palantir.paxos.PaxosStateLogTestUtils.generateRounds;
+import static com.palantir.paxos.PaxosStateLogTestUtils.getPaxosValue;
+import static com.palantir.paxos.PaxosStateLogTestUtils.valueForRound;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.Futures;
+import com.palantir.common.concurrent.PTExecutors;
+import com.palantir.logsafe.exceptions.SafeIllegalStateException;
+
+public class SegmentedPaxosStateLogTest {
+    private static final int SMALL_SEGMENT_SIZE_BYTES = 1024;
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private Path directory;
+    private SegmentedPaxosStateLog<PaxosValue> stateLog;
+
+    @Before
+    public void setup() throws IOException {
+        directory = tempFolder.newFolder("segments").toPath();
+        stateLog = SegmentedPaxosStateLog.create(directory, SMALL_SEGMENT_SIZE_BYTES);
+    }
+
+    @After
+    public void tearDown() {
+        stateLog.close();
+    }
+
+    @Test
+    public void readingNonExistentRoundReturnsNull() throws IOException {
+        assertThat(stateLog.readRound(10L)).isNull();
+    }
+
+    @Test
+    public void canWriteAndRetrieveAValue() {
+        PaxosValue paxosValue = writeValueForRound(12L);
+        assertThat(getPaxosValue(stateLog, 12L)).isEqualTo(paxosValue);
+    }
+
+    @Test
+    public void canWriteAndRetrieveBatch() {
+        List<PaxosRound<PaxosValue>> rounds = generateRounds(LongStream.rangeClosed(5L, 10L));
+        stateLog.writeBatchOfRounds(rounds);
+
+        rounds.forEach(round -> assertThat(getPaxosValue(stateLog, round.sequence())).isEqualTo(round.value()));
+    }
+
+    @Test
+    public void canWriteEmptyBatch() {
+        assertThatCode(() -> stateLog.writeBatchOfRounds(ImmutableList.of())).doesNotThrowAnyException();
+    }
+
+    @Test
+    public void canOverwriteSequences() {
+        writeValueForRound(5L);
+        PaxosValue newEntry = writeValueForRound(5L);
+        assertThat(getPaxosValue(stateLog, 5L)).isEqualTo(newEntry);
+    }
+
+    @Test
+    public void returnsDefaultValueForExtremesWhenNoEntries() {
+        assertThat(stateLog.getLeastLogEntry()).isEqualTo(PaxosAcceptor.NO_LOG_ENTRY);
+        assertThat(stateLog.getGreatestLogEntry()).isEqualTo(PaxosAcceptor.NO_LOG_ENTRY);
+    }
+
+    @Test
+    public void canGetExtremeLogEntries() {
+        writeValueForRound(15L);
+        writeValueForRound(19L);
+        writeValueForRound(7L);
+
+        assertThat(stateLog.getLeastLogEntry()).isEqualTo(7L);
+        assertThat(stateLog.getGreatestLogEntry()).isEqualTo(19L);
+    }
+
+    @Test
+    public void canTruncateInclusive() throws IOException {
+        writeValueForRound(5L);
+        writeValueForRound(7L);
+        writeValueForRound(9L);
+        writeValueForRound(1L);
+
+        stateLog.truncate(7L);
+        assertThat(stateLog.getLeastLogEntry()).isEqualTo(9L);
+        assertThat(stateLog.readRound(5L)).isNull();
+    }
+
+    @Test
+    public void roundsWrittenAfterTruncationAreRetained() {
+        writeValueForRound(5L);
+        stateLog.truncate(7L);
+        PaxosValue value = writeValueForRound(3L);
+
+        reopen();
+        assertThat(getPaxosValue(stateLog, 3L)).isEqualTo(value);
+        assertThat(stateLog.getGreatestLogEntry()).isEqualTo(3L);
+    }
+
+    @Test
+    public void writesAndTruncationsSurviveReopening() {
+        stateLog.writeBatchOfRounds(generateRounds(LongStream.rangeClosed(1L, 100L)));
+        stateLog.truncate(40L);
+        PaxosValue overwritten = writeValueForRound(50L);
+
+        reopen();
+        assertThat(stateLog.getLeastLogEntry()).isEqualTo(41L);
+        assertThat(stateLog.getGreatestLogEntry()).isEqualTo(100L);
+        assertThat(getPaxosValue(stateLog, 50L)).isEqualTo(overwritten);
+        assertThat(getPaxosValue(stateLog, 75L)).isEqualTo(valueForRound(75L));
+    }
+
+    @Test
+    public void rollsOverToNewSegmentsAndDeletesFullyTruncatedOnes() {
+        stateLog.writeBatchOfRounds(generateRounds(LongStream.rangeClosed(1L, 200L)));
+        long segmentsBeforeTruncation = countSegments();
+        assertThat(segmentsBeforeTruncation).isGreaterThan(2L);
+
+        stateLog.truncate(150L);
+        assertThat(countSegments()).isBetween(1L, segmentsBeforeTruncation - 1);
+
+        reopen();
+        assertThat(stateLog.getLeastLogEntry()).isEqualTo(151L);
+        assertThat(getPaxosValue(stateLog, 200L)).isEqualTo(valueForRound(200L));
+    }
+
+    @Test
+    public void canWriteRoundsLargerThanASegment() {
+        PaxosValue largeValue = new PaxosValue("leader", 1L, new byte[4 * SMALL_SEGMENT_SIZE_BYTES]);
+        stateLog.writeRound(1L, largeValue);
+        writeValueForRound(2L);
+
+        reopen();
+        assertThat(getPaxosValue(stateLog, 1L)).isEqualTo(largeValue);
+        assertThat(getPaxosValue(stateLog, 2L)).isEqualTo(valueForRound(2L));
+    }
+
+    @Test
+    public void discardsPartiallyWrittenTailOnRecovery() throws IOException {
+        writeValueForRound(1L);
+        writeValueForRound(2L);
+        stateLog.close();
+        corruptLastRecord();
+
+        reopen();
+        assertThat(getPaxosValue(stateLog, 1L)).isEqualTo(valueForRound(1L));
+        assertThat(stateLog.readRound(2L)).isNull();
+        assertThat(stateLog.getGreatestLogEntry()).isEqualTo(1L);
+
+        PaxosValue value = writeValueForRound(3L);
+        reopen();
+        assertThat(getPaxosValue(stateLog, 3L)).isEqualTo(value);
+    }
+
+    @Test
+    public void readingCorruptRoundThrows() throws IOException {
+        writeValueForRound(1L);
+        corruptLastRecord();
+
+        assertThatThrownBy(() -> stateLog.readRound(1L)).isInstanceOf(PaxosStateLog.CorruptLogFileException.class);
+    }
+
+    @Test
+    public void refusesToOpenIfOlderSegmentIsCorrupt() throws IOException {
+        stateLog.writeBatchOfRounds(generateRounds(LongStream.rangeClosed(1L, 50L)));
+        stateLog.close();
+        corruptFirstRecordOf(segments().get(0));
+
+        assertThatThrownBy(() -> SegmentedPaxosStateLog.create(directory, SMALL_SEGMENT_SIZE_BYTES))
+                .isInstanceOf(SafeIllegalStateException.class);
+    }
+
+    @Test
+    public void concurrentWritersAreAllDurable() {
+        int numThreads = 50;
+        ExecutorService executor = PTExecutors.newFixedThreadPool(numThreads);
+        List<Future<?>> futures = IntStream.range(0, numThreads)
+                .mapToObj(thread -> executor.submit(() -> LongStream.range(0, 20)
+                        .forEach(round -> writeValueForRound(thread * 20 + round))))
+                .collect(Collectors.toList());
+        futures.forEach(Futures::getUnchecked);
+        executor.shutdown();
+
+        reopen();
+        assertThat(stateLog.getLeastLogEntry()).isEqualTo(0L);
+        assertThat(stateLog.getGreatestLogEntry()).isEqualTo(numThreads * 20 - 1);
+        LongStream.range(0, numThreads * 20)
+                .forEach(round -> assertThat(getPaxosValue(stateLog, round)).isEqualTo(valueForRound(round)));
+    }
+
+    @Test
+    public void migratesAllEntriesFromFileBackedLog() throws IOException {
+        PaxosStateLog<PaxosValue> legacyLog = new PaxosStateLogImpl<>(tempFolder.newFolder("file").getPath());
+        generateRounds(LongStream.rangeClosed(10L, 200L)).forEach(round -> legacyLog.writeRound(round.sequence(),
+                round.value()));
+
+        assertMigratesEverythingFrom(legacyLog);
+    }
+
+    @Test
+    public void migratesAllEntriesFromSqliteBackedLog() throws IOException {
+        PaxosStateLog<PaxosValue> legacyLog = SqlitePaxosStateLog.create(NAMESPACE,
+                SqliteConnections.getPooledDataSource(tempFolder.newFolder("sqlite").toPath()));
+        legacyLog.writeBatchOfRounds(generateRounds(LongStream.rangeClosed(10L, 200L)));
+
+        assertMigratesEverythingFrom(legacyLog);
+    }
+
+    private void assertMigratesEverythingFrom(PaxosStateLog<PaxosValue> legacyLog) throws IOException {
+        Path migratedDirectory = tempFolder.newFolder("migrated").toPath();
+        try (SegmentedPaxosStateLog<PaxosValue> migrated = SegmentedPaxosStateLog.createMigratingFrom(
+                migratedDirectory, legacyLog, PaxosValue.BYTES_HYDRATOR)) {
+            assertThat(migrated.getLeastLogEntry()).isEqualTo(10L);
+            assertThat(migrated.getGreatestLogEntry()).isEqualTo(200L);
+            LongStream.rangeClosed(10L, 200L)
+                    .forEach(round -> assertThat(getPaxosValue(migrated, round)).isEqualTo(valueForRound(round)));
+            migrated.writeRound(201L, valueForRound(201L));
+        }
+
+        try (SegmentedPaxosStateLog<PaxosValue> reopened = SegmentedPaxosStateLog.createMigratingFrom(
+                migratedDirectory, legacyLog, PaxosValue.BYTES_HYDRATOR)) {
+            assertThat(reopened.getGreatestLogEntry()).isEqualTo(201L);
+        }
+    }
+
+    private PaxosValue writeValueForRound(long round) {
+        PaxosValue paxosValue = valueForRound(round);
+        stateLog.writeRound(round, paxosValue);
+        return paxosValue;
+    }
+
+    private void reopen() {
+        stateLog.close();
+        stateLog = SegmentedPaxosStateLog.create(directory, SMALL_SEGMENT_SIZE_BYTES);
+    }
+
+    private long countSegments() {
+        return segments().size();
+    }
+
+    private List<Path> segments() {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.toString().endsWith(SegmentedPaxosStateLog.SEGMENT_SUFFIX))
+                    .sorted()
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void corruptLastRecord() throws IOException {
+        Path lastSegment = segments().get(segments().size() - 1);
+        try (RandomAccessFile file = new RandomAccessFile(lastSegment.toFile(), "rw")) {
+            long lastNonZero = file.length() - 1;
+            while (lastNonZero > 0) {
+                file.seek(lastNonZero);
+                if (file.read() != 0) {
+                    break;
+                }
+                lastNonZero--;
+            }
+            file.seek(lastNonZero);
+            int original = file.read();
+            file.seek(lastNonZero);
+            file.write(~original);
+        }
+    }
+
+    private static void corruptFirstRecordOf(Path segment) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            // flip a bit of the first record's sequence number, so that its checksum no longer matches
+            file.seek(Integer.BYTES + Byte.BYTES);
+            int original = file.read();
+            file.seek(Integer.BYTES + Byte.BYTES);
+            file.write(original ^ 1);
+        }
+    }
+}
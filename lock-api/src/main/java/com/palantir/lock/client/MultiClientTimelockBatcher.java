@@ -0,0 +1,332 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.lock.client;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.immutables.value.Value;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.palantir.atlasdb.autobatch.Autobatchers;
+import com.palantir.atlasdb.autobatch.BatchElement;
+import com.palantir.atlasdb.autobatch.DisruptorAutobatcher;
+import com.palantir.atlasdb.futures.AtlasFutures;
+import com.palantir.atlasdb.timelock.api.ConjureStartTransactionsRequest;
+import com.palantir.atlasdb.timelock.api.ConjureStartTransactionsResponse;
+import com.palantir.atlasdb.timelock.api.ConjureStartTransactionsResult;
+import com.palantir.atlasdb.timelock.api.ConjureTimelockService;
+import com.palantir.atlasdb.timelock.api.ConjureUnlockRequest;
+import com.palantir.atlasdb.timelock.api.ConjureUnlockResponse;
+import com.palantir.atlasdb.timelock.api.ConjureUnlockResult;
+import com.palantir.atlasdb.timelock.api.GetCommitTimestampsRequest;
+import com.palantir.atlasdb.timelock.api.GetCommitTimestampsResponse;
+import com.palantir.atlasdb.timelock.api.GetCommitTimestampsResult;
+import com.palantir.atlasdb.timelock.api.MultiClientConjureTimelockService;
+import com.palantir.atlasdb.timelock.api.NamespaceFailure;
+import com.palantir.conjure.java.api.errors.QosException;
+import com.palantir.logsafe.SafeArg;
+import com.palantir.logsafe.exceptions.SafeIllegalStateException;
+import com.palantir.tokens.auth.AuthHeader;
+
+/**
+ * Coalesces the start transaction, commit timestamp and unlock calls of several namespaces served by the same TimeLock
+ * cluster into calls to {@link MultiClientConjureTimelockService}, so that a service hosting many AtlasDB clients makes
+ * one call per batch rather than one per namespace.
+ *
+ * Each call to TimeLock carries at most one request per namespace. Requests for a namespace that is already present in
+ * the call being assembled are deferred to a subsequent call within the same batch. TimeLock reports a result for each
+ * namespace, so a namespace that fails only fails its own request; if the call as a whole fails, all requests in that
+ * call fail. A namespace that TimeLock rejects with a QoS error, for example because another node is its leader,
+ * fails with the corresponding {@link QosException}, and the services returned by {@link #forNamespace} retry such
+ * requests through the single-namespace endpoint, whose client handles redirects and throttling.
+ */
+public final class MultiClientTimelockBatcher implements AutoCloseable {
+    private static final AuthHeader AUTH_HEADER = AuthHeader.valueOf("Bearer omitted");
+
+    private final DisruptorAutobatcher<NamespacedRequest<ConjureStartTransactionsRequest>,
+            ConjureStartTransactionsResponse> startTransactionsBatcher;
+    private final DisruptorAutobatcher<NamespacedRequest<GetCommitTimestampsRequest>,
+            GetCommitTimestampsResponse> commitTimestampsBatcher;
+    private final DisruptorAutobatcher<NamespacedRequest<ConjureUnlockRequest>, ConjureUnlockResponse> unlockBatcher;
+
+    private MultiClientTimelockBatcher(
+            DisruptorAutobatcher<NamespacedRequest<ConjureStartTransactionsRequest>,
+                    ConjureStartTransactionsResponse> startTransactionsBatcher,
+            DisruptorAutobatcher<NamespacedRequest<GetCommitTimestampsRequest>,
+                    GetCommitTimestampsResponse> commitTimestampsBatcher,
+            DisruptorAutobatcher<NamespacedRequest<ConjureUnlockRequest>, ConjureUnlockResponse> unlockBatcher) {
+        this.startTransactionsBatcher = startTransactionsBatcher;
+        this.commitTimestampsBatcher = commitTimestampsBatcher;
+        this.unlockBatcher = unlockBatcher;
+    }
+
+    public static MultiClientTimelockBatcher create(MultiClientConjureTimelockService multiClientService) {
+        return new MultiClientTimelockBatcher(
+                autobatcher(
+                        requests -> multiClientService.startTransactionsForClients(AUTH_HEADER, requests),
+                        result -> result.accept(StartTransactionsResultVisitor.INSTANCE),
+                        "multi-client-start-transactions"),
+                autobatcher(
+                        requests -> multiClientService.getCommitTimestampsForClients(AUTH_HEADER, requests),
+                        result -> result.accept(CommitTimestampsResultVisitor.INSTANCE),
+                        "multi-client-get-commit-timestamps"),
+                autobatcher(
+                        requests -> multiClientService.unlockForClients(AUTH_HEADER, requests),
+                        result -> result.accept(UnlockResultVisitor.INSTANCE),
+                        "multi-client-unlock"));
+    }
+
+    private static <Q, T, R> DisruptorAutobatcher<NamespacedRequest<Q>, R> autobatcher(
+            Function<Map<String, Q>, Map<String, T>> multiClientCall,
+            Function<T, R> toResponse,
+            String safeLoggablePurpose) {
+        return Autobatchers.independent(consumer(multiClientCall, toResponse))
+                .safeLoggablePurpose(safeLoggablePurpose)
+                .build();
+    }
+
+    /**
+     * Returns a {@link NamespacedConjureTimelockService} for the given namespace that starts transactions, gets commit
+     * timestamps and unlocks through this batcher, and makes all other calls directly through the given service.
+     */
+    public NamespacedConjureTimelockService forNamespace(
+            ConjureTimelockService conjureTimelockService,
+            String namespace) {
+        return new BatchingNamespacedConjureTimelockService(conjureTimelockService, namespace, this);
+    }
+
+    public ConjureStartTransactionsResponse startTransactions(
+            String namespace,
+            ConjureStartTransactionsRequest request) {
+        return AtlasFutures.getUnchecked(
+                startTransactionsBatcher.apply(ImmutableNamespacedRequest.of(namespace, request)));
+    }
+
+    public GetCommitTimestampsResponse getCommitTimestamps(String namespace, GetCommitTimestampsRequest request) {
+        return AtlasFutures.getUnchecked(
+                commitTimestampsBatcher.apply(ImmutableNamespacedRequest.of(namespace, request)));
+    }
+
+    public ConjureUnlockResponse unlock(String namespace, ConjureUnlockRequest request) {
+        return AtlasFutures.getUnchecked(unlockBatcher.apply(ImmutableNamespacedRequest.of(namespace, request)));
+    }
+
+    @Override
+    public void close() {
+        startTransactionsBatcher.close();
+        commitTimestampsBatcher.close();
+        unlockBatcher.close();
+    }
+
+    @VisibleForTesting
+    static <Q, T, R> Consumer<List<BatchElement<NamespacedRequest<Q>, R>>> consumer(
+            Function<Map<String, Q>, Map<String, T>> multiClientCall,
+            Function<T, R> toResponse) {
+        return batch -> {
+            List<BatchElement<NamespacedRequest<Q>, R>> pending = batch;
+            while (!pending.isEmpty()) {
+                Map<String, BatchElement<NamespacedRequest<Q>, R>> call = new HashMap<>();
+                List<BatchElement<NamespacedRequest<Q>, R>> deferred = new ArrayList<>();
+                for (BatchElement<NamespacedRequest<Q>, R> element : pending) {
+                    if (call.putIfAbsent(element.argument().namespace(), element) != null) {
+                        deferred.add(element);
+                    }
+                }
+                complete(call, multiClientCall, toResponse);
+                pending = deferred;
+            }
+        };
+    }
+
+    private static <Q, T, R> void complete(
+            Map<String, BatchElement<NamespacedRequest<Q>, R>> call,
+            Function<Map<String, Q>, Map<String, T>> multiClientCall,
+            Function<T, R> toResponse) {
+        Map<String, Q> requests = new HashMap<>();
+        call.forEach((namespace, element) -> requests.put(namespace, element.argument().request()));
+
+        Map<String, T> results;
+        try {
+            results = multiClientCall.apply(requests);
+        } catch (Throwable t) {
+            call.values().forEach(element -> element.result().setException(t));
+            return;
+        }
+
+        call.forEach((namespace, element) -> {
+            T result = results.get(namespace);
+            if (result == null) {
+                element.result().setException(new SafeIllegalStateException(
+                        "TimeLock returned no response for a namespace in a multi-client request",
+                        SafeArg.of("namespace", namespace)));
+                return;
+            }
+            try {
+                element.result().set(toResponse.apply(result));
+            } catch (RuntimeException e) {
+                element.result().setException(e);
+            }
+        });
+    }
+
+    private static RuntimeException toException(NamespaceFailure failure) {
+        switch (failure.getType().get()) {
+            case RETRY_OTHER:
+                return failure.getRedirectTo()
+                        .flatMap(MultiClientTimelockBatcher::toUrl)
+                        .<RuntimeException>map(QosException::retryOther)
+                        .orElseGet(QosException::unavailable);
+            case THROTTLE:
+                return QosException.throttle();
+            case UNAVAILABLE:
+                return QosException.unavailable();
+            default:
+                return new SafeIllegalStateException(
+                        "TimeLock failed to serve the request for a namespace in a multi-client request",
+                        SafeArg.of("failureType", failure.getType()));
+        }
+    }
+
+    private static Optional<URL> toUrl(String url) {
+        try {
+            return Optional.of(new URL(url));
+        } catch (MalformedURLException e) {
+            return Optional.empty();
+        }
+    }
+
+    private static RuntimeException unknownResultType(String unknownType) {
+        return new SafeIllegalStateException("Unknown result type", SafeArg.of("type", unknownType));
+    }
+
+    private enum StartTransactionsResultVisitor
+            implements ConjureStartTransactionsResult.Visitor<ConjureStartTransactionsResponse> {
+        INSTANCE;
+
+        @Override
+        public ConjureStartTransactionsResponse visitSuccessful(ConjureStartTransactionsResponse value) {
+            return value;
+        }
+
+        @Override
+        public ConjureStartTransactionsResponse visitFailed(NamespaceFailure value) {
+            throw toException(value);
+        }
+
+        @Override
+        public ConjureStartTransactionsResponse visitUnknown(String unknownType) {
+            throw unknownResultType(unknownType);
+        }
+    }
+
+    private enum CommitTimestampsResultVisitor
+            implements GetCommitTimestampsResult.Visitor<GetCommitTimestampsResponse> {
+        INSTANCE;
+
+        @Override
+        public GetCommitTimestampsResponse visitSuccessful(GetCommitTimestampsResponse value) {
+            return value;
+        }
+
+        @Override
+        public GetCommitTimestampsResponse visitFailed(NamespaceFailure value) {
+            throw toException(value);
+        }
+
+        @Override
+        public GetCommitTimestampsResponse visitUnknown(String unknownType) {
+            throw unknownResultType(unknownType);
+        }
+    }
+
+    private enum UnlockResultVisitor implements ConjureUnlockResult.Visitor<ConjureUnlockResponse> {
+        INSTANCE;
+
+        @Override
+        public ConjureUnlockResponse visitSuccessful(ConjureUnlockResponse value) {
+            return value;
+        }
+
+        @Override
+        public ConjureUnlockResponse visitFailed(NamespaceFailure value) {
+            throw toException(value);
+        }
+
+        @Override
+        public ConjureUnlockResponse visitUnknown(String unknownType) {
+            throw unknownResultType(unknownType);
+        }
+    }
+
+    @Value.Immutable
+    interface NamespacedRequest<T> {
+        @Value.Parameter
+        String namespace();
+
+        @Value.Parameter
+        T request();
+    }
+
+    private static final class BatchingNamespacedConjureTimelockService extends NamespacedConjureTimelockService {
+        private final String namespace;
+        private final MultiClientTimelockBatcher batcher;
+
+        private BatchingNamespacedConjureTimelockService(
+                ConjureTimelockService conjureTimelockService,
+                String namespace,
+                MultiClientTimelockBatcher batcher) {
+            super(conjureTimelockService, namespace);
+            this.namespace = namespace;
+            this.batcher = batcher;
+        }
+
+        @Override
+        public ConjureStartTransactionsResponse startTransactions(ConjureStartTransactionsRequest request) {
+            try {
+                return batcher.startTransactions(namespace, request);
+            } catch (QosException e) {
+                return super.startTransactions(request);
+            }
+        }
+
+        @Override
+        public GetCommitTimestampsResponse getCommitTimestamps(GetCommitTimestampsRequest request) {
+            try {
+                return batcher.getCommitTimestamps(namespace, request);
+            } catch (QosException e) {
+                return super.getCommitTimestamps(request);
+            }
+        }
+
+        @Override
+        public ConjureUnlockResponse unlock(ConjureUnlockRequest request) {
+            try {
+                return batcher.unlock(namespace, request);
+            } catch (QosException e) {
+                return super.unlock(request);
+            }
+        }
+    }
+}
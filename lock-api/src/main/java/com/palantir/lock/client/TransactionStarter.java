@@ -52,6 +52,9 @@ import com.palantir.logsafe.Preconditions;
  * rather than directly calling delegate lock service.
  */
 final class TransactionStarter implements AutoCloseable {
+    // Each batch is one round trip to TimeLock; a second consumer sends the next batch while one is in flight.
+    private static final int CONSUMERS = 2;
+
     private final DisruptorAutobatcher<Integer, List<StartIdentifiedAtlasDbTransactionResponse>> autobatcher;
     private final LockLeaseService lockLeaseService;
 
@@ -66,6 +69,7 @@ final class TransactionStarter implements AutoCloseable {
         DisruptorAutobatcher<Integer, List<StartIdentifiedAtlasDbTransactionResponse>> autobatcher = Autobatchers
                 .independent(consumer(lockLeaseService, lockWatchEventCache))
                 .safeLoggablePurpose("transaction-starter")
+                .consumers(CONSUMERS)
                 .build();
         return new TransactionStarter(autobatcher, lockLeaseService);
     }
@@ -55,6 +55,11 @@ public interface LockWatchEventCache {
             Set<Long> startTimestamps,
             Optional<IdentifiedVersion> version);
 
+    /**
+     * Returns the lock watch version identified with the given start timestamp, if the cache still holds state for it.
+     */
+    Optional<IdentifiedVersion> getStartTransactionVersion(long startTimestamp);
+
     /**
      * Removes the given timestamp from the cache, along with all associated state. This may update the earliest
      * still-held version, and therefore may trigger retention in the underlying event log.
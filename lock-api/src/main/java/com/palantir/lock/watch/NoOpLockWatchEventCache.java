@@ -60,6 +60,11 @@ public class NoOpLockWatchEventCache implements LockWatchEventCache {
                 .build();
     }
 
+    @Override
+    public Optional<IdentifiedVersion> getStartTransactionVersion(long startTimestamp) {
+        return Optional.empty();
+    }
+
     @Override
     public void removeTransactionStateFromCache(long startTimestamp) {
     }
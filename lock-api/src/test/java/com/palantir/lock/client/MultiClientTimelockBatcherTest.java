@@ -0,0 +1,198 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.lock.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.Futures;
+import com.palantir.atlasdb.autobatch.BatchElement;
+import com.palantir.atlasdb.autobatch.DisruptorAutobatcher;
+import com.palantir.atlasdb.timelock.api.ConjureLockToken;
+import com.palantir.atlasdb.timelock.api.ConjureTimelockService;
+import com.palantir.atlasdb.timelock.api.ConjureUnlockRequest;
+import com.palantir.atlasdb.timelock.api.ConjureUnlockResponse;
+import com.palantir.atlasdb.timelock.api.ConjureUnlockResult;
+import com.palantir.atlasdb.timelock.api.MultiClientConjureTimelockService;
+import com.palantir.atlasdb.timelock.api.NamespaceFailure;
+import com.palantir.atlasdb.timelock.api.NamespaceFailureType;
+import com.palantir.lock.client.MultiClientTimelockBatcher.NamespacedRequest;
+import com.palantir.logsafe.exceptions.SafeIllegalStateException;
+
+public final class MultiClientTimelockBatcherTest {
+    private static final String NAMESPACE_1 = "one";
+    private static final String NAMESPACE_2 = "two";
+
+    private final List<Map<String, Integer>> calls = new ArrayList<>();
+
+    @Test
+    public void coalescesRequestsForDifferentNamespacesIntoOneCall() {
+        List<BatchElement<NamespacedRequest<Integer>, String>> batch = batch(
+                request(NAMESPACE_1, 1),
+                request(NAMESPACE_2, 2));
+
+        consumer(this::respond).accept(batch);
+
+        assertThat(calls).containsExactly(ImmutableMap.of(NAMESPACE_1, 1, NAMESPACE_2, 2));
+        assertThat(results(batch)).containsExactly("one:1", "two:2");
+    }
+
+    @Test
+    public void requestsForTheSameNamespaceAreSentInSeparateCalls() {
+        List<BatchElement<NamespacedRequest<Integer>, String>> batch = batch(
+                request(NAMESPACE_1, 1),
+                request(NAMESPACE_1, 2),
+                request(NAMESPACE_2, 3));
+
+        consumer(this::respond).accept(batch);
+
+        assertThat(calls).containsExactly(
+                ImmutableMap.of(NAMESPACE_1, 1, NAMESPACE_2, 3),
+                ImmutableMap.of(NAMESPACE_1, 2));
+        assertThat(results(batch)).containsExactly("one:1", "one:2", "two:3");
+    }
+
+    @Test
+    public void failedCallOnlyFailsItsOwnRequests() {
+        RuntimeException failure = new RuntimeException("failed");
+        List<BatchElement<NamespacedRequest<Integer>, String>> batch = batch(
+                request(NAMESPACE_1, 1),
+                request(NAMESPACE_1, 2));
+
+        consumer(requests -> {
+            if (calls.isEmpty()) {
+                calls.add(requests);
+                throw failure;
+            }
+            return respond(requests);
+        }).accept(batch);
+
+        assertThatThrownBy(() -> Futures.getDone(batch.get(0).result()))
+                .isInstanceOf(ExecutionException.class)
+                .extracting(Throwable::getCause)
+                .isSameAs(failure);
+        assertThat(Futures.getUnchecked(batch.get(1).result())).isEqualTo("one:2");
+    }
+
+    @Test
+    public void failedResultOnlyFailsRequestForThatNamespace() {
+        RuntimeException failure = new RuntimeException("failed");
+        List<BatchElement<NamespacedRequest<Integer>, String>> batch = batch(
+                request(NAMESPACE_1, 1),
+                request(NAMESPACE_2, 2));
+
+        MultiClientTimelockBatcher.<Integer, String, String>consumer(this::respond, result -> {
+            if (result.startsWith(NAMESPACE_2)) {
+                throw failure;
+            }
+            return result;
+        }).accept(batch);
+
+        assertThat(Futures.getUnchecked(batch.get(0).result())).isEqualTo("one:1");
+        assertThatThrownBy(() -> Futures.getDone(batch.get(1).result()))
+                .isInstanceOf(ExecutionException.class)
+                .extracting(Throwable::getCause)
+                .isSameAs(failure);
+    }
+
+    @Test
+    public void retriesNamespaceRejectedWithQosErrorThroughSingleNamespaceEndpoint() {
+        MultiClientConjureTimelockService multiClientService = mock(MultiClientConjureTimelockService.class);
+        ConjureTimelockService conjureTimelockService = mock(ConjureTimelockService.class);
+        ConjureUnlockRequest request = ConjureUnlockRequest.of(ImmutableSet.of(ConjureLockToken.of(UUID.randomUUID())));
+        ConjureUnlockResponse response = ConjureUnlockResponse.of(request.getTokens());
+        when(multiClientService.unlockForClients(any(), eq(ImmutableMap.of(NAMESPACE_1, request))))
+                .thenReturn(ImmutableMap.of(NAMESPACE_1, ConjureUnlockResult.failed(NamespaceFailure.builder()
+                        .type(NamespaceFailureType.RETRY_OTHER)
+                        .redirectTo("https://localhost:4321")
+                        .build())));
+        when(conjureTimelockService.unlock(any(), eq(NAMESPACE_1), eq(request))).thenReturn(response);
+
+        try (MultiClientTimelockBatcher batcher = MultiClientTimelockBatcher.create(multiClientService)) {
+            assertThat(batcher.forNamespace(conjureTimelockService, NAMESPACE_1).unlock(request))
+                    .isEqualTo(response);
+        }
+        verify(conjureTimelockService).unlock(any(), eq(NAMESPACE_1), eq(request));
+    }
+
+    @Test
+    public void missingResponseFailsRequestForThatNamespace() {
+        List<BatchElement<NamespacedRequest<Integer>, String>> batch = batch(
+                request(NAMESPACE_1, 1),
+                request(NAMESPACE_2, 2));
+
+        consumer(requests -> ImmutableMap.of(NAMESPACE_1, "one:1")).accept(batch);
+
+        assertThat(Futures.getUnchecked(batch.get(0).result())).isEqualTo("one:1");
+        assertThatThrownBy(() -> Futures.getDone(batch.get(1).result()))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(SafeIllegalStateException.class);
+    }
+
+    private Map<String, String> respond(Map<String, Integer> requests) {
+        calls.add(requests);
+        Map<String, String> responses = new HashMap<>();
+        requests.forEach((namespace, request) -> responses.put(namespace, namespace + ":" + request));
+        return responses;
+    }
+
+    private static Consumer<List<BatchElement<NamespacedRequest<Integer>, String>>> consumer(
+            Function<Map<String, Integer>, Map<String, String>> multiClientCall) {
+        return MultiClientTimelockBatcher.consumer(multiClientCall, Function.identity());
+    }
+
+    @SafeVarargs
+    private static List<BatchElement<NamespacedRequest<Integer>, String>> batch(
+            NamespacedRequest<Integer>... requests) {
+        List<BatchElement<NamespacedRequest<Integer>, String>> elements = new ArrayList<>();
+        for (NamespacedRequest<Integer> request : requests) {
+            elements.add(ImmutableTestBatchElement.<NamespacedRequest<Integer>, String>builder()
+                    .argument(request)
+                    .result(new DisruptorAutobatcher.DisruptorFuture<>("test"))
+                    .build());
+        }
+        return elements;
+    }
+
+    private static NamespacedRequest<Integer> request(String namespace, int request) {
+        return ImmutableNamespacedRequest.of(namespace, request);
+    }
+
+    private static List<String> results(List<BatchElement<NamespacedRequest<Integer>, String>> batch) {
+        List<String> results = new ArrayList<>();
+        batch.forEach(element -> results.add(Futures.getUnchecked(element.result())));
+        return results;
+    }
+}
@@ -21,6 +21,7 @@ import java.io.IOException;
 import java.util.Collection;
 import java.util.List;
 import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiFunction;
 import java.util.function.Supplier;
 
 import org.immutables.value.Value;
@@ -57,8 +58,23 @@ public class LeadershipComponents {
     }
 
     public <T> T wrapInLeadershipProxy(Client client, Class<T> clazz, Supplier<T> delegateSupplier) {
+        return wrapInLeadershipProxy(client, clazz, delegateSupplier,
+                (supplier, leaderElectionService) ->
+                        AwaitingLeadershipProxy.newProxyInstance(clazz, supplier, leaderElectionService));
+    }
+
+    /**
+     * As {@link #wrapInLeadershipProxy(Client, Class, Supplier)}, but creating the proxy with the given factory, such
+     * as those generated for interfaces annotated with {@code AutoLeadershipProxy}. The proxy created must implement
+     * {@link Closeable}.
+     */
+    public <T> T wrapInLeadershipProxy(
+            Client client,
+            Class<T> clazz,
+            Supplier<T> delegateSupplier,
+            BiFunction<Supplier<T>, LeaderElectionService, ? extends T> proxyFactory) {
         LeadershipContext context = getOrCreateNewLeadershipContext(client);
-        T instance = AwaitingLeadershipProxy.newProxyInstance(clazz, delegateSupplier, context.leaderElectionService());
+        T instance = proxyFactory.apply(delegateSupplier, context.leaderElectionService());
 
         // this is acceptable since the proxy returned implements Closeable and needs to be closed
         Closeable closeableInstance = (Closeable) instance;
@@ -37,6 +37,7 @@ import com.palantir.atlasdb.http.RedirectRetryTargeter;
 import com.palantir.atlasdb.timelock.AsyncTimelockService;
 import com.palantir.atlasdb.timelock.ConjureLockWatchingResource;
 import com.palantir.atlasdb.timelock.ConjureTimelockResource;
+import com.palantir.atlasdb.timelock.MultiClientConjureTimelockResource;
 import com.palantir.atlasdb.timelock.TimeLockResource;
 import com.palantir.atlasdb.timelock.TimeLockServices;
 import com.palantir.atlasdb.timelock.TimelockNamespaces;
@@ -217,12 +218,16 @@ public class TimeLockAgent {
             Consumer<UndertowService> presentUndertowRegistrar = undertowRegistrar.get();
             presentUndertowRegistrar.accept(ConjureTimelockResource.undertow(
                     redirectRetryTargeter(), asyncTimelockServiceGetter));
+            presentUndertowRegistrar.accept(MultiClientConjureTimelockResource.undertow(
+                    redirectRetryTargeter(), asyncTimelockServiceGetter));
             presentUndertowRegistrar.accept(ConjureLockWatchingResource.undertow(
                     redirectRetryTargeter(), asyncTimelockServiceGetter));
             presentUndertowRegistrar.accept(ConjureLockV1Resource.undertow(
                     redirectRetryTargeter(), lockServiceGetter));
         } else {
             registrar.accept(ConjureTimelockResource.jersey(redirectRetryTargeter(), asyncTimelockServiceGetter));
+            registrar.accept(
+                    MultiClientConjureTimelockResource.jersey(redirectRetryTargeter(), asyncTimelockServiceGetter));
             registrar.accept(ConjureLockWatchingResource.jersey(redirectRetryTargeter(), asyncTimelockServiceGetter));
             registrar.accept(ConjureLockV1Resource.jersey(redirectRetryTargeter(), lockServiceGetter));
         }
@@ -0,0 +1,96 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.timelock.lock;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link ImmutableTimestampTracker} under the access pattern of TimeLock serving many clients: each
+ * transaction locks its immutable timestamp when it starts, and unlocks it when it ends, while the immutable timestamp
+ * is read on every transaction start. A fixed set of long-running transactions keeps the tracker non-empty, so that
+ * reads have to find the minimum rather than observing an empty tracker.
+ */
+@Measurement(iterations = 5, time = 5)
+@Warmup(iterations = 3, time = 2)
+@Fork(1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ImmutableTimestampTrackerBenchmarks {
+    private static final int LONG_RUNNING_TRANSACTIONS = 1_000;
+
+    @State(Scope.Benchmark)
+    public static class TrackerState {
+        private final ImmutableTimestampTracker tracker = new ImmutableTimestampTracker();
+        private final AtomicLong timestamps = new AtomicLong();
+
+        @Setup(Level.Trial)
+        public void setup() {
+            for (int i = 0; i < LONG_RUNNING_TRANSACTIONS; i++) {
+                long timestamp = timestamps.incrementAndGet();
+                tracker.lock(timestamp, requestIdFor(timestamp));
+            }
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Optional<Long> singleThreadedTransactions(TrackerState state) {
+        return runTransaction(state);
+    }
+
+    @Benchmark
+    @Threads(64)
+    public Optional<Long> manyThreadsTransactions(TrackerState state) {
+        return runTransaction(state);
+    }
+
+    @Benchmark
+    @Threads(64)
+    public Optional<Long> manyThreadsGetImmutableTimestamp(TrackerState state) {
+        return state.tracker.getImmutableTimestamp();
+    }
+
+    private static Optional<Long> runTransaction(TrackerState state) {
+        long timestamp = state.timestamps.incrementAndGet();
+        UUID requestId = requestIdFor(timestamp);
+        state.tracker.lock(timestamp, requestId);
+        Optional<Long> immutableTimestamp = state.tracker.getImmutableTimestamp();
+        state.tracker.unlock(timestamp, requestId);
+        return immutableTimestamp;
+    }
+
+    private static UUID requestIdFor(long timestamp) {
+        // UUID.randomUUID() would serialise the benchmark threads on the shared SecureRandom
+        return new UUID(0L, timestamp);
+    }
+}
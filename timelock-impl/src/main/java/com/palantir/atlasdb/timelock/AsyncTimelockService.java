@@ -39,9 +39,11 @@ import com.palantir.lock.v2.StartTransactionResponseV5;
 import com.palantir.lock.v2.WaitForLocksRequest;
 import com.palantir.lock.v2.WaitForLocksResponse;
 import com.palantir.lock.watch.IdentifiedVersion;
+import com.palantir.processors.AutoLeadershipProxy;
 import com.palantir.timestamp.ManagedTimestampService;
 import com.palantir.timestamp.TimestampRange;
 
+@AutoLeadershipProxy
 public interface AsyncTimelockService extends ManagedTimestampService, LockWatchingService, Closeable {
 
     long currentTimeMillis();
@@ -0,0 +1,189 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.timelock;
+
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.util.concurrent.FluentFuture;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.palantir.atlasdb.futures.AtlasFutures;
+import com.palantir.atlasdb.http.RedirectRetryTargeter;
+import com.palantir.atlasdb.timelock.api.ConjureStartTransactionsRequest;
+import com.palantir.atlasdb.timelock.api.ConjureStartTransactionsResult;
+import com.palantir.atlasdb.timelock.api.ConjureUnlockRequest;
+import com.palantir.atlasdb.timelock.api.ConjureUnlockResult;
+import com.palantir.atlasdb.timelock.api.GetCommitTimestampsRequest;
+import com.palantir.atlasdb.timelock.api.GetCommitTimestampsResult;
+import com.palantir.atlasdb.timelock.api.MultiClientConjureTimelockService;
+import com.palantir.atlasdb.timelock.api.MultiClientConjureTimelockServiceEndpoints;
+import com.palantir.atlasdb.timelock.api.NamespaceFailure;
+import com.palantir.atlasdb.timelock.api.NamespaceFailureType;
+import com.palantir.atlasdb.timelock.api.UndertowMultiClientConjureTimelockService;
+import com.palantir.common.streams.KeyedStream;
+import com.palantir.conjure.java.api.errors.QosException;
+import com.palantir.conjure.java.undertow.lib.UndertowService;
+import com.palantir.logsafe.SafeArg;
+import com.palantir.tokens.auth.AuthHeader;
+
+/**
+ * Serves requests for several namespaces in a single call, by handing each of them to {@link ConjureTimelockResource}
+ * so that every namespace is still processed by its own {@link AsyncTimelockService}. The result for each namespace is
+ * reported separately: a namespace that fails, for example because this node is not its leader, gets the QoS error
+ * {@link ConjureTimelockResource} would have thrown for it as its {@link NamespaceFailure}, and does not affect the
+ * results of the other namespaces in the call.
+ */
+public final class MultiClientConjureTimelockResource implements UndertowMultiClientConjureTimelockService {
+    private static final Logger log = LoggerFactory.getLogger(MultiClientConjureTimelockResource.class);
+
+    private final ConjureTimelockResource delegate;
+
+    private MultiClientConjureTimelockResource(ConjureTimelockResource delegate) {
+        this.delegate = delegate;
+    }
+
+    public static UndertowService undertow(
+            RedirectRetryTargeter redirectRetryTargeter,
+            Function<String, AsyncTimelockService> timelockServices) {
+        return MultiClientConjureTimelockServiceEndpoints.of(create(redirectRetryTargeter, timelockServices));
+    }
+
+    public static MultiClientConjureTimelockService jersey(
+            RedirectRetryTargeter redirectRetryTargeter,
+            Function<String, AsyncTimelockService> timelockServices) {
+        return new JerseyAdapter(create(redirectRetryTargeter, timelockServices));
+    }
+
+    static MultiClientConjureTimelockResource create(
+            RedirectRetryTargeter redirectRetryTargeter,
+            Function<String, AsyncTimelockService> timelockServices) {
+        return new MultiClientConjureTimelockResource(
+                new ConjureTimelockResource(redirectRetryTargeter, timelockServices));
+    }
+
+    @Override
+    public ListenableFuture<Map<String, ConjureStartTransactionsResult>> startTransactionsForClients(
+            AuthHeader authHeader, Map<String, ConjureStartTransactionsRequest> requests) {
+        return forEachNamespace(requests,
+                (namespace, request) -> delegate.startTransactions(authHeader, namespace, request),
+                ConjureStartTransactionsResult::successful,
+                ConjureStartTransactionsResult::failed);
+    }
+
+    @Override
+    public ListenableFuture<Map<String, GetCommitTimestampsResult>> getCommitTimestampsForClients(
+            AuthHeader authHeader, Map<String, GetCommitTimestampsRequest> requests) {
+        return forEachNamespace(requests,
+                (namespace, request) -> delegate.getCommitTimestamps(authHeader, namespace, request),
+                GetCommitTimestampsResult::successful,
+                GetCommitTimestampsResult::failed);
+    }
+
+    @Override
+    public ListenableFuture<Map<String, ConjureUnlockResult>> unlockForClients(
+            AuthHeader authHeader, Map<String, ConjureUnlockRequest> requests) {
+        return forEachNamespace(requests,
+                (namespace, request) -> delegate.unlock(authHeader, namespace, request),
+                ConjureUnlockResult::successful,
+                ConjureUnlockResult::failed);
+    }
+
+    private static <Q, R, T> ListenableFuture<Map<String, T>> forEachNamespace(
+            Map<String, Q> requests,
+            BiFunction<String, Q, ListenableFuture<R>> handler,
+            Function<R, T> successful,
+            Function<NamespaceFailure, T> failed) {
+        Map<String, ListenableFuture<T>> results = KeyedStream.stream(requests)
+                .map((namespace, request) -> FluentFuture.from(handler.apply(namespace, request))
+                        .transform(successful::apply, MoreExecutors.directExecutor())
+                        .catching(Throwable.class,
+                                throwable -> failed.apply(toNamespaceFailure(namespace, throwable)),
+                                MoreExecutors.directExecutor()))
+                .collectToMap();
+        return Futures.whenAllSucceed(results.values())
+                .call(() -> KeyedStream.stream(results).map(AtlasFutures::getDone).collectToMap(),
+                        MoreExecutors.directExecutor());
+    }
+
+    private static NamespaceFailure toNamespaceFailure(String namespace, Throwable throwable) {
+        if (throwable instanceof QosException) {
+            return ((QosException) throwable).accept(ToNamespaceFailure.INSTANCE);
+        }
+        log.warn("Failed to serve the request for a namespace in a multi-client request",
+                SafeArg.of("namespace", namespace),
+                throwable);
+        return failure(NamespaceFailureType.INTERNAL);
+    }
+
+    private enum ToNamespaceFailure implements QosException.Visitor<NamespaceFailure> {
+        INSTANCE;
+
+        @Override
+        public NamespaceFailure visit(QosException.Throttle exception) {
+            return failure(NamespaceFailureType.THROTTLE);
+        }
+
+        @Override
+        public NamespaceFailure visit(QosException.RetryOther exception) {
+            return NamespaceFailure.builder()
+                    .type(NamespaceFailureType.RETRY_OTHER)
+                    .redirectTo(exception.getRedirectTo().toString())
+                    .build();
+        }
+
+        @Override
+        public NamespaceFailure visit(QosException.Unavailable exception) {
+            return failure(NamespaceFailureType.UNAVAILABLE);
+        }
+    }
+
+    private static NamespaceFailure failure(NamespaceFailureType type) {
+        return NamespaceFailure.builder().type(type).build();
+    }
+
+    public static final class JerseyAdapter implements MultiClientConjureTimelockService {
+        private final MultiClientConjureTimelockResource resource;
+
+        private JerseyAdapter(MultiClientConjureTimelockResource resource) {
+            this.resource = resource;
+        }
+
+        @Override
+        public Map<String, ConjureStartTransactionsResult> startTransactionsForClients(
+                AuthHeader authHeader, Map<String, ConjureStartTransactionsRequest> requests) {
+            return AtlasFutures.getUnchecked(resource.startTransactionsForClients(authHeader, requests));
+        }
+
+        @Override
+        public Map<String, GetCommitTimestampsResult> getCommitTimestampsForClients(
+                AuthHeader authHeader, Map<String, GetCommitTimestampsRequest> requests) {
+            return AtlasFutures.getUnchecked(resource.getCommitTimestampsForClients(authHeader, requests));
+        }
+
+        @Override
+        public Map<String, ConjureUnlockResult> unlockForClients(
+                AuthHeader authHeader, Map<String, ConjureUnlockRequest> requests) {
+            return AtlasFutures.getUnchecked(resource.unlockForClients(authHeader, requests));
+        }
+    }
+}
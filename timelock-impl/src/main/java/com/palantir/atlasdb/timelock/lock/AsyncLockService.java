@@ -110,7 +110,9 @@ public class AsyncLockService implements Closeable {
     private void scheduleExpiredLockReaper() {
         reaperExecutor.scheduleAtFixedRate(() -> {
             try {
-                heldLocks.removeExpired();
+                long start = System.nanoTime();
+                int removed = heldLocks.removeExpired();
+                lockLog.expiredLocksRemoved(removed, System.nanoTime() - start);
             } catch (Throwable t) {
                 log.warn("Error while removing expired lock requests. Trying again on next iteration.", t);
             }
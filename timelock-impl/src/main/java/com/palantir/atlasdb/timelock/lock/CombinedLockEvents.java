@@ -54,4 +54,9 @@ public class CombinedLockEvents implements LockEvents {
     public void explicitlyUnlocked(UUID requestId) {
         lockEvents.forEach(events -> events.explicitlyUnlocked(requestId));
     }
+
+    @Override
+    public void expiredLocksRemoved(int removedCount, long sweepDurationNanos) {
+        lockEvents.forEach(events -> events.expiredLocksRemoved(removedCount, sweepDurationNanos));
+    }
 }
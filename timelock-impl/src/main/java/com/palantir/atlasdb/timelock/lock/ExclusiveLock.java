@@ -15,53 +15,64 @@
  */
 package com.palantir.atlasdb.timelock.lock;
 
-import java.util.LinkedHashMap;
-import java.util.Objects;
+import java.util.Queue;
 import java.util.UUID;
-
-import javax.annotation.concurrent.GuardedBy;
-import javax.annotation.concurrent.NotThreadSafe;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import com.google.common.annotations.VisibleForTesting;
-import com.google.common.collect.Maps;
 import com.palantir.atlasdb.timelock.util.LoggableIllegalStateException;
 import com.palantir.lock.LockDescriptor;
 import com.palantir.logsafe.SafeArg;
 
+/**
+ * A fair exclusive lock that does not block threads.
+ *
+ * Requests are appended to a lock-free queue. Requests are granted by whichever thread wins the right to drain the
+ * queue: any thread that enqueues a request or releases the lock while another thread is draining leaves it to that
+ * thread to grant any request that has become grantable, rather than waiting for it. Only the draining thread grants
+ * the lock, so the holder only becomes non-null there, and unlocking is a compare-and-set of the holder back to null.
+ */
 public class ExclusiveLock implements AsyncLock {
 
     private final LockDescriptor descriptor;
 
-    @GuardedBy("this")
-    private final LockRequestQueue queue = new LockRequestQueue();
-    @GuardedBy("this")
-    private UUID currentHolder = null;
+    private final ConcurrentMap<UUID, LockRequest> queuedRequests = new ConcurrentHashMap<>();
+    private final Queue<LockRequest> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicReference<UUID> currentHolder = new AtomicReference<>();
+    private final AtomicInteger drainRequests = new AtomicInteger();
 
     public ExclusiveLock(LockDescriptor descriptor) {
         this.descriptor = descriptor;
     }
 
     @Override
-    public synchronized AsyncResult<Void> lock(UUID requestId) {
+    public AsyncResult<Void> lock(UUID requestId) {
         return submit(new LockRequest(requestId, false));
     }
 
     @Override
-    public synchronized AsyncResult<Void> waitUntilAvailable(UUID requestId) {
+    public AsyncResult<Void> waitUntilAvailable(UUID requestId) {
         return submit(new LockRequest(requestId, true));
     }
 
     @Override
-    public synchronized void unlock(UUID requestId) {
-        if (Objects.equals(requestId, currentHolder)) {
-            currentHolder = null;
+    public void unlock(UUID requestId) {
+        UUID holder = currentHolder.get();
+        if (requestId.equals(holder) && currentHolder.compareAndSet(holder, null)) {
             processQueue();
         }
     }
 
     @Override
-    public synchronized void timeout(UUID requestId) {
-        queue.timeoutAndRemoveIfStillQueued(requestId);
+    public void timeout(UUID requestId) {
+        LockRequest request = queuedRequests.remove(requestId);
+        if (request != null) {
+            request.result.timeout();
+        }
     }
 
     @Override
@@ -70,25 +81,46 @@ public class ExclusiveLock implements AsyncLock {
     }
 
     @VisibleForTesting
-    synchronized UUID getCurrentHolder() {
-        return currentHolder;
+    UUID getCurrentHolder() {
+        return currentHolder.get();
     }
 
-    @GuardedBy("this")
     private AsyncResult<Void> submit(LockRequest request) {
-        queue.enqueue(request);
+        if (queuedRequests.putIfAbsent(request.requestId, request) != null) {
+            throw new LoggableIllegalStateException(
+                    "Cannot enqueue the same request id twice.",
+                    SafeArg.of("requestId", request.requestId));
+        }
+        queue.add(request);
         processQueue();
 
         return request.result;
     }
 
-    @GuardedBy("this")
     private void processQueue() {
-        while (!queue.isEmpty() && currentHolder == null) {
-            LockRequest head = queue.dequeue();
+        if (drainRequests.getAndIncrement() != 0) {
+            return;
+        }
+        int missed = 1;
+        do {
+            grantQueuedRequests();
+            missed = drainRequests.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    private void grantQueuedRequests() {
+        while (currentHolder.get() == null) {
+            LockRequest head = queue.poll();
+            if (head == null) {
+                return;
+            }
+            if (!queuedRequests.remove(head.requestId, head)) {
+                // timed out while queued
+                continue;
+            }
 
             if (!head.releaseImmediately) {
-                currentHolder = head.requestId;
+                currentHolder.set(head.requestId);
             }
 
             head.result.complete(null);
@@ -105,36 +137,4 @@ public class ExclusiveLock implements AsyncLock {
             this.releaseImmediately = releaseImmediately;
         }
     }
-
-    @NotThreadSafe
-    private static class LockRequestQueue {
-
-        @SuppressWarnings("checkstyle:illegaltype")
-        private final LinkedHashMap<UUID, LockRequest> queue = Maps.newLinkedHashMap();
-
-        public void enqueue(LockRequest request) {
-            LockRequest existingRequest = queue.put(request.requestId, request);
-            if (existingRequest != null) {
-                queue.put(request.requestId, existingRequest);
-                throw new LoggableIllegalStateException(
-                        "Cannot enqueue the same request id twice.",
-                        SafeArg.of("requestId", request.requestId));
-            }
-        }
-
-        public boolean isEmpty() {
-            return queue.isEmpty();
-        }
-
-        public LockRequest dequeue() {
-            return queue.remove(queue.keySet().iterator().next());
-        }
-
-        public void timeoutAndRemoveIfStillQueued(UUID requestId) {
-            LockRequest request = queue.remove(requestId);
-            if (request != null) {
-                request.result.timeout();
-            }
-        }
-    }
 }
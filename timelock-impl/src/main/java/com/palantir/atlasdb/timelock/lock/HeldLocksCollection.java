@@ -15,8 +15,10 @@
  */
 package com.palantir.atlasdb.timelock.lock;
 
+import java.util.Queue;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ConcurrentMap;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
@@ -31,15 +33,23 @@ import com.palantir.lock.v2.LeaderTime;
 import com.palantir.lock.v2.Lease;
 import com.palantir.lock.v2.LockToken;
 
+/**
+ * Tracks lock requests by request id. Requests that have acquired their locks are scheduled in a
+ * {@link LeaseExpiryWheel} at their lease deadline, and requests that failed or timed out are queued for removal, so
+ * that {@link #removeExpired()} only examines requests that are actually due rather than every request held.
+ */
 public class HeldLocksCollection {
     @VisibleForTesting
     final ConcurrentMap<UUID, AsyncResult<HeldLocks>> heldLocksById = Maps.newConcurrentMap();
 
     private final LeaderClock leaderClock;
+    private final LeaseExpiryWheel<UUID> expiryWheel;
+    private final Queue<UUID> unsuccessfulRequests = new ConcurrentLinkedQueue<>();
 
     @VisibleForTesting
     HeldLocksCollection(LeaderClock leaderClock) {
         this.leaderClock = leaderClock;
+        this.expiryWheel = LeaseExpiryWheel.create(leaderClock.time().currentTime());
     }
 
     public static HeldLocksCollection create(LeaderClock leaderClock) {
@@ -50,7 +60,7 @@ public class HeldLocksCollection {
             UUID requestId,
             Supplier<AsyncResult<HeldLocks>> lockAcquirer) {
         return heldLocksById.computeIfAbsent(
-                requestId, ignored -> lockAcquirer.get())
+                requestId, ignored -> acquireAndTrackExpiry(requestId, lockAcquirer))
                 .map(this::createLeasableLockToken);
     }
 
@@ -58,17 +68,42 @@ public class HeldLocksCollection {
         Set<LockToken> unlocked = filter(tokens, HeldLocks::unlockExplicitly);
         for (LockToken token : unlocked) {
             heldLocksById.remove(token.getRequestId());
+            expiryWheel.cancel(token.getRequestId());
         }
         return unlocked;
     }
 
     public Leased<Set<LockToken>> refresh(Set<LockToken> tokens) {
         Lease lease = leaseWithStart(leaderClock.time());
-        return Leased.of(filter(tokens, HeldLocks::refresh), lease);
+        Set<LockToken> refreshed = Sets.newHashSetWithExpectedSize(tokens.size());
+        for (LockToken token : tokens) {
+            AsyncResult<HeldLocks> lockResult = heldLocksById.get(token.getRequestId());
+            if (lockResult != null && lockResult.test(HeldLocks::refresh)) {
+                scheduleExpiry(token.getRequestId(), lockResult.get());
+                refreshed.add(token);
+            }
+        }
+        return Leased.of(refreshed, lease);
     }
 
-    public void removeExpired() {
-        heldLocksById.values().removeIf(this::shouldRemove);
+    /**
+     * Removes requests that failed, timed out, or whose leases have expired (unlocking them in the latter case).
+     *
+     * @return the number of requests removed
+     */
+    public int removeExpired() {
+        int removed = 0;
+        for (UUID requestId = unsuccessfulRequests.poll(); requestId != null; requestId = unsuccessfulRequests.poll()) {
+            if (removeIfExpired(requestId)) {
+                removed++;
+            }
+        }
+        for (UUID requestId : expiryWheel.advance(leaderClock.time().currentTime())) {
+            if (removeIfExpired(requestId)) {
+                removed++;
+            }
+        }
+        return removed;
     }
 
     public void failAllOutstandingRequestsWithNotCurrentLeaderException() {
@@ -95,6 +130,39 @@ public class HeldLocksCollection {
         return Lease.of(leaderTime, LockLeaseContract.CLIENT_LEASE_TIMEOUT);
     }
 
+    private AsyncResult<HeldLocks> acquireAndTrackExpiry(
+            UUID requestId,
+            Supplier<AsyncResult<HeldLocks>> lockAcquirer) {
+        AsyncResult<HeldLocks> lockResult = lockAcquirer.get();
+        lockResult.onComplete(() -> {
+            if (lockResult.isCompletedSuccessfully()) {
+                scheduleExpiry(requestId, lockResult.get());
+            } else {
+                unsuccessfulRequests.add(requestId);
+            }
+        });
+        return lockResult;
+    }
+
+    private void scheduleExpiry(UUID requestId, HeldLocks heldLocks) {
+        expiryWheel.schedule(requestId, heldLocks.lastRefreshTime().plus(LockLeaseContract.SERVER_LEASE_TIMEOUT));
+    }
+
+    private boolean removeIfExpired(UUID requestId) {
+        AsyncResult<HeldLocks> lockResult = heldLocksById.get(requestId);
+        if (lockResult == null) {
+            return false;
+        }
+        if (shouldRemove(lockResult)) {
+            return heldLocksById.remove(requestId, lockResult);
+        }
+        if (lockResult.isCompletedSuccessfully()) {
+            // refreshed since it was scheduled, or due early because its deadline is later in the current tick
+            scheduleExpiry(requestId, lockResult.get());
+        }
+        return false;
+    }
+
     private boolean shouldRemove(AsyncResult<HeldLocks> lockResult) {
         return lockResult.isFailed()
                 || lockResult.isTimedOut()
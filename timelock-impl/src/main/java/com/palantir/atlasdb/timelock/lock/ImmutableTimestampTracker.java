@@ -15,22 +15,27 @@
  */
 package com.palantir.atlasdb.timelock.lock;
 
+import java.util.Map;
 import java.util.Optional;
-import java.util.SortedMap;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 
-import javax.annotation.concurrent.GuardedBy;
-
-import com.google.common.collect.Maps;
 import com.palantir.atlasdb.timelock.util.LoggableIllegalStateException;
 import com.palantir.logsafe.SafeArg;
 
+/**
+ * Tracks the timestamps locked by open transactions, so that the immutable timestamp is the earliest of these.
+ *
+ * Every transaction start and end locks or unlocks a timestamp here, so holders are kept in a skip list rather than
+ * behind a monitor: locking and unlocking distinct timestamps do not contend, and reading the immutable timestamp
+ * never blocks.
+ */
 public class ImmutableTimestampTracker {
 
-    @GuardedBy("this")
-    private final SortedMap<Long, UUID> holdersByTimestamp = Maps.newTreeMap();
+    private final ConcurrentNavigableMap<Long, UUID> holdersByTimestamp = new ConcurrentSkipListMap<>();
 
-    public synchronized void lock(long timestamp, UUID requestId) {
+    public void lock(long timestamp, UUID requestId) {
         boolean wasAdded = holdersByTimestamp.putIfAbsent(timestamp, requestId) == null;
         if (!wasAdded) {
             throw new LoggableIllegalStateException(
@@ -41,7 +46,7 @@ public class ImmutableTimestampTracker {
         }
     }
 
-    public synchronized void unlock(long timestamp, UUID requestId) {
+    public void unlock(long timestamp, UUID requestId) {
         boolean wasRemoved = holdersByTimestamp.remove(timestamp, requestId);
         if (!wasRemoved) {
             throw new LoggableIllegalStateException(
@@ -52,11 +57,9 @@ public class ImmutableTimestampTracker {
         }
     }
 
-    public synchronized Optional<Long> getImmutableTimestamp() {
-        if (holdersByTimestamp.isEmpty()) {
-            return Optional.empty();
-        }
-        return Optional.of(holdersByTimestamp.firstKey());
+    public Optional<Long> getImmutableTimestamp() {
+        // firstKey() would throw if the last holder were removed between checking for emptiness and reading the key
+        return Optional.ofNullable(holdersByTimestamp.firstEntry()).map(Map.Entry::getKey);
     }
 
     // TODO(nziebart): should these locks should be created by LockCollection for consistency?
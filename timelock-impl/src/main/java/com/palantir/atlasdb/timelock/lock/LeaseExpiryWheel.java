@@ -0,0 +1,170 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.timelock.lock;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.palantir.common.time.NanoTime;
+import com.palantir.logsafe.Preconditions;
+import com.palantir.logsafe.SafeArg;
+
+/**
+ * A timing wheel of lease deadlines, so that the keys whose deadlines have passed can be found without examining
+ * every key. Time is divided into ticks, and each key is held in the bucket of the tick containing its deadline.
+ *
+ * Every lease is granted for {@link LockLeaseContract#SERVER_LEASE_TIMEOUT}, so a single revolution of the wheel
+ * covers all deadlines and no hierarchy of wheels is needed; a deadline further out than one revolution is still
+ * handled correctly, but its bucket is revisited once per revolution until it is due.
+ *
+ * {@link #schedule} and {@link #cancel} may be called concurrently with each other and with {@link #advance}, but
+ * {@link #advance} must be called by one thread at a time.
+ */
+final class LeaseExpiryWheel<K> {
+    private static final int BUCKETS_PER_LEASE = 64;
+
+    private final NanoTime origin;
+    private final long tickNanos;
+    private final Set<K>[] buckets;
+    private final int mask;
+    // Bucket membership of a key only changes within a compute on its entry here, so the two are always consistent.
+    private final ConcurrentMap<K, Long> tickByKey = new ConcurrentHashMap<>();
+
+    // Every tick up to and including this one has been, or is being, advanced past. It is published before the buckets
+    // are swept, so that a key added to a bucket while it is being swept is either seen by the sweep or rescheduled.
+    private volatile long lastAdvancedTick = -1;
+
+    @VisibleForTesting
+    @SuppressWarnings("unchecked")
+    LeaseExpiryWheel(NanoTime origin, Duration tickDuration, int numBuckets) {
+        Preconditions.checkArgument(!tickDuration.isNegative() && !tickDuration.isZero(),
+                "Tick duration must be positive", SafeArg.of("tickDuration", tickDuration));
+        Preconditions.checkArgument(numBuckets > 0 && Integer.bitCount(numBuckets) == 1,
+                "Number of buckets must be a power of two", SafeArg.of("numBuckets", numBuckets));
+        this.origin = origin;
+        this.tickNanos = tickDuration.toNanos();
+        this.buckets = new Set[numBuckets];
+        for (int i = 0; i < numBuckets; i++) {
+            buckets[i] = ConcurrentHashMap.newKeySet();
+        }
+        this.mask = numBuckets - 1;
+    }
+
+    /**
+     * Creates a wheel with ticks of a small fraction of the lease timeout, spanning twice the lease timeout.
+     */
+    static <K> LeaseExpiryWheel<K> create(NanoTime now) {
+        return new LeaseExpiryWheel<>(
+                now,
+                LockLeaseContract.SERVER_LEASE_TIMEOUT.dividedBy(BUCKETS_PER_LEASE),
+                2 * BUCKETS_PER_LEASE);
+    }
+
+    /**
+     * Schedules the given key to be returned by {@link #advance} once the given deadline has passed, replacing any
+     * deadline previously scheduled for it.
+     */
+    void schedule(K key, NanoTime deadline) {
+        long tick = Math.max(tickOf(deadline), lastAdvancedTick + 1);
+        tickByKey.compute(key, (unused, previousTick) -> moveToTick(key, previousTick, tick));
+        rescheduleIfAdvancedPast(key, tick);
+    }
+
+    /**
+     * {@link #advance} may have swept the bucket of the given tick after the tick was chosen but before the key was
+     * added to it, in which case the key would not be revisited for a whole revolution. Moves the key to the next tick
+     * still to be advanced past, until that tick has not been advanced past once the key is in its bucket.
+     */
+    private void rescheduleIfAdvancedPast(K key, long scheduledTick) {
+        long tick = scheduledTick;
+        long advancedTick = lastAdvancedTick;
+        while (advancedTick >= tick) {
+            long expectedTick = tick;
+            long nextTick = advancedTick + 1;
+            Long currentTick = tickByKey.computeIfPresent(key, (unused, previousTick) ->
+                    previousTick == expectedTick ? moveToTick(key, previousTick, nextTick) : previousTick);
+            if (currentTick == null || currentTick != nextTick) {
+                // returned by advance, cancelled, or rescheduled concurrently, which is then responsible for it
+                return;
+            }
+            tick = nextTick;
+            advancedTick = lastAdvancedTick;
+        }
+    }
+
+    private Long moveToTick(K key, Long previousTick, long tick) {
+        if (previousTick != null) {
+            if (previousTick == tick) {
+                return previousTick;
+            }
+            bucketFor(previousTick).remove(key);
+        }
+        bucketFor(tick).add(key);
+        return tick;
+    }
+
+    void cancel(K key) {
+        tickByKey.computeIfPresent(key, (unused, previousTick) -> {
+            bucketFor(previousTick).remove(key);
+            return null;
+        });
+    }
+
+    /**
+     * Returns and unschedules every key scheduled in a tick that has started by {@code now}. This includes all keys
+     * whose deadlines are before {@code now}, and may include keys whose deadlines fall later in the current tick.
+     */
+    List<K> advance(NanoTime now) {
+        long nowTick = tickOf(now);
+        long firstTick = lastAdvancedTick + 1;
+        lastAdvancedTick = Math.max(lastAdvancedTick, nowTick);
+        List<K> due = new ArrayList<>();
+        // every bucket is visited at most once, however far time has moved on
+        long lastTick = Math.min(nowTick, firstTick + buckets.length - 1);
+        for (long tick = firstTick; tick <= lastTick; tick++) {
+            Set<K> bucket = bucketFor(tick);
+            for (K key : bucket) {
+                tickByKey.computeIfPresent(key, (unused, scheduledTick) -> {
+                    if (scheduledTick > nowTick) {
+                        return scheduledTick;
+                    }
+                    bucket.remove(key);
+                    due.add(key);
+                    return null;
+                });
+            }
+        }
+        return due;
+    }
+
+    int size() {
+        return tickByKey.size();
+    }
+
+    private long tickOf(NanoTime time) {
+        return Math.floorDiv(NanoTime.nanosBetween(origin, time), tickNanos);
+    }
+
+    private Set<K> bucketFor(long tick) {
+        return buckets[(int) tick & mask];
+    }
+}
@@ -16,13 +16,16 @@
 package com.palantir.atlasdb.timelock.lock;
 
 
+import java.util.Arrays;
 import java.util.Comparator;
-import java.util.List;
 import java.util.Set;
+import java.util.SortedSet;
 
 import com.github.benmanes.caffeine.cache.Caffeine;
 import com.github.benmanes.caffeine.cache.LoadingCache;
-import com.google.common.collect.Lists;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Ordering;
 import com.palantir.lock.LockDescriptor;
 
 public class LockCollection {
@@ -35,21 +38,40 @@ public class LockCollection {
                 .build(ExclusiveLock::new);
     }
 
+    /**
+     * Returns the locks for the given descriptors, in the order of the descriptors. Descriptors only need sorting
+     * when there are several and they do not come as a set sorted in their natural order; in that case they are
+     * sorted in an array, and the locks are collected straight into the returned list.
+     */
     public OrderedLocks getAll(Set<LockDescriptor> descriptors) {
-        List<LockDescriptor> orderedDescriptors = sort(descriptors);
+        if (descriptors.size() == 1) {
+            return OrderedLocks.fromSingleLock(getLock(Iterables.getOnlyElement(descriptors)));
+        }
 
-        List<AsyncLock> locks = Lists.newArrayListWithExpectedSize(descriptors.size());
-        for (LockDescriptor descriptor : orderedDescriptors) {
-            locks.add(getLock(descriptor));
+        ImmutableList.Builder<AsyncLock> locks = ImmutableList.builderWithExpectedSize(descriptors.size());
+        if (isSortedInNaturalOrder(descriptors)) {
+            for (LockDescriptor descriptor : descriptors) {
+                locks.add(getLock(descriptor));
+            }
+        } else {
+            LockDescriptor[] orderedDescriptors = descriptors.toArray(new LockDescriptor[0]);
+            Arrays.sort(orderedDescriptors);
+            for (LockDescriptor descriptor : orderedDescriptors) {
+                locks.add(getLock(descriptor));
+            }
         }
 
-        return OrderedLocks.fromOrderedList(locks);
+        return OrderedLocks.fromOrderedList(locks.build());
     }
 
-    private static List<LockDescriptor> sort(Set<LockDescriptor> descriptors) {
-        List<LockDescriptor> orderedDescriptors = Lists.newArrayList(descriptors);
-        orderedDescriptors.sort(Comparator.naturalOrder());
-        return orderedDescriptors;
+    private static boolean isSortedInNaturalOrder(Set<LockDescriptor> descriptors) {
+        if (!(descriptors instanceof SortedSet)) {
+            return false;
+        }
+        Comparator<?> comparator = ((SortedSet<LockDescriptor>) descriptors).comparator();
+        return comparator == null
+                || comparator.equals(Comparator.naturalOrder())
+                || comparator.equals(Ordering.natural());
     }
 
     private AsyncLock getLock(LockDescriptor descriptor) {
@@ -32,6 +32,7 @@ public interface LockEvents {
     void successfulAcquisition(RequestInfo request, long acquisitionTimeMillis);
     void lockExpired(UUID requestId, Collection<LockDescriptor> lockDescriptors);
     void explicitlyUnlocked(UUID requestId);
+    void expiredLocksRemoved(int removedCount, long sweepDurationNanos);
 
     @Value.Immutable
     interface RequestInfo {
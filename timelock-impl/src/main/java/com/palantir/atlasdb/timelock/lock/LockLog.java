@@ -113,6 +113,10 @@ public class LockLog {
         events.explicitlyUnlocked(requestId);
     }
 
+    void expiredLocksRemoved(int removedCount, long sweepDurationNanos) {
+        events.expiredLocksRemoved(removedCount, sweepDurationNanos);
+    }
+
     /**
      * TODO(fdesouza): Remove this once PDS-95791 is resolved.
      * @deprecated Remove this once PDS-95791 is resolved.
@@ -23,6 +23,7 @@ import java.util.function.Supplier;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.codahale.metrics.Histogram;
 import com.codahale.metrics.Meter;
 import com.codahale.metrics.MetricRegistry;
 import com.codahale.metrics.Timer;
@@ -39,6 +40,8 @@ public class LoggingLockEvents implements LockEvents {
     private final Meter successfulSlowAcquisitionMeter;
     private final Meter timedOutSlowAcquisitionMeter;
     private final Meter lockExpiredMeter;
+    private final Histogram removedPerSweep;
+    private final Timer reaperSweepTimer;
     private final Supplier<Long> thresholdMillis;
 
     LoggingLockEvents(MetricRegistry metrics, Supplier<Long> thresholdMillis) {
@@ -46,6 +49,8 @@ public class LoggingLockEvents implements LockEvents {
         this.successfulSlowAcquisitionMeter = metrics.meter("lock.successful-slow-acquisition");
         this.timedOutSlowAcquisitionMeter = metrics.meter("lock.timeout-slow-acquisition");
         this.lockExpiredMeter = metrics.meter("lock.expired");
+        this.removedPerSweep = metrics.histogram("lock.reaper-removed-per-sweep");
+        this.reaperSweepTimer = metrics.timer("lock.reaper-sweep-time");
         this.thresholdMillis = thresholdMillis;
     }
 
@@ -97,6 +102,12 @@ public class LoggingLockEvents implements LockEvents {
         // do nothing
     }
 
+    @Override
+    public void expiredLocksRemoved(int removedCount, long sweepDurationNanos) {
+        removedPerSweep.update(removedCount);
+        reaperSweepTimer.update(sweepDurationNanos, TimeUnit.NANOSECONDS);
+    }
+
     private boolean isSlowAcquisition(long acquisitionTimeMillis) {
         return acquisitionTimeMillis != 0 && acquisitionTimeMillis >= thresholdMillis.get();
     }
@@ -19,59 +19,74 @@ package com.palantir.atlasdb.timelock.lock.watch;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
 
-import javax.annotation.concurrent.NotThreadSafe;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
 
 import com.google.common.math.LongMath;
 import com.google.common.primitives.Ints;
 import com.palantir.lock.watch.LockWatchEvent;
 
-@NotThreadSafe
+/**
+ * A ring buffer of the most recent lock watch events. Writers are serialized with one another only for as long as it
+ * takes to build and store an event, after which its version is published; {@link #runExclusively} also excludes
+ * writers, for tasks that must not be interleaved with new events. Readers never block: they read up to the
+ * last published version, and detect events overwritten while they were reading by checking each event's sequence.
+ */
+@ThreadSafe
 public class ArrayLockEventSlidingWindow {
-    private final LockWatchEvent[] buffer;
+    private final AtomicReferenceArray<LockWatchEvent> buffer;
     private final int maxSize;
+
+    @GuardedBy("this")
     private long nextSequence = 0;
+    private volatile long lastPublishedVersion = -1;
 
     ArrayLockEventSlidingWindow(int maxSize) {
-        this.buffer = new LockWatchEvent[maxSize];
+        this.buffer = new AtomicReferenceArray<>(maxSize);
         this.maxSize = maxSize;
     }
 
     long lastVersion() {
-        return nextSequence - 1;
+        return lastPublishedVersion;
     }
 
-    void add(LockWatchEvent.Builder eventBuilder) {
+    synchronized void add(LockWatchEvent.Builder eventBuilder) {
         LockWatchEvent event = eventBuilder.build(nextSequence);
-        buffer[LongMath.mod(nextSequence, maxSize)] = event;
+        buffer.set(LongMath.mod(nextSequence, maxSize), event);
+        lastPublishedVersion = nextSequence;
         nextSequence++;
     }
 
+    /**
+     * Runs the given task while no other thread can add events, so every version read by the task stays the last
+     * version until it completes. Events added by the task itself are still published.
+     */
+    synchronized <T> T runExclusively(Supplier<T> task) {
+        return task.get();
+    }
+
+    /**
+     * Returns the events after the given version, up to the last version published when this method was called, or
+     * empty if the given version is in the future or the events after it are no longer retained. The version the
+     * returned events lead up to is {@code version} plus the number of events.
+     */
     public Optional<List<LockWatchEvent>> getNextEvents(long version) {
-        if (versionInTheFuture(version) || versionTooOld(version)) {
+        long lastVersion = lastPublishedVersion;
+        if (version > lastVersion || lastVersion - version > maxSize) {
             return Optional.empty();
         }
-        int startIndex = LongMath.mod(version + 1, maxSize);
-        int windowSize = Ints.saturatedCast(lastVersion() - version);
-        List<LockWatchEvent> events = new ArrayList<>(windowSize);
-
-        for (int i = startIndex; events.size() < windowSize; i = incrementAndMod(i)) {
-            events.add(buffer[i]);
+        List<LockWatchEvent> events = new ArrayList<>(Ints.saturatedCast(lastVersion - version));
+        for (long sequence = version + 1; sequence <= lastVersion; sequence++) {
+            LockWatchEvent event = buffer.get(LongMath.mod(sequence, maxSize));
+            if (event.sequence() != sequence) {
+                // overwritten by a newer event since we read the last version, so no longer retained
+                return Optional.empty();
+            }
+            events.add(event);
         }
-
         return Optional.of(events);
     }
-
-    private int incrementAndMod(int num) {
-        num++;
-        return num >= maxSize ? num % maxSize : num;
-    }
-
-    private boolean versionInTheFuture(long version) {
-        return version > lastVersion();
-    }
-
-    private boolean versionTooOld(long version) {
-        return lastVersion() - version > maxSize;
-    }
 }
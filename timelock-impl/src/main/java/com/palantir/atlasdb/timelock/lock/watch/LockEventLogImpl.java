@@ -35,6 +35,12 @@ import com.palantir.lock.watch.LockWatchReferences.LockWatchReference;
 import com.palantir.lock.watch.LockWatchStateUpdate;
 import com.palantir.lock.watch.UnlockEvent;
 
+/**
+ * Logs lock watch events to an {@link ArrayLockEventSlidingWindow}. This class takes no locks of its own: events are
+ * published by the sliding window, reads of the log never block writers, and snapshots are computed by the reading
+ * thread without excluding concurrent writes. The exception is {@link #runTask}, which excludes writers for the
+ * duration of the task and the log diff, so that no event is logged between the two.
+ */
 public class LockEventLogImpl implements LockEventLog {
     private final UUID logId;
     private final ArrayLockEventSlidingWindow slidingWindow = new ArrayLockEventSlidingWindow(1000);
@@ -48,30 +54,32 @@ public class LockEventLogImpl implements LockEventLog {
     }
 
     @Override
-    public synchronized LockWatchStateUpdate getLogDiff(Optional<IdentifiedVersion> fromVersion) {
+    public LockWatchStateUpdate getLogDiff(Optional<IdentifiedVersion> fromVersion) {
         return tryGetNextEvents(fromVersion).orElseGet(this::calculateSnapshot);
     }
 
     @Override
-    public synchronized <T> ValueAndLockWatchStateUpdate<T> runTask(
+    public <T> ValueAndLockWatchStateUpdate<T> runTask(
             Optional<IdentifiedVersion> lastKnownVersion, Supplier<T> task) {
-        T t = task.get();
-        LockWatchStateUpdate logDiff = getLogDiff(lastKnownVersion);
-        return ValueAndLockWatchStateUpdate.of(logDiff, t);
+        return slidingWindow.runExclusively(() -> {
+            T t = task.get();
+            LockWatchStateUpdate logDiff = getLogDiff(lastKnownVersion);
+            return ValueAndLockWatchStateUpdate.of(logDiff, t);
+        });
     }
 
     @Override
-    public synchronized void logLock(Set<LockDescriptor> locksTakenOut, LockToken lockToken) {
+    public void logLock(Set<LockDescriptor> locksTakenOut, LockToken lockToken) {
         slidingWindow.add(LockEvent.builder(locksTakenOut, lockToken));
     }
 
     @Override
-    public synchronized void logUnlock(Set<LockDescriptor> locksUnlocked) {
+    public void logUnlock(Set<LockDescriptor> locksUnlocked) {
         slidingWindow.add(UnlockEvent.builder(locksUnlocked));
     }
 
     @Override
-    public synchronized void logLockWatchCreated(LockWatches newWatches) {
+    public void logLockWatchCreated(LockWatches newWatches) {
         Set<LockDescriptor> openLocks = calculateOpenLocks(newWatches.ranges());
         slidingWindow.add(LockWatchCreatedEvent.builder(newWatches.references(), openLocks));
     }
@@ -81,8 +89,9 @@ public class LockEventLogImpl implements LockEventLog {
             return Optional.empty();
         }
 
-        return slidingWindow.getNextEvents(fromVersion.get().version())
-                .map(events -> LockWatchStateUpdate.success(logId, slidingWindow.lastVersion(), events));
+        long version = fromVersion.get().version();
+        return slidingWindow.getNextEvents(version)
+                .map(events -> LockWatchStateUpdate.success(logId, version + events.size(), events));
     }
 
     private LockWatchStateUpdate calculateSnapshot() {
@@ -57,7 +57,8 @@ public class AutobatchingPaxosAcceptorNetworkClientFactory implements Closeable
             List<BatchPaxosAcceptor> acceptors,
             Map<BatchPaxosAcceptor, ExecutorService> executors,
             int quorumSize) {
-
+        // These batchers coalesce requests across clients into one call per acceptor, so they keep the single
+        // consumer and unbounded batches: splitting a batch would multiply the calls to each acceptor.
         DisruptorAutobatcher<Map.Entry<Client, WithSeq<PaxosProposalId>>, PaxosResponses<PaxosPromise>> prepare =
                 Autobatchers.coalescing(
                         wrap(acceptors, executors, quorumSize, PrepareCoalescingFunction::new))
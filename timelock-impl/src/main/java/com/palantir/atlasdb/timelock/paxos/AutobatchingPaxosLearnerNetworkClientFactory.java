@@ -68,6 +68,7 @@ public class AutobatchingPaxosLearnerNetworkClientFactory implements Closeable {
     public static AutobatchingPaxosLearnerNetworkClientFactory create(
             LocalAndRemotes<WithDedicatedExecutor<BatchPaxosLearner>> learners,
             int quorumSize) {
+        // Kept on the default single consumer, as in AutobatchingPaxosAcceptorNetworkClientFactory.
         DisruptorAutobatcher<Map.Entry<Client, PaxosValue>, PaxosResponse> learn =
                 Autobatchers.coalescing(new LearnCoalescingConsumer(learners.local(), learners.remotes()))
                         .safeLoggablePurpose("batch-paxos-learner.learn")
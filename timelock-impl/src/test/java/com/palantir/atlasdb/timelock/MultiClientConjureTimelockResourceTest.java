@@ -0,0 +1,152 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.timelock;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.net.HostAndPort;
+import com.google.common.util.concurrent.Futures;
+import com.palantir.atlasdb.http.RedirectRetryTargeter;
+import com.palantir.atlasdb.timelock.api.ConjureLockToken;
+import com.palantir.atlasdb.timelock.api.ConjureUnlockRequest;
+import com.palantir.atlasdb.timelock.api.ConjureUnlockResponse;
+import com.palantir.atlasdb.timelock.api.ConjureUnlockResult;
+import com.palantir.atlasdb.timelock.api.NamespaceFailure;
+import com.palantir.atlasdb.timelock.api.NamespaceFailureType;
+import com.palantir.leader.NotCurrentLeaderException;
+import com.palantir.lock.v2.LockToken;
+import com.palantir.tokens.auth.AuthHeader;
+
+@RunWith(MockitoJUnitRunner.class)
+public class MultiClientConjureTimelockResourceTest {
+    private static final AuthHeader AUTH_HEADER = AuthHeader.valueOf("Bearer test");
+    private static final URL LOCAL = url("https://localhost:1234");
+    private static final URL REMOTE = url("https://localhost:4321");
+    private static final RedirectRetryTargeter TARGETER = RedirectRetryTargeter.create(
+            LOCAL,
+            ImmutableList.of(LOCAL, REMOTE));
+
+    private static final String NAMESPACE_1 = "one";
+    private static final String NAMESPACE_2 = "two";
+    private static final LockToken TOKEN_1 = LockToken.of(UUID.randomUUID());
+    private static final LockToken TOKEN_2 = LockToken.of(UUID.randomUUID());
+
+    @Mock private AsyncTimelockService timelockService1;
+    @Mock private AsyncTimelockService timelockService2;
+
+    private MultiClientConjureTimelockResource resource;
+
+    @Before
+    public void before() {
+        Map<String, AsyncTimelockService> services = ImmutableMap.of(
+                NAMESPACE_1, timelockService1,
+                NAMESPACE_2, timelockService2);
+        resource = MultiClientConjureTimelockResource.create(TARGETER, services::get);
+    }
+
+    @Test
+    public void routesEachRequestToItsOwnNamespace() {
+        when(timelockService1.unlock(ImmutableSet.of(TOKEN_1)))
+                .thenReturn(Futures.immediateFuture(ImmutableSet.of(TOKEN_1)));
+        when(timelockService2.unlock(ImmutableSet.of(TOKEN_2)))
+                .thenReturn(Futures.immediateFuture(ImmutableSet.of()));
+
+        Map<String, ConjureUnlockResult> results = unlockBothNamespaces();
+
+        assertThat(results).containsOnly(
+                entry(NAMESPACE_1, ConjureUnlockResult.successful(
+                        ConjureUnlockResponse.of(ImmutableSet.of(toConjure(TOKEN_1))))),
+                entry(NAMESPACE_2, ConjureUnlockResult.successful(ConjureUnlockResponse.of(ImmutableSet.of()))));
+        verify(timelockService1).unlock(ImmutableSet.of(TOKEN_1));
+        verify(timelockService2).unlock(ImmutableSet.of(TOKEN_2));
+        verifyNoMoreInteractions(timelockService1, timelockService2);
+    }
+
+    @Test
+    public void redirectsOnlyTheNamespaceWhoseLeaderIsElsewhere() {
+        when(timelockService1.unlock(ImmutableSet.of(TOKEN_1)))
+                .thenReturn(Futures.immediateFuture(ImmutableSet.of(TOKEN_1)));
+        when(timelockService2.unlock(ImmutableSet.of(TOKEN_2))).thenThrow(new NotCurrentLeaderException(
+                "", HostAndPort.fromParts("localhost", REMOTE.getPort())));
+
+        assertThat(unlockBothNamespaces()).containsOnly(
+                entry(NAMESPACE_1, ConjureUnlockResult.successful(
+                        ConjureUnlockResponse.of(ImmutableSet.of(toConjure(TOKEN_1))))),
+                entry(NAMESPACE_2, ConjureUnlockResult.failed(NamespaceFailure.builder()
+                        .type(NamespaceFailureType.RETRY_OTHER)
+                        .redirectTo(REMOTE.toString())
+                        .build())));
+    }
+
+    @Test
+    public void unexpectedErrorFailsOnlyItsOwnNamespace() {
+        when(timelockService1.unlock(ImmutableSet.of(TOKEN_1))).thenThrow(new IllegalStateException("boom"));
+        when(timelockService2.unlock(ImmutableSet.of(TOKEN_2)))
+                .thenReturn(Futures.immediateFuture(ImmutableSet.of(TOKEN_2)));
+
+        assertThat(unlockBothNamespaces()).containsOnly(
+                entry(NAMESPACE_1, ConjureUnlockResult.failed(
+                        NamespaceFailure.builder().type(NamespaceFailureType.INTERNAL).build())),
+                entry(NAMESPACE_2, ConjureUnlockResult.successful(
+                        ConjureUnlockResponse.of(ImmutableSet.of(toConjure(TOKEN_2))))));
+    }
+
+    @Test
+    public void emptyRequestReturnsEmptyResponse() {
+        assertThat(Futures.getUnchecked(resource.unlockForClients(AUTH_HEADER, ImmutableMap.of()))).isEmpty();
+    }
+
+    private Map<String, ConjureUnlockResult> unlockBothNamespaces() {
+        return Futures.getUnchecked(resource.unlockForClients(
+                AUTH_HEADER,
+                ImmutableMap.of(NAMESPACE_1, unlockRequest(TOKEN_1), NAMESPACE_2, unlockRequest(TOKEN_2))));
+    }
+
+    private static ConjureUnlockRequest unlockRequest(LockToken token) {
+        return ConjureUnlockRequest.of(ImmutableSet.of(toConjure(token)));
+    }
+
+    private static ConjureLockToken toConjure(LockToken token) {
+        return ConjureLockToken.of(token.getRequestId());
+    }
+
+    private static URL url(String url) {
+        try {
+            return new URL(url);
+        } catch (MalformedURLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
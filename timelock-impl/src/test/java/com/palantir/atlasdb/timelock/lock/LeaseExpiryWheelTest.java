@@ -0,0 +1,132 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.timelock.lock;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+
+import org.junit.Test;
+
+import com.palantir.common.time.NanoTime;
+
+public class LeaseExpiryWheelTest {
+    private static final NanoTime ORIGIN = NanoTime.createForTests(1_000L);
+    private static final Duration TICK = Duration.ofMillis(100);
+
+    private final LeaseExpiryWheel<String> wheel = new LeaseExpiryWheel<>(ORIGIN, TICK, 8);
+
+    @Test
+    public void returnsKeysOnceTheirDeadlinesHavePassed() {
+        wheel.schedule("a", at(250));
+        wheel.schedule("b", at(450));
+
+        assertThat(wheel.advance(at(150))).isEmpty();
+        assertThat(wheel.advance(at(260))).containsExactly("a");
+        assertThat(wheel.advance(at(500))).containsExactly("b");
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    public void mayReturnKeysDueLaterInTheCurrentTick() {
+        wheel.schedule("a", at(250));
+
+        assertThat(wheel.advance(at(210))).containsExactly("a");
+    }
+
+    @Test
+    public void reschedulingMovesKeyToItsNewDeadline() {
+        wheel.schedule("a", at(250));
+        wheel.schedule("a", at(650));
+
+        assertThat(wheel.advance(at(300))).isEmpty();
+        assertThat(wheel.advance(at(700))).containsExactly("a");
+    }
+
+    @Test
+    public void cancelledKeysAreNotReturned() {
+        wheel.schedule("a", at(250));
+        wheel.cancel("a");
+
+        assertThat(wheel.advance(at(300))).isEmpty();
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    public void handlesDeadlinesBeyondOneRevolution() {
+        wheel.schedule("a", at(1_250));
+
+        assertThat(wheel.advance(at(300))).isEmpty();
+        assertThat(wheel.advance(at(1_100))).isEmpty();
+        assertThat(wheel.advance(at(1_300))).containsExactly("a");
+    }
+
+    @Test
+    public void returnsEverythingDueAfterLongPause() {
+        wheel.schedule("a", at(150));
+        wheel.schedule("b", at(550));
+
+        assertThat(wheel.advance(at(10_000))).containsExactlyInAnyOrder("a", "b");
+    }
+
+    @Test
+    public void keysScheduledInThePastAreReturnedByTheNextAdvance() {
+        wheel.advance(at(500));
+        wheel.schedule("a", at(100));
+
+        assertThat(wheel.advance(at(550))).isEmpty();
+        assertThat(wheel.advance(at(600))).containsExactly("a");
+    }
+
+    @Test
+    public void keyAddedToBucketAfterItWasAdvancedPastIsMovedToTheNextTick() {
+        LeaseExpiryWheel<Object> interleavedWheel = new LeaseExpiryWheel<>(ORIGIN, TICK, 8);
+        // the first hash happens after schedule has chosen the tick, but before the key is added to its bucket
+        Object key = new HashInterceptingKey(() -> assertThat(interleavedWheel.advance(at(150))).isEmpty());
+
+        interleavedWheel.schedule(key, at(150));
+
+        assertThat(interleavedWheel.advance(at(250))).containsExactly(key);
+    }
+
+    private static NanoTime at(long millisAfterOrigin) {
+        return ORIGIN.plus(Duration.ofMillis(millisAfterOrigin));
+    }
+
+    private static final class HashInterceptingKey {
+        private final Runnable onFirstHash;
+        private boolean hashed = false;
+
+        private HashInterceptingKey(Runnable onFirstHash) {
+            this.onFirstHash = onFirstHash;
+        }
+
+        @Override
+        public int hashCode() {
+            if (!hashed) {
+                hashed = true;
+                onFirstHash.run();
+            }
+            return 0;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return this == other;
+        }
+    }
+}
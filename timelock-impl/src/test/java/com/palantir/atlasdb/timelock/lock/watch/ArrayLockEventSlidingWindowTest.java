@@ -18,7 +18,12 @@ package com.palantir.atlasdb.timelock.lock.watch;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 import java.util.stream.LongStream;
 
@@ -74,6 +79,37 @@ public class ArrayLockEventSlidingWindowTest {
         assertContainsNextEventsInOrder(10, 11, 14);
     }
 
+    @Test
+    public void concurrentReadersSeeContiguousEventsOrNothing() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                futures.add(executor.submit(() -> addEvents(10_000)));
+            }
+            for (int i = 0; i < 4; i++) {
+                futures.add(executor.submit(() -> {
+                    for (int j = 0; j < 10_000; j++) {
+                        long version = Math.max(-1, slidingWindow.lastVersion() - j % (2 * WINDOW_SIZE));
+                        Optional<List<LockWatchEvent>> events = slidingWindow.getNextEvents(version);
+                        events.ifPresent(list -> {
+                            for (int k = 0; k < list.size(); k++) {
+                                assertThat(list.get(k).sequence()).isEqualTo(version + 1 + k);
+                            }
+                        });
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(slidingWindow.lastVersion()).isEqualTo(40_000 - 1);
+    }
+
     private void whenLogContainsEvents0To4() {
         // Log contains events [0,1,2,3,4]
         addEvents(5);
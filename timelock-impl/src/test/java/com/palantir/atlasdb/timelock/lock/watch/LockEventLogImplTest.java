@@ -23,9 +23,15 @@ import static org.mockito.Mockito.when;
 import java.util.Arrays;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
+import org.awaitility.Awaitility;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -56,6 +62,7 @@ public class LockEventLogImplTest {
     private final HeldLocksCollection heldLocksCollection = mock(HeldLocksCollection.class);
     private final HeldLocks heldLocks = mock(HeldLocks.class);
     private final LockEventLog log = new LockEventLogImpl(LOG_ID, lockWatches::get, heldLocksCollection);
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
 
     private static final UUID LOG_ID = UUID.randomUUID();
     private static final UUID STALE_LOG_ID = UUID.randomUUID();
@@ -79,6 +86,11 @@ public class LockEventLogImplTest {
         when(heldLocksCollection.locksHeld()).thenReturn(ImmutableSet.of(heldLocks));
     }
 
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
     @Test
     public void emptyLogTest() {
         LockWatchStateUpdate update = log.getLogDiff(NEGATIVE_VERSION_CURRENT_LOG_ID);
@@ -175,6 +187,31 @@ public class LockEventLogImplTest {
         assertThat(snapshot.lockWatches()).containsExactly(entireTable);
     }
 
+    @Test
+    public void runTaskExcludesConcurrentlyLoggedEventsUntilTheLogDiffIsRead() {
+        ImmutableSet<LockDescriptor> locks = ImmutableSet.of(DESCRIPTOR);
+        AtomicReference<CompletableFuture<?>> concurrentLock = new AtomicReference<>();
+
+        ValueAndLockWatchStateUpdate<Long> result = log.runTask(NEGATIVE_VERSION_CURRENT_LOG_ID, () -> {
+            log.logUnlock(locks);
+            concurrentLock.set(CompletableFuture.runAsync(() -> log.logLock(locks, TOKEN), executor));
+            Awaitility.await()
+                    .pollDelay(50, TimeUnit.MILLISECONDS)
+                    .atMost(1, TimeUnit.SECONDS)
+                    .until(() -> !concurrentLock.get().isDone());
+            return 1L;
+        });
+
+        LockWatchStateUpdate.Success success = UpdateVisitors.assertSuccess(result.lockWatchStateUpdate());
+        assertThat(success.lastKnownVersion()).isEqualTo(0L);
+        assertThat(success.events()).containsExactly(UnlockEvent.builder(locks).build(0L));
+
+        concurrentLock.get().join();
+        LockWatchStateUpdate.Success afterTask = UpdateVisitors.assertSuccess(log.getLogDiff(
+                Optional.of(ImmutableIdentifiedVersion.of(LOG_ID, 0L))));
+        assertThat(afterTask.events()).containsExactly(LockEvent.builder(locks, TOKEN).build(1L));
+    }
+
     private LockWatches createWatchesFor(LockWatchReference... references) {
         return ImmutableLockWatches.of(
                 Arrays.stream(references).collect(Collectors.toSet()),
@@ -82,6 +82,13 @@ public class BenchmarksResource implements BenchmarksService {
         return LockAndUnlockContendedBenchmark.execute(txnManager, numClients, numRequestsPerClient, numDistinctLocks);
     }
 
+    @Override
+    public Map<String, Object> lockAndUnlockContendedMultipleLocks(int numClients, int numRequestsPerClient,
+            int numDistinctLocks, int numLocksPerRequest) {
+        return LockAndUnlockContendedBenchmark.execute(txnManager, numClients, numRequestsPerClient, numDistinctLocks,
+                numLocksPerRequest);
+    }
+
     @Override
     public Map<String, Object> transactionReadRows(int numClients, int numRequestsPerClient, int numRows,
             int dataSize) {
@@ -65,6 +65,14 @@ public interface BenchmarksService {
             @QueryParam("numRequestsPerClient") int numRequestsPerClient,
             @QueryParam("numDistinctLocks") int numDistinctLocks);
 
+    @GET
+    @Path("/lock-unlock-contended-multi")
+    Map<String, Object> lockAndUnlockContendedMultipleLocks(
+            @QueryParam("numClients") int numClients,
+            @QueryParam("numRequestsPerClient") int numRequestsPerClient,
+            @QueryParam("numDistinctLocks") int numDistinctLocks,
+            @QueryParam("numLocksPerRequest") int numLocksPerRequest);
+
     @GET
     @Path("/read-txn-rows")
     Map<String, Object> transactionReadRows(
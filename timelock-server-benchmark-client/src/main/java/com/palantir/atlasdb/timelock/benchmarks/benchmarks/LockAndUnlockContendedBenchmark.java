@@ -17,6 +17,7 @@ package com.palantir.atlasdb.timelock.benchmarks.benchmarks;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -24,6 +25,7 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
 import com.palantir.atlasdb.transaction.api.TransactionManager;
 import com.palantir.lock.LockDescriptor;
 import com.palantir.lock.StringLockDescriptor;
@@ -37,18 +39,31 @@ public class LockAndUnlockContendedBenchmark extends AbstractBenchmark {
 
     private final TimelockService timelock;
     private final List<LockDescriptor> lockDescriptors;
+    private final int numLocksPerRequest;
     private final AtomicLong counter = new AtomicLong(0);
 
     public static Map<String, Object> execute(TransactionManager txnManager, int numClients,
             int requestsPerClient, int numDistinctLocks) {
+        return execute(txnManager, numClients, requestsPerClient, numDistinctLocks, 1);
+    }
+
+    /**
+     * Each request locks {@code numLocksPerRequest} overlapping locks out of {@code numDistinctLocks}, so that with
+     * many clients, requests both queue on the same locks and need their descriptors ordering by the server.
+     */
+    public static Map<String, Object> execute(TransactionManager txnManager, int numClients,
+            int requestsPerClient, int numDistinctLocks, int numLocksPerRequest) {
         return new LockAndUnlockContendedBenchmark(txnManager.getTimelockService(), numClients, requestsPerClient,
-                numDistinctLocks).execute();
+                numDistinctLocks, numLocksPerRequest).execute();
     }
 
     protected LockAndUnlockContendedBenchmark(TimelockService timelock, int numClients, int numRequestsPerClient,
-            int numDistinctLocks) {
+            int numDistinctLocks, int numLocksPerRequest) {
         super(numClients, numRequestsPerClient);
+        Preconditions.checkArgument(numLocksPerRequest > 0 && numLocksPerRequest <= numDistinctLocks,
+                "Each request must lock between one and all of the distinct locks");
         this.timelock = timelock;
+        this.numLocksPerRequest = numLocksPerRequest;
 
         List<LockDescriptor> descriptors = Lists.newArrayListWithExpectedSize(numDistinctLocks);
         for (int i = 0; i < numDistinctLocks; i++) {
@@ -66,11 +81,18 @@ public class LockAndUnlockContendedBenchmark extends AbstractBenchmark {
 
     @Override
     protected Map<String, Object> getExtraParameters() {
-        return ImmutableMap.of("numDistinctLocks", lockDescriptors.size());
+        return ImmutableMap.of(
+                "numDistinctLocks", lockDescriptors.size(),
+                "numLocksPerRequest", numLocksPerRequest);
     }
 
     private LockRequest nextRequest() {
-        LockDescriptor lockDescriptor = lockDescriptors.get((int) (counter.incrementAndGet() % lockDescriptors.size()));
-        return LockRequest.of(ImmutableSet.of(lockDescriptor), ACQUIRE_TIMEOUT_MS);
+        long first = counter.incrementAndGet();
+        // a hash set, as clients do not usually send their descriptors in order
+        Set<LockDescriptor> descriptors = Sets.newHashSetWithExpectedSize(numLocksPerRequest);
+        for (int i = 0; i < numLocksPerRequest; i++) {
+            descriptors.add(lockDescriptors.get((int) ((first + i) % lockDescriptors.size())));
+        }
+        return LockRequest.of(descriptors, ACQUIRE_TIMEOUT_MS);
     }
 }
@@ -19,7 +19,13 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.junit.Assert.assertTrue;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.Test;
 
@@ -222,6 +228,42 @@ public class ExclusiveLockTests {
         assertThat(request2.isCompletedSuccessfully()).isTrue();
     }
 
+    @Test
+    public void concurrentRequestsAreGrantedExclusively() throws Exception {
+        int numThreads = 8;
+        int requestsPerThread = 10_000;
+        AtomicInteger holders = new AtomicInteger();
+        AtomicInteger acquisitions = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < numThreads; i++) {
+                futures.add(executor.submit(() -> {
+                    for (int j = 0; j < requestsPerThread; j++) {
+                        UUID requestId = UUID.randomUUID();
+                        AsyncResult<Void> result = lockAsync(requestId);
+                        while (!result.isComplete()) {
+                            Thread.yield();
+                        }
+                        assertThat(holders.incrementAndGet()).isEqualTo(1);
+                        assertThat(lock.getCurrentHolder()).isEqualTo(requestId);
+                        acquisitions.incrementAndGet();
+                        holders.decrementAndGet();
+                        unlock(requestId);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(acquisitions.get()).isEqualTo(numThreads * requestsPerThread);
+        assertThat(lock.getCurrentHolder()).isNull();
+    }
+
     private AsyncResult<Void> waitUntilAvailableAsync(UUID request) {
         return lock.waitUntilAvailable(request);
     }
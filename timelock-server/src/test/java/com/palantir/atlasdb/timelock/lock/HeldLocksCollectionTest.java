@@ -17,6 +17,7 @@ package com.palantir.atlasdb.timelock.lock;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
@@ -104,6 +105,44 @@ public class HeldLocksCollectionTest {
         assertThat(heldLocksCollection.heldLocksById.size()).isEqualTo(0);
     }
 
+    @Test
+    public void doesNotCheckLocksBeforeTheirLeaseDeadline() {
+        HeldLocks heldLocks = mock(HeldLocks.class);
+        when(heldLocks.lastRefreshTime()).thenReturn(time.get());
+        AsyncResult<HeldLocks> result = new AsyncResult<>();
+        result.complete(heldLocks);
+        heldLocksCollection.getExistingOrAcquire(REQUEST_ID, () -> result);
+
+        assertThat(heldLocksCollection.removeExpired()).isZero();
+
+        verify(heldLocks, never()).unlockIfExpired();
+    }
+
+    @Test
+    public void refreshedLocksAreNotReapedAtTheirOriginalDeadline() {
+        setTime(123);
+        LockToken token = lockSync(REQUEST_ID);
+
+        advance(LockLeaseContract.CLIENT_LEASE_TIMEOUT);
+        heldLocksCollection.refresh(ImmutableSet.of(token));
+        advance(LockLeaseContract.SERVER_LEASE_TIMEOUT.minus(LockLeaseContract.CLIENT_LEASE_TIMEOUT).plusNanos(1));
+        assertLocked(REQUEST_ID);
+
+        advance(LockLeaseContract.CLIENT_LEASE_TIMEOUT);
+        assertUnlocked(REQUEST_ID);
+    }
+
+    @Test
+    public void removeExpiredReturnsNumberOfRequestsRemoved() {
+        mockNonExpiredRequest();
+        mockExpiredRequest();
+        mockFailedRequest();
+        mockTimedOutRequest();
+
+        assertThat(heldLocksCollection.removeExpired()).isEqualTo(3);
+        assertThat(heldLocksCollection.removeExpired()).isZero();
+    }
+
     @Test
     public void refreshReturnsSubsetOfUnlockedLocks() {
         LockToken unlockableRequest = mockRefreshableRequest();
@@ -293,7 +332,8 @@ public class HeldLocksCollectionTest {
 
     private LockToken mockExpiredRequest() {
         return mockHeldLocksForNewRequest(
-                heldLocks -> when(heldLocks.unlockIfExpired()).thenReturn(true));
+                heldLocks -> when(heldLocks.unlockIfExpired()).thenReturn(true),
+                time.get().plus(LockLeaseContract.SERVER_LEASE_TIMEOUT.negated().minusNanos(1)));
     }
 
     private LockToken mockNonExpiredRequest() {
@@ -338,10 +378,14 @@ public class HeldLocksCollectionTest {
     }
 
     private LockToken mockHeldLocksForNewRequest(Consumer<HeldLocks> mockApplier) {
+        return mockHeldLocksForNewRequest(mockApplier, time.get());
+    }
+
+    private LockToken mockHeldLocksForNewRequest(Consumer<HeldLocks> mockApplier, NanoTime lastRefreshTime) {
         LockToken request = LockToken.of(UUID.randomUUID());
         HeldLocks heldLocks = mock(HeldLocks.class);
         mockApplier.accept(heldLocks);
-        when(heldLocks.lastRefreshTime()).thenReturn(time.get());
+        when(heldLocks.lastRefreshTime()).thenReturn(lastRefreshTime);
 
         AsyncResult<HeldLocks> completedResult = new AsyncResult<>();
         completedResult.complete(heldLocks);
@@ -18,8 +18,13 @@ package com.palantir.atlasdb.timelock.lock;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.junit.Test;
 
@@ -80,6 +85,34 @@ public class ImmutableTimestampTrackerTest {
         assertThatThrownBy(() -> unlock(TIMESTAMP_1, REQUEST_1)).isInstanceOf(IllegalStateException.class);
     }
 
+    @Test
+    public void immutableTimestampNeverExceedsTimestampsStillLockedUnderConcurrency() throws Exception {
+        lock(TIMESTAMP_1, REQUEST_1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                long firstTimestamp = 100L + i;
+                futures.add(executor.submit(() -> {
+                    for (long timestamp = firstTimestamp; timestamp < 100_000L; timestamp += 8) {
+                        UUID requestId = UUID.randomUUID();
+                        lock(timestamp, requestId);
+                        assertThat(tracker.getImmutableTimestamp()).contains(TIMESTAMP_1);
+                        unlock(timestamp, requestId);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        unlock(TIMESTAMP_1, REQUEST_1);
+        assertThat(tracker.getImmutableTimestamp()).isEmpty();
+    }
+
     private AsyncResult<Void> lock(long timestamp, UUID requestId) {
         return tracker.getLockFor(timestamp).lock(requestId);
     }
@@ -18,6 +18,8 @@ package com.palantir.atlasdb.timelock.lock;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.UUID;
@@ -27,6 +29,7 @@ import java.util.stream.IntStream;
 import org.junit.Test;
 
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSortedSet;
 import com.palantir.lock.LockDescriptor;
 import com.palantir.lock.StringLockDescriptor;
 
@@ -70,6 +73,21 @@ public class LockCollectionTest {
         assertThat(actualOrder).isEqualTo(expectedOrder);
     }
 
+    @Test
+    public void returnsLocksInOrderForUnorderedSets() {
+        List<LockDescriptor> orderedDescriptors = IntStream.range(0, 10)
+                .mapToObj(i -> UUID.randomUUID().toString())
+                .map(StringLockDescriptor::of)
+                .sorted().collect(Collectors.toList());
+        List<AsyncLock> expectedOrder = lockCollection.getAll(ImmutableSet.copyOf(orderedDescriptors)).get();
+
+        assertThat(lockCollection.getAll(new HashSet<>(orderedDescriptors)).get()).isEqualTo(expectedOrder);
+        assertThat(lockCollection.getAll(ImmutableSortedSet.copyOf(orderedDescriptors)).get())
+                .isEqualTo(expectedOrder);
+        assertThat(lockCollection.getAll(ImmutableSortedSet.copyOf(Comparator.reverseOrder(), orderedDescriptors))
+                .get()).isEqualTo(expectedOrder);
+    }
+
     private static Set<LockDescriptor> descriptors(String... names) {
         return Arrays.stream(names)
                 .map(StringLockDescriptor::of)
@@ -40,6 +40,8 @@ import com.palantir.util.timer.LoggingOperationTimer;
 @ThreadSafe
 public final class RequestBatchingTimestampService implements CloseableTimestampService {
     private static final OperationTimer timer = LoggingOperationTimer.create(RequestBatchingTimestampService.class);
+    // Batches are served by independent calls to the delegate, which may be remote; see TransactionStarter.
+    private static final int CONSUMERS = 2;
 
     private final TimestampService delegate;
     private final DisruptorAutobatcher<Integer, TimestampRange> batcher;
@@ -87,6 +89,7 @@ public final class RequestBatchingTimestampService implements CloseableTimestamp
         TimestampService delegate = TimingProxy.newProxyInstance(TimestampService.class, untimedDelegate, timer);
         DisruptorAutobatcher<Integer, TimestampRange> autobatcher = Autobatchers.independent(consumer(delegate))
                 .safeLoggablePurpose("request-batching-timestamp-service")
+                .consumers(CONSUMERS)
                 .build();
         return new RequestBatchingTimestampService(delegate, autobatcher);
     }